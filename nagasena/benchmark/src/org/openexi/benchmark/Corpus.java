@@ -0,0 +1,141 @@
+package org.openexi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.Scanner;
+import org.openexi.sax.Transmogrifier;
+import org.openexi.schema.EXISchema;
+import org.openexi.scomp.EXISchemaFactory;
+
+import org.xml.sax.InputSource;
+
+/**
+ * Corpus represents an XML document taken from nagasena/testdata or
+ * sampleXML, optionally paired with the XML Schema it is encoded with.
+ *
+ * A corpus is identified by the name of the document. The suffix "+xsd"
+ * selects schema-informed grammars, otherwise built-in grammars are used.
+ * Documents and compiled schemas are read relative to the repository root,
+ * which is given by the system property "openexi.benchmark.root".
+ */
+final class Corpus {
+
+  static final String SCHEMA_SUFFIX = "+xsd";
+
+  private static final String ROOT = System.getProperty("openexi.benchmark.root", "../..");
+
+  /**
+   * Triplets of (name, document path, schema path). Schema path is null for
+   * documents that are only benchmarked with built-in grammars.
+   */
+  private static final String[][] CATALOG = {
+    { "notebook", "sampleXML/notebook.xml", "sampleXML/notebook.xsd" },
+    { "FixML", "nagasena/testdata/FixML-4.4/AllocationInstructionAck.xml", "nagasena/testdata/FixML-4.4/schema/fixml-main-4-4.xsd" },
+    { "JTLM", "nagasena/testdata/JTLM/publish100.xml", "nagasena/testdata/JTLM/schemas/TLMComposite.xsd" },
+    { "RHIB", "sampleXML/RHIB.x3d", null },
+    { "LARGEbasicXML", "sampleXML/LARGEbasicXML.xml", null }
+  };
+
+  private static final HashMap<String,EXISchema> SCHEMAS = new HashMap<String,EXISchema>();
+
+  final String name;
+  final byte[] xml;
+  final GrammarCache grammarCache;
+
+  private Corpus(String name, byte[] xml, GrammarCache grammarCache) {
+    this.name = name;
+    this.xml = xml;
+    this.grammarCache = grammarCache;
+  }
+
+  static Corpus load(String name) throws Exception {
+    final boolean schemaInformed = name.endsWith(SCHEMA_SUFFIX);
+    final String documentName = schemaInformed ?
+        name.substring(0, name.length() - SCHEMA_SUFFIX.length()) : name;
+    for (int i = 0; i < CATALOG.length; i++) {
+      final String[] entry = CATALOG[i];
+      if (entry[0].equals(documentName)) {
+        final EXISchema schema;
+        if (schemaInformed) {
+          if (entry[2] == null)
+            throw new IllegalArgumentException("Corpus '" + documentName + "' has no schema.");
+          schema = getSchema(entry[2]);
+        }
+        else
+          schema = null;
+        final GrammarCache grammarCache = new GrammarCache(schema, GrammarOptions.DEFAULT_OPTIONS);
+        return new Corpus(name, readFully(resolve(entry[1])), grammarCache);
+      }
+    }
+    throw new IllegalArgumentException("Unknown corpus '" + name + "'.");
+  }
+
+  /**
+   * Encodes the document once so that decoding benchmarks have an EXI stream to work on.
+   */
+  byte[] encode(AlignmentType alignmentType) throws Exception {
+    final Transmogrifier transmogrifier = new Transmogrifier();
+    transmogrifier.setAlignmentType(alignmentType);
+    transmogrifier.setGrammarCache(grammarCache);
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    transmogrifier.setOutputStream(outputStream);
+    transmogrifier.encode(new InputSource(new ByteArrayInputStream(xml)));
+    return outputStream.toByteArray();
+  }
+
+  /**
+   * Counts the number of EXI events in the EXI stream.
+   */
+  int countEvents(byte[] exi, AlignmentType alignmentType) throws Exception {
+    final EXIDecoder decoder = new EXIDecoder();
+    decoder.setAlignmentType(alignmentType);
+    decoder.setGrammarCache(grammarCache);
+    decoder.setInputStream(new ByteArrayInputStream(exi));
+    final Scanner scanner = decoder.processHeader();
+    int n_events = 0;
+    while (scanner.nextEvent() != null)
+      ++n_events;
+    return n_events;
+  }
+
+  private static synchronized EXISchema getSchema(String path) throws Exception {
+    EXISchema schema;
+    if ((schema = SCHEMAS.get(path)) == null) {
+      final File file = resolve(path);
+      final InputSource inputSource = new InputSource(file.toURI().toString());
+      schema = new EXISchemaFactory().compile(inputSource);
+      SCHEMAS.put(path, schema);
+    }
+    return schema;
+  }
+
+  private static File resolve(String path) {
+    return new File(ROOT, path);
+  }
+
+  private static byte[] readFully(File file) throws IOException {
+    final InputStream inputStream = new FileInputStream(file);
+    try {
+      final ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int)file.length());
+      final byte[] bts = new byte[8192];
+      int n;
+      while ((n = inputStream.read(bts)) != -1)
+        outputStream.write(bts, 0, n);
+      return outputStream.toByteArray();
+    }
+    finally {
+      inputStream.close();
+    }
+  }
+
+}
@@ -0,0 +1,112 @@
+package org.openexi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.io.Scanner;
+import org.openexi.sax.EXIReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Measures decoding throughput of a corpus document for each alignment
+ * type, both by pulling events out of the Scanner returned by
+ * EXIDecoder.processHeader() and by having EXIReader report SAX events.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+  @Param({ "notebook", "notebook+xsd", "FixML", "FixML+xsd", "JTLM", "JTLM+xsd", "RHIB", "LARGEbasicXML" })
+  public String corpus;
+
+  @Param({ "bitPacked", "byteAligned", "preCompress", "compress" })
+  public String alignment;
+
+  private Corpus m_corpus;
+  private byte[] m_exi;
+  private int m_n_events;
+  private EXIDecoder m_decoder;
+  private EXIReader m_reader;
+  private CountingHandler m_handler;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    final AlignmentType alignmentType = AlignmentType.valueOf(alignment);
+    m_corpus = Corpus.load(corpus);
+    m_exi = m_corpus.encode(alignmentType);
+    m_n_events = m_corpus.countEvents(m_exi, alignmentType);
+
+    m_decoder = new EXIDecoder();
+    m_decoder.setAlignmentType(alignmentType);
+    m_decoder.setGrammarCache(m_corpus.grammarCache);
+
+    m_reader = new EXIReader();
+    m_reader.setAlignmentType(alignmentType);
+    m_reader.setGrammarCache(m_corpus.grammarCache);
+    m_handler = new CountingHandler();
+    m_reader.setContentHandler(m_handler);
+  }
+
+  @Benchmark
+  public int decodeScanner(Throughput throughput, Blackhole blackhole) throws Exception {
+    m_decoder.setInputStream(new ByteArrayInputStream(m_exi));
+    final Scanner scanner = m_decoder.processHeader();
+    EventDescription event;
+    int n_events = 0;
+    while ((event = scanner.nextEvent()) != null) {
+      blackhole.consume(event.getCharacters());
+      ++n_events;
+    }
+    throughput.document(m_corpus.xml.length, m_exi.length, n_events);
+    return n_events;
+  }
+
+  @Benchmark
+  public int decodeSAX(Throughput throughput) throws Exception {
+    m_handler.n_callbacks = 0;
+    m_reader.parse(new InputSource(new ByteArrayInputStream(m_exi)));
+    throughput.document(m_corpus.xml.length, m_exi.length, m_n_events);
+    return m_handler.n_callbacks;
+  }
+
+  private static final class CountingHandler extends DefaultHandler {
+    int n_callbacks;
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+      n_callbacks += 1 + attributes.getLength();
+    }
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+      ++n_callbacks;
+    }
+    @Override
+    public void characters(char[] ch, int start, int length) {
+      ++n_callbacks;
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+package org.openexi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.sax.Transmogrifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.xml.sax.InputSource;
+
+/**
+ * Measures Transmogrifier.encode throughput of a corpus document for
+ * each alignment type. The Transmogrifier is configured once per trial,
+ * so that the measurement excludes its set-up cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodeBenchmark {
+
+  @Param({ "notebook", "notebook+xsd", "FixML", "FixML+xsd", "JTLM", "JTLM+xsd", "RHIB", "LARGEbasicXML" })
+  public String corpus;
+
+  @Param({ "bitPacked", "byteAligned", "preCompress", "compress" })
+  public String alignment;
+
+  private Corpus m_corpus;
+  private Transmogrifier m_transmogrifier;
+  private ByteArrayOutputStream m_outputStream;
+  private int m_n_events;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    final AlignmentType alignmentType = AlignmentType.valueOf(alignment);
+    m_corpus = Corpus.load(corpus);
+    final byte[] exi = m_corpus.encode(alignmentType);
+    m_n_events = m_corpus.countEvents(exi, alignmentType);
+    m_transmogrifier = new Transmogrifier();
+    m_transmogrifier.setAlignmentType(alignmentType);
+    m_transmogrifier.setGrammarCache(m_corpus.grammarCache);
+    m_outputStream = new ByteArrayOutputStream(exi.length);
+  }
+
+  @Benchmark
+  public int encode(Throughput throughput) throws Exception {
+    m_outputStream.reset();
+    m_transmogrifier.setOutputStream(m_outputStream);
+    m_transmogrifier.encode(new InputSource(new ByteArrayInputStream(m_corpus.xml)));
+    final int exiLength = m_outputStream.size();
+    throughput.document(m_corpus.xml.length, exiLength, m_n_events);
+    return exiLength;
+  }
+
+}
@@ -0,0 +1,39 @@
+package org.openexi.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Throughput accumulates the amount of work done by each benchmark
+ * invocation. JMH reports the counters as rates, which gives MB/s of
+ * XML, MB/s of EXI and events/s next to the ops/s of the benchmark itself.
+ * Bytes allocated per document are reported by the "gc" profiler
+ * (gc.alloc.rate.norm).
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+  private static final double MEGABYTE = 1024.0 * 1024.0;
+
+  public double xmlMegabytes;
+  public double exiMegabytes;
+  public long events;
+
+  @Setup(Level.Iteration)
+  public void clear() {
+    xmlMegabytes = 0;
+    exiMegabytes = 0;
+    events = 0;
+  }
+
+  final void document(int xmlLength, int exiLength, int n_events) {
+    xmlMegabytes += xmlLength / MEGABYTE;
+    exiMegabytes += exiLength / MEGABYTE;
+    events += n_events;
+  }
+
+}
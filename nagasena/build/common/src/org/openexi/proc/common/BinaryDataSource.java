@@ -0,0 +1,76 @@
+package org.openexi.proc.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+public final class BinaryDataSource {
+
+  private byte[] m_byteArray;
+  private int m_startIndex;
+  private int m_length;
+  
+  private long m_n_remainingBytes;
+  
+  private IBinaryValueScanner m_scanner;
+
+  public final byte[] getByteArray() {
+    return m_byteArray;
+  }
+  
+  public final int getStartIndex() {
+    return m_startIndex;
+  }
+
+  public final int getLength() {
+    return m_length;
+  }
+  
+  public final long getRemainingBytesCount() {
+    return m_n_remainingBytes;
+  }
+
+  /**
+   * @y.exclude
+   */
+  public void setValues(byte[] byteArray, int startIndex, int length, IBinaryValueScanner scanner, long n_remainingBytes) {
+    m_byteArray = byteArray;
+    m_startIndex = startIndex;
+    m_length = length;
+    m_n_remainingBytes = n_remainingBytes;
+    m_scanner = scanner;
+  }
+  
+  public boolean hasNext() {
+    return m_n_remainingBytes > 0;
+  }
+  
+  public int next() throws IOException {
+    if (m_n_remainingBytes > 0) {
+      m_scanner.scan(m_n_remainingBytes, this);
+      return m_length;
+    }
+    return -1;
+  }
+
+  /**
+   * Writes the current chunk and all the remaining chunks of the binary 
+   * value to the channel, reading each chunk only after the previous one 
+   * has been written. The memory used is therefore bounded by the chunk 
+   * size in effect, regardless of the size of the value.
+   * @param channel channel to which the octets are written
+   * @return the number of octets written
+   */
+  public long writeTo(WritableByteChannel channel) throws IOException {
+    long n_written = 0;
+    do {
+      final ByteBuffer byteBuffer = ByteBuffer.wrap(m_byteArray, m_startIndex, m_length);
+      while (byteBuffer.hasRemaining())
+        channel.write(byteBuffer);
+      n_written += m_length;
+    }
+    while (next() != -1);
+    return n_written;
+  }
+  
+}
@@ -0,0 +1,11 @@
+package org.openexi.proc.common;
+
+public final class EXIOptionsException extends Exception {
+
+  private static final long serialVersionUID = -2848609326664599611L;
+
+  public EXIOptionsException(String msg) {
+    super(msg);
+  }
+  
+}
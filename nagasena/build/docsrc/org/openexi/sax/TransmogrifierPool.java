@@ -0,0 +1,127 @@
+package org.openexi.sax;
+
+import java.util.zip.Deflater;
+
+import org.openexi.proc.HeaderOptionsOutputType;
+import org.openexi.proc.ProcessorPool;
+import org.openexi.proc.common.EXIOptions;
+import org.openexi.proc.common.EXIOptionsException;
+import org.openexi.proc.grammars.GrammarCache;
+
+/**
+ * TransmogrifierPool keeps a bounded number of {@link Transmogrifier}
+ * instances for each pair of GrammarCache and EXIOptions so that they
+ * can be reused across XML documents without the cost of setting them up.
+ * <br /><br />
+ * A Transmogrifier obtained by {@link #borrow(GrammarCache, EXIOptions)} is
+ * configured with the GrammarCache and the options, and has every other
+ * setting in its default state. Return it by calling {@link #release(Transmogrifier)}
+ * once the encoding is complete.
+ * <pre>
+ *   Transmogrifier transmogrifier = pool.borrow(grammarCache, options);
+ *   try {
+ *     transmogrifier.setOutputStream(outputStream);
+ *     transmogrifier.encode(inputSource);
+ *   }
+ *   finally {
+ *     pool.release(transmogrifier);
+ *   }
+ * </pre>
+ */
+public final class TransmogrifierPool extends ProcessorPool<Transmogrifier> {
+
+  /**
+   * Creates a pool that holds at most capacity Transmogrifiers for each
+   * pair of GrammarCache and EXIOptions.
+   * @param capacity maximum number of Transmogrifiers per GrammarCache and EXIOptions
+   */
+  public TransmogrifierPool(int capacity) {
+    super(capacity);
+  }
+
+  /**
+   * Creates a pool that holds at most capacity Transmogrifiers for each
+   * pair of GrammarCache and EXIOptions, for at most maxKeys pairs. Idle
+   * Transmogrifiers of the pairs least recently used are dropped when
+   * there are more pairs than that.
+   * @param capacity maximum number of Transmogrifiers per GrammarCache and EXIOptions
+   * @param maxKeys maximum number of pairs of GrammarCache and EXIOptions
+   */
+  public TransmogrifierPool(int capacity, int maxKeys) {
+    super(capacity, maxKeys);
+  }
+
+  /**
+   * Borrows a Transmogrifier configured with the GrammarCache and EXIOptions.
+   * The call waits if all the Transmogrifiers for the pair are currently in use.
+   * @param grammarCache {@link org.openexi.proc.grammars.GrammarCache}
+   * @param options {@link org.openexi.proc.common.EXIOptions} of which alignment type,
+   * fragment, block size, value max length, value partition capacity, preserve lexical
+   * values, datatype representation map and schemaId are used
+   * @return a Transmogrifier that is ready for use
+   * @throws EXIOptionsException
+   * @throws InterruptedException when interrupted while waiting for a Transmogrifier
+   */
+  public Transmogrifier borrow(GrammarCache grammarCache, EXIOptions options)
+    throws EXIOptionsException, InterruptedException {
+    return borrowProcessor(grammarCache, options);
+  }
+
+  /**
+   * Returns a Transmogrifier to the pool.
+   * @param transmogrifier Transmogrifier that was borrowed from this pool
+   */
+  public void release(Transmogrifier transmogrifier) {
+    releaseProcessor(transmogrifier);
+  }
+
+  @Override
+  protected Transmogrifier createProcessor() {
+    return new Transmogrifier();
+  }
+
+  @Override
+  protected void configure(Transmogrifier transmogrifier, GrammarCache grammarCache, EXIOptions options)
+    throws EXIOptionsException {
+    transmogrifier.setOutputStream(null);
+    transmogrifier.setEntityResolver(null);
+    transmogrifier.setPrefixUriBindings(null);
+    transmogrifier.setOutputCookie(false);
+    transmogrifier.setOutputOptions(HeaderOptionsOutputType.none);
+    transmogrifier.setPreserveWhitespaces(false);
+    // Canonical EXI has to be off before alignment type is set.
+    transmogrifier.setObserveC14N(false);
+    transmogrifier.setUseUTCTime(false);
+    transmogrifier.setUseBuiltinElementGrammar(true);
+    transmogrifier.setDivertBuiltinGrammarToAnyType(false);
+    transmogrifier.setDeflateLevel(Deflater.DEFAULT_COMPRESSION);
+    transmogrifier.setDeflateStrategy(Deflater.DEFAULT_STRATEGY);
+    transmogrifier.setDeflateExecutor(null);
+    transmogrifier.setMetricsListener(null);
+    try {
+      transmogrifier.setResolveExternalGeneralEntities(true);
+    }
+    catch (TransmogrifierException te) {
+      // The XMLReader does not support the feature, which therefore
+      // could not have been changed by the borrower either.
+    }
+    transmogrifier.setGrammarCache(grammarCache, options.getSchemaId());
+    transmogrifier.setAlignmentType(options.getAlignmentType());
+    transmogrifier.setFragment(options.isFragment());
+    transmogrifier.setBlockSize(options.getBlockSize());
+    transmogrifier.setValueMaxLength(options.getValueMaxLength());
+    transmogrifier.setValuePartitionCapacity(options.getValuePartitionCapacity());
+    transmogrifier.setPreserveLexicalValues(options.getPreserveLexicalValues());
+    transmogrifier.setDatatypeRepresentationMap(options.getDatatypeRepresentationMap(),
+        options.getDatatypeRepresentationMapBindingsCount());
+  }
+
+  /**
+   * Transmogrifiers write schemaId into the header options.
+   */
+  @Override
+  protected boolean usesSchemaId() {
+    return true;
+  }
+
+}
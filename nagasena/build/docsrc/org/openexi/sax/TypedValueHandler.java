@@ -0,0 +1,50 @@
+package org.openexi.sax;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import org.openexi.schema.XSDateTime;
+import org.xml.sax.SAXException;
+
+/**
+ * TypedValueHandler writes values given in their typed form as the
+ * characters of the current element. Each method has the same effect as
+ * passing the lexical representation of the value to characters(), except
+ * that the value is written directly when the schema expects a value of
+ * the same kind, without going through its lexical representation.
+ */
+public interface TypedValueHandler {
+
+  /**
+   * Writes an integer value.
+   */
+  public void writeInt(int value) throws SAXException;
+
+  /**
+   * Writes an integer value.
+   */
+  public void writeLong(long value) throws SAXException;
+
+  /**
+   * Writes a float or double value.
+   */
+  public void writeDouble(double value) throws SAXException;
+
+  /**
+   * Writes a decimal value.
+   */
+  public void writeDecimal(BigDecimal value) throws SAXException;
+
+  /**
+   * Writes a value of dateTime, date, time, gYearMonth, gYear, gMonthDay,
+   * gDay or gMonth, depending on the datatype of the XSDateTime.
+   */
+  public void writeDateTime(XSDateTime value) throws SAXException;
+
+  /**
+   * Writes a base64Binary or hexBinary value that consists of the remaining
+   * octets of the buffer. The position of the buffer is left unchanged.
+   */
+  public void writeBinary(ByteBuffer value) throws SAXException;
+
+}
@@ -0,0 +1,10 @@
+package org.openexi.proc.grammars;
+
+import org.openexi.proc.common.QName;
+
+public abstract class ValueApparatus {
+
+  public abstract QName getName();
+  public abstract short getCodecID();
+
+}
@@ -0,0 +1,35 @@
+package org.openexi.proc.io;
+
+import org.openexi.proc.common.QName;
+import org.openexi.proc.grammars.Apparatus;
+import org.openexi.proc.util.ExiUriConst;
+import org.openexi.schema.Base64;
+import org.openexi.schema.Characters;
+
+final class Base64BinaryValueScanner extends BinaryValueScanner {
+  
+  Base64BinaryValueScanner(Scanner scanner) {
+    super(new QName("exi:base64Binary", ExiUriConst.W3C_2009_EXI_URI), scanner);
+  }
+  
+  @Override
+  public short getCodecID() {
+    return Apparatus.CODEC_BASE64BINARY;
+  }
+  
+  @Override
+  public int getBuiltinRCS(int simpleType) {
+    return BuiltinRCS.RCS_ID_BASE64BINARY;
+  }
+  
+  @Override
+  protected Characters toCharacters(byte[] octets, int len) {
+    final int maxChars = Base64.calculateTextMaxLength(len);
+    m_scanner.m_characterBuffer.ensureCharacters(maxChars);
+    final char[] characters = m_scanner.m_characterBuffer.characters;
+    final int startIndex = m_scanner.m_characterBuffer.allocCharacters(maxChars);
+    int n_chars = Base64.encode(octets, 0, len, characters, startIndex);
+    return m_scanner.m_characterBuffer.makeCharacters(characters, startIndex, n_chars);
+  }
+
+}
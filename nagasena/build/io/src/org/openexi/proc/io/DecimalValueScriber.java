@@ -0,0 +1,387 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.openexi.proc.common.QName;
+import org.openexi.proc.util.ExiUriConst;
+import org.openexi.schema.EXISchema;
+
+public final class DecimalValueScriber extends ValueScriberBase {
+  
+  public static final DecimalValueScriber instance;
+  static {
+    instance = new DecimalValueScriber();
+  }
+  
+  private DecimalValueScriber() {
+    super(new QName("exi:decimal", ExiUriConst.W3C_2009_EXI_URI));
+  }
+
+  @Override
+  public short getCodecID() {
+    return Scriber.CODEC_DECIMAL;
+  }
+  
+  @Override
+  public int getBuiltinRCS(int simpleType, Scriber scriber) {
+    return BuiltinRCS.RCS_ID_DECIMAL;
+  }
+
+  ////////////////////////////////////////////////////////////
+  
+  @Override
+  public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return doProcess(scriber.toChars(value), 0, value.length(), scribble, scriber.stringBuilder1, scriber.stringBuilder2);
+  }
+
+  @Override
+  public boolean processesChars() {
+    return true;
+  }
+
+  @Override
+  public boolean process(char[] ch, int start, int length, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return doProcess(ch, start, length, scribble, scriber.stringBuilder1, scriber.stringBuilder2);
+  }
+  
+  @Override
+  public boolean processDecimal(BigDecimal value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    final int signum;
+    if ((signum = value.signum()) == 0) {
+      scribble.booleanValue1 = false;
+      scribble.stringValue1 = scribble.stringValue2 = null;
+      scribble.longValue = 0;
+      scribble.intValue1 = 0;
+      return true;
+    }
+    int scale = value.scale();
+    final BigInteger unscaledValue = value.unscaledValue();
+    if (0 <= scale && scale <= 18 && unscaledValue.bitLength() < 63) {
+      long digitsValue = unscaledValue.longValue();
+      if (signum < 0)
+        digitsValue = 0 - digitsValue;
+      // Trailing zeros of the fraction are not represented.
+      for (; scale != 0 && digitsValue % 10 == 0; --scale)
+        digitsValue /= 10;
+      long scaleValue = 1;
+      for (int i = 0; i < scale; i++)
+        scaleValue *= 10;
+      final long integralValue = digitsValue / scaleValue;
+      if (integralValue < 1000000000000000000L && scale <= MAX_FRACTIONAL_VALUE_DIGITS) {
+        long fractionalValue = digitsValue % scaleValue;
+        int reverseFractionalValue = 0;
+        for (int i = 0; i < scale; i++, fractionalValue /= 10)
+          reverseFractionalValue = 10 * reverseFractionalValue + (int)(fractionalValue % 10);
+        scribble.booleanValue1 = signum < 0;
+        scribble.stringValue1 = scribble.stringValue2 = null;
+        scribble.longValue = integralValue;
+        scribble.intValue1 = reverseFractionalValue;
+        return true;
+      }
+    }
+    final String stringValue = value.toPlainString();
+    return doProcess(scriber.toChars(stringValue), 0, stringValue.length(), scribble, 
+        scriber.stringBuilder1, scriber.stringBuilder2);
+  }
+  
+  @Override
+  public void scribe(String value, Scribble scribble, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException {
+    scribeDecimalValue(scribble.stringValue1, scribble.stringValue2, scribble.longValue, scribble.intValue1, 
+        scribble.booleanValue1, channelStream, scriber);
+  }
+  
+  private static class DecimalValue {
+    String integralDigits;
+    String fractionalDigits;
+    long integralValue;
+    int fractionalValue;
+    boolean isNegative;
+    DecimalValue(String integralDigits, String fractionalDigits, long integralValue, int fractionalValue, boolean isNegative) {
+      this.integralDigits = integralDigits;
+      this.fractionalDigits = fractionalDigits;
+      this.integralValue = integralValue;
+      this.fractionalValue = fractionalValue;
+      this.isNegative = isNegative;
+    }
+  }
+
+  @Override
+  public Object toValue(String value, Scribble scribble, Scriber scriber) {
+    return new DecimalValue(scribble.stringValue1, scribble.stringValue2, scribble.longValue, scribble.intValue1, 
+        scribble.booleanValue1);
+  }
+  
+  @Override
+  public void doScribe(Object value, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException  {
+    final DecimalValue decimalValue = (DecimalValue)value;
+    scribeDecimalValue(decimalValue.integralDigits, decimalValue.fractionalDigits, decimalValue.integralValue, 
+        decimalValue.fractionalValue, decimalValue.isNegative, channelStream, scriber);
+  }
+
+  ////////////////////////////////////////////////////////////
+  
+  /**
+   * Extract sign value from a scribble.
+   */
+  public static boolean getSign(Scribble scribble) {
+    return scribble.booleanValue1;
+  }
+  
+  /**
+   * Extract integral digits from a scribble.
+   */
+  public static String getIntegralDigits(Scribble scribble) {
+    if (scribble.stringValue1 == null)
+      toDigits(scribble);
+    return scribble.stringValue1;
+  }
+  
+  /**
+   * Extract reverse-fractional digits from a scribble.
+   */
+  public static String getReverseFractionalDigits(Scribble scribble) {
+    if (scribble.stringValue1 == null)
+      toDigits(scribble);
+    return scribble.stringValue2;
+  }
+  
+  /**
+   * Convert the digits held as numbers into strings of digits.
+   */
+  private static void toDigits(Scribble scribble) {
+    scribble.stringValue1 = Long.toString(scribble.longValue);
+    scribble.stringValue2 = Integer.toString(scribble.intValue1);
+  }
+  
+  /**
+   * Convert -0.0 to + 0.0.
+   */
+  public static final void canonicalizeValue(Scribble scribble) {
+    boolean sign = scribble.booleanValue1;
+    final boolean isZero;
+    if (scribble.stringValue1 == null)
+      isZero = scribble.longValue == 0 && scribble.intValue1 == 0;
+    else
+      isZero = "0".equals(scribble.stringValue1) && "0".equals(scribble.stringValue2);
+    if (sign && isZero) {
+      scribble.booleanValue1 = false;
+    }
+  }
+  
+  // Numbers of digits that are held as long and int values without overflow.
+  private static final int MAX_INTEGRAL_VALUE_DIGITS = 18;
+  private static final int MAX_FRACTIONAL_VALUE_DIGITS = 9;
+  
+  public boolean doProcess(String value, Scribble scribble, StringBuilder integralDigits, StringBuilder reverseFractionalDigits) {
+    return doProcess(value.toCharArray(), 0, value.length(), scribble, integralDigits, reverseFractionalDigits);
+  }
+
+  /**
+   * Parses a value given as a range of characters into a scribble.
+   */
+  public boolean doProcess(char[] value, int start, int length, Scribble scribble, 
+      StringBuilder integralDigits, StringBuilder reverseFractionalDigits) {
+
+    if (!trimWhitespaces(value, start, length, scribble))
+      return false;
+    
+    final boolean observeC14N = scribble.booleanValue2;
+
+    int digits = 0; // for detecting zero-length decimal
+    int totalDigits = 0, fractionDigits = 0;
+    int trailingZeros = 0;
+    
+    // Digits are also accumulated as numbers, which are used in place of
+    // the strings of digits unless there are too many digits.
+    long integralValue = 0;
+    int reverseFractionalValue = 0;
+    int fractionalScale = 1;
+
+    integralDigits.setLength(0);
+    reverseFractionalDigits.setLength(0);
+    
+    boolean positive = true;
+    boolean syntaxInvalid = false;
+    int pos, mode;
+    for (pos = scribble.startPosition, mode = DECIMAL_MODE_MAYBE_SIGN;
+         pos < scribble.limitPosition && !syntaxInvalid; pos++) {
+      final char c = value[pos];
+      switch (mode) {
+        case DECIMAL_MODE_MAYBE_SIGN:
+          if (c == '-' || c == '+') {
+            mode = DECIMAL_MODE_MAYBE_INTEGRAL;
+            if (c != '+')
+              positive = false;
+          }
+          else if (c == '.') {
+            mode = DECIMAL_MODE_IS_FRACTION;
+          }
+          else if (c >= '0' && c <= '9') {
+            mode = DECIMAL_MODE_IS_INTEGRAL;
+            ++digits;
+            if (c != '0') {
+              integralDigits.append(c);
+              integralValue = c - '0';
+              ++totalDigits;
+            }
+          }
+          else
+            syntaxInvalid = true;
+          break;
+        case DECIMAL_MODE_MAYBE_INTEGRAL:
+        case DECIMAL_MODE_IS_INTEGRAL:
+          if (c == '.') {
+            mode = DECIMAL_MODE_IS_FRACTION;
+          }
+          else if (c >= '0' && c <= '9') {
+            mode = DECIMAL_MODE_IS_INTEGRAL;
+            ++digits;
+            if (totalDigits > 0 || c != '0') {
+              integralDigits.append(c);
+              if (totalDigits < MAX_INTEGRAL_VALUE_DIGITS)
+                integralValue = 10 * integralValue + (c - '0');
+              ++totalDigits;
+            }
+          }
+          else
+            syntaxInvalid = true;
+          break;
+        case DECIMAL_MODE_IS_FRACTION:
+          if (c == '0') {
+            ++trailingZeros;
+            mode = DECIMAL_MODE_MAYBE_TRAILING_ZEROS;
+          }
+          else {
+            if (c >= '1' && c <= '9') {
+              reverseFractionalDigits.append(c);
+              if (fractionDigits < MAX_FRACTIONAL_VALUE_DIGITS) {
+                reverseFractionalValue += (c - '0') * fractionalScale;
+                fractionalScale *= 10;
+              }
+              ++digits;
+              ++fractionDigits;
+            }
+            else {
+              syntaxInvalid = true;
+            }
+          }
+          break;
+        case DECIMAL_MODE_MAYBE_TRAILING_ZEROS:
+          assert trailingZeros > 0;
+          if (c == '0')
+            ++trailingZeros;
+          else {
+            if (c >= '1' && c <= '9') {
+              digits += trailingZeros;
+              fractionDigits += trailingZeros;
+              for (int i = 0; i < trailingZeros; i++)
+                reverseFractionalDigits.append('0');
+              reverseFractionalDigits.append(c);
+              if (fractionDigits < MAX_FRACTIONAL_VALUE_DIGITS) {
+                // fractionDigits already includes the zeros that precede c. 
+                for (int i = fractionDigits - trailingZeros; i < fractionDigits; i++)
+                  fractionalScale *= 10;
+                reverseFractionalValue += (c - '0') * fractionalScale;
+                fractionalScale *= 10;
+              }
+              ++digits;
+              ++fractionDigits;
+              trailingZeros = 0; 
+              mode = DECIMAL_MODE_IS_FRACTION;
+            }
+            else
+              syntaxInvalid = true;
+          }
+          break;
+      }
+    }
+    if (!syntaxInvalid) {
+      digits += trailingZeros;
+      if (mode == DECIMAL_MODE_MAYBE_TRAILING_ZEROS) {
+        mode = DECIMAL_MODE_IS_FRACTION;
+      }
+      if (mode == DECIMAL_MODE_IS_FRACTION && fractionDigits == 0) {
+        // Assume there is at least one trailing fraction digits
+        // when decimal point has been encountered.
+        if (trailingZeros == 0)
+          trailingZeros = 1;
+      }
+      totalDigits += fractionDigits;
+    }
+
+    if (syntaxInvalid || mode != DECIMAL_MODE_IS_INTEGRAL && mode != DECIMAL_MODE_IS_FRACTION || digits == 0)
+      return false;
+    
+    final int n_integralDigits = integralDigits.length();
+    final int n_reverseFractionalDigits = reverseFractionalDigits.length();
+
+    if (observeC14N && !positive) {
+      // According to C14N encoding rule, the sign value MUST be zero (0) if both the integral portion 
+      // and the fractional portion of the Decimal value are 0 (zero).
+      positive = n_integralDigits == 0 && n_reverseFractionalDigits == 0;
+    }
+    
+    scribble.booleanValue1 = !positive;
+    if (n_integralDigits <= MAX_INTEGRAL_VALUE_DIGITS && n_reverseFractionalDigits <= MAX_FRACTIONAL_VALUE_DIGITS) {
+      scribble.stringValue1 = scribble.stringValue2 = null;
+      scribble.longValue = integralValue;
+      scribble.intValue1 = reverseFractionalValue;
+      return true;
+    }
+    
+    if (n_integralDigits == 0)
+      integralDigits.append('0');
+    if (n_reverseFractionalDigits == 0)
+      reverseFractionalDigits.append('0');
+    else
+      reverseFractionalDigits.reverse();
+
+    scribble.stringValue1 = integralDigits.toString();
+    scribble.stringValue2 = reverseFractionalDigits.toString();
+    
+    return true;
+  }
+  
+  /**
+   * Writes a decimal value given either as strings of digits or, when the 
+   * strings are null, as numbers.
+   */
+  private void scribeDecimalValue(String integralDigits, String fractionalDigits, long integralValue, int fractionalValue, 
+      boolean isNegative, OutputStream ostream, Scriber scriber) throws IOException {
+
+    scriber.writeBoolean(isNegative, ostream);
+
+    if (integralDigits == null) {
+      if (integralValue <= Integer.MAX_VALUE)
+        scriber.writeUnsignedInteger32((int)integralValue, ostream);
+      else
+        scriber.writeUnsignedInteger64(integralValue, ostream);
+      scriber.writeUnsignedInteger32(fractionalValue, ostream);
+      return;
+    }
+
+    final int n_integralDigits = integralDigits.length();
+    if (n_integralDigits < 10 || n_integralDigits == 10 && "2147483647".compareTo(integralDigits) >= 0) {
+      final int integralDigitsIntValue = Integer.parseInt(integralDigits);
+      scriber.writeUnsignedInteger32(integralDigitsIntValue, ostream);
+    }
+    else {
+      final BigInteger integralDigitsIntegerValue = new BigInteger(integralDigits);
+      scriber.writeUnsignedInteger(integralDigitsIntegerValue, ostream);
+    }
+      
+    final int n_fractionalDigits = fractionalDigits.length();
+    if (n_fractionalDigits < 10 || n_fractionalDigits == 10 && "2147483647".compareTo(fractionalDigits) >= 0) {
+      final int fractionalDigitsIntValue = Integer.parseInt(fractionalDigits);
+      scriber.writeUnsignedInteger32(fractionalDigitsIntValue, ostream);
+    }
+    else {
+      final BigInteger fractionalDigitsIntegerValue = new BigInteger(fractionalDigits);
+      scriber.writeUnsignedInteger(fractionalDigitsIntegerValue, ostream);
+    }
+  }
+  
+}
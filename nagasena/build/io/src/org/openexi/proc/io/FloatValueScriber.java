@@ -0,0 +1,375 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.openexi.proc.common.QName;
+import org.openexi.proc.common.TypedEventDescription;
+import org.openexi.proc.util.ExiUriConst;
+import org.openexi.schema.EXISchema;
+
+public final class FloatValueScriber extends ValueScriberBase {
+  
+  public static final FloatValueScriber instance;
+  static {
+    instance = new FloatValueScriber();
+  }
+
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  private static final double MAX_EXACT_MANTISSA = (double)(1L << 53);
+
+  private FloatValueScriber() {
+    super(new QName("exi:double", ExiUriConst.W3C_2009_EXI_URI));
+  }
+
+  @Override
+  public short getCodecID() {
+    return Scriber.CODEC_DOUBLE;
+  }
+  
+  @Override
+  public int getBuiltinRCS(int simpleType, Scriber scriber) {
+    return BuiltinRCS.RCS_ID_DOUBLE;
+  }
+
+  ////////////////////////////////////////////////////////////
+  
+  @Override
+  public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return doProcess(scriber.toChars(value), 0, value.length(), scribble);
+  }
+
+  @Override
+  public boolean processesChars() {
+    return true;
+  }
+
+  @Override
+  public boolean process(char[] ch, int start, int length, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return doProcess(ch, start, length, scribble);
+  }
+  
+  @Override
+  public boolean processDouble(double value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    if (Double.isNaN(value)) {
+      scribble.longValue = 0;
+      scribble.intValue1 = TypedEventDescription.EXPONENT_SPECIAL_VALUES;
+      return true;
+    }
+    else if (Double.isInfinite(value)) {
+      scribble.longValue = value > 0 ? 1 : -1;
+      scribble.intValue1 = TypedEventDescription.EXPONENT_SPECIAL_VALUES;
+      return true;
+    }
+    // Look for the smallest number of fraction digits that represent the value 
+    // exactly as a mantissa of 53 bits or less, which is the case with values 
+    // such as 12.5 or 0.001. 
+    double scaledValue = value;
+    for (int fractionDigits = 0; fractionDigits < POWERS_OF_TEN.length; fractionDigits++) {
+      if (fractionDigits != 0)
+        scaledValue = value * POWERS_OF_TEN[fractionDigits];
+      if (!(-MAX_EXACT_MANTISSA <= scaledValue && scaledValue <= MAX_EXACT_MANTISSA))
+        break;
+      final long mantissa = (long)scaledValue;
+      if (mantissa == scaledValue && mantissa / POWERS_OF_TEN[fractionDigits] == value) {
+        scribble.longValue = mantissa;
+        scribble.intValue1 = -fractionDigits;
+        if (scribble.booleanValue2)
+          canonicalizeValue(scribble);
+        return true;
+      }
+    }
+    final String stringValue = Double.toString(value);
+    return doProcess(scriber.toChars(stringValue), 0, stringValue.length(), scribble);
+  }
+
+  @Override
+  public void scribe(String value, Scribble scribble, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException {
+    scribeFloatValue(scribble.longValue, scribble.intValue1, channelStream, scriber);
+  }
+
+  @Override
+  public Object toValue(String value, Scribble scribble, Scriber scriber) {
+    return new FloatValue(scribble.longValue, scribble.intValue1);
+  }
+  
+  @Override
+  public void doScribe(Object value, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException  {
+    FloatValue floatValue = (FloatValue)value;
+    scribeFloatValue(floatValue.mantissa, floatValue.exponent, channelStream, scriber);
+  }
+
+  ////////////////////////////////////////////////////////////
+
+  /**
+   * Extract mantissa value from a scribble.
+   */
+  public static long getMantissa(Scribble scribble) {
+    return scribble.longValue;
+  }
+  
+  /**
+   * Extract exponent value from a scribble.
+   */
+  public static int getExponent(Scribble scribble) {
+    return scribble.intValue1;
+  }
+  
+  /**
+   * Convert (mantissa, exponent) value pair into canonical form.
+   */
+  public static final void canonicalizeValue(Scribble scribble) {
+    long mantissa = scribble.longValue;
+    int exponent = scribble.intValue1;
+    if (exponent == -16384 && mantissa != 1L && mantissa != -1L)
+      mantissa = 0L; // NaN
+    else {
+      if (mantissa != 0L) {
+        while (mantissa % 10L == 0) {
+          mantissa /= 10L;
+          exponent += 1;
+        }
+      }
+      else 
+        exponent = 0;
+    }
+    scribble.longValue = mantissa;
+    scribble.intValue1 = exponent;
+  }
+  
+  ////////////////////////////////////////////////////////////
+
+  public boolean doProcess(String value, Scribble scribble) {
+    return doProcess(value.toCharArray(), 0, value.length(), scribble);
+  }
+
+  /**
+   * Parses a value given as a range of characters into a scribble.
+   */
+  public boolean doProcess(char[] value, int start, int length, Scribble scribble) {
+    if (!trimWhitespaces(value, start, length, scribble))
+      return false;
+
+    int n_digits = 0; // for detecting zero-length decimal
+    int fractionDigits = 0;
+    int trailingZeros = 0;
+
+    final int len = scribble.limitPosition - scribble.startPosition;
+    switch (value[scribble.limitPosition - 1]) {
+      case 'F':
+        if (len == 3 && value[scribble.startPosition] == 'I' && value[scribble.startPosition + 1] == 'N') {
+          // mantissa: 1 
+          scribble.longValue = 1;
+          // exponent: -16384
+          scribble.intValue1 = -16384;
+          return true;
+        }
+        else if (len == 4 && value[scribble.startPosition] == '-' && value[scribble.startPosition + 1] == 'I' && value[scribble.startPosition + 2] == 'N') {
+          // mantissa: -1 
+          scribble.longValue = -1;
+          // exponent: -16384
+          scribble.intValue1 = -16384;
+          return true;
+        }
+        return false;
+      case 'N':
+        if (len == 3 && value[scribble.startPosition] == 'N' && value[scribble.startPosition + 1] == 'a') {
+          // mantissa: 0
+          scribble.longValue = 0;
+          // exponent: -16384
+          scribble.intValue1 = -16384;
+          return true;
+        }
+        return false;
+      default:
+        break;
+    }
+    
+    // Mantissa digits are accumulated as an unsigned 64-bit value, which
+    // holds any sequence of up to 19 digits.
+    long digitsValue = 0;
+    int n_mantissaDigits = 0;
+    boolean positive = true;
+    int pos, mode;
+    parseFloat:
+    for (pos = scribble.startPosition, mode = DECIMAL_MODE_MAYBE_SIGN; pos < scribble.limitPosition; pos++) {
+      final char c = value[pos];
+      switch (mode) {
+        case DECIMAL_MODE_MAYBE_SIGN:
+          if (c == '-' || c == '+') {
+            mode = DECIMAL_MODE_MAYBE_INTEGRAL;
+            if (c != '+')
+              positive = false;
+          }
+          else if (c == '.') {
+            mode = DECIMAL_MODE_IS_FRACTION;
+          }
+          else if (c >= '0' && c <= '9') {
+            mode = DECIMAL_MODE_IS_INTEGRAL;
+            ++n_digits;
+            if (c != '0') {
+              ++n_mantissaDigits;
+              digitsValue = c - '0';
+            }
+          }
+          else
+            return false;
+          break;
+        case DECIMAL_MODE_MAYBE_INTEGRAL:
+        case DECIMAL_MODE_IS_INTEGRAL:
+          if (c == '.') {
+            mode = DECIMAL_MODE_IS_FRACTION;
+          }
+          else if (c >= '0' && c <= '9') {
+            mode = DECIMAL_MODE_IS_INTEGRAL;
+            ++n_digits;
+            if (n_mantissaDigits > 0 || c != '0') {
+              if (++n_mantissaDigits > 19)
+                return false;
+              digitsValue = 10 * digitsValue + (c - '0');
+            }
+          }
+          else if (mode == DECIMAL_MODE_IS_INTEGRAL && (c == 'e' || c == 'E'))
+            break parseFloat;
+          else
+            return false;
+          break;
+        case DECIMAL_MODE_IS_FRACTION:
+          if (c == '0') {
+            ++trailingZeros;
+            mode = DECIMAL_MODE_MAYBE_TRAILING_ZEROS;
+          }
+          else {
+            if (c >= '1' && c <= '9') {
+              if (++n_mantissaDigits > 19)
+                return false;
+              digitsValue = 10 * digitsValue + (c - '0');
+              ++n_digits;
+              ++fractionDigits;
+            }
+            else if (c == 'e' || c == 'E')
+              break parseFloat;
+            else {
+              return false;
+            }
+          }
+          break;
+        case DECIMAL_MODE_MAYBE_TRAILING_ZEROS:
+          assert trailingZeros > 0;
+          if (c == '0')
+            ++trailingZeros;
+          else {
+            if (c >= '1' && c <= '9') {
+              n_digits += trailingZeros;
+              fractionDigits += trailingZeros;
+              if ((n_mantissaDigits += trailingZeros + 1) > 19)
+                return false;
+              for (int i = 0; i < trailingZeros; i++)
+                digitsValue *= 10;
+              digitsValue = 10 * digitsValue + (c - '0');
+              ++n_digits;
+              ++fractionDigits;
+              trailingZeros = 0; 
+              mode = DECIMAL_MODE_IS_FRACTION;
+            }
+            else if (c == 'e' || c == 'E') {
+              n_digits += trailingZeros;
+              fractionDigits += trailingZeros;
+              if ((n_mantissaDigits += trailingZeros) > 19)
+                return false;
+              for (int i = 0; i < trailingZeros; i++)
+                digitsValue *= 10;
+              trailingZeros = 0; 
+              break parseFloat;
+            }
+            else
+              return false;
+          }
+          break;
+      }
+    }
+
+    n_digits += trailingZeros;
+    if (mode == DECIMAL_MODE_MAYBE_TRAILING_ZEROS) {
+      mode = DECIMAL_MODE_IS_FRACTION;
+    }
+
+    if (mode != DECIMAL_MODE_IS_INTEGRAL && mode != DECIMAL_MODE_IS_FRACTION || n_digits == 0)
+      return false;
+    
+    // A 19-digit value may exceed the range of long. 
+    if (digitsValue < 0 && (positive || digitsValue != Long.MIN_VALUE))
+      return false;
+    final long mantissa = positive ? digitsValue : -digitsValue;
+
+    int exponent = 0;
+    positive = true;
+    if (pos < scribble.limitPosition) {
+      char c = value[pos++]; 
+      if (c == 'e' || c == 'E') {
+        if (pos < scribble.limitPosition) {
+          c = value[pos];
+          if (c == '-' || c == '+') {
+            ++pos;
+            if (c != '+')
+              positive = false;
+          }
+          for (; pos < scribble.limitPosition; pos++) {
+            c = value[pos];
+            if (c < '0' || '9' < c)
+              return false;
+            // Values beyond this bound are out of range whatever the fraction digits.
+            if ((exponent = 10 * exponent + (c - '0')) > 99999)
+              return false;
+          }
+        }
+      }
+    }
+    
+    if (positive)
+      exponent -= fractionDigits;
+    else
+      exponent = -(exponent + fractionDigits);
+    // range of valid exponent: [-(2^14 - 1) ... 2^14 - 1]
+    if (exponent < -16383 || 16383 < exponent)
+      return false;
+    
+    scribble.longValue = mantissa;
+    scribble.intValue1 = exponent;
+  
+    if (scribble.booleanValue2)
+      canonicalizeValue(scribble);
+    
+    return true;
+  }
+  
+  private void scribeFloatValue(long mantissa, int exponent, OutputStream ostream, Scriber scriber) 
+    throws IOException {
+    boolean isNegative;
+    if (isNegative = (mantissa & 0x8000000000000000L) != 0) {
+      mantissa = ~mantissa; // same as -(mantissa + 1) 
+    }
+    scriber.writeBoolean(isNegative, ostream);
+    scriber.writeUnsignedInteger64(mantissa, ostream);
+    if (isNegative = (exponent & 0x80000000) != 0) {
+      exponent = ~exponent; // same as -(exponent + 1) 
+    }
+    scriber.writeBoolean(isNegative, ostream);
+    scriber.writeUnsignedInteger32(exponent, ostream);
+  }
+
+  ////////////////////////////////////////////////////////////
+
+  private static final class FloatValue {
+    final long mantissa;
+    final int exponent;
+    FloatValue(long mantissa, int exponent) {
+      this.mantissa = mantissa;
+      this.exponent = exponent;
+    }
+  }
+
+}
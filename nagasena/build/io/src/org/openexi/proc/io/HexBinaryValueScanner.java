@@ -0,0 +1,38 @@
+package org.openexi.proc.io;
+
+import org.openexi.proc.common.QName;
+import org.openexi.proc.grammars.Apparatus;
+import org.openexi.proc.util.ExiUriConst;
+import org.openexi.schema.Characters;
+import org.openexi.schema.HexBin;
+
+final class HexBinaryValueScanner extends BinaryValueScanner {
+
+  private final StringBuffer m_stringBuffer;
+  
+  HexBinaryValueScanner(Scanner scanner) {
+    super(new QName("exi:hexBinary", ExiUriConst.W3C_2009_EXI_URI), scanner);
+    m_stringBuffer = new StringBuffer();
+  }
+
+  @Override
+  public short getCodecID() {
+    return Apparatus.CODEC_HEXBINARY;
+  }
+
+  @Override
+  public int getBuiltinRCS(int simpleType) {
+    return BuiltinRCS.RCS_ID_HEXBINARY;
+  }
+  
+  @Override
+  protected Characters toCharacters(byte[] octets, int len) {
+    m_stringBuffer.setLength(0);
+    HexBin.encode(octets, len, m_stringBuffer);
+    final String stringValue = m_stringBuffer.toString();
+    final int length = stringValue.length();
+    m_scanner.m_characterBuffer.ensureCharacters(length);
+    return m_scanner.m_characterBuffer.addString(stringValue, length);
+  }
+
+}
@@ -0,0 +1,448 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.common.QName;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.schema.EXISchema;
+
+/**
+ * SpecializedEncoder is the base class of the encoders that
+ * {@link SpecializedCodecGenerator} generates for a schema. Generated
+ * encoders have the event codes, their widths and the value codecs of
+ * the schema's grammars compiled into switch statements, and do not
+ * consult the grammars while encoding.
+ * <br /><br />
+ * Documents are fed as a series of method calls that resemble SAX events.
+ * A generated encoder writes the same bits as Transmogrifier does given
+ * strict grammar options and bitPacked alignment with the other options
+ * left at their defaults. Wildcards, xsi:type and xsi:nil are not supported.
+ */
+public abstract class SpecializedEncoder {
+
+  private final EXISchema m_schema;
+  private final BitPackedScriber m_scriber;
+  private final ValueScriber m_stringValueScriber;
+  private final Scribble m_scribble;
+
+  private OutputStream m_outputStream;
+
+  /**
+   * Current state of the generated state machine.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected int m_state;
+
+  // States to continue with after the ancestor elements end, and the
+  // names and the content datatypes of the elements being encoded.
+  private int[] m_stateStack;
+  private String[] m_uriStack;
+  private String[] m_localNameStack;
+  private int[] m_uriIdStack;
+  private int[] m_localNameIdStack;
+  private int[] m_typeStack;
+  private short[] m_codecStack;
+  private int m_depth;
+
+  private boolean m_inStartTag;
+  private String[] m_attrUris;
+  private String[] m_attrLocalNames;
+  private String[] m_attrValues;
+  private int m_n_attrs;
+
+  private char[] m_charBuf;
+  private int m_charPos;
+
+  private static final int INIT_DEPTH = 32;
+
+  /**
+   * Constructor used by generated encoders.
+   * @param grammarCache grammar cache of the schema that the encoder was
+   * generated from, which must use strict grammar options
+   */
+  protected SpecializedEncoder(GrammarCache grammarCache) {
+    if (grammarCache.grammarOptions != GrammarOptions.STRICT_OPTIONS)
+      throw new IllegalArgumentException("Specialized encoders only support strict grammar options.");
+    m_schema = grammarCache.getEXISchema();
+    m_scriber = new BitPackedScriber(false);
+    m_scriber.setSchema(m_schema, (QName[])null, 0);
+    m_scriber.setStringTable(Scriber.createStringTable(grammarCache));
+    m_stringValueScriber = m_scriber.getValueScriberByID(Scriber.CODEC_STRING);
+    m_scribble = new Scribble();
+    m_stateStack = new int[INIT_DEPTH];
+    m_uriStack = new String[INIT_DEPTH];
+    m_localNameStack = new String[INIT_DEPTH];
+    m_uriIdStack = new int[INIT_DEPTH];
+    m_localNameIdStack = new int[INIT_DEPTH];
+    m_typeStack = new int[INIT_DEPTH];
+    m_codecStack = new short[INIT_DEPTH];
+    m_attrUris = new String[8];
+    m_attrLocalNames = new String[8];
+    m_attrValues = new String[8];
+    m_charBuf = new char[128];
+  }
+
+  /**
+   * Set an output stream to which encoded streams are written out.
+   * @param ostream output stream
+   */
+  public final void setOutputStream(OutputStream ostream) {
+    m_outputStream = ostream;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Document events
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Starts a document. The header is written out without the cookie or options.
+   */
+  public final void startDocument() throws IOException {
+    Scriber.writeHeaderPreamble(m_outputStream, false, false);
+    m_scriber.reset();
+    m_scriber.setOutputStream(m_outputStream);
+    m_state = 0;
+    m_depth = 0;
+    m_inStartTag = false;
+    m_n_attrs = 0;
+    m_charPos = 0;
+    encodeStartDocument();
+  }
+
+  /**
+   * Starts an element. Attributes of the element are to be given by
+   * calls to {@link #attribute(String, String, String)} that immediately
+   * follow.
+   * @throws ScriberRuntimeException if the element is not expected
+   */
+  public final void startElement(String uri, String localName) throws IOException {
+    if (m_inStartTag)
+      doAttributes();
+    if (m_charPos != 0)
+      doCharacters();
+    if (!encodeStartElement(uri, localName)) {
+      throw new ScriberRuntimeException(ScriberRuntimeException.UNEXPECTED_ELEM,
+          new String[] { localName, uri });
+    }
+    m_inStartTag = true;
+  }
+
+  /**
+   * Adds an attribute to the element that was last started. Namespace
+   * declarations are not to be given as attributes.
+   * @throws ScriberRuntimeException if no element start precedes the attribute
+   */
+  public final void attribute(String uri, String localName, String value) {
+    if (!m_inStartTag) {
+      throw new ScriberRuntimeException(ScriberRuntimeException.UNEXPECTED_ATTR,
+          new String[] { localName, uri, value });
+    }
+    if (m_n_attrs == m_attrValues.length) {
+      final int capacity = 2 * m_n_attrs;
+      final String[] attrUris = new String[capacity];
+      final String[] attrLocalNames = new String[capacity];
+      final String[] attrValues = new String[capacity];
+      System.arraycopy(m_attrUris, 0, attrUris, 0, m_n_attrs);
+      System.arraycopy(m_attrLocalNames, 0, attrLocalNames, 0, m_n_attrs);
+      System.arraycopy(m_attrValues, 0, attrValues, 0, m_n_attrs);
+      m_attrUris = attrUris;
+      m_attrLocalNames = attrLocalNames;
+      m_attrValues = attrValues;
+    }
+    m_attrUris[m_n_attrs] = uri;
+    m_attrLocalNames[m_n_attrs] = localName;
+    m_attrValues[m_n_attrs++] = value;
+  }
+
+  /**
+   * Appends characters to the content of the current element.
+   */
+  public final void characters(char[] ch, int start, int len) throws IOException {
+    if (m_inStartTag)
+      doAttributes();
+    if (m_charPos + len > m_charBuf.length) {
+      final char[] charBuf = new char[Math.max(m_charPos + len, 2 * m_charBuf.length)];
+      System.arraycopy(m_charBuf, 0, charBuf, 0, m_charPos);
+      m_charBuf = charBuf;
+    }
+    System.arraycopy(ch, start, m_charBuf, m_charPos, len);
+    m_charPos += len;
+  }
+
+  /**
+   * Ends the current element.
+   * @throws ScriberRuntimeException if the element cannot end here
+   */
+  public final void endElement() throws IOException {
+    if (m_inStartTag)
+      doAttributes();
+    if (m_charPos != 0)
+      doCharacters();
+    if (!encodeEndElement()) {
+      // The content may be an empty value.
+      if (!encodeCharacters() || !encodeEndElement()) {
+        throw new ScriberRuntimeException(ScriberRuntimeException.UNEXPECTED_END_ELEM,
+            new String[] { m_localNameStack[m_depth - 1], m_uriStack[m_depth - 1] });
+      }
+    }
+  }
+
+  /**
+   * Ends the document and flushes the bits that remain.
+   * @throws ScriberRuntimeException if the document cannot end here
+   */
+  public final void endDocument() throws IOException {
+    if (m_charPos != 0)
+      doCharacters();
+    if (!encodeEndDocument())
+      throw new ScriberRuntimeException(ScriberRuntimeException.UNEXPECTED_ED);
+    m_scriber.finish();
+  }
+
+  private void doAttributes() throws IOException {
+    m_inStartTag = false;
+    final int n_attrs = m_n_attrs;
+    if (n_attrs == 0)
+      return;
+    m_n_attrs = 0;
+    // Attributes are sorted by local name, then by uri (insertion sort).
+    int i;
+    for (i = 1; i < n_attrs; i++) {
+      final String uri = m_attrUris[i];
+      final String localName = m_attrLocalNames[i];
+      final String value = m_attrValues[i];
+      int j;
+      for (j = i; j > 0; j--) {
+        final int res;
+        if ((res = m_attrLocalNames[j - 1].compareTo(localName)) < 0 ||
+            res == 0 && m_attrUris[j - 1].compareTo(uri) <= 0)
+          break;
+        m_attrUris[j] = m_attrUris[j - 1];
+        m_attrLocalNames[j] = m_attrLocalNames[j - 1];
+        m_attrValues[j] = m_attrValues[j - 1];
+      }
+      m_attrUris[j] = uri;
+      m_attrLocalNames[j] = localName;
+      m_attrValues[j] = value;
+    }
+    m_scribble.booleanValue1 = false;
+    m_scribble.booleanValue2 = false;
+    for (i = 0; i < n_attrs; i++) {
+      if (!encodeAttribute(m_attrUris[i], m_attrLocalNames[i], m_attrValues[i])) {
+        throw new ScriberRuntimeException(ScriberRuntimeException.UNEXPECTED_ATTR,
+            new String[] { m_attrLocalNames[i], m_attrUris[i], m_attrValues[i] });
+      }
+    }
+  }
+
+  private void doCharacters() throws IOException {
+    if (!encodeCharacters() && !encodeMixedCharacters()) {
+      // Whitespaces are dropped when no characters event fits.
+      final int len = m_charPos;
+      for (int i = 0; i < len; i++) {
+        switch (m_charBuf[i]) {
+          case '\t':
+          case '\n':
+          case '\r':
+          case ' ':
+            continue;
+          default:
+            throw new ScriberRuntimeException(ScriberRuntimeException.UNEXPECTED_CHARS,
+                new String[] { new String(m_charBuf, 0, m_charPos) });
+        }
+      }
+    }
+    m_charPos = 0;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Methods implemented by generated encoders
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Writes SD in the current state.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected abstract void encodeStartDocument() throws IOException;
+
+  /**
+   * Writes SE(qname) in the current state, or returns false if none matches.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected abstract boolean encodeStartElement(String uri, String localName) throws IOException;
+
+  /**
+   * Writes AT(qname) in the current state, or returns false if none matches
+   * or the value is invalid.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected abstract boolean encodeAttribute(String uri, String localName, String value) throws IOException;
+
+  /**
+   * Writes the pending characters as a typed CH in the current state, or
+   * returns false if the state has none or the value is invalid.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected abstract boolean encodeCharacters() throws IOException;
+
+  /**
+   * Writes the pending characters as a CH of mixed content in the current
+   * state, or returns false if the state has none.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected abstract boolean encodeMixedCharacters() throws IOException;
+
+  /**
+   * Writes EE in the current state, or returns false if the state has none.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected abstract boolean encodeEndElement() throws IOException;
+
+  /**
+   * Writes ED in the current state, or returns false if the state has none.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected abstract boolean encodeEndDocument() throws IOException;
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Functions used by generated encoders
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final void writeEventCode(int code, int width) throws IOException {
+    m_scriber.writeNBitUnsigned(code, width, (OutputStream)null);
+  }
+
+  /**
+   * Enters an element whose SE event code has been written.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final void enterElement(int nextState, int elementState, String uri, String localName,
+      int uriId, int localNameId, int tp, short codec) {
+    if (m_depth == m_stateStack.length)
+      expandStack();
+    m_stateStack[m_depth] = nextState;
+    m_uriStack[m_depth] = uri;
+    m_localNameStack[m_depth] = localName;
+    m_uriIdStack[m_depth] = uriId;
+    m_localNameIdStack[m_depth] = localNameId;
+    m_typeStack[m_depth] = tp;
+    m_codecStack[m_depth++] = codec;
+    m_state = elementState;
+  }
+
+  /**
+   * Leaves the current element whose EE event code has been written.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final void leaveElement() {
+    m_state = m_stateStack[--m_depth];
+  }
+
+  /**
+   * Writes AT(qname) unless the value is invalid.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final boolean scribeAttribute(int code, int width, int nextState, int uriId, int localNameId,
+      int tp, short codec, String value) throws IOException {
+    final ValueScriber valueScriber;
+    if (tp != EXISchema.NIL_NODE) {
+      valueScriber = m_scriber.getValueScriberByID(codec);
+      if (!valueScriber.process(value, tp, m_schema, m_scribble, m_scriber))
+        return false;
+    }
+    else
+      valueScriber = m_stringValueScriber;
+    if (width != 0)
+      m_scriber.writeNBitUnsigned(code, width, (OutputStream)null);
+    valueScriber.scribe(value, m_scribble, localNameId, uriId, tp, m_scriber);
+    m_state = nextState;
+    return true;
+  }
+
+  /**
+   * Writes the pending characters as a typed CH unless the value is invalid.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final boolean scribeCharacters(int code, int width, int nextState) throws IOException {
+    final int depth = m_depth - 1;
+    final int tp = m_typeStack[depth];
+    final ValueScriber valueScriber = m_scriber.getValueScriberByID(m_codecStack[depth]);
+    m_scribble.booleanValue1 = false;
+    m_scribble.booleanValue2 = false;
+    final String stringValue;
+    if (valueScriber.processesChars()) {
+      stringValue = null;
+      if (!valueScriber.process(m_charBuf, 0, m_charPos, tp, m_schema, m_scribble, m_scriber))
+        return false;
+    }
+    else {
+      stringValue = new String(m_charBuf, 0, m_charPos);
+      if (!valueScriber.process(stringValue, tp, m_schema, m_scribble, m_scriber))
+        return false;
+    }
+    if (width != 0)
+      m_scriber.writeNBitUnsigned(code, width, (OutputStream)null);
+    valueScriber.scribe(stringValue, m_scribble, m_localNameIdStack[depth], m_uriIdStack[depth], tp, m_scriber);
+    m_state = nextState;
+    return true;
+  }
+
+  /**
+   * Writes the pending characters as a CH of mixed content.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final boolean scribeMixedCharacters(int code, int width, int nextState) throws IOException {
+    final int depth = m_depth - 1;
+    if (width != 0)
+      m_scriber.writeNBitUnsigned(code, width, (OutputStream)null);
+    m_stringValueScriber.scribe(new String(m_charBuf, 0, m_charPos), m_scribble,
+        m_localNameIdStack[depth], m_uriIdStack[depth], EXISchema.NIL_NODE, m_scriber);
+    m_state = nextState;
+    return true;
+  }
+
+  private void expandStack() {
+    final int capacity = 2 * m_depth;
+    final int[] stateStack = new int[capacity];
+    final String[] uriStack = new String[capacity];
+    final String[] localNameStack = new String[capacity];
+    final int[] uriIdStack = new int[capacity];
+    final int[] localNameIdStack = new int[capacity];
+    final int[] typeStack = new int[capacity];
+    final short[] codecStack = new short[capacity];
+    System.arraycopy(m_stateStack, 0, stateStack, 0, m_depth);
+    System.arraycopy(m_uriStack, 0, uriStack, 0, m_depth);
+    System.arraycopy(m_localNameStack, 0, localNameStack, 0, m_depth);
+    System.arraycopy(m_uriIdStack, 0, uriIdStack, 0, m_depth);
+    System.arraycopy(m_localNameIdStack, 0, localNameIdStack, 0, m_depth);
+    System.arraycopy(m_typeStack, 0, typeStack, 0, m_depth);
+    System.arraycopy(m_codecStack, 0, codecStack, 0, m_depth);
+    m_stateStack = stateStack;
+    m_uriStack = uriStack;
+    m_localNameStack = localNameStack;
+    m_uriIdStack = uriIdStack;
+    m_localNameIdStack = localNameIdStack;
+    m_typeStack = typeStack;
+    m_codecStack = codecStack;
+  }
+
+}
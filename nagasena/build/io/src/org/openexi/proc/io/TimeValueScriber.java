@@ -0,0 +1,94 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+
+import org.openexi.proc.common.QName;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EXISchemaConst;
+import org.openexi.schema.XSDateTime;
+
+public class TimeValueScriber extends DateTimeValueScriberBase {
+
+  public static final TimeValueScriber instance;
+  static {
+    instance = new TimeValueScriber();
+  }
+
+  private TimeValueScriber() {
+    super(new QName("exi:time", "http://www.w3.org/2009/exi"));
+  }
+
+  @Override
+  public short getCodecID() {
+    return Scriber.CODEC_TIME;
+  }
+  
+  @Override
+  public int getBuiltinRCS(int simpleType, Scriber scriber) {
+    return BuiltinRCS.RCS_ID_DATETIME;
+  }
+
+  ////////////////////////////////////////////////////////////
+
+  @Override
+  public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    if (!trimWhitespaces(value, scribble))
+      return false;
+    final int hour, minute, second;
+    long reverseFractionalSecond = 0;
+    BigInteger bigReverseFractionalSecond = null;
+    int tz = XSDateTime.FIELD_UNDEFINED;
+    scribble.nextPosition = scribble.startPosition; // OK, Let's start parsing
+    if (!parseHourField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    hour = scribble.intValue1;
+    if (value.charAt(scribble.nextPosition++) != ':' || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    if (!parseMinuteField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    minute = scribble.intValue1;
+    if (hour == 24 && minute != 0)
+      return false;
+    if (value.charAt(scribble.nextPosition++) != ':' || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    if (!parseSecondField(value, scribble))
+      return false;
+    second = scribble.intValue1;
+    if (hour == 24 && second != 0)
+      return false;
+    if (scribble.nextPosition != scribble.limitPosition) {
+      if (value.charAt(scribble.nextPosition) == '.') {
+        final int startPosition = ++scribble.nextPosition;
+        final int n_digits;
+        if ((n_digits = parseFractionalSecondField(value, scribble)) == 0)
+          return false;
+        else if (n_digits <= MAX_FRACTIONAL_SECOND_DIGITS)
+          reverseFractionalSecond = scribble.longValue;
+        else if ((bigReverseFractionalSecond = toReverseFractionalSecond(value, startPosition, scribble.nextPosition)).signum() == 0)
+          bigReverseFractionalSecond = null;
+      }
+      if (scribble.nextPosition != scribble.limitPosition) {
+        if (!parseTimezoneField(value, scribble) || scribble.nextPosition != scribble.limitPosition)
+          return false;
+        tz = scribble.intValue1;
+      }
+    }
+    scribble.dateTime = new XSDateTime(XSDateTime.FIELD_UNDEFINED, 
+        XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, 
+        hour, minute, second, bigReverseFractionalSecond, tz, EXISchemaConst.TIME_TYPE);
+    scribble.longValue = reverseFractionalSecond;
+    return true;
+  }
+
+  ////////////////////////////////////////////////////////////
+  
+  @Override
+  void scribeDateTimeValue(XSDateTime dateTime, long reverseFractionalSecond, OutputStream channelStream, Scriber scriber) throws IOException {
+    writeTime(dateTime.hour, dateTime.minute, dateTime.second,
+        reverseFractionalSecond, dateTime.reverseFractionalSecond, channelStream, scriber);
+    writeTimeZone(dateTime.timeZone, channelStream, scriber);
+  }
+  
+}
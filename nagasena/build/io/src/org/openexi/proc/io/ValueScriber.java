@@ -0,0 +1,140 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import org.openexi.proc.grammars.ValueApparatus;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.XSDateTime;
+
+public abstract class ValueScriber extends ValueApparatus {
+
+  public abstract int getBuiltinRCS(int simpleType, Scriber scriber);
+  
+  ////////////////////////////////////////////////////////////
+  
+  public abstract boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber);
+  
+  public abstract void scribe(String value, Scribble scribble, int localName, int uri, int tp, Scriber scriber) throws IOException;
+  
+  /**
+   * ScriberValueHolder calls this method to write out an Object to a channelStream.
+   */
+  public abstract void scribe(String value, Scribble scribble, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException;
+  
+  ////////////////////////////////////////////////////////////
+  
+  public abstract Object toValue(String value, Scribble scribble, Scriber scriber);
+
+  public abstract void doScribe(Object value, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException;
+
+  ////////////////////////////////////////////////////////////
+  // The following methods process a value that is given in its typed form
+  // instead of characters. They return false when the value scriber does
+  // not take such a value, or the value is not valid for the type tp, in
+  // which case the value needs to be processed as characters.
+  ////////////////////////////////////////////////////////////
+
+  public boolean processLong(long value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  public boolean processDouble(double value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  public boolean processDecimal(BigDecimal value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  public boolean processDateTime(XSDateTime value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  public boolean processBinary(ByteBuffer value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  ////////////////////////////////////////////////////////////
+  // The following methods process a value that is given as a range of
+  // characters. Value scribers for which processesChars() returns true
+  // parse the characters in place, and do not refer to the String value
+  // when scribing, thus null can be passed to scribe() as the value.
+  ////////////////////////////////////////////////////////////
+
+  public boolean processesChars() {
+    return false;
+  }
+
+  public boolean process(char[] ch, int start, int length, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return process(new String(ch, start, length), tp, schema, scribble, scriber);
+  }
+
+  ////////////////////////////////////////////////////////////
+  
+  public static final String normalize(final String text, final int whiteSpace) {
+    assert whiteSpace != EXISchema.WHITESPACE_PRESERVE;
+    /* Now we know that whiteSpace is either WHITESPACE_COLLAPSE or
+       WHITESPACE_REPLACE. */
+    
+    int i;
+    
+    final int len;
+    // for performance optimization
+    for (i = 0, len = text.length(); i < len && !Character.isWhitespace(text.charAt(i)); i++);
+    if (i == len) // no whitespace found.
+      return text;
+
+    final StringBuilder buf = new StringBuilder(len);
+
+    if (whiteSpace == EXISchema.WHITESPACE_COLLAPSE) {
+      boolean initState = true;
+      boolean whiteSpaceDeposited = false;
+      for (i = 0; i < len; i++) {
+        final char ch;
+        switch (ch = text.charAt(i)) {
+          case '\t':
+          case '\n':
+          case '\r':
+          case ' ':
+            if (!initState) {
+              whiteSpaceDeposited = true;
+            }
+            break;
+          default:
+            if (initState) {
+              assert !whiteSpaceDeposited;
+              initState = false;
+            }
+            else if (whiteSpaceDeposited) {
+              buf.append(' ');
+              whiteSpaceDeposited = false;
+            }
+            buf.append(ch);
+            break;
+        }
+      }
+    }
+    else {
+      assert whiteSpace == EXISchema.WHITESPACE_REPLACE;
+      for (i = 0; i < len; i++) {
+        final char ch;
+        switch (ch = text.charAt(i)) {
+          case '\t':
+          case '\n':
+          case '\r':
+          case ' ':
+            buf.append(' '); // replace
+            break;
+          default:
+            buf.append(ch);
+            break;
+        }
+      }
+    }
+    return buf.toString();
+  }
+
+}
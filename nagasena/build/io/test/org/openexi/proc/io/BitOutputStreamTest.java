@@ -0,0 +1,80 @@
+package org.openexi.proc.io;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class BitOutputStreamTest extends TestCase {
+
+  public BitOutputStreamTest(String name) {
+    super(name);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Bits of various widths come out in the order they were put, across
+   * the boundaries of words and of the byte array.
+   */
+  public void testPutBits() throws Exception {
+    final Random random = new Random(20161018);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final BitOutputStream bitOutputStream = new BitOutputStream(baos);
+    final StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      if (random.nextInt(4) == 0) {
+        final boolean bit = random.nextBoolean();
+        bitOutputStream.putBit(bit);
+        expected.append(bit ? '1' : '0');
+      }
+      else {
+        final int n = random.nextInt(33);
+        final int x = random.nextInt();
+        bitOutputStream.putBits(n, x);
+        for (int j = n - 1; j >= 0; j--)
+          expected.append((x >>> j & 1) != 0 ? '1' : '0');
+      }
+    }
+    Assert.assertTrue(expected.length() > 8 * 8192);
+    // Bytes are held until the byte array is full.
+    Assert.assertEquals(0, baos.size() % 8192);
+    bitOutputStream.flush();
+    while (expected.length() % 8 != 0)
+      expected.append('0');
+    Assert.assertEquals(expected.toString(), toBitString(baos.toByteArray()));
+  }
+
+  /**
+   * Flush pads the last byte with zeros, and bits put thereafter start
+   * at a byte boundary.
+   */
+  public void testFlush() throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final BitOutputStream bitOutputStream = new BitOutputStream(baos);
+    bitOutputStream.putBits(3, 5);
+    Assert.assertEquals(0, baos.size());
+    bitOutputStream.flush();
+    Assert.assertEquals("10100000", toBitString(baos.toByteArray()));
+    bitOutputStream.flush();
+    Assert.assertEquals(1, baos.size());
+    bitOutputStream.putBit(true);
+    bitOutputStream.putBits(32, 0x80000001);
+    bitOutputStream.flush();
+    Assert.assertEquals("10100000" + "11000000" + "00000000" + "00000000" + "00000000" + "10000000",
+        toBitString(baos.toByteArray()));
+  }
+
+  private static String toBitString(byte[] bts) {
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (int i = 0; i < bts.length; i++) {
+      for (int j = 7; j >= 0; j--)
+        stringBuilder.append((bts[i] >>> j & 1) != 0 ? '1' : '0');
+    }
+    return stringBuilder.toString();
+  }
+
+}
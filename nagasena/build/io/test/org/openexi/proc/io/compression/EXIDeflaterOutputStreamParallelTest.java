@@ -0,0 +1,150 @@
+package org.openexi.proc.io.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class EXIDeflaterOutputStreamParallelTest extends TestCase {
+
+  public EXIDeflaterOutputStreamParallelTest(String name) {
+    super(name);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Bytes written in bulk are deflated the same as those written one by 
+   * one, including runs longer than the buffer of the current segment.
+   */
+  public void testWriteBulk() throws Exception {
+    final byte[] bts = new byte[20000];
+    for (int i = 0; i < bts.length; i++)
+      bts[i] = (byte)(i % 251);
+
+    final ByteArrayOutputStream baos1 = new ByteArrayOutputStream();
+    ManualExecutor executor = new ManualExecutor();
+    EXIDeflaterOutputStreamParallel stream = new EXIDeflaterOutputStreamParallel(baos1, executor, 
+        new DeflaterPool(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY), null);
+    for (int i = 0; i < 100; i++)
+      stream.write(bts[i]);
+    stream.resetDeflater();
+    for (int i = 0; i < bts.length; i++)
+      stream.write(bts[i]);
+    stream.resetDeflater();
+    stream.finishBlock();
+    executor.runAll();
+    stream.finish();
+
+    final ByteArrayOutputStream baos2 = new ByteArrayOutputStream();
+    executor = new ManualExecutor();
+    stream = new EXIDeflaterOutputStreamParallel(baos2, executor, 
+        new DeflaterPool(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY), null);
+    stream.write(bts, 0, 60);
+    stream.write(bts, 60, 40);
+    stream.resetDeflater();
+    stream.write(bts[0]);
+    stream.write(bts, 1, bts.length - 1);
+    stream.resetDeflater();
+    stream.finishBlock();
+    executor.runAll();
+    stream.finish();
+
+    final byte[] deflated = baos2.toByteArray();
+    Assert.assertTrue(Arrays.equals(baos1.toByteArray(), deflated));
+
+    final Inflater inflater = new Inflater(true);
+    inflater.setInput(deflated);
+    final byte[] inflated = new byte[bts.length];
+    Assert.assertEquals(100, inflate(inflater, inflated));
+    for (int i = 0; i < 100; i++)
+      Assert.assertEquals(bts[i], inflated[i]);
+    final int n_remaining = inflater.getRemaining();
+    inflater.reset();
+    inflater.setInput(deflated, deflated.length - n_remaining, n_remaining);
+    Assert.assertEquals(bts.length, inflate(inflater, inflated));
+    Assert.assertTrue(Arrays.equals(bts, inflated));
+    inflater.end();
+  }
+
+  /**
+   * The Deflaters of a pool are ended when the pool is replaced, and when 
+   * the stream is finished or closed. Those given back by blocks still in 
+   * progress at that time are ended as well.
+   */
+  public void testEndDeflaters() throws Exception {
+    final ManualExecutor executor = new ManualExecutor();
+    final DeflaterPool deflaterPool1 = new DeflaterPool(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    EXIDeflaterOutputStreamParallel stream = new EXIDeflaterOutputStreamParallel(
+        new ByteArrayOutputStream(), executor, deflaterPool1, null);
+    stream.write(new byte[] { 1, 2, 3 }, 0, 3);
+    stream.resetDeflater();
+    stream.finishBlock();
+    executor.runAll();
+    Assert.assertEquals(1, deflaterPool1.getIdleCount());
+
+    stream.write(new byte[] { 4, 5, 6 }, 0, 3);
+    stream.resetDeflater();
+    stream.finishBlock();
+    final DeflaterPool deflaterPool2 = new DeflaterPool(Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY);
+    stream.setDeflaterPool(deflaterPool2);
+    Assert.assertTrue(deflaterPool1.isEnded());
+    Assert.assertEquals(0, deflaterPool1.getIdleCount());
+    // The block in progress gives back its Deflater to the ended pool.
+    executor.runAll();
+    Assert.assertEquals(0, deflaterPool1.getIdleCount());
+
+    stream.write(new byte[] { 7, 8, 9 }, 0, 3);
+    stream.resetDeflater();
+    stream.finishBlock();
+    executor.runAll();
+    Assert.assertEquals(1, deflaterPool2.getIdleCount());
+    stream.finish();
+    Assert.assertTrue(deflaterPool2.isEnded());
+    Assert.assertEquals(0, deflaterPool2.getIdleCount());
+
+    final DeflaterPool deflaterPool3 = new DeflaterPool(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    stream = new EXIDeflaterOutputStreamParallel(new ByteArrayOutputStream(), executor, deflaterPool3, null);
+    stream.write(new byte[] { 1, 2, 3 }, 0, 3);
+    stream.resetDeflater();
+    stream.finishBlock();
+    executor.runAll();
+    Assert.assertEquals(1, deflaterPool3.getIdleCount());
+    stream.close();
+    Assert.assertTrue(deflaterPool3.isEnded());
+    Assert.assertEquals(0, deflaterPool3.getIdleCount());
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private static int inflate(Inflater inflater, byte[] bts) throws Exception {
+    int n_bytes = 0;
+    while (!inflater.finished())
+      n_bytes += inflater.inflate(bts, n_bytes, bts.length - n_bytes);
+    return n_bytes;
+  }
+
+  /**
+   * Runs tasks on the calling thread when asked to.
+   */
+  private static final class ManualExecutor implements Executor {
+    final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+    public void execute(Runnable task) {
+      tasks.add(task);
+    }
+    void runAll() {
+      while (tasks.size() != 0)
+        tasks.remove(0).run();
+    }
+  }
+
+}
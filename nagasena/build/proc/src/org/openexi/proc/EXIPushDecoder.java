@@ -0,0 +1,189 @@
+package org.openexi.proc;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.openexi.proc.common.EXIOptionsException;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.io.ByteBufferInputStream;
+import org.openexi.proc.io.Scanner;
+
+/**
+ * EXIPushDecoder decodes an EXI stream that arrives in chunks, without 
+ * ever blocking for input. The application feeds chunks as they arrive,
+ * and calls {@link #nextEvent()} to retrieve the events that can be 
+ * decoded out of the bytes fed so far. When more input is needed, 
+ * nextEvent() returns null and {@link #isFinished()} returns false.
+ * <br/><br/>
+ * The EXIDecoder given to the constructor provides the options and 
+ * the GrammarCache for decoding. Inflation of compressed streams must 
+ * not be delegated to an executor.
+ * <br/><br/>
+ * Bit-packed and byte-aligned streams are decoded incrementally. The 
+ * decoder takes a checkpoint after each event, and when an event is cut 
+ * off at the end of the bytes available, it rolls back to the last 
+ * checkpoint and picks up from there once more bytes are fed. The bytes 
+ * of the events already returned are discarded. Binary values are decoded 
+ * whole in this mode irrespective of the binary chunk size of the EXIDecoder.
+ * <br/><br/>
+ * Compressed and pre-compressed streams are decoded only after 
+ * {@link #endOfInput()} has been called, because the string tables and 
+ * channels of a block cannot be rolled back to an event boundary.
+ */
+public final class EXIPushDecoder {
+
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+
+  private final EXIDecoder m_decoder;
+  private final ByteBufferInputStream m_input;
+
+  private Scanner m_scanner;
+  // true if the scanner rolls back to the last event upon running out of bytes
+  private boolean m_incremental;
+  // true if bytes have been fed since the scanner last ran out of bytes
+  private boolean m_fed;
+  // true if the scanner ran out of bytes, and is yet to roll back
+  private boolean m_starved;
+  private boolean m_endOfInput;
+  // Number of bytes needed before decoding the header is tried again.
+  private int m_n_bytesRequired;
+  private boolean m_finished;
+
+  /**
+   * Creates an EXIPushDecoder that decodes streams using the settings
+   * of an EXIDecoder.
+   * @param decoder EXIDecoder configured for the streams
+   */
+  public EXIPushDecoder(EXIDecoder decoder) {
+    m_decoder = decoder;
+    m_input = new ByteBufferInputStream(INITIAL_BUFFER_SIZE);
+    reset();
+  }
+
+  /**
+   * Discards the state of the current stream so as to decode a new stream.
+   */
+  public void reset() {
+    m_input.clear();
+    m_scanner = null;
+    m_incremental = false;
+    m_fed = false;
+    m_starved = false;
+    m_endOfInput = false;
+    m_n_bytesRequired = 1;
+    m_finished = false;
+  }
+
+  /**
+   * Feeds bytes of the stream.
+   * @param b array that contains the bytes
+   * @param off offset of the first byte in the array
+   * @param len number of bytes
+   */
+  public void feed(byte[] b, int off, int len) {
+    m_input.append(b, off, len);
+    m_fed = true;
+  }
+
+  /**
+   * Feeds the remaining bytes of a buffer, which are all consumed.
+   * @param byteBuffer buffer that contains the bytes
+   */
+  public void feed(ByteBuffer byteBuffer) {
+    m_input.append(byteBuffer);
+    m_fed = true;
+  }
+
+  /**
+   * Notifies that there are no more bytes to come for the stream.
+   */
+  public void endOfInput() {
+    m_input.endOfInput();
+    m_endOfInput = true;
+  }
+
+  /**
+   * Returns true if the end of the stream has been reached.
+   */
+  public boolean isFinished() {
+    return m_finished;
+  }
+
+  /**
+   * Returns the next event that can be decoded out of the bytes fed so far.
+   * @return the next event, or null if more bytes are needed, or if the 
+   * end of the stream has been reached, of which {@link #isFinished()}
+   * tells.
+   * @throws EOFException if the stream ended before it was complete
+   */
+  public EventDescription nextEvent() throws IOException, EXIOptionsException {
+    if (m_finished)
+      return null;
+    if (m_scanner == null) {
+      if (!m_endOfInput && m_input.available() < m_n_bytesRequired)
+        return null;
+      if (!processHeader())
+        return null;
+    }
+    else if (!m_incremental) {
+      if (!m_endOfInput)
+        return null;
+    }
+    else if (m_starved) {
+      if (!m_fed && !m_endOfInput)
+        return null;
+      m_scanner.rollback();
+      m_starved = false;
+    }
+    m_fed = false;
+    final EventDescription event;
+    try {
+      event = m_scanner.nextEvent();
+    }
+    catch (EOFException eofe) {
+      if (m_endOfInput || !m_incremental)
+        throw eofe;
+      m_starved = true;
+      return null;
+    }
+    if (event == null)
+      m_finished = true;
+    else if (m_incremental)
+      m_scanner.mark();
+    return event;
+  }
+
+  /**
+   * Decodes the header out of the bytes available, which are all kept 
+   * until the header has been decoded in case the header is cut off.
+   * The header is decoded again only after the bytes available have grown 
+   * by half since the last time so that the total work stays proportional 
+   * to the length of the header.
+   */
+  private boolean processHeader() throws IOException, EXIOptionsException {
+    m_input.mark(0);
+    m_decoder.setInputStream(m_input);
+    final Scanner scanner;
+    try {
+      scanner = m_decoder.processHeader();
+    }
+    catch (EOFException eofe) {
+      if (m_endOfInput)
+        throw eofe;
+      m_input.reset();
+      final int n_bytes = m_input.available();
+      m_n_bytesRequired = n_bytes + Math.max(1, n_bytes >> 1);
+      return false;
+    }
+    if (scanner.supportsMark()) {
+      scanner.setBinaryChunkSize(-1);
+      scanner.mark();
+      m_incremental = true;
+    }
+    m_fed = m_starved = false;
+    m_scanner = scanner;
+    return true;
+  }
+
+}
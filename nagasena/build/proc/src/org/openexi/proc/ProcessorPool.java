@@ -0,0 +1,380 @@
+package org.openexi.proc;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.openexi.proc.common.EXIOptions;
+import org.openexi.proc.common.EXIOptionsException;
+import org.openexi.proc.common.QName;
+import org.openexi.proc.common.SchemaId;
+import org.openexi.proc.grammars.GrammarCache;
+
+/**
+ * ProcessorPool is a bounded pool of EXI processors (encoders or decoders)
+ * keyed by a GrammarCache and the EXI options that are in effect.
+ *
+ * At most <i>capacity</i> processors are created for each key. When all of
+ * them are lent out, a call to borrow waits until one of them is released.
+ * A released processor is reset to its defaults and reconfigured with the
+ * GrammarCache and EXIOptions of its key so that the next borrower receives
+ * a processor that is ready for use.
+ *
+ * Processors are kept for at most <i>maxKeys</i> keys. When there are more,
+ * the keys that were least recently used and have none of their processors
+ * lent out are dropped together with their idle processors, so that grammar
+ * caches that are no longer in use can be reclaimed.
+ *
+ * The pool counts hits (borrows served by a pooled processor), misses
+ * (borrows that created a new processor) and waits (borrows that had to
+ * wait for a processor to be released) together with the total time spent
+ * waiting.
+ *
+ * Not for public use.
+ * @y.exclude
+ */
+public abstract class ProcessorPool<T> {
+
+  /**
+   * Default maximum number of keys for which processors are kept.
+   */
+  public static final int DEFAULT_MAX_KEYS = 16;
+
+  private final int m_capacity;
+  private final int m_maxKeys;
+
+  private final LinkedHashMap<Key,Slot<T>> m_slots;
+  private final IdentityHashMap<T,Slot<T>> m_lent;
+
+  private long m_n_hits;
+  private long m_n_misses;
+  private long m_n_waits;
+  private long m_waitNanos;
+
+  /**
+   * Creates a pool that holds at most capacity processors per key,
+   * for at most DEFAULT_MAX_KEYS keys.
+   * @param capacity maximum number of processors for each pair of GrammarCache and EXIOptions
+   */
+  protected ProcessorPool(int capacity) {
+    this(capacity, DEFAULT_MAX_KEYS);
+  }
+
+  /**
+   * Creates a pool that holds at most capacity processors per key,
+   * for at most maxKeys keys.
+   * @param capacity maximum number of processors for each pair of GrammarCache and EXIOptions
+   * @param maxKeys maximum number of pairs of GrammarCache and EXIOptions for which 
+   * idle processors are kept
+   */
+  protected ProcessorPool(int capacity, int maxKeys) {
+    if (capacity <= 0)
+      throw new IllegalArgumentException("capacity must be a positive number.");
+    if (maxKeys <= 0)
+      throw new IllegalArgumentException("maxKeys must be a positive number.");
+    m_capacity = capacity;
+    m_maxKeys = maxKeys;
+    // Iterated in the order of access, least recently used first.
+    m_slots = new LinkedHashMap<Key,Slot<T>>(16, 0.75f, true);
+    m_lent = new IdentityHashMap<T,Slot<T>>();
+    m_n_hits = m_n_misses = m_n_waits = m_waitNanos = 0;
+  }
+
+  /**
+   * Creates a new processor in its default state.
+   */
+  protected abstract T createProcessor();
+
+  /**
+   * Restores the per-use settings of a processor to their defaults, then
+   * configures it with the grammar cache and options.
+   */
+  protected abstract void configure(T processor, GrammarCache grammarCache, EXIOptions options)
+    throws EXIOptionsException;
+
+  /**
+   * Returns true if processors are configured with the schemaId of the
+   * options, in which case schemaId is part of the key.
+   */
+  protected abstract boolean usesSchemaId();
+
+  /**
+   * Returns the maximum number of processors that are created per key.
+   */
+  public final int getCapacity() {
+    return m_capacity;
+  }
+
+  /**
+   * Returns the maximum number of keys for which processors are kept.
+   */
+  public final int getMaxKeys() {
+    return m_maxKeys;
+  }
+
+  /**
+   * Borrows a processor that is configured with the grammar cache and
+   * the options, waiting for another borrower to release one if necessary.
+   * Alignment type, fragment, block size, value max length, value partition
+   * capacity, preserve lexical values, datatype representation map and,
+   * if usesSchemaId() returns true, schemaId are taken from the options. 
+   * Other options are determined by the grammar cache.
+   */
+  protected final T borrowProcessor(GrammarCache grammarCache, EXIOptions options)
+    throws EXIOptionsException, InterruptedException {
+    final Key key = new Key(grammarCache, options, usesSchemaId());
+    final Slot<T> slot;
+    T processor = null;
+    synchronized (this) {
+      Slot<T> _slot;
+      if ((_slot = m_slots.get(key)) == null) {
+        _slot = new Slot<T>(key);
+        m_slots.put(key, _slot);
+      }
+      slot = _slot;
+      long waitStart = 0;
+      try {
+        while (true) {
+          final int n_idle;
+          if ((n_idle = slot.idle.size()) != 0) {
+            processor = slot.idle.remove(n_idle - 1);
+            ++m_n_hits;
+            break;
+          }
+          else if (slot.n_processors < m_capacity) {
+            ++slot.n_processors;
+            ++m_n_misses;
+            break;
+          }
+          if (waitStart == 0) {
+            waitStart = System.nanoTime();
+            ++m_n_waits;
+          }
+          ++slot.n_waiters;
+          try {
+            wait();
+          }
+          finally {
+            --slot.n_waiters;
+          }
+        }
+      }
+      finally {
+        if (waitStart != 0)
+          m_waitNanos += System.nanoTime() - waitStart;
+      }
+      if (processor != null) {
+        m_lent.put(processor, slot);
+        return processor;
+      }
+    }
+    // Create a new processor outside the lock.
+    boolean success = false;
+    try {
+      processor = createProcessor();
+      configure(processor, grammarCache, slot.key.options);
+      success = true;
+    }
+    finally {
+      synchronized (this) {
+        if (success)
+          m_lent.put(processor, slot);
+        else {
+          --slot.n_processors;
+          evictSlots();
+          notifyAll();
+        }
+      }
+    }
+    return processor;
+  }
+
+  /**
+   * Returns a processor to the pool. The processor must not be used
+   * by the caller afterwards.
+   * @throws IllegalArgumentException when the processor was not borrowed from this pool
+   */
+  protected final void releaseProcessor(T processor) {
+    final Slot<T> slot;
+    synchronized (this) {
+      if ((slot = m_lent.remove(processor)) == null)
+        throw new IllegalArgumentException("The processor was not borrowed from this pool.");
+    }
+    boolean success = false;
+    try {
+      configure(processor, slot.key.grammarCache, slot.key.options);
+      success = true;
+    }
+    catch (EXIOptionsException eoe) {
+      // The options of a key were accepted when the processor was created.
+      assert false;
+    }
+    finally {
+      synchronized (this) {
+        if (success)
+          slot.idle.add(processor);
+        else
+          --slot.n_processors;
+        evictSlots();
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Drops the least recently used slots that have no processor lent out
+   * and no borrower waiting while there are more than m_maxKeys slots.
+   */
+  private void evictSlots() {
+    int n_excess;
+    if ((n_excess = m_slots.size() - m_maxKeys) > 0) {
+      final Iterator<Slot<T>> iterator = m_slots.values().iterator();
+      while (n_excess > 0 && iterator.hasNext()) {
+        final Slot<T> slot = iterator.next();
+        if (slot.idle.size() == slot.n_processors && slot.n_waiters == 0) {
+          iterator.remove();
+          --n_excess;
+        }
+      }
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Metrics
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Returns the number of borrows that were served by a pooled processor.
+   */
+  public final synchronized long getHitCount() {
+    return m_n_hits;
+  }
+
+  /**
+   * Returns the number of borrows that created a new processor.
+   */
+  public final synchronized long getMissCount() {
+    return m_n_misses;
+  }
+
+  /**
+   * Returns the number of borrows that waited for a processor to be released.
+   */
+  public final synchronized long getWaitCount() {
+    return m_n_waits;
+  }
+
+  /**
+   * Returns the total time in nanoseconds spent by borrows waiting
+   * for a processor to be released.
+   */
+  public final synchronized long getWaitNanos() {
+    return m_waitNanos;
+  }
+
+  /**
+   * Returns the number of processors that are currently lent out.
+   */
+  public final synchronized int getActiveCount() {
+    return m_lent.size();
+  }
+
+  /**
+   * Returns the number of keys for which processors are kept.
+   */
+  public final synchronized int getKeyCount() {
+    return m_slots.size();
+  }
+
+  /**
+   * Returns the number of processors that are ready to be borrowed.
+   */
+  public final synchronized int getIdleCount() {
+    int n_idle = 0;
+    for (Slot<T> slot : m_slots.values())
+      n_idle += slot.idle.size();
+    return n_idle;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Key and Slot
+  ///////////////////////////////////////////////////////////////////////////
+
+  private static final class Slot<T> {
+    final Key key;
+    final ArrayList<T> idle;
+    int n_processors;
+    int n_waiters;
+    Slot(Key key) {
+      this.key = key;
+      idle = new ArrayList<T>();
+      n_processors = 0;
+      n_waiters = 0;
+    }
+  }
+
+  /**
+   * Key is made of the identity of a GrammarCache and a snapshot of the
+   * EXI options that are relevant to processors.
+   */
+  private static final class Key {
+
+    final GrammarCache grammarCache;
+    final EXIOptions options;
+    private final boolean m_hasSchemaId;
+    private final String m_schemaId;
+    private final int m_hashCode;
+
+    Key(GrammarCache grammarCache, EXIOptions options, boolean usesSchemaId) throws EXIOptionsException {
+      this.grammarCache = grammarCache;
+      this.options = new EXIOptions();
+      this.options.setAlignmentType(options.getAlignmentType());
+      this.options.setFragment(options.isFragment());
+      this.options.setBlockSize(options.getBlockSize());
+      this.options.setValueMaxLength(options.getValueMaxLength());
+      this.options.setValuePartitionCapacity(options.getValuePartitionCapacity());
+      this.options.setPreserveLexicalValues(options.getPreserveLexicalValues());
+      this.options.setDatatypeRepresentationMap(options.getDatatypeRepresentationMap(),
+          options.getDatatypeRepresentationMapBindingsCount());
+      final SchemaId schemaId = usesSchemaId ? options.getSchemaId() : null;
+      this.options.setSchemaId(schemaId);
+      m_hasSchemaId = schemaId != null;
+      m_schemaId = m_hasSchemaId ? schemaId.getValue() : null;
+      int h = System.identityHashCode(grammarCache);
+      h = 31 * h + this.options.getAlignmentType().hashCode();
+      h = 31 * h + (this.options.isFragment() ? 1 : 0);
+      h = 31 * h + this.options.getBlockSize();
+      h = 31 * h + this.options.getValueMaxLength();
+      h = 31 * h + this.options.getValuePartitionCapacity();
+      h = 31 * h + (this.options.getPreserveLexicalValues() ? 1 : 0);
+      h = 31 * h + this.options.getDatatypeRepresentationMapBindingsCount();
+      m_hashCode = h;
+    }
+
+    @Override
+    public int hashCode() {
+      return m_hashCode;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof Key))
+        return false;
+      final Key key = (Key)object;
+      final EXIOptions other = key.options;
+      return m_hashCode == key.m_hashCode && grammarCache == key.grammarCache &&
+        options.getAlignmentType() == other.getAlignmentType() &&
+        options.isFragment() == other.isFragment() &&
+        options.getBlockSize() == other.getBlockSize() &&
+        options.getValueMaxLength() == other.getValueMaxLength() &&
+        options.getValuePartitionCapacity() == other.getValuePartitionCapacity() &&
+        options.getPreserveLexicalValues() == other.getPreserveLexicalValues() &&
+        m_hasSchemaId == key.m_hasSchemaId &&
+        (m_schemaId != null ? m_schemaId.equals(key.m_schemaId) : key.m_schemaId == null) &&
+        QName.isSame(options.getDatatypeRepresentationMap(), options.getDatatypeRepresentationMapBindingsCount(),
+            other.getDatatypeRepresentationMap(), other.getDatatypeRepresentationMapBindingsCount());
+    }
+  }
+
+}
@@ -0,0 +1,968 @@
+package org.openexi.sax;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.LocatorImpl;
+
+/**
+ * PushTransmogrifier converts XML documents into EXI streams with the
+ * XML bytes pushed to it in chunks as they arrive, instead of having
+ * a SAX parser pull them from an InputStream. It never blocks for input,
+ * thus a single thread can serve many documents at a time.
+ * <br/><br/>
+ * The Transmogrifier given to the constructor provides the options and
+ * the output of the EXI streams. Bytes fed are tokenized by a minimal
+ * XML tokenizer of its own, of which the events are passed on to the
+ * Transmogrifier's SAXTransmogrifier as soon as they are complete.
+ * <br/><br/>
+ * The tokenizer checks that the document is well-formed as far as its
+ * structure is concerned, and that the namespace prefixes are bound.
+ * Markup declarations in the internal subset of a DTD are skipped,
+ * so that only the predefined entities and character references can
+ * be referenced. The character encoding is UTF-8 or UTF-16 as indicated
+ * by a byte order mark, otherwise the one declared in the XML declaration,
+ * or UTF-8 in the absence of the declaration.
+ */
+public final class PushTransmogrifier {
+
+  private static final String XML_URI = "http://www.w3.org/XML/1998/namespace";
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final Charset UTF_16 = Charset.forName("UTF-16");
+
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+
+  private final Transmogrifier m_transmogrifier;
+  private SAXTransmogrifier m_saxHandler;
+  private final LocatorImpl m_locator;
+  private int m_line;
+  private int m_column;
+  private long m_n_consumed;
+
+  // Bytes held until the character encoding is known.
+  private byte[] m_head;
+  private int m_n_head;
+  private CharsetDecoder m_decoder;
+  // Bytes left undecoded at the end of the last chunk.
+  private ByteBuffer m_undecoded;
+  private final CharBuffer m_charBuffer;
+
+  // Characters not yet tokenized.
+  private final StringBuilder m_text;
+  // Position in m_text where the search for the end of the pending markup resumes.
+  private int m_resume;
+
+  private char[] m_chars;
+  private final StringBuilder m_value;
+
+  private String[] m_qnames;
+  private String[] m_uris;
+  private String[] m_localNames;
+  private int[] m_bindingsMarks;
+  private int m_depth;
+
+  // Prefix and namespace name pairs in scope.
+  private String[] m_bindings;
+  private int m_n_bindings;
+
+  private String[] m_attrNames;
+  private String[] m_attrValues;
+  private int m_n_attrs;
+  private final AttributesImpl m_attributes;
+
+  private boolean m_started;
+  private boolean m_seenRoot;
+  private boolean m_finished;
+
+  /**
+   * Creates a PushTransmogrifier that encodes documents using the
+   * settings of a Transmogrifier.
+   * @param transmogrifier Transmogrifier configured for the EXI streams
+   */
+  public PushTransmogrifier(Transmogrifier transmogrifier) {
+    m_transmogrifier = transmogrifier;
+    m_locator = new LocatorImpl();
+    m_charBuffer = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+    m_text = new StringBuilder(INITIAL_BUFFER_SIZE);
+    m_chars = new char[INITIAL_BUFFER_SIZE];
+    m_value = new StringBuilder();
+    m_qnames = new String[32];
+    m_uris = new String[32];
+    m_localNames = new String[32];
+    m_bindingsMarks = new int[32];
+    m_bindings = new String[16];
+    m_attrNames = new String[16];
+    m_attrValues = new String[16];
+    m_attributes = new AttributesImpl();
+    m_undecoded = ByteBuffer.allocate(16);
+    reset();
+  }
+
+  /**
+   * Discards the state of the current document so as to encode a new
+   * document. Changes made to the Transmogrifier's settings take effect
+   * with the document that follows.
+   */
+  public void reset() {
+    m_saxHandler = null;
+    m_locator.setLineNumber(1);
+    m_locator.setColumnNumber(1);
+    m_line = 1;
+    m_column = 1;
+    m_n_consumed = 0;
+    m_head = new byte[64];
+    m_n_head = 0;
+    m_decoder = null;
+    m_undecoded.clear();
+    m_charBuffer.clear();
+    m_text.setLength(0);
+    m_resume = 0;
+    m_depth = 0;
+    m_n_bindings = 0;
+    m_started = false;
+    m_seenRoot = false;
+    m_finished = false;
+  }
+
+  /**
+   * Feeds bytes of the document, and encodes the XML events that they
+   * complete.
+   * @param b array that contains the bytes
+   * @param off offset of the first byte in the array
+   * @param len number of bytes
+   */
+  public void feed(byte[] b, int off, int len) throws TransmogrifierException, IOException {
+    feed(ByteBuffer.wrap(b, off, len));
+  }
+
+  /**
+   * Feeds the remaining bytes of a buffer, which are all consumed, and
+   * encodes the XML events that they complete.
+   * @param byteBuffer buffer that contains the bytes
+   */
+  public void feed(ByteBuffer byteBuffer) throws TransmogrifierException, IOException {
+    if (m_finished)
+      throw new IllegalStateException("The document has already ended.");
+    if (m_decoder == null) {
+      final int len = byteBuffer.remaining();
+      if (m_head.length - m_n_head < len) {
+        int capacity = m_head.length;
+        while (capacity - m_n_head < len)
+          capacity <<= 1;
+        final byte[] head = new byte[capacity];
+        System.arraycopy(m_head, 0, head, 0, m_n_head);
+        m_head = head;
+      }
+      byteBuffer.get(m_head, m_n_head, len);
+      m_n_head += len;
+      if (!detectEncoding(false))
+        return;
+    }
+    else
+      decode(byteBuffer, false);
+    tokenize(false);
+  }
+
+  /**
+   * Notifies that there are no more bytes to come for the document, and
+   * encodes the rest of the document.
+   * @throws TransmogrifierException if the document ended before it was complete
+   */
+  public void endOfInput() throws TransmogrifierException, IOException {
+    if (m_finished)
+      throw new IllegalStateException("The document has already ended.");
+    if (m_decoder == null)
+      detectEncoding(true);
+    decode(ByteBuffer.allocate(0), true);
+    tokenize(true);
+    if (m_text.length() != 0)
+      throw error("XML document structures must start and end within the same entity.");
+    if (!m_seenRoot)
+      throw error("Premature end of file.");
+    if (m_depth != 0) {
+      throw error("The element type \"" + m_qnames[m_depth - 1] +
+          "\" must be terminated by the matching end-tag \"</" + m_qnames[m_depth - 1] + ">\".");
+    }
+    try {
+      m_saxHandler.endDocument();
+    }
+    catch (SAXException se) {
+      throw unwrap(se);
+    }
+    m_finished = true;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Character decoding
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Determines the character encoding from the bytes held so far, and
+   * decodes them once it is known.
+   * @return true if the character encoding has been determined
+   */
+  private boolean detectEncoding(boolean endOfInput) throws TransmogrifierException, IOException {
+    final byte[] head = m_head;
+    final int n_head = m_n_head;
+    Charset charset = UTF_8;
+    int pos = 0;
+    if (n_head < 2 && !endOfInput)
+      return false;
+    if (n_head >= 2 && (head[0] == (byte)0xFE && head[1] == (byte)0xFF || head[0] == (byte)0xFF && head[1] == (byte)0xFE)) {
+      charset = UTF_16;
+    }
+    else {
+      if (n_head >= 3 && head[0] == (byte)0xEF && head[1] == (byte)0xBB && head[2] == (byte)0xBF)
+        pos = 3;
+      else if (n_head < 3 && !endOfInput && head[0] == (byte)0xEF)
+        return false;
+      final String xmlDecl = "<?xml";
+      int i;
+      for (i = 0; i < xmlDecl.length() && pos + i < n_head; i++) {
+        if (head[pos + i] != xmlDecl.charAt(i))
+          break;
+      }
+      if (pos + i == n_head && i < xmlDecl.length()) {
+        if (!endOfInput)
+          return false;
+      }
+      else if (i == xmlDecl.length()) {
+        int end;
+        for (end = pos + i; end + 1 < n_head && (head[end] != '?' || head[end + 1] != '>'); end++);
+        if (end + 1 < n_head) {
+          final String encoding = getEncodingName(new String(head, pos, end - pos, "ISO-8859-1"));
+          if (encoding != null) {
+            try {
+              charset = Charset.forName(encoding);
+            }
+            catch (IllegalArgumentException iae) {
+              throw error("Invalid encoding name \"" + encoding + "\".");
+            }
+          }
+        }
+        else if (!endOfInput)
+          return false;
+      }
+    }
+    m_decoder = charset.newDecoder();
+    decode(ByteBuffer.wrap(head, pos, n_head - pos), false);
+    m_head = null;
+    return true;
+  }
+
+  private static String getEncodingName(String xmlDecl) {
+    int pos;
+    if ((pos = xmlDecl.indexOf("encoding")) == -1)
+      return null;
+    pos += "encoding".length();
+    final int len = xmlDecl.length();
+    while (pos < len && isSpace(xmlDecl.charAt(pos)))
+      ++pos;
+    if (pos == len || xmlDecl.charAt(pos++) != '=')
+      return null;
+    while (pos < len && isSpace(xmlDecl.charAt(pos)))
+      ++pos;
+    if (pos == len)
+      return null;
+    final char quote = xmlDecl.charAt(pos++);
+    final int end;
+    if (quote != '"' && quote != '\'' || (end = xmlDecl.indexOf(quote, pos)) == -1)
+      return null;
+    return xmlDecl.substring(pos, end);
+  }
+
+  /**
+   * Decodes the remaining bytes of a buffer together with those left
+   * undecoded last time, and appends the characters to m_text.
+   */
+  private void decode(ByteBuffer byteBuffer, boolean endOfInput) throws TransmogrifierException {
+    ByteBuffer src = byteBuffer;
+    if (m_undecoded.position() != 0) {
+      ensureUndecodedCapacity(byteBuffer.remaining());
+      m_undecoded.put(byteBuffer);
+      m_undecoded.flip();
+      src = m_undecoded;
+    }
+    final CharBuffer charBuffer = m_charBuffer;
+    CoderResult result;
+    do {
+      result = m_decoder.decode(src, charBuffer, endOfInput);
+      if (result.isError()) {
+        final String message = "Invalid byte " + (src.get(src.position()) & 0xFF) +
+            " of " + result.length() + "-byte sequence in " + m_decoder.charset().name() + ".";
+        try {
+          result.throwException();
+        }
+        catch (CharacterCodingException cce) {
+          throw (TransmogrifierException)error(message).initCause(cce);
+        }
+      }
+      m_text.append(charBuffer.array(), 0, charBuffer.position());
+      charBuffer.clear();
+    }
+    while (result.isOverflow());
+    if (endOfInput) {
+      while (m_decoder.flush(charBuffer).isOverflow()) {
+        m_text.append(charBuffer.array(), 0, charBuffer.position());
+        charBuffer.clear();
+      }
+      m_text.append(charBuffer.array(), 0, charBuffer.position());
+      charBuffer.clear();
+    }
+    if (src == m_undecoded)
+      m_undecoded.compact();
+    else if (byteBuffer.hasRemaining()) {
+      ensureUndecodedCapacity(byteBuffer.remaining());
+      m_undecoded.put(byteBuffer);
+    }
+  }
+
+  private void ensureUndecodedCapacity(int len) {
+    if (m_undecoded.remaining() < len) {
+      int capacity = m_undecoded.capacity();
+      while (capacity - m_undecoded.position() < len)
+        capacity <<= 1;
+      final ByteBuffer undecoded = ByteBuffer.allocate(capacity);
+      m_undecoded.flip();
+      undecoded.put(m_undecoded);
+      m_undecoded = undecoded;
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Tokenizer
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Tokenizes the characters decoded so far, and passes the events
+   * on to the SAXTransmogrifier. Characters of a token that is yet to be
+   * completed are kept in m_text.
+   */
+  private void tokenize(boolean endOfInput) throws TransmogrifierException, IOException {
+    final StringBuilder text = m_text;
+    final int len = text.length();
+    int pos = 0;
+    try {
+      if (!m_started) {
+        m_saxHandler = m_transmogrifier.getSAXTransmogrifier();
+        m_saxHandler.setDocumentLocator(m_locator);
+        m_saxHandler.startDocument();
+        m_started = true;
+      }
+      while (pos < len) {
+        m_locator.setLineNumber(m_line);
+        m_locator.setColumnNumber(m_column);
+        final int end;
+        if (text.charAt(pos) == '<') {
+          if ((end = markup(pos, len)) == -1)
+            break;
+        }
+        else if ((end = characters(pos, len, endOfInput)) == -1)
+          break;
+        for (int i = pos; i < end; i++) {
+          if (text.charAt(i) == '\n') {
+            ++m_line;
+            m_column = 1;
+          }
+          else
+            ++m_column;
+        }
+        pos = end;
+      }
+    }
+    catch (SAXException se) {
+      throw unwrap(se);
+    }
+    if (pos != 0) {
+      text.delete(0, pos);
+      m_resume = m_resume > pos ? m_resume - pos : 0;
+      m_n_consumed += pos;
+    }
+  }
+
+  /**
+   * Processes the markup that starts at pos.
+   * @return position that follows the markup, or -1 if the markup is incomplete
+   */
+  private int markup(int pos, int len) throws TransmogrifierException, SAXException {
+    final StringBuilder text = m_text;
+    if (pos + 1 == len)
+      return -1;
+    int end;
+    switch (text.charAt(pos + 1)) {
+      case '/':
+        if ((end = find(">", pos + 2, len)) == -1)
+          return -1;
+        endTag(pos + 2, end);
+        return end + 1;
+      case '?':
+        if ((end = find("?>", pos + 2, len)) == -1)
+          return -1;
+        processingInstruction(pos, end);
+        return end + 2;
+      case '!':
+        int matched;
+        if ((matched = match("<!--", pos, len)) == 1) {
+          if ((end = find("-->", pos + 4, len)) == -1)
+            return -1;
+          final int n_chars = normalize(pos + 4, end);
+          m_saxHandler.comment(m_chars, 0, n_chars);
+          return end + 3;
+        }
+        else if (matched == 0)
+          return -1;
+        if ((matched = match("<![CDATA[", pos, len)) == 1) {
+          if ((end = find("]]>", pos + 9, len)) == -1)
+            return -1;
+          if (m_depth == 0)
+            throw error("Content is not allowed outside the root element.");
+          final int n_chars = normalize(pos + 9, end);
+          m_saxHandler.startCDATA();
+          m_saxHandler.characters(m_chars, 0, n_chars);
+          m_saxHandler.endCDATA();
+          return end + 3;
+        }
+        else if (matched == 0)
+          return -1;
+        if ((matched = match("<!DOCTYPE", pos, len)) == 1) {
+          if ((end = doctypeEnd(pos + 9, len)) == -1)
+            return -1;
+          doctype(pos + 9, end);
+          return end + 1;
+        }
+        else if (matched == 0)
+          return -1;
+        throw error("The markup in the document is not well-formed.");
+      default:
+        if ((end = tagEnd(pos + 1, len)) == -1)
+          return -1;
+        startTag(pos + 1, end);
+        return end + 1;
+    }
+  }
+
+  /**
+   * Tells whether the characters at pos start with s.
+   * @return 1 if they do, -1 if they do not, or 0 if there are too few
+   * characters to tell
+   */
+  private int match(String s, int pos, int len) {
+    final int n = s.length();
+    int i;
+    for (i = 0; i < n && pos + i < len; i++) {
+      if (m_text.charAt(pos + i) != s.charAt(i))
+        return -1;
+    }
+    return i == n ? 1 : 0;
+  }
+
+  /**
+   * Finds the terminator of a markup. The search resumes where it left
+   * off the last time the markup was found incomplete.
+   */
+  private int find(String terminator, int from, int len) {
+    final int pos;
+    if ((pos = m_text.indexOf(terminator, Math.max(from, m_resume))) == -1) {
+      m_resume = Math.max(from, len - terminator.length() + 1);
+      return -1;
+    }
+    m_resume = 0;
+    return pos;
+  }
+
+  /**
+   * Returns the position of the '>' that ends a start tag, skipping
+   * those in attribute values.
+   */
+  private int tagEnd(int pos, int len) {
+    final StringBuilder text = m_text;
+    char quote = 0;
+    for (int i = pos; i < len; i++) {
+      final char c = text.charAt(i);
+      if (quote != 0) {
+        if (c == quote)
+          quote = 0;
+      }
+      else if (c == '"' || c == '\'')
+        quote = c;
+      else if (c == '>')
+        return i;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the position of the '>' that ends a document type declaration,
+   * skipping those in the internal subset, and those in quoted literals,
+   * comments and processing instructions. Quotes in comments and processing
+   * instructions are not taken to start literals.
+   */
+  private int doctypeEnd(int pos, int len) {
+    final StringBuilder text = m_text;
+    char quote = 0;
+    boolean inSubset = false;
+    for (int i = pos; i < len; i++) {
+      final char c = text.charAt(i);
+      if (quote != 0) {
+        if (c == quote)
+          quote = 0;
+      }
+      else if (inSubset && c == '<') {
+        final String terminator;
+        final int start;
+        final int matched;
+        if ((matched = match("<!--", i, len)) == 1) {
+          terminator = "-->";
+          start = i + 4;
+        }
+        else if (matched == 0)
+          return -1;
+        else if (text.charAt(i + 1) == '?') {
+          terminator = "?>";
+          start = i + 2;
+        }
+        else
+          continue;
+        final int end;
+        if ((end = text.indexOf(terminator, start)) == -1 || end + terminator.length() > len)
+          return -1;
+        i = end + terminator.length() - 1;
+      }
+      else if (c == '"' || c == '\'')
+        quote = c;
+      else if (c == '[')
+        inSubset = true;
+      else if (c == ']')
+        inSubset = false;
+      else if (c == '>' && !inSubset)
+        return i;
+    }
+    return -1;
+  }
+
+  private void startTag(final int pos, final int end) throws TransmogrifierException, SAXException {
+    final StringBuilder text = m_text;
+    if (m_depth == 0) {
+      if (m_seenRoot)
+        throw error("The markup in the document following the root element must be well-formed.");
+      m_seenRoot = true;
+    }
+    final boolean isEmpty = text.charAt(end - 1) == '/';
+    final int limit = isEmpty ? end - 1 : end;
+    int i = scanName(pos, limit);
+    if (i == pos)
+      throw error("The markup in the document is not well-formed.");
+    final String qname = text.substring(pos, i);
+    m_n_attrs = 0;
+    while (true) {
+      int j = skipSpace(i, limit);
+      if (j == limit)
+        break;
+      if (j == i)
+        throw error("Element type \"" + qname + "\" must be followed by either attribute specifications, \">\" or \"/>\".");
+      final int nameEnd = scanName(j, limit);
+      if (nameEnd == j)
+        throw error("Element type \"" + qname + "\" must be followed by either attribute specifications, \">\" or \"/>\".");
+      final String name = text.substring(j, nameEnd);
+      if ((j = skipSpace(nameEnd, limit)) == limit || text.charAt(j) != '=')
+        throw error("Attribute name \"" + name + "\" associated with an element type \"" + qname + "\" must be followed by the ' = ' character.");
+      final char quote;
+      if ((j = skipSpace(j + 1, limit)) == limit || (quote = text.charAt(j)) != '"' && quote != '\'')
+        throw error("Open quote is expected for attribute \"" + name + "\" associated with an  element type  \"" + qname + "\".");
+      final int close = text.indexOf(String.valueOf(quote), j + 1);
+      if (m_n_attrs == m_attrNames.length) {
+        final String[] attrNames = new String[m_n_attrs << 1];
+        System.arraycopy(m_attrNames, 0, attrNames, 0, m_n_attrs);
+        m_attrNames = attrNames;
+        final String[] attrValues = new String[m_n_attrs << 1];
+        System.arraycopy(m_attrValues, 0, attrValues, 0, m_n_attrs);
+        m_attrValues = attrValues;
+      }
+      m_attrNames[m_n_attrs] = name;
+      m_attrValues[m_n_attrs++] = attributeValue(j + 1, close);
+      i = close + 1;
+    }
+
+    if (m_depth == m_qnames.length) {
+      final int capacity = m_depth << 1;
+      final String[] qnames = new String[capacity];
+      System.arraycopy(m_qnames, 0, qnames, 0, m_depth);
+      m_qnames = qnames;
+      final String[] uris = new String[capacity];
+      System.arraycopy(m_uris, 0, uris, 0, m_depth);
+      m_uris = uris;
+      final String[] localNames = new String[capacity];
+      System.arraycopy(m_localNames, 0, localNames, 0, m_depth);
+      m_localNames = localNames;
+      final int[] bindingsMarks = new int[capacity];
+      System.arraycopy(m_bindingsMarks, 0, bindingsMarks, 0, m_depth);
+      m_bindingsMarks = bindingsMarks;
+    }
+    m_bindingsMarks[m_depth] = m_n_bindings;
+    for (int k = 0; k < m_n_attrs; k++) {
+      final String name = m_attrNames[k];
+      final String prefix;
+      if ("xmlns".equals(name))
+        prefix = "";
+      else if (name.startsWith("xmlns:")) {
+        prefix = name.substring(6);
+        if (m_attrValues[k].length() == 0)
+          throw error("The value of the attribute \"prefix=\"xmlns\",localpart=\"" + prefix + "\",rawname=\"" + name + "\"\" is invalid. Prefixed namespace bindings may not be empty.");
+      }
+      else
+        continue;
+      if (m_n_bindings + 2 > m_bindings.length) {
+        final String[] bindings = new String[m_bindings.length << 1];
+        System.arraycopy(m_bindings, 0, bindings, 0, m_n_bindings);
+        m_bindings = bindings;
+      }
+      m_bindings[m_n_bindings++] = prefix;
+      m_bindings[m_n_bindings++] = m_attrValues[k];
+      m_saxHandler.startPrefixMapping(prefix, m_attrValues[k]);
+    }
+    final AttributesImpl attributes = m_attributes;
+    attributes.clear();
+    for (int k = 0; k < m_n_attrs; k++) {
+      final String name = m_attrNames[k];
+      if ("xmlns".equals(name) || name.startsWith("xmlns:"))
+        continue;
+      final String uri, localName;
+      final int colon;
+      if ((colon = name.indexOf(':')) != -1) {
+        final String prefix = name.substring(0, colon);
+        if ((uri = getNamespaceURI(prefix)) == null)
+          throw error("The prefix \"" + prefix + "\" for attribute \"" + name + "\" associated with an element type \"" + qname + "\" is not bound.");
+        localName = name.substring(colon + 1);
+      }
+      else {
+        uri = "";
+        localName = name;
+      }
+      if (attributes.getIndex(uri, localName) != -1)
+        throw error("Attribute \"" + name + "\" was already specified for element \"" + qname + "\".");
+      attributes.addAttribute(uri, localName, name, "CDATA", m_attrValues[k]);
+    }
+    final String uri, localName;
+    final int colon;
+    if ((colon = qname.indexOf(':')) != -1) {
+      final String prefix = qname.substring(0, colon);
+      if ((uri = getNamespaceURI(prefix)) == null)
+        throw error("The prefix \"" + prefix + "\" for element \"" + qname + "\" is not bound.");
+      localName = qname.substring(colon + 1);
+    }
+    else {
+      final String defaultURI = getNamespaceURI("");
+      uri = defaultURI != null ? defaultURI : "";
+      localName = qname;
+    }
+    m_qnames[m_depth] = qname;
+    m_uris[m_depth] = uri;
+    m_localNames[m_depth++] = localName;
+    m_saxHandler.startElement(uri, localName, qname, attributes);
+    if (isEmpty)
+      endElement();
+  }
+
+  private void endTag(int pos, int end) throws TransmogrifierException, SAXException {
+    int nameEnd = end;
+    while (nameEnd > pos && isSpace(m_text.charAt(nameEnd - 1)))
+      --nameEnd;
+    final String qname = m_text.substring(pos, nameEnd);
+    if (m_depth == 0)
+      throw error("The markup in the document following the root element must be well-formed.");
+    if (!qname.equals(m_qnames[m_depth - 1])) {
+      throw error("The element type \"" + m_qnames[m_depth - 1] +
+          "\" must be terminated by the matching end-tag \"</" + m_qnames[m_depth - 1] + ">\".");
+    }
+    endElement();
+  }
+
+  private void endElement() throws SAXException {
+    final int depth = --m_depth;
+    m_saxHandler.endElement(m_uris[depth], m_localNames[depth], m_qnames[depth]);
+    final int mark = m_bindingsMarks[depth];
+    while (m_n_bindings > mark) {
+      m_n_bindings -= 2;
+      m_saxHandler.endPrefixMapping(m_bindings[m_n_bindings]);
+    }
+  }
+
+  /**
+   * Returns the namespace name bound to a prefix, or null if the prefix
+   * is not bound.
+   */
+  private String getNamespaceURI(String prefix) {
+    for (int i = m_n_bindings - 2; i >= 0; i -= 2) {
+      if (prefix.equals(m_bindings[i]))
+        return m_bindings[i + 1];
+    }
+    return "xml".equals(prefix) ? XML_URI : null;
+  }
+
+  private void processingInstruction(int pos, int end) throws TransmogrifierException, SAXException {
+    final int nameEnd = scanName(pos + 2, end);
+    if (nameEnd == pos + 2)
+      throw error("The processing instruction must begin with the name of the target.");
+    final String target = m_text.substring(pos + 2, nameEnd);
+    if ("xml".equalsIgnoreCase(target)) {
+      if (m_n_consumed + pos == 0)
+        return;
+      throw error("The processing instruction target matching \"[xX][mM][lL]\" is not allowed.");
+    }
+    final int dataStart = skipSpace(nameEnd, end);
+    if (dataStart == nameEnd && dataStart != end)
+      throw error("White space is required between the processing instruction target and data.");
+    final int n_chars = normalize(dataStart, end);
+    m_saxHandler.processingInstruction(target, new String(m_chars, 0, n_chars));
+  }
+
+  private void doctype(int pos, int end) throws TransmogrifierException, SAXException {
+    final StringBuilder text = m_text;
+    if (m_seenRoot)
+      throw error("The markup in the document following the root element must be well-formed.");
+    int i = skipSpace(pos, end);
+    final int nameEnd = scanName(i, end);
+    if (i == pos || nameEnd == i)
+      throw error("The document type declaration must contain the root element type.");
+    final String name = text.substring(i, nameEnd);
+    String publicId = null;
+    String systemId = null;
+    i = skipSpace(nameEnd, end);
+    final int idEnd = scanName(i, end);
+    final String keyword = text.substring(i, idEnd);
+    if ("PUBLIC".equals(keyword) || "SYSTEM".equals(keyword)) {
+      int quoteEnd;
+      if ("PUBLIC".equals(keyword)) {
+        i = skipSpace(idEnd, end);
+        if ((quoteEnd = quoted(i, end)) == -1)
+          throw error("The public identifier must begin with either a single or double quote character.");
+        publicId = text.substring(i + 1, quoteEnd);
+        i = quoteEnd + 1;
+      }
+      else
+        i = idEnd;
+      i = skipSpace(i, end);
+      if ((quoteEnd = quoted(i, end)) == -1)
+        throw error("The system identifier must begin with either a single or double quote character.");
+      systemId = text.substring(i + 1, quoteEnd);
+    }
+    m_saxHandler.startDTD(name, publicId, systemId);
+    m_saxHandler.endDTD();
+  }
+
+  private int quoted(int pos, int end) {
+    final char quote;
+    if (pos == end || (quote = m_text.charAt(pos)) != '"' && quote != '\'')
+      return -1;
+    final int close = m_text.indexOf(String.valueOf(quote), pos + 1);
+    return close < end ? close : -1;
+  }
+
+  /**
+   * Processes character data that starts at pos.
+   * @return position that follows the characters processed, or -1 if
+   * none could be processed yet
+   */
+  private int characters(int pos, int len, boolean endOfInput) throws TransmogrifierException, SAXException {
+    final StringBuilder text = m_text;
+    int end = text.indexOf("<", pos);
+    final boolean isComplete = end != -1 || endOfInput;
+    if (end == -1)
+      end = len;
+    ensureCharsCapacity(end - pos);
+    final char[] chars = m_chars;
+    int n_chars = 0;
+    int i = pos;
+    while (i < end) {
+      final char c = text.charAt(i);
+      if (c == '&') {
+        int semicolon;
+        for (semicolon = i + 1; semicolon < end && text.charAt(semicolon) != ';'; semicolon++);
+        if (semicolon == end) {
+          if (!isComplete)
+            break;
+          throw error("The entity name must immediately be followed by the ';' delimiter in the entity reference.");
+        }
+        final int codePoint = reference(i + 1, semicolon);
+        n_chars += Character.toChars(codePoint, chars, n_chars);
+        i = semicolon + 1;
+      }
+      else if (c == '\r') {
+        if (i + 1 == end) {
+          if (!isComplete)
+            break;
+          ++i;
+        }
+        else
+          i += text.charAt(i + 1) == '\n' ? 2 : 1;
+        chars[n_chars++] = '\n';
+      }
+      else {
+        chars[n_chars++] = c;
+        ++i;
+      }
+    }
+    if (i == pos)
+      return -1;
+    if (m_depth != 0)
+      m_saxHandler.characters(chars, 0, n_chars);
+    else {
+      for (int k = 0; k < n_chars; k++) {
+        if (!isSpace(chars[k])) {
+          throw error(m_seenRoot ? "Content is not allowed in trailing section." :
+            "Content is not allowed in prolog.");
+        }
+      }
+    }
+    return i;
+  }
+
+  private String attributeValue(int pos, int end) throws TransmogrifierException {
+    final StringBuilder text = m_text;
+    final StringBuilder value = m_value;
+    value.setLength(0);
+    for (int i = pos; i < end; i++) {
+      final char c = text.charAt(i);
+      switch (c) {
+        case '&':
+          final int semicolon = text.indexOf(";", i + 1);
+          if (semicolon == -1 || semicolon > end)
+            throw error("The entity name must immediately be followed by the ';' delimiter in the entity reference.");
+          value.appendCodePoint(reference(i + 1, semicolon));
+          i = semicolon;
+          break;
+        case '<':
+          throw error("The value of attribute must not contain the '<' character.");
+        case '\r':
+          if (i + 1 < end && text.charAt(i + 1) == '\n')
+            ++i;
+          value.append(' ');
+          break;
+        case '\n':
+        case '\t':
+          value.append(' ');
+          break;
+        default:
+          value.append(c);
+          break;
+      }
+    }
+    return value.toString();
+  }
+
+  /**
+   * Resolves an entity or character reference.
+   * @return the code point of the character referenced
+   */
+  private int reference(int pos, int end) throws TransmogrifierException {
+    final StringBuilder text = m_text;
+    if (pos < end && text.charAt(pos) == '#') {
+      int codePoint = -1;
+      try {
+        if (pos + 1 < end && text.charAt(pos + 1) == 'x')
+          codePoint = Integer.parseInt(text.substring(pos + 2, end), 16);
+        else
+          codePoint = Integer.parseInt(text.substring(pos + 1, end), 10);
+      }
+      catch (NumberFormatException nfe) {
+      }
+      if (codePoint < 0 || !Character.isValidCodePoint(codePoint))
+        throw error("A character reference \"&" + text.substring(pos, end) + ";\" is not valid.");
+      return codePoint;
+    }
+    final String name = text.substring(pos, end);
+    if ("lt".equals(name))
+      return '<';
+    else if ("gt".equals(name))
+      return '>';
+    else if ("amp".equals(name))
+      return '&';
+    else if ("apos".equals(name))
+      return '\'';
+    else if ("quot".equals(name))
+      return '"';
+    throw error("The entity \"" + name + "\" was referenced, but not declared.");
+  }
+
+  /**
+   * Copies characters into m_chars with line breaks normalized.
+   * @return number of characters copied
+   */
+  private int normalize(int pos, int end) {
+    final StringBuilder text = m_text;
+    ensureCharsCapacity(end - pos);
+    final char[] chars = m_chars;
+    int n_chars = 0;
+    for (int i = pos; i < end; i++) {
+      final char c = text.charAt(i);
+      if (c == '\r') {
+        if (i + 1 < end && text.charAt(i + 1) == '\n')
+          ++i;
+        chars[n_chars++] = '\n';
+      }
+      else
+        chars[n_chars++] = c;
+    }
+    return n_chars;
+  }
+
+  private void ensureCharsCapacity(int len) {
+    if (m_chars.length < len) {
+      int capacity = m_chars.length;
+      while (capacity < len)
+        capacity <<= 1;
+      m_chars = new char[capacity];
+    }
+  }
+
+  private int scanName(int pos, int end) {
+    final StringBuilder text = m_text;
+    int i;
+    for (i = pos; i < end; i++) {
+      final char c = text.charAt(i);
+      if (isSpace(c) || c == '/' || c == '>' || c == '<' || c == '=' || c == '"' || c == '\'' || c == '?')
+        break;
+    }
+    return i;
+  }
+
+  private int skipSpace(int pos, int end) {
+    int i;
+    for (i = pos; i < end && isSpace(m_text.charAt(i)); i++);
+    return i;
+  }
+
+  private static boolean isSpace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Errors
+  ///////////////////////////////////////////////////////////////////////////
+
+  private TransmogrifierException error(String message) {
+    return new TransmogrifierException(TransmogrifierException.SAX_ERROR,
+        new String[] { message }, new LocatorImpl(m_locator));
+  }
+
+  private TransmogrifierException unwrap(SAXException se) throws IOException {
+    final Exception e;
+    if ((e = se.getException()) != null) {
+      if (e instanceof TransmogrifierException)
+        return (TransmogrifierException)e;
+      else if (e instanceof IOException)
+        throw (IOException)e;
+    }
+    return new TransmogrifierException(TransmogrifierException.SAX_ERROR,
+        new String[] { se.getMessage() }, new LocatorImpl(m_locator));
+  }
+
+}
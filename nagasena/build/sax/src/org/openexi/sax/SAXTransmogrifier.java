@@ -0,0 +1,19 @@
+package org.openexi.sax;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ext.LexicalHandler;
+
+import org.openexi.proc.grammars.GrammarCache;
+
+/**
+ * Applications can directly feed SAX events into a transmogrifier through SAXTransmogrifier.
+ */
+public interface SAXTransmogrifier extends ContentHandler, LexicalHandler, BinaryDataHandler, TypedValueHandler {
+
+  /**
+   * Returns the GrammarCache that is in use by this SAXTransmogrifier.
+   * @return a GrammarCache
+   */
+  public GrammarCache getGrammarCache();
+  
+}
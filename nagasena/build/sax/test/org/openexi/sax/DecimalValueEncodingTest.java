@@ -0,0 +1,459 @@
+package org.openexi.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.EXIOptionsException;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.common.EventType;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.Scanner;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EXISchemaConst;
+import org.openexi.scomp.EXISchemaFactoryErrorMonitor;
+import org.openexi.scomp.EXISchemaFactoryTestUtil;
+import org.xml.sax.InputSource;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class DecimalValueEncodingTest extends TestCase {
+  
+  public DecimalValueEncodingTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_compilerErrors = new EXISchemaFactoryErrorMonitor();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    super.tearDown();
+    m_compilerErrors.clear();
+  }
+
+  private EXISchemaFactoryErrorMonitor m_compilerErrors;
+
+  private static final AlignmentType[] Alignments = new AlignmentType[] { 
+    AlignmentType.bitPacked, 
+    AlignmentType.byteAligned,   
+    AlignmentType.preCompress, 
+    AlignmentType.compress 
+  };
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * A valid decimal value matching ITEM_SCHEMA_CH where the associated
+   * datatype is xsd:decimal.
+   */
+  public void testValidDecimal_01() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/decimal.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.STRICT_OPTIONS);
+    
+    int i;
+    
+    final String[] xmlStrings;
+    final String[] numbers = { 
+        " \t\r 1267.89675\n", 
+        "-1267.89675", 
+        "1267.00675", 
+        "-1267.00675" 
+    };
+    final String[] resultValues = {
+        "1267.89675", 
+        "-1267.89675", 
+        "1267.00675", 
+        "-1267.00675" 
+    };
+    xmlStrings = new String[numbers.length];
+    for (i = 0; i < numbers.length; i++) {
+      xmlStrings[i] = "<foo:A xmlns:foo='urn:foo'>" + numbers[i] + "</foo:A>\n";
+    };
+    
+    for (AlignmentType alignment : Alignments) {
+      for (i = 0; i < xmlStrings.length; i++) {
+        Transmogrifier encoder = new Transmogrifier();
+        EXIDecoder decoder = new EXIDecoder();
+        Scanner scanner;
+        
+        encoder.setAlignmentType(alignment);
+        decoder.setAlignmentType(alignment);
+  
+        encoder.setGrammarCache(grammarCache);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        encoder.setOutputStream(baos);
+        
+        byte[] bts;
+        int n_events;
+        
+        encoder.encode(new InputSource(new StringReader(xmlStrings[i])));
+        
+        bts = baos.toByteArray();
+        
+        decoder.setGrammarCache(grammarCache);
+        decoder.setInputStream(new ByteArrayInputStream(bts));
+        scanner = decoder.processHeader();
+        
+        EventDescription exiEvent;
+        n_events = 0;
+    
+        EventType eventType;
+    
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_SD, exiEvent.getEventKind());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_SD, eventType.itemType);
+        ++n_events;
+        
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_SE, exiEvent.getEventKind());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_SE, eventType.itemType);
+        Assert.assertEquals("A", eventType.name);
+        Assert.assertEquals("urn:foo", eventType.uri);
+        ++n_events;
+        
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_CH, exiEvent.getEventKind());
+        Assert.assertEquals(resultValues[i], exiEvent.getCharacters().makeString());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_SCHEMA_CH, eventType.itemType);
+        if (alignment == AlignmentType.bitPacked || alignment == AlignmentType.byteAligned) {
+          int tp = scanner.currentState.contentDatatype; 
+          int builtinType = corpus.getBaseTypeOfSimpleType(tp);
+          Assert.assertEquals(EXISchemaConst.DECIMAL_TYPE, corpus.getSerialOfType(builtinType));
+        }
+        ++n_events;
+
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_EE, exiEvent.getEventKind());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_EE, eventType.itemType);
+        ++n_events;
+
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_ED, exiEvent.getEventKind());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_ED, eventType.itemType);
+        ++n_events;
+        
+        Assert.assertEquals(5, n_events);
+      }
+    }
+  }
+
+  /**
+   * A valid decimal value matching ITEM_SCHEMA_CH where the associated
+   * datatype is xsd:decimal.
+   */
+  public void testValidDecimal_02() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/decimal.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.STRICT_OPTIONS);
+    
+    int i;
+    
+    final String[] xmlStrings;
+    final String[] numbers = { 
+        " \t\r 92233720368547758070000000000.00000000002233720368547758079\n",
+        "-92233720368547758070000000000.00000000002233720368547758079" };
+    final String[] resultValues = { 
+        "92233720368547758070000000000.00000000002233720368547758079",
+        "-92233720368547758070000000000.00000000002233720368547758079" };
+    xmlStrings = new String[numbers.length];
+    for (i = 0; i < numbers.length; i++) {
+      xmlStrings[i] = "<foo:A xmlns:foo='urn:foo'>" + numbers[i] + "</foo:A>\n";
+    };
+    
+    for (AlignmentType alignment : Alignments) {
+      for (i = 0; i < xmlStrings.length; i++) {
+        Transmogrifier encoder = new Transmogrifier();
+        EXIDecoder decoder = new EXIDecoder();
+        Scanner scanner;
+        
+        encoder.setAlignmentType(alignment);
+        decoder.setAlignmentType(alignment);
+  
+        encoder.setGrammarCache(grammarCache);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        encoder.setOutputStream(baos);
+        
+        byte[] bts;
+        int n_events;
+        
+        encoder.encode(new InputSource(new StringReader(xmlStrings[i])));
+        
+        bts = baos.toByteArray();
+        
+        decoder.setGrammarCache(grammarCache);
+        decoder.setInputStream(new ByteArrayInputStream(bts));
+        scanner = decoder.processHeader();
+        
+        EventDescription exiEvent;
+        n_events = 0;
+    
+        EventType eventType;
+    
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_SD, exiEvent.getEventKind());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_SD, eventType.itemType);
+        ++n_events;
+        
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_SE, exiEvent.getEventKind());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_SE, eventType.itemType);
+        Assert.assertEquals("A", eventType.name);
+        Assert.assertEquals("urn:foo", eventType.uri);
+        ++n_events;
+        
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_CH, exiEvent.getEventKind());
+        Assert.assertEquals(resultValues[i], exiEvent.getCharacters().makeString());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_SCHEMA_CH, eventType.itemType);
+        if (alignment == AlignmentType.bitPacked || alignment == AlignmentType.byteAligned) {
+          int tp = scanner.currentState.contentDatatype; 
+          int builtinType = corpus.getBaseTypeOfSimpleType(tp);
+          Assert.assertEquals(EXISchemaConst.DECIMAL_TYPE, corpus.getSerialOfType(builtinType));
+        }
+        ++n_events;
+    
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_EE, exiEvent.getEventKind());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_EE, eventType.itemType);
+        ++n_events;
+
+        exiEvent = scanner.nextEvent();
+        Assert.assertEquals(EventDescription.EVENT_ED, exiEvent.getEventKind());
+        eventType = exiEvent.getEventType();
+        Assert.assertEquals(EventType.ITEM_ED, eventType.itemType);
+        ++n_events;
+
+        Assert.assertEquals(5, n_events);
+      }
+    }
+  }
+  
+  /**
+   * Preserve lexical decimal values by turning on Preserve.lexicalValues.
+   */
+  public void testDecimalRCS() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/decimal.xsd", getClass(), m_compilerErrors);
+
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.STRICT_OPTIONS);
+
+    final String[] xmlStrings;
+    final String[] originalValues = {
+        " \t\r *1267*.*89675*\n", // '*' will be encoded as an escaped character 
+    };
+    final String[] parsedOriginalValues = {
+        " \t\n *1267*.*89675*\n", 
+    };
+
+    int i;
+    xmlStrings = new String[originalValues.length];
+    for (i = 0; i < originalValues.length; i++) {
+      xmlStrings[i] = "<foo:A xmlns:foo='urn:foo'>" + originalValues[i] + "</foo:A>\n";
+    };
+    
+    Transmogrifier encoder = new Transmogrifier();
+    EXIDecoder decoder = new EXIDecoder();
+    
+    encoder.setGrammarCache(grammarCache);
+    decoder.setGrammarCache(grammarCache);
+
+    encoder.setPreserveLexicalValues(true);
+    decoder.setPreserveLexicalValues(true);
+
+    for (AlignmentType alignment : Alignments) {
+      encoder.setAlignmentType(alignment);
+      decoder.setAlignmentType(alignment);
+      for (i = 0; i < xmlStrings.length; i++) {
+        Scanner scanner;
+        
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        encoder.setOutputStream(baos);
+        
+        byte[] bts;
+        int n_events, n_texts;
+        
+        encoder.encode(new InputSource(new StringReader(xmlStrings[i])));
+        
+        bts = baos.toByteArray();
+        
+        decoder.setInputStream(new ByteArrayInputStream(bts));
+        scanner = decoder.processHeader();
+        
+        ArrayList<EventDescription> exiEventList = new ArrayList<EventDescription>();
+
+        EventDescription exiEvent;
+        n_events = 0;
+        n_texts = 0;
+        while ((exiEvent = scanner.nextEvent()) != null) {
+          ++n_events;
+          if (exiEvent.getEventKind() == EventDescription.EVENT_CH) {
+            String stringValue = exiEvent.getCharacters().makeString();
+            Assert.assertEquals(parsedOriginalValues[i], stringValue);
+            Assert.assertEquals(EventType.ITEM_SCHEMA_CH, exiEvent.getEventType().itemType);
+            ++n_texts;
+          }
+          exiEventList.add(exiEvent);
+        }
+        Assert.assertEquals(1, n_texts);
+        Assert.assertEquals(5, n_events);
+      }
+    }
+  }
+
+  /**
+   * Canonical EXI requires the sign value to be zero (0) if both the integral portion 
+   * and the fractional portion of the Decimal value are 0 (zero).
+   */
+  public void testC14N_01() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/decimal.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.STRICT_OPTIONS);
+    
+    int i;
+    
+    final String[] xmlStrings;
+    final String[] originalValues = { 
+        "+0.0", 
+        "-0.0", 
+        "-00.000" 
+    };
+    final String[] parsedOriginalValues = {
+        "+0.0", 
+        "-0.0", 
+        "-00.000" 
+    };
+    final String[] canonicalValues = {
+        "0.0", 
+        "0.0", 
+        "0.0" 
+    };
+    final String[] resultValues = {
+        "0.0", 
+        "-0.0", 
+        "-0.0" 
+    };
+    xmlStrings = new String[originalValues.length];
+    for (i = 0; i < originalValues.length; i++) {
+      xmlStrings[i] = "<foo:A xmlns:foo='urn:foo'>" + originalValues[i] + "</foo:A>\n";
+    };
+    
+    label_alignment:
+    for (AlignmentType alignment : Alignments) {
+      for (boolean preserveLexicalValues : new boolean[] { false, true }) {
+        for (boolean observeC14N : new boolean[] { false, true }) {
+          String[] values = preserveLexicalValues ? parsedOriginalValues : observeC14N ? canonicalValues : resultValues;
+          for (i = 0; i < xmlStrings.length; i++) {
+            Transmogrifier encoder = new Transmogrifier();
+            EXIDecoder decoder = new EXIDecoder();
+            Scanner scanner;
+            
+            encoder.setAlignmentType(alignment);
+            decoder.setAlignmentType(alignment);
+
+            encoder.setPreserveLexicalValues(preserveLexicalValues);
+            try {
+              encoder.setObserveC14N(observeC14N);
+            }
+            catch (EXIOptionsException eoe) {
+              Assert.assertEquals(AlignmentType.compress, alignment);
+              continue label_alignment;
+            }
+            encoder.setGrammarCache(grammarCache);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            encoder.setOutputStream(baos);
+            
+            byte[] bts;
+            int n_events;
+            
+            encoder.encode(new InputSource(new StringReader(xmlStrings[i])));
+            
+            bts = baos.toByteArray();
+            
+            decoder.setPreserveLexicalValues(preserveLexicalValues);
+            decoder.setGrammarCache(grammarCache);
+            decoder.setInputStream(new ByteArrayInputStream(bts));
+            scanner = decoder.processHeader();
+            
+            EventDescription exiEvent;
+            n_events = 0;
+        
+            EventType eventType;
+        
+            exiEvent = scanner.nextEvent();
+            Assert.assertEquals(EventDescription.EVENT_SD, exiEvent.getEventKind());
+            eventType = exiEvent.getEventType();
+            Assert.assertEquals(EventType.ITEM_SD, eventType.itemType);
+            ++n_events;
+            
+            exiEvent = scanner.nextEvent();
+            Assert.assertEquals(EventDescription.EVENT_SE, exiEvent.getEventKind());
+            eventType = exiEvent.getEventType();
+            Assert.assertEquals(EventType.ITEM_SE, eventType.itemType);
+            Assert.assertEquals("A", eventType.name);
+            Assert.assertEquals("urn:foo", eventType.uri);
+            ++n_events;
+            
+            exiEvent = scanner.nextEvent();
+            Assert.assertEquals(EventDescription.EVENT_CH, exiEvent.getEventKind());
+            Assert.assertEquals(values[i], exiEvent.getCharacters().makeString());
+            eventType = exiEvent.getEventType();
+            Assert.assertEquals(EventType.ITEM_SCHEMA_CH, eventType.itemType);
+            if (alignment == AlignmentType.bitPacked || alignment == AlignmentType.byteAligned) {
+              int tp = scanner.currentState.contentDatatype; 
+              int builtinType = corpus.getBaseTypeOfSimpleType(tp);
+              Assert.assertEquals(EXISchemaConst.DECIMAL_TYPE, corpus.getSerialOfType(builtinType));
+            }
+            ++n_events;
+    
+            exiEvent = scanner.nextEvent();
+            Assert.assertEquals(EventDescription.EVENT_EE, exiEvent.getEventKind());
+            eventType = exiEvent.getEventType();
+            Assert.assertEquals(EventType.ITEM_EE, eventType.itemType);
+            ++n_events;
+    
+            exiEvent = scanner.nextEvent();
+            Assert.assertEquals(EventDescription.EVENT_ED, exiEvent.getEventKind());
+            eventType = exiEvent.getEventType();
+            Assert.assertEquals(EventType.ITEM_ED, eventType.itemType);
+            ++n_events;
+            
+            Assert.assertEquals(5, n_events);
+          }
+        }
+      }
+    }
+  }
+  
+}
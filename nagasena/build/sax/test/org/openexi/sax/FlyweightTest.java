@@ -0,0 +1,283 @@
+package org.openexi.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import junit.framework.Assert;
+
+import org.openexi.proc.DecoderTestUtil;
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.common.EventType;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.grammars.Apparatus;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.Scanner;
+import org.openexi.schema.Characters;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.TestBase;
+import org.openexi.scomp.EXISchemaFactoryErrorMonitor;
+import org.openexi.scomp.EXISchemaFactoryTestUtil;
+import org.xml.sax.InputSource;
+
+import com.sun.management.ThreadMXBean;
+
+public class FlyweightTest extends TestBase {
+
+  public FlyweightTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_compilerErrors = new EXISchemaFactoryErrorMonitor();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    super.tearDown();
+    m_compilerErrors.clear();
+  }
+
+  private EXISchemaFactoryErrorMonitor m_compilerErrors;
+
+  private static final AlignmentType[] Alignments = new AlignmentType[] {
+    AlignmentType.bitPacked,
+    AlignmentType.byteAligned,
+    AlignmentType.preCompress,
+    AlignmentType.compress
+  };
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Decoding in flyweight mode reports the same sequence of events
+   * as the default mode, using schema-informed grammars.
+   */
+  public void testFlyweightSchemaInformed() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/JTLM/schemas/TLMComposite.xsd", getClass(), m_compilerErrors);
+
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+
+    for (AlignmentType alignment : Alignments) {
+      byte[] bts = encode("/JTLM/publish100.xml", grammarCache, alignment);
+      ArrayList<String> expected = decode(bts, grammarCache, alignment, false);
+      ArrayList<String> actual = decode(bts, grammarCache, alignment, true);
+      Assert.assertEquals(expected, actual);
+    }
+  }
+
+  /**
+   * Decoding in flyweight mode reports the same sequence of events
+   * as the default mode, using built-in grammars.
+   */
+  public void testFlyweightBuiltin() throws Exception {
+    GrammarCache grammarCache = new GrammarCache(GrammarOptions.addCM(GrammarOptions.DEFAULT_OPTIONS));
+
+    for (AlignmentType alignment : Alignments) {
+      byte[] bts = encode("/JTLM/publish100.xml", grammarCache, alignment);
+      ArrayList<String> expected = decode(bts, grammarCache, alignment, false);
+      ArrayList<String> actual = decode(bts, grammarCache, alignment, true);
+      Assert.assertEquals(expected, actual);
+    }
+  }
+
+  /**
+   * Schema-typed values are all given in one Characters that moves on 
+   * to the next value in flyweight mode, and read the same as in the 
+   * default mode at the time they are reported.
+   */
+  public void testFlyweightTypedValues() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/JTLM/schemas/TLMComposite.xsd", getClass(), m_compilerErrors);
+
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+
+    for (AlignmentType alignment : new AlignmentType[] { AlignmentType.bitPacked, AlignmentType.byteAligned }) {
+      byte[] bts = encode("/JTLM/publish100.xml", grammarCache, alignment);
+      ArrayList<String> expected = new ArrayList<String>();
+      ArrayList<String> actual = new ArrayList<String>();
+      Characters window = null;
+      int n_typedValues = 0;
+      for (boolean flyweight : new boolean[] { false, true }) {
+        EXIDecoder decoder = new EXIDecoder();
+        decoder.setAlignmentType(alignment);
+        decoder.setGrammarCache(grammarCache);
+        decoder.setFlyweight(flyweight);
+        decoder.setInputStream(new ByteArrayInputStream(bts));
+        Scanner scanner = decoder.processHeader();
+        EventDescription exiEvent;
+        while ((exiEvent = scanner.nextEvent()) != null) {
+          if (exiEvent.getEventKind() != EventDescription.EVENT_CH || 
+              exiEvent.getEventType().itemType != EventType.ITEM_SCHEMA_CH)
+            continue;
+          final int tp = scanner.currentState.contentDatatype;
+          switch (scanner.getValueScanner(tp).getCodecID()) {
+            case Apparatus.CODEC_STRING:
+            case Apparatus.CODEC_BOOLEAN:
+            case Apparatus.CODEC_ENUMERATION:
+              // String table entries and constants
+              continue;
+          }
+          final Characters characters = exiEvent.getCharacters();
+          if (flyweight) {
+            actual.add(characters.makeString());
+            if (window == null)
+              window = characters;
+            Assert.assertSame(window, characters);
+            ++n_typedValues;
+          }
+          else
+            expected.add(characters.makeString());
+        }
+      }
+      Assert.assertTrue(n_typedValues > 1);
+      Assert.assertEquals(expected, actual);
+    }
+  }
+
+  /**
+   * Values that are not found in the string table are reported right in 
+   * flyweight mode. The string table keeps its own instances of them, so 
+   * that later hits are not overwritten by the window, which is used for
+   * the values that are too long to go into the string table.
+   */
+  public void testFlyweightStringTableMisses() throws Exception {
+    GrammarCache grammarCache = new GrammarCache(GrammarOptions.DEFAULT_OPTIONS);
+
+    final String[] values = { "ab", "cd", "long value", "ef", "another long value", "ab", "cd", "ef" };
+    final StringBuilder xmlString = new StringBuilder("<A>");
+    for (int i = 0; i < values.length; i++)
+      xmlString.append("<B>").append(values[i]).append("</B>");
+    xmlString.append("</A>");
+
+    for (AlignmentType alignment : new AlignmentType[] { AlignmentType.bitPacked, AlignmentType.byteAligned }) {
+      Transmogrifier encoder = new Transmogrifier();
+      encoder.setAlignmentType(alignment);
+      encoder.setGrammarCache(grammarCache);
+      encoder.setValueMaxLength(5);
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      encoder.setOutputStream(baos);
+      encoder.encode(new InputSource(new ByteArrayInputStream(xmlString.toString().getBytes("UTF-8"))));
+
+      EXIDecoder decoder = new EXIDecoder();
+      decoder.setAlignmentType(alignment);
+      decoder.setGrammarCache(grammarCache);
+      decoder.setValueMaxLength(5);
+      decoder.setFlyweight(true);
+      decoder.setInputStream(new ByteArrayInputStream(baos.toByteArray()));
+      Scanner scanner = decoder.processHeader();
+
+      final Characters[] texts = new Characters[values.length];
+      int n_texts = 0;
+      EventDescription exiEvent;
+      while ((exiEvent = scanner.nextEvent()) != null) {
+        if (exiEvent.getEventKind() == EventDescription.EVENT_CH) {
+          final Characters characters = exiEvent.getCharacters();
+          Assert.assertEquals(values[n_texts], characters.makeString());
+          texts[n_texts++] = characters;
+        }
+      }
+      Assert.assertEquals(values.length, n_texts);
+      // Long values are given in the window.
+      Assert.assertSame(texts[2], texts[4]);
+      Assert.assertEquals("another long value", texts[4].makeString());
+      // Misses that went into the string table are the instances of later hits.
+      Assert.assertSame(texts[0], texts[5]);
+      Assert.assertSame(texts[1], texts[6]);
+      Assert.assertSame(texts[3], texts[7]);
+      Assert.assertEquals("ab", texts[0].makeString());
+      Assert.assertEquals("cd", texts[1].makeString());
+      Assert.assertEquals("ef", texts[3].makeString());
+    }
+  }
+
+  /**
+   * Once the string table holds the values, decoding in flyweight mode
+   * allocates nothing per event, so that a document with twice as many
+   * elements costs no more allocations to decode.
+   */
+  public void testFlyweightSteadyStateAllocation() throws Exception {
+    final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    if (!(threadMXBean instanceof ThreadMXBean) || 
+        !((ThreadMXBean)threadMXBean).isThreadAllocatedMemorySupported())
+      return;
+    final ThreadMXBean allocationBean = (ThreadMXBean)threadMXBean;
+    allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+    GrammarCache grammarCache = new GrammarCache(GrammarOptions.DEFAULT_OPTIONS);
+
+    for (AlignmentType alignment : new AlignmentType[] { AlignmentType.bitPacked, AlignmentType.byteAligned }) {
+      final byte[][] streams = new byte[2][];
+      for (int i = 0; i < 2; i++) {
+        final StringBuilder xmlString = new StringBuilder("<A>");
+        for (int j = 0; j < 500 * (i + 1); j++)
+          xmlString.append("<B>xyz</B><C>abc</C>");
+        xmlString.append("</A>");
+        Transmogrifier encoder = new Transmogrifier();
+        encoder.setAlignmentType(alignment);
+        encoder.setGrammarCache(grammarCache);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        encoder.setOutputStream(baos);
+        encoder.encode(new InputSource(new ByteArrayInputStream(xmlString.toString().getBytes("UTF-8"))));
+        streams[i] = baos.toByteArray();
+      }
+
+      EXIDecoder decoder = new EXIDecoder();
+      decoder.setAlignmentType(alignment);
+      decoder.setGrammarCache(grammarCache);
+      decoder.setFlyweight(true);
+
+      final long threadId = Thread.currentThread().getId();
+      final long[] allocatedBytes = new long[2];
+      for (int n = 0; n < 10; n++) {
+        for (int i = 0; i < 2; i++) {
+          final long start = allocationBean.getThreadAllocatedBytes(threadId);
+          decoder.setInputStream(new ByteArrayInputStream(streams[i]));
+          Scanner scanner = decoder.processHeader();
+          int n_values = 0;
+          EventDescription exiEvent;
+          while ((exiEvent = scanner.nextEvent()) != null) {
+            if (exiEvent.getEventKind() == EventDescription.EVENT_CH)
+              n_values += exiEvent.getCharacters().length;
+          }
+          allocatedBytes[i] = allocationBean.getThreadAllocatedBytes(threadId) - start;
+          Assert.assertEquals(3000 * (i + 1), n_values);
+        }
+      }
+      // The second document has 2000 more events than the first.
+      Assert.assertTrue(allocatedBytes[1] - allocatedBytes[0] < 2000);
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private byte[] encode(String xmlFile, GrammarCache grammarCache, AlignmentType alignment) throws Exception {
+    Transmogrifier encoder = new Transmogrifier();
+    encoder.setAlignmentType(alignment);
+    encoder.setGrammarCache(grammarCache);
+    return TransmogrifierTestUtil.encode(encoder, resolveSystemIdAsURL(xmlFile));
+  }
+
+  private ArrayList<String> decode(byte[] bts, GrammarCache grammarCache, AlignmentType alignment, boolean flyweight) throws Exception {
+    EXIDecoder decoder = new EXIDecoder();
+    decoder.setAlignmentType(alignment);
+    decoder.setGrammarCache(grammarCache);
+    decoder.setFlyweight(flyweight);
+    return DecoderTestUtil.decode(decoder, bts);
+  }
+
+}
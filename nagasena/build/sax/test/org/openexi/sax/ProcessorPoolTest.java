@@ -0,0 +1,447 @@
+package org.openexi.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.openexi.proc.DecoderTestUtil;
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.EXIDecoderPool;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.EXIOptions;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.common.EventType;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.common.MetricsListener;
+import org.openexi.proc.common.SchemaId;
+import org.openexi.proc.common.TypedEventDescription;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.Scanner;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EmptySchema;
+import org.openexi.schema.TestBase;
+import org.openexi.scomp.EXISchemaFactoryErrorMonitor;
+import org.openexi.scomp.EXISchemaFactoryTestUtil;
+import org.xml.sax.InputSource;
+
+public class ProcessorPoolTest extends TestBase {
+
+  public ProcessorPoolTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_compilerErrors = new EXISchemaFactoryErrorMonitor();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    super.tearDown();
+    m_compilerErrors.clear();
+  }
+
+  private EXISchemaFactoryErrorMonitor m_compilerErrors;
+
+  private static final AlignmentType[] Alignments = new AlignmentType[] {
+    AlignmentType.bitPacked,
+    AlignmentType.byteAligned,
+    AlignmentType.preCompress,
+    AlignmentType.compress
+  };
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Pooled Transmogrifiers and EXIDecoders produce the same results as
+   * fresh ones, and are reused across borrows.
+   */
+  public void testReuse() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/JTLM/schemas/TLMComposite.xsd", getClass(), m_compilerErrors);
+
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    final GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+    final URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+
+    final TransmogrifierPool transmogrifierPool = new TransmogrifierPool(2);
+    final EXIDecoderPool decoderPool = new EXIDecoderPool(2);
+
+    for (AlignmentType alignment : Alignments) {
+      final EXIOptions options = new EXIOptions();
+      options.setAlignmentType(alignment);
+
+      final Transmogrifier transmogrifier = new Transmogrifier();
+      transmogrifier.setAlignmentType(alignment);
+      transmogrifier.setGrammarCache(grammarCache);
+      final byte[] expectedBytes = TransmogrifierTestUtil.encode(transmogrifier, url);
+
+      final EXIDecoder decoder = new EXIDecoder();
+      decoder.setAlignmentType(alignment);
+      decoder.setGrammarCache(grammarCache);
+      final ArrayList<String> expectedEvents = DecoderTestUtil.decode(decoder, expectedBytes);
+
+      Transmogrifier first = null;
+      EXIDecoder firstDecoder = null;
+      for (int i = 0; i < 3; i++) {
+        final Transmogrifier pooledTransmogrifier = transmogrifierPool.borrow(grammarCache, options);
+        try {
+          if (first == null)
+            first = pooledTransmogrifier;
+          else
+            Assert.assertSame(first, pooledTransmogrifier);
+          Assert.assertTrue(Arrays.equals(expectedBytes, TransmogrifierTestUtil.encode(pooledTransmogrifier, url)));
+        }
+        finally {
+          transmogrifierPool.release(pooledTransmogrifier);
+        }
+        final EXIDecoder pooledDecoder = decoderPool.borrow(grammarCache, options);
+        try {
+          if (firstDecoder == null)
+            firstDecoder = pooledDecoder;
+          else
+            Assert.assertSame(firstDecoder, pooledDecoder);
+          Assert.assertEquals(expectedEvents, DecoderTestUtil.decode(pooledDecoder, expectedBytes));
+        }
+        finally {
+          decoderPool.release(pooledDecoder);
+        }
+      }
+    }
+    // One miss per alignment type followed by two hits.
+    Assert.assertEquals(4, transmogrifierPool.getMissCount());
+    Assert.assertEquals(8, transmogrifierPool.getHitCount());
+    Assert.assertEquals(0, transmogrifierPool.getWaitCount());
+    Assert.assertEquals(0, transmogrifierPool.getActiveCount());
+    Assert.assertEquals(4, transmogrifierPool.getIdleCount());
+    Assert.assertEquals(4, decoderPool.getMissCount());
+    Assert.assertEquals(8, decoderPool.getHitCount());
+    Assert.assertEquals(0, decoderPool.getWaitCount());
+    Assert.assertEquals(0, decoderPool.getActiveCount());
+    Assert.assertEquals(4, decoderPool.getIdleCount());
+  }
+
+  /**
+   * Settings changed by a borrower do not survive the release.
+   */
+  public void testReset() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache(GrammarOptions.DEFAULT_OPTIONS);
+    final URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+
+    final TransmogrifierPool pool = new TransmogrifierPool(1);
+    final EXIOptions options = new EXIOptions();
+
+    Transmogrifier transmogrifier = pool.borrow(grammarCache, options);
+    final byte[] expectedBytes = TransmogrifierTestUtil.encode(transmogrifier, url);
+    transmogrifier.setOutputCookie(true);
+    transmogrifier.setAlignmentType(AlignmentType.compress);
+    transmogrifier.setPreserveWhitespaces(true);
+    transmogrifier.setOutputStream(new ByteArrayOutputStream());
+    pool.release(transmogrifier);
+
+    transmogrifier = pool.borrow(grammarCache, options);
+    Assert.assertTrue(Arrays.equals(expectedBytes, TransmogrifierTestUtil.encode(transmogrifier, url)));
+    pool.release(transmogrifier);
+
+    Assert.assertEquals(1, pool.getMissCount());
+    Assert.assertEquals(1, pool.getHitCount());
+  }
+
+  /**
+   * A released Transmogrifier does not keep the output buffer of its
+   * borrower reachable.
+   */
+  public void testResetOutput() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache(GrammarOptions.DEFAULT_OPTIONS);
+    final URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+
+    final TransmogrifierPool pool = new TransmogrifierPool(1);
+    final EXIOptions options = new EXIOptions();
+
+    Transmogrifier transmogrifier = pool.borrow(grammarCache, options);
+    ByteBuffer byteBuffer = ByteBuffer.allocate(64);
+    final WeakReference<ByteBuffer> reference = new WeakReference<ByteBuffer>(byteBuffer);
+    transmogrifier.setOutput(byteBuffer, false);
+    byteBuffer = null;
+    pool.release(transmogrifier);
+    Assert.assertNull(transmogrifier.getOutputBuffer());
+
+    for (int i = 0; i < 10 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    Assert.assertNull(reference.get());
+
+    transmogrifier = pool.borrow(grammarCache, options);
+    byteBuffer = ByteBuffer.allocate(64);
+    transmogrifier.setOutput(byteBuffer, true);
+    final InputSource inputSource = new InputSource(url.toString());
+    inputSource.setByteStream(url.openStream());
+    transmogrifier.encode(inputSource);
+    Assert.assertTrue(transmogrifier.getOutputBuffer().position() > 64);
+    pool.release(transmogrifier);
+  }
+
+  /**
+   * A MetricsListener set by a borrower is not notified once the processor
+   * has been released.
+   */
+  public void testResetMetricsListener() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache(GrammarOptions.DEFAULT_OPTIONS);
+    final URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+    final EXIOptions options = new EXIOptions();
+    final EventCounter metrics = new EventCounter();
+
+    final TransmogrifierPool transmogrifierPool = new TransmogrifierPool(1);
+    Transmogrifier transmogrifier = transmogrifierPool.borrow(grammarCache, options);
+    transmogrifier.setMetricsListener(metrics);
+    final byte[] bts = TransmogrifierTestUtil.encode(transmogrifier, url);
+    Assert.assertTrue(metrics.n_events > 0);
+    transmogrifierPool.release(transmogrifier);
+
+    metrics.n_events = 0;
+    transmogrifier = transmogrifierPool.borrow(grammarCache, options);
+    TransmogrifierTestUtil.encode(transmogrifier, url);
+    transmogrifierPool.release(transmogrifier);
+    Assert.assertEquals(0, metrics.n_events);
+
+    final EXIDecoderPool decoderPool = new EXIDecoderPool(1);
+    EXIDecoder decoder = decoderPool.borrow(grammarCache, options);
+    decoder.setMetricsListener(metrics);
+    DecoderTestUtil.decode(decoder, bts);
+    Assert.assertTrue(metrics.n_events > 0);
+    decoderPool.release(decoder);
+
+    metrics.n_events = 0;
+    decoder = decoderPool.borrow(grammarCache, options);
+    DecoderTestUtil.decode(decoder, bts);
+    decoderPool.release(decoder);
+    Assert.assertEquals(0, metrics.n_events);
+
+    Assert.assertEquals(1, transmogrifierPool.getHitCount());
+    Assert.assertEquals(1, decoderPool.getHitCount());
+  }
+
+  /**
+   * An EXIDecoder released with typed values enabled reports characters
+   * again for the next borrower.
+   */
+  public void testResetTypedValues() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache(EmptySchema.getEXISchema(), GrammarOptions.DEFAULT_OPTIONS);
+    final String xmlString = "<A xmlns:xsd='http://www.w3.org/2001/XMLSchema' " +
+      "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:type='xsd:int'>12345</A>";
+    final EXIOptions options = new EXIOptions();
+
+    final Transmogrifier transmogrifier = new Transmogrifier();
+    transmogrifier.setGrammarCache(grammarCache);
+    final byte[] bts = TransmogrifierTestUtil.encode(transmogrifier, toInputSource(xmlString, null));
+
+    final EXIDecoderPool pool = new EXIDecoderPool(1);
+    EXIDecoder decoder = pool.borrow(grammarCache, options);
+    decoder.setEnableTypedValues(true);
+    Assert.assertEquals(1, countTypedValues(decoder, bts));
+    pool.release(decoder);
+
+    decoder = pool.borrow(grammarCache, options);
+    Assert.assertEquals(0, countTypedValues(decoder, bts));
+    pool.release(decoder);
+    Assert.assertEquals(1, pool.getHitCount());
+  }
+
+  /**
+   * A Transmogrifier released after external general entities were
+   * left unresolved resolves them again for the next borrower.
+   */
+  public void testResetExternalGeneralEntities() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache(GrammarOptions.addDTD(GrammarOptions.DEFAULT_OPTIONS));
+    final String xmlString = "<!DOCTYPE None [ <!ENTITY ent SYSTEM 'entity01.ent'> ]><None xmlns='urn:foo'>&ent;&ent;</None>\n";
+    final String systemId = resolveSystemIdAsURL("/file.txt").toString();
+
+    final Transmogrifier fresh = new Transmogrifier();
+    fresh.setGrammarCache(grammarCache);
+    final byte[] expectedBytes = TransmogrifierTestUtil.encode(fresh, toInputSource(xmlString, systemId));
+
+    final TransmogrifierPool pool = new TransmogrifierPool(1);
+    final EXIOptions options = new EXIOptions();
+
+    Transmogrifier transmogrifier = pool.borrow(grammarCache, options);
+    transmogrifier.setResolveExternalGeneralEntities(false);
+    Assert.assertFalse(Arrays.equals(expectedBytes, TransmogrifierTestUtil.encode(transmogrifier, toInputSource(xmlString, systemId))));
+    pool.release(transmogrifier);
+
+    transmogrifier = pool.borrow(grammarCache, options);
+    Assert.assertTrue(Arrays.equals(expectedBytes, TransmogrifierTestUtil.encode(transmogrifier, toInputSource(xmlString, systemId))));
+    pool.release(transmogrifier);
+  }
+
+  /**
+   * Idle processors of the keys least recently used are dropped when 
+   * there are more keys than the pool keeps, unless they are in use.
+   */
+  public void testEviction() throws Exception {
+    final GrammarCache[] grammarCaches = new GrammarCache[4];
+    for (int i = 0; i < grammarCaches.length; i++)
+      grammarCaches[i] = new GrammarCache(GrammarOptions.DEFAULT_OPTIONS);
+
+    final EXIDecoderPool pool = new EXIDecoderPool(1, 2);
+    Assert.assertEquals(2, pool.getMaxKeys());
+    final EXIOptions options = new EXIOptions();
+
+    final EXIDecoder decoder0 = pool.borrow(grammarCaches[0], options);
+    for (int i = 1; i < grammarCaches.length; i++)
+      pool.release(pool.borrow(grammarCaches[i], options));
+    // grammarCaches[0] is in use, and grammarCaches[3] is the most recently used.
+    Assert.assertEquals(2, pool.getKeyCount());
+    Assert.assertEquals(1, pool.getIdleCount());
+    Assert.assertEquals(4, pool.getMissCount());
+
+    pool.release(decoder0);
+    Assert.assertSame(decoder0, pool.borrow(grammarCaches[0], options));
+    Assert.assertEquals(1, pool.getHitCount());
+    pool.release(decoder0);
+
+    // The processor for grammarCaches[1] was dropped.
+    pool.release(pool.borrow(grammarCaches[1], options));
+    Assert.assertEquals(5, pool.getMissCount());
+    Assert.assertEquals(2, pool.getKeyCount());
+    Assert.assertEquals(2, pool.getIdleCount());
+  }
+
+  /**
+   * Processors are kept separately for each GrammarCache and EXIOptions.
+   */
+  public void testKeys() throws Exception {
+    final GrammarCache grammarCache1 = new GrammarCache(GrammarOptions.DEFAULT_OPTIONS);
+    final GrammarCache grammarCache2 = new GrammarCache(GrammarOptions.DEFAULT_OPTIONS);
+
+    final EXIDecoderPool pool = new EXIDecoderPool(1);
+
+    final EXIOptions options1 = new EXIOptions();
+    final EXIOptions options2 = new EXIOptions();
+    options2.setValueMaxLength(16);
+
+    final EXIDecoder decoder1 = pool.borrow(grammarCache1, options1);
+    final EXIDecoder decoder2 = pool.borrow(grammarCache2, options1);
+    final EXIDecoder decoder3 = pool.borrow(grammarCache1, options2);
+    Assert.assertNotSame(decoder1, decoder2);
+    Assert.assertNotSame(decoder1, decoder3);
+    Assert.assertNotSame(decoder2, decoder3);
+    Assert.assertEquals(3, pool.getMissCount());
+    Assert.assertEquals(3, pool.getActiveCount());
+    pool.release(decoder1);
+    pool.release(decoder2);
+    pool.release(decoder3);
+
+    // Options are copied when borrowed, so later changes do not affect the key.
+    options2.setValueMaxLength(EXIOptions.VALUE_MAX_LENGTH_UNBOUNDED);
+    Assert.assertSame(decoder1, pool.borrow(grammarCache1, options2));
+    pool.release(decoder1);
+    Assert.assertEquals(1, pool.getHitCount());
+
+    // EXIDecoders do not depend on schemaId.
+    options2.setSchemaId(new SchemaId("urn:foo"));
+    Assert.assertSame(decoder1, pool.borrow(grammarCache1, options2));
+    pool.release(decoder1);
+    Assert.assertEquals(2, pool.getHitCount());
+    Assert.assertEquals(3, pool.getKeyCount());
+
+    // Transmogrifiers write schemaId in the header.
+    final TransmogrifierPool transmogrifierPool = new TransmogrifierPool(1);
+    final Transmogrifier transmogrifier = transmogrifierPool.borrow(grammarCache1, options1);
+    transmogrifierPool.release(transmogrifier);
+    Assert.assertNotSame(transmogrifier, transmogrifierPool.borrow(grammarCache1, options2));
+    Assert.assertEquals(2, transmogrifierPool.getKeyCount());
+
+    try {
+      pool.release(new EXIDecoder());
+    }
+    catch (IllegalArgumentException iae) {
+      return;
+    }
+    Assert.fail();
+  }
+
+  /**
+   * A borrow waits until a processor is released when the capacity
+   * has been reached.
+   */
+  public void testWait() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache(GrammarOptions.DEFAULT_OPTIONS);
+    final TransmogrifierPool pool = new TransmogrifierPool(1);
+    final EXIOptions options = new EXIOptions();
+
+    final Transmogrifier transmogrifier = pool.borrow(grammarCache, options);
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Future<Transmogrifier> future = executor.submit(new Callable<Transmogrifier>() {
+        public Transmogrifier call() throws Exception {
+          final Transmogrifier borrowed = pool.borrow(grammarCache, options);
+          pool.release(borrowed);
+          return borrowed;
+        }
+      });
+      while (pool.getWaitCount() == 0)
+        Thread.sleep(10);
+      Assert.assertFalse(future.isDone());
+      pool.release(transmogrifier);
+      Assert.assertSame(transmogrifier, future.get(10, TimeUnit.SECONDS));
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    Assert.assertEquals(1, pool.getMissCount());
+    Assert.assertEquals(1, pool.getHitCount());
+    Assert.assertEquals(1, pool.getWaitCount());
+    Assert.assertTrue(pool.getWaitNanos() > 0);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private static InputSource toInputSource(String xmlString, String systemId) {
+    InputSource inputSource = new InputSource(new StringReader(xmlString));
+    inputSource.setSystemId(systemId);
+    return inputSource;
+  }
+
+  private static int countTypedValues(EXIDecoder decoder, byte[] bts) throws Exception {
+    decoder.setInputStream(new ByteArrayInputStream(bts));
+    Scanner scanner = decoder.processHeader();
+
+    int n_typedValues = 0;
+    EventDescription exiEvent;
+    while ((exiEvent = scanner.nextEvent()) != null) {
+      if (exiEvent instanceof TypedEventDescription &&
+          ((TypedEventDescription)exiEvent).getValueType() == TypedEventDescription.VALUE_INTEGER)
+        ++n_typedValues;
+    }
+    return n_typedValues;
+  }
+
+  private static final class EventCounter extends MetricsListener {
+    int n_events;
+    @Override
+    public void event(byte grammarType, EventType eventType) {
+      ++n_events;
+    }
+  }
+
+}
@@ -0,0 +1,246 @@
+package org.openexi.sax;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.ByteBuffer;
+
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.TestBase;
+import org.xml.sax.InputSource;
+
+import junit.framework.Assert;
+
+public class PushTransmogrifierTest extends TestBase {
+
+  public PushTransmogrifierTest(String name) {
+    super(name);
+  }
+
+  private static final AlignmentType[] Alignments = new AlignmentType[] {
+    AlignmentType.bitPacked,
+    AlignmentType.byteAligned,
+    AlignmentType.preCompress,
+    AlignmentType.compress
+  };
+
+  private static final int[] ChunkSizes = new int[] { 1, 7, Integer.MAX_VALUE };
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Documents fed in chunks of various sizes result in the same EXI streams
+   * as those that Transmogrifier's SAX parser produces.
+   */
+  public void testFeed_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null,
+        GrammarOptions.addNS(GrammarOptions.addCM(GrammarOptions.addPI(GrammarOptions.addDTD(GrammarOptions.DEFAULT_OPTIONS)))));
+
+    final String[] xmlStrings = {
+      "<A/>",
+      "<?xml version='1.0'?>\n<!DOCTYPE A [ <!ELEMENT A ANY> ]>\n" +
+      "<!-- prolog -->\n<?pi data?>\n" +
+      "<foo:A xmlns:foo='urn:foo' xmlns='urn:default' xml:lang='en' b = \"x&amp;y\" foo:c='&#x41;&#66;'>\r\n" +
+      "  <B>&lt;text&gt; &apos;&quot; &#x1D11E;</B>\r\n" +
+      "  <C xmlns=''><![CDATA[<raw> & ]]]]></C><foo:D/>\r" +
+      "  <E d='a\tb\r\nc'>\u00e9\u4e00</E ><!-- comment --><?target?>\n" +
+      "</foo:A>\n<!-- epilog -->",
+    };
+
+    for (AlignmentType alignment : Alignments) {
+      for (String xmlString : xmlStrings) {
+        final Transmogrifier encoder = new Transmogrifier();
+        encoder.setAlignmentType(alignment);
+        encoder.setGrammarCache(grammarCache);
+        encoder.setPreserveWhitespaces(true);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        encoder.setOutputStream(baos);
+        encoder.encode(new InputSource(new StringReader(xmlString)));
+        final byte[] expected = baos.toByteArray();
+
+        for (String encoding : new String[] { "UTF-8", "UTF-16" }) {
+          final byte[] xmlBytes = xmlString.getBytes(encoding);
+          for (int chunkSize : ChunkSizes) {
+            baos = new ByteArrayOutputStream();
+            encoder.setOutputStream(baos);
+            final PushTransmogrifier pushTransmogrifier = new PushTransmogrifier(encoder);
+            feed(pushTransmogrifier, xmlBytes, chunkSize);
+            Assert.assertEquals(toString(expected), toString(baos.toByteArray()));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Quotes, brackets and '>' in comments and processing instructions of
+   * the internal subset do not end the document type declaration.
+   */
+  public void testDoctype_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null,
+        GrammarOptions.addCM(GrammarOptions.addDTD(GrammarOptions.DEFAULT_OPTIONS)));
+
+    final String[] xmlStrings = {
+      "<!DOCTYPE a [<!-- don't -->]><a/>",
+      "<!DOCTYPE a [<?pi it's > ]?><!ELEMENT a ANY><!-- ]> \" -->]><a>x</a>",
+    };
+
+    for (String xmlString : xmlStrings) {
+      final Transmogrifier encoder = new Transmogrifier();
+      encoder.setGrammarCache(grammarCache);
+
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      encoder.setOutputStream(baos);
+      encoder.encode(new InputSource(new StringReader(xmlString)));
+      final byte[] expected = baos.toByteArray();
+
+      for (int chunkSize : ChunkSizes) {
+        baos = new ByteArrayOutputStream();
+        encoder.setOutputStream(baos);
+        final PushTransmogrifier pushTransmogrifier = new PushTransmogrifier(encoder);
+        feed(pushTransmogrifier, xmlString.getBytes("UTF-8"), chunkSize);
+        Assert.assertEquals(toString(expected), toString(baos.toByteArray()));
+      }
+    }
+  }
+
+  /**
+   * The encoding declared in the XML declaration is used to decode the bytes.
+   */
+  public void testEncodingDeclaration_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null, GrammarOptions.DEFAULT_OPTIONS);
+
+    final String xmlString = "<?xml version='1.0' encoding='ISO-8859-1'?><A>caf\u00e9</A>";
+
+    final Transmogrifier encoder = new Transmogrifier();
+    encoder.setGrammarCache(grammarCache);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    encoder.setOutputStream(baos);
+    encoder.encode(new InputSource(new StringReader(xmlString)));
+    final byte[] expected = baos.toByteArray();
+
+    for (int chunkSize : ChunkSizes) {
+      baos = new ByteArrayOutputStream();
+      encoder.setOutputStream(baos);
+      final PushTransmogrifier pushTransmogrifier = new PushTransmogrifier(encoder);
+      feed(pushTransmogrifier, xmlString.getBytes("ISO-8859-1"), chunkSize);
+      Assert.assertEquals(toString(expected), toString(baos.toByteArray()));
+    }
+  }
+
+  /**
+   * Feed a document read from a file in ByteBuffers, with a PushTransmogrifier
+   * reused after reset.
+   */
+  public void testFeedByteBuffer_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null, GrammarOptions.DEFAULT_OPTIONS);
+
+    final URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+    final byte[] xmlBytes = readBytes(url);
+
+    for (AlignmentType alignment : Alignments) {
+      final Transmogrifier encoder = new Transmogrifier();
+      encoder.setAlignmentType(alignment);
+      encoder.setGrammarCache(grammarCache);
+
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      encoder.setOutputStream(baos);
+      final InputSource inputSource = new InputSource(url.toString());
+      inputSource.setByteStream(url.openStream());
+      encoder.encode(inputSource);
+      final byte[] expected = baos.toByteArray();
+
+      final PushTransmogrifier pushTransmogrifier = new PushTransmogrifier(encoder);
+      for (int chunkSize : new int[] { 100, 4096 }) {
+        baos = new ByteArrayOutputStream();
+        encoder.setOutputStream(baos);
+        pushTransmogrifier.reset();
+        for (int pos = 0; pos < xmlBytes.length; pos += chunkSize) {
+          final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(chunkSize);
+          byteBuffer.put(xmlBytes, pos, Math.min(chunkSize, xmlBytes.length - pos));
+          byteBuffer.flip();
+          pushTransmogrifier.feed(byteBuffer);
+          Assert.assertFalse(byteBuffer.hasRemaining());
+        }
+        pushTransmogrifier.endOfInput();
+        Assert.assertEquals(toString(expected), toString(baos.toByteArray()));
+      }
+    }
+  }
+
+  /**
+   * Documents that are not well-formed or that end prematurely are reported
+   * with TransmogrifierException.
+   */
+  public void testNotWellFormed_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null,
+        GrammarOptions.addNS(GrammarOptions.DEFAULT_OPTIONS));
+
+    final String[] xmlStrings = {
+      "<A><B></A>",
+      "<A></A><B/>",
+      "text<A/>",
+      "<A>&undeclared;</A>",
+      "<p:A/>",
+      "<A b='1' b='2'/>",
+      "<A><B>",
+      "<A",
+      "",
+    };
+
+    final Transmogrifier encoder = new Transmogrifier();
+    encoder.setGrammarCache(grammarCache);
+    final PushTransmogrifier pushTransmogrifier = new PushTransmogrifier(encoder);
+    for (String xmlString : xmlStrings) {
+      encoder.setOutputStream(new ByteArrayOutputStream());
+      pushTransmogrifier.reset();
+      try {
+        feed(pushTransmogrifier, xmlString.getBytes("UTF-8"), 3);
+      }
+      catch (TransmogrifierException te) {
+        Assert.assertEquals(TransmogrifierException.SAX_ERROR, te.getCode());
+        Assert.assertNotNull(te.getLocator());
+        continue;
+      }
+      Assert.fail(xmlString);
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private static void feed(PushTransmogrifier pushTransmogrifier, byte[] bts, int chunkSize) throws Exception {
+    for (int pos = 0; pos < bts.length; pos += chunkSize) {
+      pushTransmogrifier.feed(bts, pos, Math.min(chunkSize, bts.length - pos));
+    }
+    pushTransmogrifier.endOfInput();
+  }
+
+  private static byte[] readBytes(URL url) throws Exception {
+    final InputStream inputStream = url.openStream();
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final byte[] bts = new byte[4096];
+    int n;
+    while ((n = inputStream.read(bts)) != -1)
+      baos.write(bts, 0, n);
+    inputStream.close();
+    return baos.toByteArray();
+  }
+
+  private static String toString(byte[] bts) {
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (int i = 0; i < bts.length; i++) {
+      stringBuilder.append(Integer.toHexString(bts[i] & 0xFF)).append(' ');
+    }
+    return stringBuilder.toString();
+  }
+
+}
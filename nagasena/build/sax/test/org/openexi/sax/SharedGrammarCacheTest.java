@@ -0,0 +1,132 @@
+package org.openexi.sax;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.Assert;
+
+import org.openexi.proc.DecoderTestUtil;
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.TestBase;
+import org.openexi.scomp.EXISchemaFactoryErrorMonitor;
+import org.openexi.scomp.EXISchemaFactoryTestUtil;
+
+public class SharedGrammarCacheTest extends TestBase {
+
+  public SharedGrammarCacheTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_compilerErrors = new EXISchemaFactoryErrorMonitor();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    super.tearDown();
+    m_compilerErrors.clear();
+  }
+
+  private EXISchemaFactoryErrorMonitor m_compilerErrors;
+
+  private static final AlignmentType[] Alignments = new AlignmentType[] {
+    AlignmentType.bitPacked,
+    AlignmentType.byteAligned,
+    AlignmentType.preCompress,
+    AlignmentType.compress
+  };
+
+  private static final int N_THREADS = 4;
+  private static final int N_ROUNDS = 5;
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * A schema-informed GrammarCache is used by several threads at the same
+   * time to encode and decode, where each thread has its own Transmogrifier
+   * and EXIDecoder.
+   */
+  public void testSharedSchemaInformed() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/JTLM/schemas/TLMComposite.xsd", getClass(), m_compilerErrors);
+
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    doShared(new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS), "/JTLM/publish100.xml");
+  }
+
+  /**
+   * A GrammarCache without schema is used by several threads at the same
+   * time, where each stream learns its own built-in element grammars.
+   */
+  public void testSharedBuiltin() throws Exception {
+    doShared(new GrammarCache(GrammarOptions.DEFAULT_OPTIONS), "/JTLM/publish100.xml");
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private void doShared(final GrammarCache grammarCache, String xmlFile) throws Exception {
+    final URL url = resolveSystemIdAsURL(xmlFile);
+
+    for (final AlignmentType alignment : Alignments) {
+      // Results of the encoder and the decoder in a single thread serve as reference.
+      final byte[] expectedBytes = encode(url, grammarCache, alignment);
+      final ArrayList<String> expectedEvents = decode(expectedBytes, grammarCache, alignment);
+
+      final ExecutorService executor = Executors.newFixedThreadPool(N_THREADS);
+      try {
+        final ArrayList<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+        for (int i = 0; i < N_THREADS; i++) {
+          futures.add(executor.submit(new Callable<Boolean>() {
+            public Boolean call() throws Exception {
+              for (int j = 0; j < N_ROUNDS; j++) {
+                final byte[] bts = encode(url, grammarCache, alignment);
+                if (!Arrays.equals(expectedBytes, bts))
+                  return Boolean.FALSE;
+                if (!expectedEvents.equals(decode(bts, grammarCache, alignment)))
+                  return Boolean.FALSE;
+              }
+              return Boolean.TRUE;
+            }
+          }));
+        }
+        for (Future<Boolean> future : futures) {
+          Assert.assertTrue(future.get().booleanValue());
+        }
+      }
+      finally {
+        executor.shutdown();
+      }
+    }
+  }
+
+  private static byte[] encode(URL url, GrammarCache grammarCache, AlignmentType alignment) throws Exception {
+    Transmogrifier encoder = new Transmogrifier();
+    encoder.setAlignmentType(alignment);
+    encoder.setGrammarCache(grammarCache);
+    return TransmogrifierTestUtil.encode(encoder, url);
+  }
+
+  private static ArrayList<String> decode(byte[] bts, GrammarCache grammarCache, AlignmentType alignment) throws Exception {
+    EXIDecoder decoder = new EXIDecoder();
+    decoder.setAlignmentType(alignment);
+    decoder.setGrammarCache(grammarCache);
+    return DecoderTestUtil.decode(decoder, bts);
+  }
+
+}
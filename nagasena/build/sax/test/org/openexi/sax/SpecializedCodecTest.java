@@ -0,0 +1,262 @@
+package org.openexi.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import javax.xml.parsers.SAXParserFactory;
+
+import junit.framework.Assert;
+
+import org.openexi.proc.DecoderTestUtil;
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.ScriberRuntimeException;
+import org.openexi.proc.io.SpecializedCodecGenerator;
+import org.openexi.proc.io.SpecializedDecoder;
+import org.openexi.proc.io.SpecializedEncoder;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.TestBase;
+import org.openexi.scomp.EXISchemaFactoryErrorMonitor;
+import org.openexi.scomp.EXISchemaFactoryTestUtil;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class SpecializedCodecTest extends TestBase {
+
+  public SpecializedCodecTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_compilerErrors = new EXISchemaFactoryErrorMonitor();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    super.tearDown();
+    m_compilerErrors.clear();
+  }
+
+  private EXISchemaFactoryErrorMonitor m_compilerErrors;
+
+  private static final String METERING_RECEIPT_REQ =
+    "<v2gci_d:V2G_Message xmlns:v2gci_h='urn:iso:15118:2:2013:MsgHeader'\n" +
+    "  xmlns:v2gci_d='urn:iso:15118:2:2013:MsgDef'\n" +
+    "  xmlns:v2gci_t='urn:iso:15118:2:2013:MsgDataTypes'\n" +
+    "  xmlns:v2gci_b='urn:iso:15118:2:2013:MsgBody'>\n" +
+    "<v2gci_d:Header>\n" +
+    "<v2gci_h:SessionID>0A0B0C0D0E0F1011</v2gci_h:SessionID>\n" +
+    "</v2gci_d:Header>\n" +
+    "<v2gci_d:Body>\n" +
+    "<v2gci_b:MeteringReceiptReq v2gci_b:Id='receipt1'>\n" +
+    "<v2gci_b:SessionID>0A0B0C0D0E0F1011</v2gci_b:SessionID>\n" +
+    "<v2gci_b:SAScheduleTupleID> 12 </v2gci_b:SAScheduleTupleID>\n" +
+    "<v2gci_b:MeterInfo>\n" +
+    "<v2gci_t:MeterID>METER-0001</v2gci_t:MeterID>\n" +
+    "<v2gci_t:MeterReading>123456789012</v2gci_t:MeterReading>\n" +
+    "<v2gci_t:TMeter>-1400000000</v2gci_t:TMeter>\n" +
+    "</v2gci_b:MeterInfo>\n" +
+    "</v2gci_b:MeteringReceiptReq>\n" +
+    "</v2gci_d:Body>\n" +
+    "</v2gci_d:V2G_Message>\n";
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Encoders and decoders generated for the ISO15118 schema encode
+   * documents into the same bits as Transmogrifier does, and decode them
+   * into the same events as EXIDecoder does.
+   */
+  public void testISO15118() throws Exception {
+    final JavaCompiler compiler;
+    if ((compiler = ToolProvider.getSystemJavaCompiler()) == null) {
+      // Java compiler is not available in the runtime.
+      return;
+    }
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/iso15118/V2G_CI_MsgDef.xsd", getClass(), m_compilerErrors);
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.STRICT_OPTIONS);
+
+    SpecializedCodecGenerator generator = new SpecializedCodecGenerator(grammarCache);
+    Assert.assertTrue(generator.getStatesCount() > 1);
+
+    final File directory = File.createTempFile("specialized", "");
+    Assert.assertTrue(directory.delete() && directory.mkdir());
+    try {
+      final File packageDirectory = new File(directory, "iso15118");
+      Assert.assertTrue(packageDirectory.mkdir());
+      final File encoderFile = new File(packageDirectory, "ISO15118Encoder.java");
+      final File decoderFile = new File(packageDirectory, "ISO15118Decoder.java");
+      Writer writer;
+      writer = new OutputStreamWriter(new FileOutputStream(encoderFile), "UTF-8");
+      generator.writeEncoder("iso15118", "ISO15118Encoder", writer);
+      writer.close();
+      writer = new OutputStreamWriter(new FileOutputStream(decoderFile), "UTF-8");
+      generator.writeDecoder("iso15118", "ISO15118Decoder", writer);
+      writer.close();
+
+      Assert.assertEquals(0, compiler.run(null, null, null, "-nowarn", "-encoding", "UTF-8",
+          "-d", directory.getPath(), "-cp", System.getProperty("java.class.path"),
+          encoderFile.getPath(), decoderFile.getPath()));
+
+      final URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toURI().toURL() },
+          getClass().getClassLoader());
+      final SpecializedEncoder encoder = (SpecializedEncoder)classLoader.loadClass("iso15118.ISO15118Encoder").
+          getConstructor(GrammarCache.class).newInstance(grammarCache);
+      final SpecializedDecoder decoder = (SpecializedDecoder)classLoader.loadClass("iso15118.ISO15118Decoder").
+          getConstructor(GrammarCache.class).newInstance(grammarCache);
+
+      final Transmogrifier transmogrifier = new Transmogrifier();
+      transmogrifier.setGrammarCache(grammarCache);
+      final EXIDecoder exiDecoder = new EXIDecoder();
+      exiDecoder.setGrammarCache(grammarCache);
+
+      // The second round reuses the encoder and the decoder.
+      for (int n = 0; n < 2; n++) {
+        for (int i = 0; i < 2; i++) {
+          ByteArrayOutputStream baos;
+
+          baos = new ByteArrayOutputStream();
+          transmogrifier.setOutputStream(baos);
+          transmogrifier.encode(createInputSource(i));
+          final byte[] expected = baos.toByteArray();
+
+          baos = new ByteArrayOutputStream();
+          encoder.setOutputStream(baos);
+          encode(encoder, createInputSource(i));
+          final byte[] bts = baos.toByteArray();
+
+          Assert.assertEquals(expected.length, bts.length);
+          for (int j = 0; j < bts.length; j++)
+            Assert.assertEquals(expected[j], bts[j]);
+
+          final ArrayList<String> expectedEvents = DecoderTestUtil.decode(exiDecoder, bts);
+          final ArrayList<String> events = new ArrayList<String>();
+          decoder.setInputStream(new ByteArrayInputStream(bts));
+          EventDescription exiEvent;
+          while ((exiEvent = decoder.nextEvent()) != null) {
+            Assert.assertNull(exiEvent.getEventType());
+            events.add(DecoderTestUtil.toString(exiEvent));
+          }
+          Assert.assertEquals(expectedEvents, events);
+        }
+      }
+
+      try {
+        encoder.setOutputStream(new ByteArrayOutputStream());
+        encoder.startDocument();
+        encoder.startElement("urn:iso:15118:2:2013:MsgDef", "Body");
+      }
+      catch (ScriberRuntimeException sre) {
+        Assert.assertEquals(ScriberRuntimeException.UNEXPECTED_ELEM, sre.getCode());
+        return;
+      }
+      Assert.fail();
+    }
+    finally {
+      delete(directory);
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private InputSource createInputSource(int i) throws IOException {
+    if (i == 0) {
+      final URL url = resolveSystemIdAsURL("/iso15118/SessionSetupRes.xml");
+      final InputSource inputSource = new InputSource(url.toString());
+      inputSource.setByteStream(url.openStream());
+      return inputSource;
+    }
+    return new InputSource(new StringReader(METERING_RECEIPT_REQ));
+  }
+
+  private static void encode(final SpecializedEncoder encoder, InputSource inputSource) throws Exception {
+    final SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+    saxParserFactory.setNamespaceAware(true);
+    final XMLReader xmlReader = saxParserFactory.newSAXParser().getXMLReader();
+    xmlReader.setContentHandler(new DefaultHandler() {
+      @Override
+      public void startDocument() throws SAXException {
+        try {
+          encoder.startDocument();
+        }
+        catch (Exception e) {
+          throw new SAXException(e);
+        }
+      }
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attrs) throws SAXException {
+        try {
+          encoder.startElement(uri, localName);
+          for (int i = 0; i < attrs.getLength(); i++)
+            encoder.attribute(attrs.getURI(i), attrs.getLocalName(i), attrs.getValue(i));
+        }
+        catch (Exception e) {
+          throw new SAXException(e);
+        }
+      }
+      @Override
+      public void characters(char[] ch, int start, int length) throws SAXException {
+        try {
+          encoder.characters(ch, start, length);
+        }
+        catch (Exception e) {
+          throw new SAXException(e);
+        }
+      }
+      @Override
+      public void endElement(String uri, String localName, String qName) throws SAXException {
+        try {
+          encoder.endElement();
+        }
+        catch (Exception e) {
+          throw new SAXException(e);
+        }
+      }
+      @Override
+      public void endDocument() throws SAXException {
+        try {
+          encoder.endDocument();
+        }
+        catch (Exception e) {
+          throw new SAXException(e);
+        }
+      }
+    });
+    xmlReader.parse(inputSource);
+  }
+
+  private static void delete(File file) {
+    final File[] files;
+    if ((files = file.listFiles()) != null) {
+      for (int i = 0; i < files.length; i++)
+        delete(files[i]);
+    }
+    file.delete();
+  }
+
+}
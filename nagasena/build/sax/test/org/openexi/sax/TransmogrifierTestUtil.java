@@ -0,0 +1,42 @@
+package org.openexi.sax;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+
+import org.xml.sax.InputSource;
+
+/**
+ * Helpers for tests that encode XML documents into EXI streams in memory.
+ */
+public class TransmogrifierTestUtil {
+
+  private TransmogrifierTestUtil() {
+  }
+
+  /**
+   * Encodes an XML document using a transmogrifier as it is currently configured.
+   */
+  public static byte[] encode(Transmogrifier transmogrifier, InputSource inputSource) throws Exception {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    transmogrifier.setOutputStream(baos);
+    transmogrifier.encode(inputSource);
+    return baos.toByteArray();
+  }
+
+  /**
+   * Encodes the XML document located at an URL.
+   */
+  public static byte[] encode(Transmogrifier transmogrifier, URL url) throws Exception {
+    final InputStream inputStream = url.openStream();
+    try {
+      final InputSource inputSource = new InputSource(url.toString());
+      inputSource.setByteStream(inputStream);
+      return encode(transmogrifier, inputSource);
+    }
+    finally {
+      inputStream.close();
+    }
+  }
+
+}
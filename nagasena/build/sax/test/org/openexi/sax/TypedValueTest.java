@@ -0,0 +1,226 @@
+package org.openexi.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import junit.framework.Assert;
+
+import org.openexi.proc.DecoderTestUtil;
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.common.TypedEventDescription;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.Scanner;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EXISchemaConst;
+import org.openexi.schema.EmptySchema;
+import org.openexi.schema.TestBase;
+import org.openexi.schema.XSDateTime;
+import org.openexi.scomp.EXISchemaFactoryErrorMonitor;
+import org.openexi.scomp.EXISchemaFactoryTestUtil;
+import org.xml.sax.InputSource;
+
+public class TypedValueTest extends TestBase {
+
+  public TypedValueTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_compilerErrors = new EXISchemaFactoryErrorMonitor();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    super.tearDown();
+    m_compilerErrors.clear();
+  }
+
+  private EXISchemaFactoryErrorMonitor m_compilerErrors;
+
+  private static final AlignmentType[] Alignments = new AlignmentType[] {
+    AlignmentType.bitPacked,
+    AlignmentType.byteAligned,
+    AlignmentType.preCompress,
+    AlignmentType.compress
+  };
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Values of each datatype are given in their decoded form, and render
+   * the same characters as without typed values.
+   */
+  public void testTypedValues_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache(EmptySchema.getEXISchema(), GrammarOptions.DEFAULT_OPTIONS);
+
+    final String xmlString =
+      "<A xmlns:xsd='http://www.w3.org/2001/XMLSchema' " +
+      "   xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'>" +
+      "<B xsi:type='xsd:boolean'>true</B>" +
+      "<B xsi:type='xsd:boolean'>0</B>" +
+      "<B xsi:type='xsd:int'>-2147483648</B>" +
+      "<B xsi:type='xsd:unsignedByte'>255</B>" +
+      "<B xsi:type='xsd:long'>-9223372036854775808</B>" +
+      "<B xsi:type='xsd:integer'>9223372036854775808</B>" +
+      "<B xsi:type='xsd:double'>-12345.678E-3</B>" +
+      "<B xsi:type='xsd:double'>4.9E-324</B>" +
+      "<B xsi:type='xsd:float'>-INF</B>" +
+      "<B xsi:type='xsd:float'>NaN</B>" +
+      "<B xsi:type='xsd:decimal'>-1267.00675</B>" +
+      "<B xsi:type='xsd:dateTime'>2003-04-25T11:41:30.45-05:30</B>" +
+      "<B xsi:type='xsd:date'>-0601-07-17Z</B>" +
+      "<B xsi:type='xsd:gMonthDay'>--09-16</B>" +
+      "<B xsi:type='xsd:base64Binary'>QUJDREVGR0hJSg==</B>" +
+      "<B xsi:type='xsd:hexBinary'>0F1E2D</B>" +
+      "</A>";
+
+    for (AlignmentType alignment : new AlignmentType[] { AlignmentType.bitPacked, AlignmentType.byteAligned }) {
+      final byte[] bts = encode(new InputSource(new StringReader(xmlString)), grammarCache, alignment);
+      final ArrayList<String> expected = decode(bts, grammarCache, alignment, false, false);
+
+      final EXIDecoder decoder = new EXIDecoder();
+      decoder.setAlignmentType(alignment);
+      decoder.setGrammarCache(grammarCache);
+      decoder.setEnableTypedValues(true);
+      decoder.setInputStream(new ByteArrayInputStream(bts));
+      final Scanner scanner = decoder.processHeader();
+
+      final ArrayList<String> floatValues = new ArrayList<String>();
+      final ArrayList<String> actual = new ArrayList<String>();
+      final ArrayList<Object> values = new ArrayList<Object>();
+      EventDescription exiEvent;
+      while ((exiEvent = scanner.nextEvent()) != null) {
+        if (exiEvent.getEventKind() == EventDescription.EVENT_CH) {
+          final TypedEventDescription typedValue = (TypedEventDescription)exiEvent;
+          switch (typedValue.getValueType()) {
+            case TypedEventDescription.VALUE_BOOLEAN:
+              values.add(typedValue.getBooleanValue());
+              break;
+            case TypedEventDescription.VALUE_INTEGER:
+              values.add(typedValue.getLongValue());
+              break;
+            case TypedEventDescription.VALUE_FLOAT:
+              values.add(typedValue.getDoubleValue());
+              floatValues.add(typedValue.getMantissa() + " " + typedValue.getExponent());
+              break;
+            case TypedEventDescription.VALUE_DATETIME:
+              values.add(typedValue.getDateTimeValue());
+              break;
+            case TypedEventDescription.VALUE_BINARY:
+              final ByteBuffer byteBuffer = typedValue.getBinaryValue();
+              final byte[] octets = new byte[byteBuffer.remaining()];
+              byteBuffer.get(octets);
+              values.add(new String(octets, "ISO-8859-1"));
+              break;
+            default:
+              Assert.assertEquals(TypedEventDescription.VALUE_CHARACTERS, typedValue.getValueType());
+              values.add(null);
+              break;
+          }
+        }
+        actual.add(DecoderTestUtil.toString(exiEvent));
+      }
+      Assert.assertEquals(expected, actual);
+      Assert.assertEquals(16, values.size());
+
+      Assert.assertEquals(Boolean.TRUE, values.get(0));
+      Assert.assertEquals(Boolean.FALSE, values.get(1));
+      Assert.assertEquals(Long.valueOf(Integer.MIN_VALUE), values.get(2));
+      Assert.assertEquals(Long.valueOf(255), values.get(3));
+      Assert.assertEquals(Long.valueOf(Long.MIN_VALUE), values.get(4));
+      Assert.assertNull(values.get(5));
+      Assert.assertEquals(Double.valueOf(-12.345678), values.get(6));
+      Assert.assertEquals("-12345678 -6", floatValues.get(0));
+      Assert.assertEquals(Double.valueOf(Double.MIN_VALUE), values.get(7));
+      Assert.assertEquals(Double.valueOf(Double.NEGATIVE_INFINITY), values.get(8));
+      Assert.assertEquals("-1 " + TypedEventDescription.EXPONENT_SPECIAL_VALUES, floatValues.get(2));
+      Assert.assertTrue(Double.isNaN((Double)values.get(9)));
+      Assert.assertNull(values.get(10));
+
+      XSDateTime dateTime = (XSDateTime)values.get(11);
+      Assert.assertEquals(EXISchemaConst.DATETIME_TYPE, dateTime.getPrimTypeId());
+      Assert.assertEquals(2003, dateTime.year);
+      Assert.assertEquals(4, dateTime.month);
+      Assert.assertEquals(25, dateTime.day);
+      Assert.assertEquals(11, dateTime.hour);
+      Assert.assertEquals(41, dateTime.minute);
+      Assert.assertEquals(30, dateTime.second);
+      Assert.assertEquals(BigInteger.valueOf(54), dateTime.reverseFractionalSecond);
+      Assert.assertEquals(-330, dateTime.timeZone);
+
+      dateTime = (XSDateTime)values.get(12);
+      Assert.assertEquals(EXISchemaConst.DATE_TYPE, dateTime.getPrimTypeId());
+      Assert.assertEquals(-601, dateTime.year);
+      Assert.assertEquals(7, dateTime.month);
+      Assert.assertEquals(17, dateTime.day);
+      Assert.assertEquals(XSDateTime.FIELD_UNDEFINED, dateTime.hour);
+      Assert.assertEquals(0, dateTime.timeZone);
+
+      dateTime = (XSDateTime)values.get(13);
+      Assert.assertEquals(EXISchemaConst.G_MONTHDAY_TYPE, dateTime.getPrimTypeId());
+      Assert.assertEquals(XSDateTime.FIELD_UNDEFINED, dateTime.year);
+      Assert.assertEquals(9, dateTime.month);
+      Assert.assertEquals(16, dateTime.day);
+      Assert.assertEquals(XSDateTime.FIELD_UNDEFINED, dateTime.timeZone);
+
+      Assert.assertEquals("ABCDEFGHIJ", values.get(14));
+      Assert.assertEquals("\u000F\u001E-", values.get(15));
+    }
+  }
+
+  /**
+   * Decoding with typed values reports the same characters as without,
+   * for elements and attributes in all alignments.
+   */
+  public void testTypedValuesSchemaInformed() throws Exception {
+    final EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/JTLM/schemas/TLMComposite.xsd", getClass(), m_compilerErrors);
+
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    final GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+
+    final URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+    for (AlignmentType alignment : Alignments) {
+      final InputSource inputSource = new InputSource(url.toString());
+      inputSource.setByteStream(url.openStream());
+      final byte[] bts = encode(inputSource, grammarCache, alignment);
+      final ArrayList<String> expected = decode(bts, grammarCache, alignment, false, false);
+      Assert.assertEquals(expected, decode(bts, grammarCache, alignment, true, false));
+      Assert.assertEquals(expected, decode(bts, grammarCache, alignment, true, true));
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private static byte[] encode(InputSource inputSource, GrammarCache grammarCache, AlignmentType alignment) throws Exception {
+    final Transmogrifier encoder = new Transmogrifier();
+    encoder.setAlignmentType(alignment);
+    encoder.setGrammarCache(grammarCache);
+    return TransmogrifierTestUtil.encode(encoder, inputSource);
+  }
+
+  private static ArrayList<String> decode(byte[] bts, GrammarCache grammarCache, AlignmentType alignment,
+      boolean typedValues, boolean flyweight) throws Exception {
+    final EXIDecoder decoder = new EXIDecoder();
+    decoder.setAlignmentType(alignment);
+    decoder.setGrammarCache(grammarCache);
+    decoder.setEnableTypedValues(typedValues);
+    decoder.setFlyweight(flyweight);
+    return DecoderTestUtil.decode(decoder, bts);
+  }
+
+}
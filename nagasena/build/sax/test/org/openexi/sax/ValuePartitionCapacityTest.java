@@ -0,0 +1,160 @@
+package org.openexi.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+
+import junit.framework.Assert;
+
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.EXIPushDecoder;
+import org.openexi.proc.HeaderOptionsOutputType;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.Scanner;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EmptySchema;
+import org.openexi.schema.TestBase;
+import org.xml.sax.InputSource;
+
+public class ValuePartitionCapacityTest extends TestBase {
+
+  public ValuePartitionCapacityTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    super.tearDown();
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   */
+  public void testGlobalPartition() throws Exception {
+
+    String[] values = { "val1", "val2", "val3", "val2", "val1" };
+
+    GrammarCache grammarCache = new GrammarCache(EmptySchema.getEXISchema(), GrammarOptions.DEFAULT_OPTIONS);
+
+    Transmogrifier encoder = new Transmogrifier();
+    EXIDecoder decoder = new EXIDecoder();
+    Scanner scanner;
+    InputSource inputSource;
+    
+    encoder.setAlignmentType(AlignmentType.bitPacked);
+    encoder.setValuePartitionCapacity(2);
+    encoder.setOutputOptions(HeaderOptionsOutputType.lessSchemaId);
+
+    encoder.setGrammarCache(grammarCache);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    encoder.setOutputStream(baos);
+    
+    URL url = resolveSystemIdAsURL("/interop/datatypes/string/indexed-05.xml");
+    inputSource = new InputSource(url.toString());
+    inputSource.setByteStream(url.openStream());
+
+    byte[] bts;
+    int n_texts;
+    
+    encoder.encode(inputSource);
+    
+    bts = baos.toByteArray();
+
+    decoder.setGrammarCache(grammarCache);
+    decoder.setInputStream(new ByteArrayInputStream(bts));
+    scanner = decoder.processHeader();
+    Assert.assertEquals(2, scanner.getHeaderOptions().getValuePartitionCapacity());
+    
+    ArrayList<EventDescription> exiEventList = new ArrayList<EventDescription>();
+    
+    EventDescription exiEvent;
+    String stringValue= null;
+    n_texts = 0;
+    while ((exiEvent = scanner.nextEvent()) != null) {
+      if (exiEvent.getEventKind() == EventDescription.EVENT_CH) {
+        stringValue = exiEvent.getCharacters().makeString();
+        Assert.assertEquals(values[n_texts], stringValue);
+        ++n_texts;
+      }
+      exiEventList.add(exiEvent);
+    }
+  }
+
+  /**
+   * EXIPushDecoder rolls back the string table and the grammars learned in
+   * built-in element grammars when an event is cut off, including global 
+   * value entries evicted by a bounded value partition.
+   */
+  public void testPushDecoder() throws Exception {
+    final StringBuilder xml = new StringBuilder("<p:root xmlns:p='urn:foo' xmlns:q='urn:goo'>");
+    for (int i = 0; i < 40; i++) {
+      xml.append("<item id='id" + (i % 7) + "' q:ref='r" + (i % 3) + "'>");
+      xml.append("<name>val" + (i % 5) + "</name>");
+      xml.append("<q:value>val" + (i % 11) + "</q:value>");
+      xml.append("<p:e" + (i % 4) + ">v" + i + "</p:e" + (i % 4) + ">");
+      xml.append("</item>");
+    }
+    xml.append("</p:root>");
+
+    GrammarCache grammarCache = new GrammarCache((EXISchema)null, GrammarOptions.addNS(GrammarOptions.DEFAULT_OPTIONS));
+
+    final AlignmentType[] alignments = { AlignmentType.bitPacked, AlignmentType.byteAligned };
+    for (AlignmentType alignment : alignments) {
+      Transmogrifier encoder = new Transmogrifier();
+      encoder.setAlignmentType(alignment);
+      encoder.setValuePartitionCapacity(3);
+      encoder.setOutputOptions(HeaderOptionsOutputType.lessSchemaId);
+      encoder.setGrammarCache(grammarCache);
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      encoder.setOutputStream(baos);
+      encoder.encode(new InputSource(new StringReader(xml.toString())));
+      final byte[] bts = baos.toByteArray();
+
+      EXIDecoder decoder = new EXIDecoder();
+      decoder.setGrammarCache(grammarCache);
+      decoder.setInputStream(new ByteArrayInputStream(bts));
+      final Scanner scanner = decoder.processHeader();
+      final ArrayList<String> expected = new ArrayList<String>();
+      EventDescription exiEvent;
+      while ((exiEvent = scanner.nextEvent()) != null)
+        expected.add(toString(exiEvent));
+
+      final EXIPushDecoder pushDecoder = new EXIPushDecoder(decoder);
+      for (int chunkSize : new int[] { 1, 3, 7, 64, bts.length }) {
+        pushDecoder.reset();
+        final ArrayList<String> events = new ArrayList<String>();
+        int pos = 0;
+        do {
+          final int len = Math.min(chunkSize, bts.length - pos);
+          pushDecoder.feed(bts, pos, len);
+          if ((pos += len) == bts.length)
+            pushDecoder.endOfInput();
+          while ((exiEvent = pushDecoder.nextEvent()) != null)
+            events.add(toString(exiEvent));
+        }
+        while (pos < bts.length);
+        Assert.assertTrue(pushDecoder.isFinished());
+        Assert.assertEquals(expected, events);
+      }
+    }
+  }
+
+  private static String toString(EventDescription exiEvent) {
+    return exiEvent.getEventKind() + " " + exiEvent.getURI() + " " + exiEvent.getName() + " " + 
+        exiEvent.getPrefix() + " " + (exiEvent.getCharacters() != null ? exiEvent.getCharacters().makeString() : "");
+  }
+
+}
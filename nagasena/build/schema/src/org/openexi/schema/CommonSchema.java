@@ -0,0 +1,57 @@
+package org.openexi.schema;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+
+public abstract class CommonSchema {
+  
+  private CommonSchema() {
+  }
+
+  public static EXISchema loadCompiledSchema(URL compiledSchemaURI) {
+    return loadCompiledSchema(compiledSchemaURI, null);
+  }
+
+  /**
+   * Loads a compiled schema, and notifies the listener of the time spent.
+   * @param compiledSchemaURI URL of a serialized EXISchema
+   * @param listener SchemaLoadListener to be notified, or null
+   * @return the schema, or null if it could not be loaded
+   */
+  public static EXISchema loadCompiledSchema(URL compiledSchemaURI, SchemaLoadListener listener) {
+    EXISchema schema = null;
+    if (compiledSchemaURI != null) {
+      InputStream is = null;
+      try {
+        if ("file".equals(compiledSchemaURI.getProtocol()))
+          return EXISchema.readIn(new File(compiledSchemaURI.toURI()), listener);
+        is = compiledSchemaURI.openStream();
+        DataInputStream ios = null;
+        try {
+          ios = new DataInputStream(new BufferedInputStream(is));
+          schema = EXISchema.readIn(ios, listener);
+        }
+        finally {
+          if (ios != null)
+            ios.close();
+        }
+      }
+      catch (Exception e) {
+        e.printStackTrace();
+      }
+      finally {
+        try {
+          if (is != null)
+            is.close();
+        }
+        catch (Exception e) {
+        }
+      }
+    }
+    return schema;
+  }
+
+}
@@ -0,0 +1,114 @@
+package org.openexi.proc;
+
+import org.openexi.proc.common.EXIOptions;
+import org.openexi.proc.common.EXIOptionsException;
+import org.openexi.proc.grammars.GrammarCache;
+
+/**
+ * EXIDecoderPool keeps a bounded number of {@link EXIDecoder} instances
+ * for each pair of GrammarCache and EXIOptions so that they can be reused
+ * across EXI streams without the cost of setting them up.
+ * <br /><br />
+ * An EXIDecoder obtained by {@link #borrow(GrammarCache, EXIOptions)} is
+ * configured with the GrammarCache and the options, and has every other
+ * setting in its default state. Return it by calling {@link #release(EXIDecoder)}
+ * once the scanner it produced is no longer in use.
+ * <pre>
+ *   EXIDecoder decoder = pool.borrow(grammarCache, options);
+ *   try {
+ *     decoder.setInputStream(inputStream);
+ *     Scanner scanner = decoder.processHeader();
+ *     ...
+ *   }
+ *   finally {
+ *     pool.release(decoder);
+ *   }
+ * </pre>
+ */
+public final class EXIDecoderPool extends ProcessorPool<EXIDecoder> {
+
+  private static final int DEFAULT_INITIAL_BINARY_DATA_BUFFER_SIZE = 8192;
+
+  /**
+   * Creates a pool that holds at most capacity EXIDecoders for each
+   * pair of GrammarCache and EXIOptions.
+   * @param capacity maximum number of EXIDecoders per GrammarCache and EXIOptions
+   */
+  public EXIDecoderPool(int capacity) {
+    super(capacity);
+  }
+
+  /**
+   * Creates a pool that holds at most capacity EXIDecoders for each
+   * pair of GrammarCache and EXIOptions, for at most maxKeys pairs. Idle
+   * EXIDecoders of the pairs least recently used are dropped when
+   * there are more pairs than that.
+   * @param capacity maximum number of EXIDecoders per GrammarCache and EXIOptions
+   * @param maxKeys maximum number of pairs of GrammarCache and EXIOptions
+   */
+  public EXIDecoderPool(int capacity, int maxKeys) {
+    super(capacity, maxKeys);
+  }
+
+  /**
+   * Borrows an EXIDecoder configured with the GrammarCache and EXIOptions.
+   * The call waits if all the EXIDecoders for the pair are currently in use.
+   * @param grammarCache {@link org.openexi.proc.grammars.GrammarCache}
+   * @param options {@link org.openexi.proc.common.EXIOptions} of which alignment type,
+   * fragment, block size, value max length, value partition capacity, preserve lexical
+   * values and datatype representation map are used
+   * @return an EXIDecoder that is ready for use
+   * @throws EXIOptionsException
+   * @throws InterruptedException when interrupted while waiting for an EXIDecoder
+   */
+  public EXIDecoder borrow(GrammarCache grammarCache, EXIOptions options)
+    throws EXIOptionsException, InterruptedException {
+    return borrowProcessor(grammarCache, options);
+  }
+
+  /**
+   * Returns an EXIDecoder to the pool.
+   * @param decoder EXIDecoder that was borrowed from this pool
+   */
+  public void release(EXIDecoder decoder) {
+    releaseProcessor(decoder);
+  }
+
+  @Override
+  protected EXIDecoder createProcessor() {
+    return new EXIDecoder();
+  }
+
+  @Override
+  protected void configure(EXIDecoder decoder, GrammarCache grammarCache, EXIOptions options)
+    throws EXIOptionsException {
+    decoder.setInputStream(null);
+    decoder.setEXISchemaResolver(null);
+    decoder.setEnableBinaryData(false);
+    decoder.setInitialBinaryDataBufferSize(DEFAULT_INITIAL_BINARY_DATA_BUFFER_SIZE);
+    decoder.setBinaryChunkSize(-1);
+    decoder.setEnableTypedValues(false);
+    decoder.setUseBuiltinElementGrammar(true);
+    decoder.setFlyweight(false);
+    decoder.setInflateExecutor(null);
+    decoder.setMetricsListener(null);
+    decoder.setGrammarCache(grammarCache);
+    decoder.setAlignmentType(options.getAlignmentType());
+    decoder.setFragment(options.isFragment());
+    decoder.setBlockSize(options.getBlockSize());
+    decoder.setValueMaxLength(options.getValueMaxLength());
+    decoder.setValuePartitionCapacity(options.getValuePartitionCapacity());
+    decoder.setPreserveLexicalValues(options.getPreserveLexicalValues());
+    decoder.setDatatypeRepresentationMap(options.getDatatypeRepresentationMap(),
+        options.getDatatypeRepresentationMapBindingsCount());
+  }
+
+  /**
+   * EXIDecoders find schemaId in the header of each stream.
+   */
+  @Override
+  protected boolean usesSchemaId() {
+    return false;
+  }
+
+}
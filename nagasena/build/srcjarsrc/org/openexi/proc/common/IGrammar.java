@@ -0,0 +1,7 @@
+package org.openexi.proc.common;
+
+public interface IGrammar {
+  
+  void reset();
+
+}
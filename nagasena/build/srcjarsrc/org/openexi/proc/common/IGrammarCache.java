@@ -0,0 +1,38 @@
+package org.openexi.proc.common;
+
+import java.util.Map;
+
+import org.openexi.schema.EXISchema;
+
+public interface IGrammarCache {
+
+  public EXISchema getEXISchema();
+  
+  public IGrammar getElementGrammarUse(int elem);
+
+  /**
+   * Returns the grammars of the schema's local names in the partition of a uri, 
+   * indexed by local-name ID. Entries of names that are not of global elements are null.
+   */
+  public IGrammar[] getLocalNameGrammars(int uriId);
+
+  /**
+   * Returns an immutable map of the schema's local names in the partition of a uri
+   * to their local-name IDs.
+   */
+  public Map<String,Integer> getLocalNameIds(int uriId);
+
+  /**
+   * Returns the map of the enumerated values of an atomic simple type to
+   * their enumeration indices, or null if none has been registered yet.
+   */
+  public Map<Object,Integer> getEnumerationIndex(int stype);
+
+  /**
+   * Registers the map of the enumerated values of an atomic simple type to
+   * their enumeration indices unless one has already been registered, and 
+   * returns the one that is in effect.
+   */
+  public Map<Object,Integer> putEnumerationIndex(int stype, Map<Object,Integer> enumerationIndex);
+
+}
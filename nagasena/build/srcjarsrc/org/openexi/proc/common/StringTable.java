@@ -0,0 +1,1058 @@
+package org.openexi.proc.common;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+
+import org.openexi.schema.Characters;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EXISchemaConst;
+
+public final class StringTable {
+  
+  public final GlobalValuePartition globalValuePartition;
+  
+  private final LinkedList<Channel> channels;
+  private int n_channels;
+
+  public enum Usage {
+    decoding,
+    encoding
+  };
+  
+  private final static String[] EMPTY = {}; 
+  private final static String[] DEFAULT_PREFIXES = { "" }; 
+  private final static String[] XML_PREFIXES = { "xml" }; 
+  private final static String[] XSI_PREFIXES = { "xsi" }; 
+  
+  private final IGrammarCache m_grammarCache;
+  private final boolean m_hasSchema;
+  
+  private int m_valuePartitionCapacity;
+  
+  private final boolean m_useMap;
+  
+  private MetricsListener m_metrics;
+
+  // Partitions that have grown since the mark, of which the sizes at the mark are saved
+  private Markable[] m_marked;
+  private int m_n_marked;
+  private boolean m_marking;
+  private int m_marked_n_uris;
+  private int m_markedUriWidth;
+
+  private static final int INITIAL_INDEX_BITS = 6;
+  private static final int INITIAL_INDEX_SIZE = 1 << INITIAL_INDEX_BITS;
+  
+  ///////////////////////////////////////////////////////////////////////////
+  // URIPartition fields
+  ///////////////////////////////////////////////////////////////////////////
+
+  private URIEntry[] m_uriList;
+  
+  public int n_uris = 0;
+  public int uriWidth = 0;
+  
+  private final int m_start_n_uris;
+  private final int m_start_uriForwardedWidth;
+  
+  private final Map<String,URIEntry> m_uriMap;
+  private final LocalNamePartition[] m_initialLocalNamePartitions;
+  private final PrefixPartition[] m_initialPrefixPartitions;
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Constructor
+  ///////////////////////////////////////////////////////////////////////////
+
+  public StringTable(IGrammarCache grammarCache, Usage usage) {
+    m_grammarCache = grammarCache;
+    final EXISchema schema = grammarCache != null ? grammarCache.getEXISchema() : null;
+    m_useMap = usage == Usage.encoding;
+    m_hasSchema = schema != null;
+    globalValuePartition = new GlobalValuePartition();
+    m_valuePartitionCapacity = EXIOptions.VALUE_PARTITION_CAPACITY_UNBOUNDED;
+    channels = new LinkedList<Channel>();
+    n_channels = 0;
+    m_marked = new Markable[8];
+    m_n_marked = 0;
+    m_marking = false;
+    LocalNamePartition[] initialLocalNamePartitions;
+    PrefixPartition[] initialPrefixPartitions;
+    if (m_hasSchema) {
+      final int[][] localNames = schema.getLocalNames();
+      initialLocalNamePartitions = new LocalNamePartition[localNames.length];
+      for (int i = 0; i < localNames.length; i++) {
+        final LocalNamePartition localNamePartition = new LocalNamePartition(schema.uris[i], schema.localNames[i], 
+            grammarCache.getLocalNameGrammars(i), grammarCache.getLocalNameIds(i));
+        localNamePartition.uriId = i;
+        initialLocalNamePartitions[i] = localNamePartition;
+      }
+    }
+    else {
+      initialLocalNamePartitions = new LocalNamePartition[3];
+      LocalNamePartition localNamePartition;
+      localNamePartition = new LocalNamePartition("", EMPTY, (IGrammar[])null, (Map<String,Integer>)null);
+      localNamePartition.uriId = 0;
+      initialLocalNamePartitions[0] = localNamePartition; 
+      localNamePartition = new LocalNamePartition(XmlUriConst.W3C_XML_1998_URI, EXISchemaConst.XML_LOCALNAMES, (IGrammar[])null, (Map<String,Integer>)null);
+      localNamePartition.uriId = XmlUriConst.W3C_XML_1998_URI_ID;
+      initialLocalNamePartitions[1] = localNamePartition;
+      localNamePartition = new LocalNamePartition(XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI, EXISchemaConst.XSI_LOCALNAMES, (IGrammar[])null, (Map<String,Integer>)null);
+      localNamePartition.uriId = XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI_ID;
+      initialLocalNamePartitions[2] = localNamePartition;
+    }
+    initialPrefixPartitions = new PrefixPartition[3];
+    initialPrefixPartitions[0] = new PrefixPartition(DEFAULT_PREFIXES);
+    initialPrefixPartitions[1] = new PrefixPartition(XML_PREFIXES);
+    initialPrefixPartitions[2] = new PrefixPartition(XSI_PREFIXES);
+    
+    // Initialize URIPartition
+    m_uriMap = m_useMap ? new HashMap<String,URIEntry>() : null;
+    assert initialPrefixPartitions.length == 3 && initialPrefixPartitions.length <= initialLocalNamePartitions.length;
+    m_initialLocalNamePartitions = initialLocalNamePartitions;
+    m_initialPrefixPartitions = initialPrefixPartitions;
+    m_uriList = new URIEntry[32];
+    for (int i = 0; i < m_initialLocalNamePartitions.length; i++) {
+      final LocalNamePartition localNamePartition = m_initialLocalNamePartitions[i];
+      final PrefixPartition prefixPartition = i < 3 ? initialPrefixPartitions[i] : null;
+      addURI(localNamePartition.uri, localNamePartition, prefixPartition);
+    }
+    m_start_n_uris = n_uris;
+    m_start_uriForwardedWidth = uriWidth;
+  }
+
+  public void setMetricsListener(MetricsListener metrics) {
+    m_metrics = metrics;
+  }
+
+  public IGrammarCache getGrammarCache() {
+    return m_grammarCache;
+  }
+
+  public void reset() {
+    unmark();
+  	// Reset URIPartition
+    final int n_initialLocalNamePartitions = m_initialLocalNamePartitions.length;
+    final int n_initialPrefixPartitions = m_initialPrefixPartitions.length;
+    if (m_useMap) {
+      m_uriMap.clear();
+      for (int i = 0; i < n_initialLocalNamePartitions; i++) {
+        final LocalNamePartition localNamePartition = m_initialLocalNamePartitions[i]; 
+        localNamePartition.reset();
+        m_uriMap.put(localNamePartition.uri, m_uriList[i]);
+      }
+      for (int i = 0; i < n_initialPrefixPartitions; i++) {
+        m_initialPrefixPartitions[i].reset();
+      }
+      for (int i = n_initialPrefixPartitions; i < n_initialLocalNamePartitions; i++) {
+        final PrefixPartition prefixPartition;
+        if ((prefixPartition  = m_uriList[i].prefixPartition) != null)
+          prefixPartition.reset();
+      }
+    }
+    else {
+      for (int i = 0; i < n_initialLocalNamePartitions; i++)
+        m_initialLocalNamePartitions[i].reset();
+      for (int i = 0; i < n_initialPrefixPartitions; i++) {
+        m_initialPrefixPartitions[i].reset();
+      }
+      for (int i = n_initialPrefixPartitions; i < n_initialLocalNamePartitions; i++) {
+        final PrefixPartition prefixPartition;
+        if ((prefixPartition  = m_uriList[i].prefixPartition) != null)
+          prefixPartition.reset();
+      }
+    }
+    n_uris = m_start_n_uris;
+    uriWidth = m_start_uriForwardedWidth;
+    
+  	// Reset Global value partition
+    globalValuePartition.reset();
+
+    // Reset channels
+    if (n_channels != 0) {
+      final Iterator<Channel> iterChannels = channels.iterator();
+      while (iterChannels.hasNext()) {
+        iterChannels.next().blockNum = -1;
+      }
+    }
+  }
+  
+  ///////////////////////////////////////////////////////////////////////////
+  // Marks
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Marks the current state of the partitions so that rollback() can return 
+   * them to it. While a stream is decoded, partitions only grow except that 
+   * the global value partition evicts entries once it is full. Therefore a 
+   * partition is restored by restoring its size, which is saved the first 
+   * time the partition grows after the mark, and evicted entries are put back.
+   * Marks are only used in decoding.
+   */
+  public void mark() {
+    assert !m_useMap;
+    unmark();
+    m_marking = true;
+    m_marked_n_uris = n_uris;
+    m_markedUriWidth = uriWidth;
+    globalValuePartition.mark();
+  }
+
+  /**
+   * Returns the partitions to the state they were in when mark() was last called.
+   */
+  public void rollback() {
+    assert m_marking;
+    while (m_n_marked != 0) {
+      final Markable partition = m_marked[--m_n_marked];
+      m_marked[m_n_marked] = null;
+      partition.rollback();
+    }
+    n_uris = m_marked_n_uris;
+    uriWidth = m_markedUriWidth;
+    globalValuePartition.rollback();
+  }
+
+  private void unmark() {
+    while (m_n_marked != 0) {
+      m_marked[--m_n_marked].unmark();
+      m_marked[m_n_marked] = null;
+    }
+    globalValuePartition.unmark();
+    m_marking = false;
+  }
+
+  /**
+   * Registers a partition that is about to grow for the first time since the mark.
+   */
+  private void marked(Markable partition) {
+    if (m_n_marked == m_marked.length) {
+      final Markable[] marked = new Markable[m_n_marked << 1];
+      System.arraycopy(m_marked, 0, marked, 0, m_n_marked);
+      m_marked = marked;
+    }
+    m_marked[m_n_marked++] = partition;
+  }
+
+  /**
+   * A partition of which the size at the time of the mark has been saved.
+   */
+  private interface Markable {
+    /** Restores the size at the time of the mark. */
+    void rollback();
+    /** Discards the size saved at the time of the mark. */
+    void unmark();
+  }
+
+  public int getValuePartitionCapacity() {
+    return m_valuePartitionCapacity;
+  }
+  
+  public void setValuePartitionCapacity(int valuePartitionCapacity) {
+    m_valuePartitionCapacity = valuePartitionCapacity;
+  }
+  
+  ///////////////////////////////////////////////////////////////////////////
+  // URIPartition methods
+  ///////////////////////////////////////////////////////////////////////////
+
+  public String getURI(final int i) {
+    return m_uriList[i].value;
+  }
+
+  public int getCompactIdOfURI(String uri) {
+    final URIEntry item;
+    if ((item = m_uriMap.get(uri)) != null) {
+      return item.number;
+    }
+    return -1;
+  }
+
+  public int internURI(String uri) {
+    final int number;
+    if ((number = getCompactIdOfURI(uri)) != -1) {
+      return number;
+    }
+    return addURI(uri, (LocalNamePartition)null, (PrefixPartition)null);
+  }
+
+  /**
+   * Add a name which has *not* been in the partition.
+   */
+  public int addURI(String uri, LocalNamePartition localNamePartition, PrefixPartition prefixPartition) {
+    // URIs added after the mark are removed by restoring n_uris upon rollback.
+    URIEntry uriEntry;
+    final int number = n_uris;
+    final int length;
+    if ((length = m_uriList.length) == n_uris) {
+      uriEntry = null; // need a new entry
+      final int newLength =  2 * length;
+      final URIEntry[] uriList = new URIEntry[newLength];
+      System.arraycopy(m_uriList, 0, uriList, 0, length);
+      m_uriList = uriList;
+    }
+    else if ((uriEntry = m_uriList[number]) != null) {
+      assert localNamePartition == null;
+      localNamePartition = uriEntry.localNamePartition;
+      localNamePartition.reset();
+      localNamePartition.uri = uri;
+    }
+    if (localNamePartition == null)
+      localNamePartition = new LocalNamePartition(uri);
+    localNamePartition.uriId = number;
+    
+    if (uriEntry == null)
+      uriEntry = new URIEntry(uri, number, localNamePartition, prefixPartition);
+    else {
+      uriEntry.value = uri;
+      uriEntry.number = number;
+      uriEntry.localNamePartition = localNamePartition;
+      uriEntry.prefixPartition = prefixPartition;
+    }
+      
+    if (m_useMap)
+      m_uriMap.put(uri, uriEntry);
+    m_uriList[n_uris] = uriEntry;
+    if ((n_uris++ & n_uris) == 0) // i.e. n_uris (after increment) is a power of 2
+      ++uriWidth;
+      
+    return number;
+  }
+
+  public LocalNamePartition getLocalNamePartition(int i) {
+    return m_uriList[i].localNamePartition;
+  }
+
+  public PrefixPartition getPrefixPartition(int i) {
+    final URIEntry item = m_uriList[i];
+    final PrefixPartition prefixPartition;
+    if ((prefixPartition = item.prefixPartition) != null)
+      return prefixPartition;
+    else
+      return item.prefixPartition = new PrefixPartition();
+  }
+  
+  public static final class LocalNameEntry {
+    public String localName;
+    int number;
+    LocalValuePartition localValuePartition;
+    public IGrammar grammar;
+    public Channel channel;
+    /**
+     * Constructs a LocalNameEntry.   
+     * @param grammar Either an EXIGrammar or null
+     */
+    LocalNameEntry(String localName, int number, IGrammar grammar) {
+      this.localName = localName;
+      this.number = number;
+      this.localValuePartition = null;
+      this.grammar = grammar; 
+      channel = null;
+    }
+    @Override
+    public final int hashCode() {
+      return localName.hashCode();
+    }
+  }
+
+  public final class LocalNamePartition implements Markable {
+
+    public LocalNameEntry[] localNameEntries;
+    
+    public int n_strings = 0;
+    public int width = 0;
+    private int m_milestone = 1;
+
+    private final int m_start_n_strings;
+    private final int m_start_width;
+    private final int m_start_milestone;
+
+    private boolean m_marked;
+    private int m_marked_n_strings;
+    private int m_markedWidth;
+    private int m_markedMilestone;
+
+    // Local-name IDs of the initial names, which may be shared by StringTables of different streams
+    private final Map<String,Integer> m_initialNameIds;
+    // Local names that have been added to the partition since the start of the stream
+    private final HashMap<String,LocalNameEntry> m_nameMap;
+    
+    String uri;
+    int uriId;
+    
+    // Registry of touched (i.e. modified) LocalValuePartitions
+    private int m_n_localValuePartitionsTouched;
+    private LocalValuePartition[] m_localValuePartitionsTouched;
+
+    // Registry of touched (i.e. modified) BuiltinElementGrammars
+    private int m_n_grammarsTouched;
+    private IGrammar[] m_grammarsTouched;
+
+    LocalNamePartition(String uri) {
+      this(uri, EMPTY, (IGrammar[])null, (Map<String,Integer>)null);
+    }
+
+    /**
+     * Constructs a LocalNamePartition with initial names.
+     * @param grammars grammars of the names indexed by local-name ID, or null if there is none
+     * @param initialNameIds immutable map of the names to their local-name IDs, or null 
+     * if it needs to be computed.
+     */
+    LocalNamePartition(String uri, String[] names, IGrammar[] grammars, Map<String,Integer> initialNameIds) {
+      this.uri = uri;
+      uriId = -1;
+      localNameEntries = new LocalNameEntry[256];
+      int i;
+      final int len;
+      for (i = 0, len = names.length; i < len; i++) {
+        appendName(names[i], grammars != null ? grammars[i] : null);
+      }
+      if (m_useMap) {
+        if (initialNameIds == null) {
+          final HashMap<String,Integer> nameIds = new HashMap<String,Integer>();
+          for (i = 0; i < len; i++) {
+            nameIds.put(names[i], i);
+          }
+          initialNameIds = nameIds;
+        }
+        m_initialNameIds = initialNameIds;
+        m_nameMap = new HashMap<String,LocalNameEntry>();
+      }
+      else {
+        m_initialNameIds = null;
+        m_nameMap = null;
+      }
+      m_start_n_strings = n_strings;
+      m_start_width = width;
+      m_start_milestone = m_milestone;
+      
+      m_localValuePartitionsTouched = new LocalValuePartition[32];
+      m_n_localValuePartitionsTouched = 0;
+      m_grammarsTouched = new IGrammar[32];
+      m_n_grammarsTouched = 0;
+      m_marked = false;
+    }
+
+    public void rollback() {
+      n_strings = m_marked_n_strings;
+      width = m_markedWidth;
+      m_milestone = m_markedMilestone;
+      m_marked = false;
+    }
+
+    public void unmark() {
+      m_marked = false;
+    }
+
+    public void reset() {
+      if (m_useMap) {
+        m_nameMap.clear();
+      }
+      for (int i = 0; i < m_n_localValuePartitionsTouched; i++) {
+        m_localValuePartitionsTouched[i].reset();
+      }
+      m_n_localValuePartitionsTouched = 0;
+      for (int i = 0; i < m_n_grammarsTouched; i++) {
+        m_grammarsTouched[i].reset();
+      }
+      m_n_grammarsTouched = 0;
+      
+      n_strings = m_start_n_strings;
+      width = m_start_width;
+      m_milestone = m_start_milestone;
+    }
+    
+    public void setGrammar(int i, IGrammar grammar) {
+      localNameEntries[i].grammar = grammar;
+    }
+
+    public void setChannel(int i, Channel channel) {
+      assert localNameEntries[i].channel == null;
+      localNameEntries[i].channel = channel;
+      channels.add(channel);
+      ++n_channels;
+    }
+
+    public int getCompactId(String name) {
+      final Integer number;
+      if ((number = m_initialNameIds.get(name)) != null) {
+        return number.intValue();
+      }
+      final LocalNameEntry item;
+      if ((item = m_nameMap.get(name)) != null) {
+        return item.number;
+      }
+      return -1;
+    }
+
+    public int internName(String name) {
+      final int number;
+      if ((number = getCompactId(name)) != -1) {
+        return number;
+      }
+      return addName(name, (IGrammar)null);
+    }
+
+    /**
+     * Add a name which has *not* been in the local-name partition.
+     * @return localName ID within the partition
+     */
+    public int addName(String name, IGrammar grammar) {
+      final LocalNameEntry localNameEntry = appendName(name, grammar);
+      if (m_useMap)
+        m_nameMap.put(name, localNameEntry);
+      return localNameEntry.number;
+    }
+    
+    private LocalNameEntry appendName(String name, IGrammar grammar) {
+      if (m_marking && !m_marked) {
+        m_marked_n_strings = n_strings;
+        m_markedWidth = width;
+        m_markedMilestone = m_milestone;
+        m_marked = true;
+        StringTable.this.marked(this);
+      }
+      LocalNameEntry localNameEntry;
+      final int number = n_strings;
+      final int length;
+      if ((length = localNameEntries.length) == n_strings) {
+        localNameEntry = null; // need a new entry
+        final int newLength =  2 * length;
+        final LocalNameEntry[] stringList = new LocalNameEntry[newLength];
+        System.arraycopy(localNameEntries, 0, stringList, 0, length);
+        localNameEntries = stringList;
+      }
+      else if ((localNameEntry = localNameEntries[number]) != null) {
+        localNameEntry.localName = name;
+        localNameEntry.number = number;
+        final LocalValuePartition localValuePartition;
+        if ((localValuePartition = localNameEntry.localValuePartition) != null) {
+          localValuePartition.reset();
+        }
+        assert grammar == null;
+        if ((grammar = localNameEntry.grammar) != null)
+          grammar.reset();
+      }
+      
+      if (localNameEntry == null)
+        localNameEntry = new LocalNameEntry(name, number, grammar);
+      
+      if (n_strings == m_milestone) {
+        ++width;
+        m_milestone <<= 1;
+      }
+      localNameEntries[n_strings++] = localNameEntry;
+      return localNameEntry;
+    }
+    
+    public LocalValuePartition getLocalValuePartition(int i) {
+      final LocalNameEntry item = localNameEntries[i];
+      final LocalValuePartition localValuePartition;
+      if ((localValuePartition = item.localValuePartition) != null)
+        return localValuePartition;
+      else
+        return item.localValuePartition = new LocalValuePartition(this);
+    }
+
+    boolean isMarking() {
+      return m_marking;
+    }
+
+    void marked(LocalValuePartition localValuePartition) {
+      StringTable.this.marked(localValuePartition);
+    }
+    
+    public void addTouchedValuePartitions(LocalValuePartition localValuePartition) {
+      if (m_n_localValuePartitionsTouched == m_localValuePartitionsTouched.length) {
+        final int nlen = m_n_localValuePartitionsTouched << 1;
+        final LocalValuePartition[] _localValuePartitions = new LocalValuePartition[nlen];
+        System.arraycopy(m_localValuePartitionsTouched, 0, _localValuePartitions, 0, m_n_localValuePartitionsTouched);
+        m_localValuePartitionsTouched = _localValuePartitions;
+      }
+      m_localValuePartitionsTouched[m_n_localValuePartitionsTouched++] = localValuePartition;
+    }
+    
+    public void addTouchedBuiltinElementGrammars(IGrammar builtinElementGrammar) {
+      if (m_n_grammarsTouched == m_grammarsTouched.length) {
+        final int nlen = m_n_grammarsTouched << 1;
+        final IGrammar[] _grammarsTouched = new IGrammar[nlen];
+        System.arraycopy(m_grammarsTouched, 0, _grammarsTouched, 0, m_n_grammarsTouched);
+        m_grammarsTouched = _grammarsTouched;
+      }
+      m_grammarsTouched[m_n_grammarsTouched++] = builtinElementGrammar;
+    }
+
+  }
+  
+  public static final class PrefixEntry {
+    public final String value;
+    final int number;
+    PrefixEntry(String value, int number) {
+      this.value = value;
+      this.number = number;
+    }
+    @Override
+    public final int hashCode() {
+      return value.hashCode();
+    }
+  }
+
+  public final class PrefixPartition implements Markable {
+
+    public PrefixEntry[] prefixEntries;
+    
+    public int n_strings = 0;
+    public int width = 0;
+    public int forwardedWidth = 0;
+    private int m_milestone = 1;
+
+    private final int m_start_n_strings;
+    private final int m_start_width;
+    private final int m_start_forwardedWidth;
+    private final int m_start_milestone;
+
+    private boolean m_marked;
+    private int m_marked_n_strings;
+    private int m_markedWidth;
+    private int m_markedForwardedWidth;
+    private int m_markedMilestone;
+
+    private final HashMap<String,PrefixEntry> m_prefixMap;
+
+    private final String[] m_prefixes;
+
+    private PrefixPartition() {
+      this(EMPTY);
+    }
+    
+    private PrefixPartition(final String[] prefixes) {
+      m_prefixMap = m_useMap ? new HashMap<String,PrefixEntry>() : null;
+      m_prefixes = prefixes;
+      
+      prefixEntries = new PrefixEntry[1];
+
+      int i;
+      final int len;
+      for (i = 0, len = m_prefixes.length; i < len; i++) {
+        addPrefix(m_prefixes[i]);
+      }
+      m_start_n_strings = n_strings;
+      m_start_width = width;
+      m_start_forwardedWidth = forwardedWidth;
+      m_start_milestone = m_milestone;
+      m_marked = false;
+    }
+
+    public void rollback() {
+      n_strings = m_marked_n_strings;
+      width = m_markedWidth;
+      forwardedWidth = m_markedForwardedWidth;
+      m_milestone = m_markedMilestone;
+      m_marked = false;
+    }
+
+    public void unmark() {
+      m_marked = false;
+    }
+
+    public void reset() {
+      if (m_useMap) {
+        m_prefixMap.clear();
+        int i;
+        final int len;
+        for (i = 0, len = m_prefixes.length; i < len; i++) {
+          m_prefixMap.put(m_prefixes[i], prefixEntries[i]);
+        }
+      }
+      n_strings = m_start_n_strings;
+      width = m_start_width;
+      forwardedWidth = m_start_forwardedWidth;
+      m_milestone = m_start_milestone;
+    }
+    
+    public int getCompactId(final String prefix) {
+      PrefixEntry item;
+      if ((item = m_prefixMap.get(prefix)) != null) {
+        return item.number;
+      }
+      return -1;
+    }
+
+    public int internPrefix(final String prefix) {
+      int number;
+      if ((number = getCompactId(prefix)) != -1) {
+        return number;
+      }
+      return addPrefix(prefix);
+    }
+
+    /**
+     * Add a name which has *not* been in the partition.
+     */
+    public int addPrefix(final String prefix) {
+      if (m_marking && !m_marked) {
+        m_marked_n_strings = n_strings;
+        m_markedWidth = width;
+        m_markedForwardedWidth = forwardedWidth;
+        m_markedMilestone = m_milestone;
+        m_marked = true;
+        marked(this);
+      }
+      final PrefixEntry item;
+      final int number = n_strings;
+      item = new PrefixEntry(prefix, number);
+      int length = prefixEntries.length;
+      if (n_strings == length) {
+        int newLength =  2 * length;
+        PrefixEntry[] uriList = new PrefixEntry[newLength];
+        System.arraycopy(prefixEntries, 0, uriList, 0, length);
+        prefixEntries = uriList;
+        length = newLength;
+      }
+      if (m_useMap)
+        m_prefixMap.put(prefix, item);
+      prefixEntries[n_strings] = item;
+      if (n_strings++ == m_milestone) {
+        ++width;
+        m_milestone <<= 1;
+      }
+      if (n_strings == m_milestone)
+        ++forwardedWidth;
+      return number;
+    }
+  }
+
+  private static final class URIEntry {
+    String value;
+    int number;
+    LocalNamePartition localNamePartition;
+    PrefixPartition prefixPartition;
+    
+    URIEntry(String value, int number, LocalNamePartition localNamePartition, PrefixPartition prefixPartition) {
+      this.value = value;
+      this.number = number;
+      this.localNamePartition = localNamePartition;
+      this.prefixPartition = prefixPartition;
+    }
+    
+    @Override
+    public final int hashCode() {
+      return value.hashCode();
+    }
+  }
+
+  public static class NumberedCharacters {
+    public final Characters value;
+    public final int number;
+    NumberedCharacters(final Characters value, final int number) {
+      this.value = value;
+      this.number = number;
+    }
+    @Override
+    public int hashCode() {
+      return value.hashCode();
+    }
+  }
+
+  public static final class LocalValuePartition implements Markable {
+
+    public NumberedCharacters[] valueEntries;
+
+    public int n_strings = 0;
+    public int width = 0;
+    private int m_milestone = 1;
+    
+    private final LocalNamePartition m_localNamePartition;
+
+    private boolean m_marked;
+    private int m_marked_n_strings;
+    private int m_markedWidth;
+    private int m_markedMilestone;
+
+    LocalValuePartition(LocalNamePartition localNamePartition) {
+      valueEntries = new NumberedCharacters[1];
+      m_localNamePartition = localNamePartition;
+      m_marked = false;
+    }
+
+    public void rollback() {
+      n_strings = m_marked_n_strings;
+      width = m_markedWidth;
+      m_milestone = m_markedMilestone;
+      m_marked = false;
+    }
+
+    public void unmark() {
+      m_marked = false;
+    }
+
+    void reset() {
+      n_strings = 0;
+      width = 0;
+      m_milestone = 1;
+    }
+
+    void releaseEntry(int i) {
+      valueEntries[i] = null;
+    }
+    
+    /**
+     * Add a value which has *not* been in the local-value partition.
+     */
+    int addString(Characters value) {
+      if (!m_marked && m_localNamePartition.isMarking()) {
+        m_marked_n_strings = n_strings;
+        m_markedWidth = width;
+        m_markedMilestone = m_milestone;
+        m_marked = true;
+        m_localNamePartition.marked(this);
+      }
+      NumberedCharacters item;
+      final int number = n_strings;
+      item = new NumberedCharacters(value, number);
+      final int length = valueEntries.length;
+      if (n_strings == length) {
+        int newLength =  2 * length;
+        NumberedCharacters[] stringList = new NumberedCharacters[newLength];
+        System.arraycopy(valueEntries, 0, stringList, 0, length);
+        valueEntries = stringList;
+      }
+      if (n_strings == m_milestone) {
+        ++width;
+        m_milestone <<= 1;
+      }
+      valueEntries[n_strings] = item;
+      if (n_strings++ == 0)
+        m_localNamePartition.addTouchedValuePartitions(this);
+      return number;
+    }
+  }
+
+  public final class GlobalValuePartition {
+
+    public GlobalEntry[] valueEntries;
+    
+    /**
+     * Open-addressing index of valueEntries used in encoding. Each slot holds 
+     * the global ID plus one of an entry, or 0 if the slot is empty, and 
+     * m_indexHashes holds the hash code of the value of the entry in the slot.
+     * Slots are probed linearly, and evicted entries are removed by shifting 
+     * back the entries that follow, so that there is no need for tombstones.
+     */
+    private int[] m_index;
+    private int[] m_indexHashes;
+    private int m_indexShift;
+    private int m_n_indexed;
+    
+    public int globalID = 0;
+    public int width = 0;
+    private int m_milestone = 1;
+    private boolean m_wrapped = false;
+
+    private int m_markedGlobalID;
+    private int m_markedWidth;
+    private int m_markedMilestone;
+    private boolean m_markedWrapped;
+    // Entries evicted since the mark
+    private GlobalEntry[] m_evicted;
+    private int m_n_evicted;
+
+    GlobalValuePartition() {
+      if (m_useMap) {
+        m_index = new int[INITIAL_INDEX_SIZE];
+        m_indexHashes = new int[INITIAL_INDEX_SIZE];
+        m_indexShift = 32 - INITIAL_INDEX_BITS;
+        m_n_indexed = 0;
+      }
+      valueEntries = new GlobalEntry[1];
+      m_evicted = null;
+      m_n_evicted = 0;
+    }
+    
+    public void reset() {
+      if (m_useMap && m_n_indexed != 0) {
+        Arrays.fill(m_index, 0);
+        m_n_indexed = 0;
+      }
+      init();
+    }
+    
+    private void init() {
+      globalID = 0;
+      width = 0;
+      m_milestone = 1;
+      m_wrapped = false;
+    }
+
+    void mark() {
+      m_markedGlobalID = globalID;
+      m_markedWidth = width;
+      m_markedMilestone = m_milestone;
+      m_markedWrapped = m_wrapped;
+    }
+
+    void rollback() {
+      while (m_n_evicted != 0) {
+        final GlobalEntry item = m_evicted[--m_n_evicted];
+        m_evicted[m_n_evicted] = null;
+        valueEntries[item.number] = item;
+        item.localPartition.valueEntries[item.localEntry.number] = item.localEntry;
+      }
+      globalID = m_markedGlobalID;
+      width = m_markedWidth;
+      m_milestone = m_markedMilestone;
+      m_wrapped = m_markedWrapped;
+    }
+
+    void unmark() {
+      while (m_n_evicted != 0)
+        m_evicted[--m_n_evicted] = null;
+    }
+
+    private void evicted(final GlobalEntry item) {
+      if (m_evicted == null)
+        m_evicted = new GlobalEntry[4];
+      else if (m_n_evicted == m_evicted.length) {
+        final GlobalEntry[] evicted = new GlobalEntry[m_n_evicted << 1];
+        System.arraycopy(m_evicted, 0, evicted, 0, m_n_evicted);
+        m_evicted = evicted;
+      }
+      m_evicted[m_n_evicted++] = item;
+    }
+    
+    public GlobalEntry getEntry(final Characters characterSequence) {
+      final int hashCode = characterSequence.hashCode();
+      final int mask = m_index.length - 1;
+      for (int pos = indexPosition(hashCode); ; pos = (pos + 1) & mask) {
+        final int id;
+        if ((id = m_index[pos]) == 0)
+          return null;
+        if (m_indexHashes[pos] == hashCode) {
+          final GlobalEntry item = valueEntries[id - 1];
+          if (item.value.equals(characterSequence))
+            return item;
+        }
+      }
+    }
+    
+    public LocalValuePartition getLocalPartition(final int name, final int uri) {
+      final LocalNamePartition localNamePartition = getLocalNamePartition(uri);
+      return localNamePartition.getLocalValuePartition(name);
+    }
+
+    public void addValue(final Characters characterSequence, final int name, final int uri) {
+      if (characterSequence.isVolatile)
+    	characterSequence.turnPermanent();
+      if (m_valuePartitionCapacity != 0) {
+        final LocalValuePartition localValuePartition; 
+        localValuePartition = getLocalNamePartition(uri).getLocalValuePartition(name);
+        final int localNumber = localValuePartition.addString(characterSequence);
+  
+        GlobalEntry newItem = new GlobalEntry(characterSequence, globalID, localValuePartition, 
+            localValuePartition.valueEntries[localNumber]);
+        
+        if (globalID == valueEntries.length) {
+          final int newLength =  2 * globalID;
+          GlobalEntry[] stringList = new GlobalEntry[newLength];
+          System.arraycopy(valueEntries, 0, stringList, 0, globalID);
+          valueEntries = stringList;
+        }
+        if (globalID == m_milestone) {
+          ++width;
+          m_milestone <<= 1;
+        }
+        final GlobalEntry item;
+        // Entries left over from before the last reset are not in the index.
+        if ((item = valueEntries[globalID]) != null && m_wrapped) {
+          item.localPartition.releaseEntry(item.localEntry.number);
+          if (m_useMap)
+            removeFromIndex(globalID, item.value.hashCode());
+          else if (m_marking)
+            evicted(item);
+          if (m_metrics != null)
+            m_metrics.valueEvicted();
+        }
+        valueEntries[globalID] = newItem;
+        if (m_useMap)
+          addToIndex(globalID, characterSequence.hashCode());
+        if (++globalID == m_valuePartitionCapacity) {
+          globalID = 0;
+          m_wrapped = true;
+        }
+      }
+    }
+    
+    private int indexPosition(final int hashCode) {
+      return (hashCode * 0x9E3779B9) >>> m_indexShift;
+    }
+    
+    private void addToIndex(final int id, final int hashCode) {
+      if (4 * (m_n_indexed + 1) > 3 * m_index.length)
+        growIndex();
+      final int mask = m_index.length - 1;
+      int pos = indexPosition(hashCode);
+      while (m_index[pos] != 0)
+        pos = (pos + 1) & mask;
+      m_index[pos] = id + 1;
+      m_indexHashes[pos] = hashCode;
+      ++m_n_indexed;
+    }
+
+    private void removeFromIndex(final int id, final int hashCode) {
+      final int mask = m_index.length - 1;
+      int pos = indexPosition(hashCode);
+      int indexed;
+      while ((indexed = m_index[pos]) != id + 1) {
+        if (indexed == 0)
+          return;
+        pos = (pos + 1) & mask;
+      }
+      // Shift back the entries that would otherwise become unreachable.
+      for (int next = (pos + 1) & mask; m_index[next] != 0; next = (next + 1) & mask) {
+        final int home = indexPosition(m_indexHashes[next]);
+        if (pos <= next ? pos < home && home <= next : pos < home || home <= next)
+          continue;
+        m_index[pos] = m_index[next];
+        m_indexHashes[pos] = m_indexHashes[next];
+        pos = next;
+      }
+      m_index[pos] = 0;
+      --m_n_indexed;
+    }
+
+    private void growIndex() {
+      final int[] index = m_index;
+      final int[] indexHashes = m_indexHashes;
+      m_index = new int[index.length << 1];
+      m_indexHashes = new int[index.length << 1];
+      --m_indexShift;
+      final int mask = m_index.length - 1;
+      for (int i = 0; i < index.length; i++) {
+        if (index[i] != 0) {
+          int pos = indexPosition(indexHashes[i]);
+          while (m_index[pos] != 0)
+            pos = (pos + 1) & mask;
+          m_index[pos] = index[i];
+          m_indexHashes[pos] = indexHashes[i];
+        }
+      }
+    }
+  }
+  
+  public static final class GlobalEntry {
+    public final Characters value;
+    public final int number;
+    public final LocalValuePartition localPartition;
+    public final NumberedCharacters localEntry;
+    GlobalEntry(final Characters value, final int number, final LocalValuePartition localPartition, 
+        final NumberedCharacters localEntry) {
+      this.value = value;
+      this.number = number;
+      this.localPartition = localPartition;
+      this.localEntry = localEntry;
+    }
+  }
+  
+}
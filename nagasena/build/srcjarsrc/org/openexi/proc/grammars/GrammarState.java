@@ -0,0 +1,26 @@
+package org.openexi.proc.grammars;
+
+public final class GrammarState {
+  
+  public Grammar targetGrammar;
+  
+  // REVISIT: here or somewhere else?
+  public int contentDatatype;
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// CommonState
+  ///////////////////////////////////////////////////////////////////////////
+
+  final Apparatus apparatus;
+
+  public byte phase;
+  
+  ///////////////////////////////////////////////////////////////////////////
+  /// Methods
+  ///////////////////////////////////////////////////////////////////////////
+
+  protected GrammarState(Apparatus apparatus) {
+    this.apparatus = apparatus;
+  }
+  
+}
@@ -0,0 +1,115 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * BitOutputStream collects bits in a 64-bit register, and moves them into
+ * a byte array a 32-bit word at a time. The byte array is written to the
+ * underlying output stream only when it is full, or when the stream is
+ * flushed.
+ */
+public class BitOutputStream  {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /** Bits not yet moved to m_bytes are the right-most m_n_bits of m_bitBuf. */
+  private long m_bitBuf = 0;
+  private int m_n_bits = 0;
+
+  private final byte[] m_bytes;
+  private int m_pos;
+
+  private final OutputStream m_out;
+
+  BitOutputStream(OutputStream out) {
+    m_out = out;
+    m_bytes = new byte[BUFFER_SIZE];
+    m_pos = 0;
+  }
+
+  /**
+   * Put a single bit.
+   */
+  public void putBit(boolean bit) throws IOException {
+    m_bitBuf = m_bitBuf << 1 | (bit ? 1 : 0);
+    if (++m_n_bits == 32)
+      putWord();
+  }
+
+  /**
+   * Put the right-most n-bits of x.
+   */
+  public void putBits(int n, int x) throws IOException {
+    assert 0 <= n && n <= 32;
+    m_bitBuf = m_bitBuf << n | x & ((1L << n) - 1);
+    if ((m_n_bits += n) >= 32)
+      putWord();
+  }
+
+  /**
+   * Moves the left-most 32 bits of those in the register to the byte array.
+   */
+  private void putWord() throws IOException {
+    if (m_pos + 4 > BUFFER_SIZE) {
+      m_out.write(m_bytes, 0, m_pos);
+      m_pos = 0;
+    }
+    final int word = (int)(m_bitBuf >>> (m_n_bits -= 32));
+    final byte[] bytes = m_bytes;
+    int pos = m_pos;
+    bytes[pos++] = (byte)(word >>> 24);
+    bytes[pos++] = (byte)(word >>> 16);
+    bytes[pos++] = (byte)(word >>> 8);
+    bytes[pos++] = (byte)word;
+    m_pos = pos;
+  }
+
+  /**
+   * Writes out all the whole bytes collected so far to the underlying output
+   * stream without padding. Bits that do not make up a byte stay in the register.
+   */
+  void drain() throws IOException {
+    if (m_pos + 4 > BUFFER_SIZE) {
+      m_out.write(m_bytes, 0, m_pos);
+      m_pos = 0;
+    }
+    final int n_bytes = m_n_bits >>> 3;
+    if (n_bytes != 0) {
+      m_n_bits -= n_bytes << 3;
+      final int word = (int)(m_bitBuf >>> m_n_bits);
+      for (int i = n_bytes - 1; i >= 0; i--)
+        m_bytes[m_pos++] = (byte)(word >>> (i << 3));
+    }
+    if (m_pos != 0) {
+      m_out.write(m_bytes, 0, m_pos);
+      m_pos = 0;
+    }
+  }
+
+  /**
+   * Pads the bits with zeros up to the next byte boundary, then writes
+   * out the bytes to the underlying output stream and flushes it.
+   */
+  public void flush() throws IOException {
+    if (m_pos + 4 > BUFFER_SIZE) {
+      m_out.write(m_bytes, 0, m_pos);
+      m_pos = 0;
+    }
+    final int n_bytes = (m_n_bits + 7) >>> 3;
+    if (n_bytes != 0) {
+      // Fewer than 32 bits are left in the register.
+      final int word = (int)(m_bitBuf << (n_bytes * 8 - m_n_bits));
+      for (int i = n_bytes - 1; i >= 0; i--)
+        m_bytes[m_pos++] = (byte)(word >>> (i << 3));
+      m_bitBuf = 0;
+      m_n_bits = 0;
+    }
+    if (m_pos != 0) {
+      m_out.write(m_bytes, 0, m_pos);
+      m_pos = 0;
+    }
+    m_out.flush();
+  }
+
+}
@@ -0,0 +1,198 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * ByteBufferOutputStream writes bytes either into a ByteBuffer or to a
+ * WritableByteChannel.
+ * <br/><br/>
+ * A buffer target receives the bytes from its position onwards. When a
+ * growable buffer runs out of room, a buffer of twice the capacity, of the
+ * same kind (heap or direct), takes its place. Use {@link #getByteBuffer()}
+ * to retrieve the buffer that holds the bytes written.
+ * <br/><br/>
+ * A channel target collects bytes in a direct buffer of its own and writes
+ * it to the channel when it is full or flushed. Arrays that do not fit in the
+ * buffer are written together with the collected bytes in one gathering
+ * write if the channel is a GatheringByteChannel. The direct buffer is
+ * allocated once, and is reused when the stream is set to write to another
+ * channel.
+ * @y.exclude
+ */
+public final class ByteBufferOutputStream extends OutputStream {
+
+  private static final int CHANNEL_BUFFER_SIZE = 8192;
+
+  private ByteBuffer m_byteBuffer;
+  private boolean m_growable;
+  private WritableByteChannel m_channel;
+
+  /**
+   * Buffer in which bytes for a channel are collected.
+   */
+  private ByteBuffer m_channelBuffer;
+
+  private final ByteBuffer[] m_gather;
+
+  /**
+   * Creates a stream that writes into a buffer.
+   * @param byteBuffer buffer to write into, starting at its position
+   * @param growable true if a larger buffer takes over when the buffer
+   * runs out of room, otherwise writing beyond the limit results in an
+   * IOException.
+   */
+  public ByteBufferOutputStream(ByteBuffer byteBuffer, boolean growable) {
+    m_channelBuffer = null;
+    m_gather = new ByteBuffer[2];
+    setOutput(byteBuffer, growable);
+  }
+
+  /**
+   * Creates a stream that writes to a channel.
+   */
+  public ByteBufferOutputStream(WritableByteChannel channel) {
+    m_channelBuffer = null;
+    m_gather = new ByteBuffer[2];
+    setOutput(channel);
+  }
+
+  /**
+   * Let the stream write into a buffer from now on.
+   * @param byteBuffer buffer to write into, starting at its position
+   * @param growable true if a larger buffer takes over when the buffer
+   * runs out of room, otherwise writing beyond the limit results in an
+   * IOException.
+   */
+  public void setOutput(ByteBuffer byteBuffer, boolean growable) {
+    m_byteBuffer = byteBuffer;
+    m_growable = growable;
+    m_channel = null;
+  }
+
+  /**
+   * Let the stream write to a channel from now on. Bytes that were 
+   * collected for the previous channel and not flushed are discarded.
+   */
+  public void setOutput(WritableByteChannel channel) {
+    if (m_channelBuffer == null)
+      m_channelBuffer = ByteBuffer.allocateDirect(CHANNEL_BUFFER_SIZE);
+    else
+      m_channelBuffer.clear();
+    m_byteBuffer = m_channelBuffer;
+    m_growable = false;
+    m_channel = channel;
+  }
+
+  /**
+   * Lets go of the buffer or channel that the stream writes to. The buffer 
+   * in which bytes for channels are collected is kept for reuse. Either 
+   * setOutput method has to be called before the stream is written to again.
+   */
+  public void clearOutput() {
+    m_byteBuffer = null;
+    m_growable = false;
+    m_channel = null;
+  }
+
+  /**
+   * Returns the buffer that holds the bytes written so far, which are
+   * those before the position of the buffer. The buffer is not the one
+   * initially given if it has grown since.
+   */
+  public ByteBuffer getByteBuffer() {
+    return m_byteBuffer;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (!m_byteBuffer.hasRemaining())
+      makeRoom(1);
+    m_byteBuffer.put((byte)b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (m_byteBuffer.remaining() < len) {
+      if (m_channel != null && len > m_byteBuffer.capacity() / 2) {
+        writeThrough(ByteBuffer.wrap(b, off, len));
+        return;
+      }
+      makeRoom(len);
+    }
+    m_byteBuffer.put(b, off, len);
+  }
+
+  /**
+   * Writes out the collected bytes followed by those of src to the channel.
+   */
+  private void writeThrough(ByteBuffer src) throws IOException {
+    m_byteBuffer.flip();
+    if (m_channel instanceof GatheringByteChannel) {
+      final ByteBuffer[] srcs = m_gather;
+      srcs[0] = m_byteBuffer;
+      srcs[1] = src;
+      try {
+        do {
+          ((GatheringByteChannel)m_channel).write(srcs);
+        }
+        while (src.hasRemaining());
+      }
+      finally {
+        srcs[1] = null;
+      }
+    }
+    else {
+      while (m_byteBuffer.hasRemaining())
+        m_channel.write(m_byteBuffer);
+      while (src.hasRemaining())
+        m_channel.write(src);
+    }
+    m_byteBuffer.clear();
+  }
+
+  private void makeRoom(int len) throws IOException {
+    if (m_channel != null) {
+      drain();
+      return;
+    }
+    if (!m_growable)
+      throw (IOException)new IOException("The buffer has no room for " + len + " more bytes.").initCause(new BufferOverflowException());
+    int capacity = Math.max(m_byteBuffer.capacity(), 16);
+    while (capacity - m_byteBuffer.position() < len)
+      capacity <<= 1;
+    final ByteBuffer byteBuffer = m_byteBuffer.isDirect() ?
+        ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    m_byteBuffer.flip();
+    byteBuffer.put(m_byteBuffer);
+    m_byteBuffer = byteBuffer;
+  }
+
+  /**
+   * Writes out the collected bytes to the channel.
+   */
+  private void drain() throws IOException {
+    m_byteBuffer.flip();
+    while (m_byteBuffer.hasRemaining())
+      m_channel.write(m_byteBuffer);
+    m_byteBuffer.clear();
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (m_channel != null && m_byteBuffer.position() != 0)
+      drain();
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+    if (m_channel != null)
+      m_channel.close();
+  }
+
+}
@@ -0,0 +1,330 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+
+import org.openexi.proc.common.QName;
+import org.openexi.schema.Characters;
+import org.openexi.schema.EXISchemaConst;
+import org.openexi.schema.XSDateTime;
+
+abstract class DateTimeValueScannerBase extends ValueScannerBase {
+  
+  protected final char[] m_dateTimeCharacters;
+  protected int m_n_dateTimeCharacters;
+  private final char[] m_transientCharacters;
+
+  protected final Scanner m_scanner; 
+
+  private final byte m_primTypeId;
+
+  protected DateTimeValueScannerBase(QName name, byte primTypeId, Scanner scanner) {
+    super(name);
+    m_scanner = scanner;
+    m_primTypeId = primTypeId;
+    m_dateTimeCharacters = new char[256];
+    m_n_dateTimeCharacters = 0;
+    m_transientCharacters = new char[64];
+  }
+  
+  /** @y.exclude */
+  @Override
+  public final int getBuiltinRCS(int simpleType) {
+    return BuiltinRCS.RCS_ID_DATETIME;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Typed values
+  ///////////////////////////////////////////////////////////////////////////
+
+  @Override
+  final void scanTyped(int localNameId, int uriId, int tp, EXIEventTypedValue typedValue) throws IOException {
+    final XSDateTime dateTime = new XSDateTime(XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, 
+        XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, 
+        XSDateTime.FIELD_UNDEFINED, (BigInteger)null, XSDateTime.FIELD_UNDEFINED, m_primTypeId);
+    int intValue;
+    switch (m_primTypeId) {
+      case EXISchemaConst.DATETIME_TYPE:
+        dateTime.year = readYearValue(m_istream);
+        intValue = m_scanner.readNBitUnsigned(9, m_istream);
+        dateTime.month = intValue >>> 5;
+        dateTime.day = intValue & 0x001F;
+        readTimeValue(m_istream, dateTime);
+        break;
+      case EXISchemaConst.DATE_TYPE:
+        dateTime.year = readYearValue(m_istream);
+        intValue = m_scanner.readNBitUnsigned(9, m_istream);
+        dateTime.month = intValue >>> 5;
+        dateTime.day = intValue & 0x001F;
+        break;
+      case EXISchemaConst.TIME_TYPE:
+        readTimeValue(m_istream, dateTime);
+        break;
+      case EXISchemaConst.G_YEARMONTH_TYPE:
+        dateTime.year = readYearValue(m_istream);
+        dateTime.month = m_scanner.readNBitUnsigned(9, m_istream) >>> 5;
+        break;
+      case EXISchemaConst.G_YEAR_TYPE:
+        dateTime.year = readYearValue(m_istream);
+        break;
+      case EXISchemaConst.G_MONTHDAY_TYPE:
+        intValue = m_scanner.readNBitUnsigned(9, m_istream);
+        dateTime.month = intValue >>> 5;
+        dateTime.day = intValue & 0x001F;
+        break;
+      case EXISchemaConst.G_DAY_TYPE:
+        dateTime.day = m_scanner.readNBitUnsigned(9, m_istream);
+        break;
+      default:
+        assert m_primTypeId == EXISchemaConst.G_MONTH_TYPE;
+        dateTime.month = m_scanner.readNBitUnsigned(9, m_istream) >>> 5;
+        break;
+    }
+    dateTime.timeZone = readTimeZoneValue(m_istream);
+    typedValue.setDateTimeValue(dateTime, this);
+  }
+
+  @Override
+  final Characters toCharacters(EXIEventTypedValue typedValue) {
+    final XSDateTime dateTime = typedValue.getDateTimeValue();
+    m_n_dateTimeCharacters = 0;
+    switch (dateTime.getPrimTypeId()) {
+      case EXISchemaConst.DATETIME_TYPE:
+        appendYear(dateTime.year);
+        appendMonthDay(dateTime.month, dateTime.day);
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = 'T';
+        appendTime(dateTime.hour, dateTime.minute, dateTime.second);
+        if (dateTime.reverseFractionalSecond != null)
+          appendReverseFractionalSecond(dateTime.reverseFractionalSecond);
+        break;
+      case EXISchemaConst.DATE_TYPE:
+        appendYear(dateTime.year);
+        appendMonthDay(dateTime.month, dateTime.day);
+        break;
+      case EXISchemaConst.TIME_TYPE:
+        appendTime(dateTime.hour, dateTime.minute, dateTime.second);
+        if (dateTime.reverseFractionalSecond != null)
+          appendReverseFractionalSecond(dateTime.reverseFractionalSecond);
+        break;
+      case EXISchemaConst.G_YEARMONTH_TYPE:
+        appendYear(dateTime.year);
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+        appendTwoDigits(dateTime.month);
+        break;
+      case EXISchemaConst.G_YEAR_TYPE:
+        appendYear(dateTime.year);
+        break;
+      case EXISchemaConst.G_MONTHDAY_TYPE:
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+        appendMonthDay(dateTime.month, dateTime.day);
+        break;
+      case EXISchemaConst.G_DAY_TYPE:
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+        appendTwoDigits(dateTime.day);
+        break;
+      default:
+        assert dateTime.getPrimTypeId() == EXISchemaConst.G_MONTH_TYPE;
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+        appendTwoDigits(dateTime.month);
+        break;
+    }
+    if (dateTime.timeZone != XSDateTime.FIELD_UNDEFINED)
+      appendTimeZone(dateTime.timeZone);
+    final CharacterBuffer characterBuffer = m_scanner.m_characterBuffer;
+    characterBuffer.ensureCharacters(m_n_dateTimeCharacters);
+    return characterBuffer.addChars(m_dateTimeCharacters, m_n_dateTimeCharacters);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Readers
+  ///////////////////////////////////////////////////////////////////////////
+
+  protected final void readYear(InputStream istream) throws IOException {
+    appendYear(readYearValue(istream));
+  }
+  
+  protected final void readGDay(InputStream istream) throws IOException {
+    final int day = m_scanner.readNBitUnsigned(9, istream);
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+    appendTwoDigits(day);
+  }
+  
+  protected final void readGMonth(InputStream istream) throws IOException {
+    final int intValue = m_scanner.readNBitUnsigned(9, istream);
+    int month = intValue >>> 5;
+    assert intValue % 32 == 0;
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+    appendTwoDigits(month);
+  }
+  
+  protected final void readGMonthDay(InputStream istream) throws IOException {
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+    readMonthDay(istream);
+  }
+  
+  protected final void readGYearMonth(InputStream istream) throws IOException {
+    readYear(istream);
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+    final int intValue = m_scanner.readNBitUnsigned(9, istream);
+    final int month = intValue >>> 5;
+    assert intValue % 32 == 0;
+    appendTwoDigits(month);
+  }
+  
+  protected final void readMonthDay(InputStream istream) throws IOException {
+    final int intValue = m_scanner.readNBitUnsigned(9, istream);
+    appendMonthDay(intValue >>> 5, intValue & 0x001F);
+  }
+  
+  protected final void readTime(InputStream istream) throws IOException {
+    int intValue = m_scanner.readNBitUnsigned(17, istream);
+    final int hours = intValue >> 12; // intValue / 4096
+    intValue &= 0x0FFF; // intValue %= 4096
+    appendTime(hours, intValue / 64, intValue % 64);
+    if (m_scanner.readBoolean(istream)) {
+      // The digits come out in reverse order, which is the order of fractional seconds.
+      final int n_digits = m_scanner.readUnsignedIntegerChars(istream, false, m_transientCharacters);
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = '.';
+      System.arraycopy(m_transientCharacters, 0, m_dateTimeCharacters, m_n_dateTimeCharacters, n_digits);
+      m_n_dateTimeCharacters += n_digits;
+    }
+  }
+  
+  protected final void readTimeZone(InputStream istream) throws IOException {
+    final int timeZone;
+    if ((timeZone = readTimeZoneValue(istream)) != XSDateTime.FIELD_UNDEFINED)
+      appendTimeZone(timeZone);
+  }
+
+  private int readYearValue(InputStream istream) throws IOException {
+    final boolean isNegative = m_scanner.readBoolean(istream);
+    final int year = m_scanner.readUnsignedInteger(istream);
+    return isNegative ? 1999 - year : year + 2000; 
+  }
+
+  private void readTimeValue(InputStream istream, XSDateTime dateTime) throws IOException {
+    int intValue = m_scanner.readNBitUnsigned(17, istream);
+    dateTime.hour = intValue >> 12; // intValue / 4096
+    intValue &= 0x0FFF; // intValue %= 4096
+    dateTime.minute = intValue / 64;
+    dateTime.second = intValue % 64;
+    if (m_scanner.readBoolean(istream))
+      dateTime.reverseFractionalSecond = m_scanner.readUnsignedIntegerAsBigInteger(istream);
+  }
+
+  /**
+   * Returns the time zone in minutes, or XSDateTime.FIELD_UNDEFINED if absent.
+   */
+  private int readTimeZoneValue(InputStream istream) throws IOException {
+    if (m_scanner.readBoolean(istream)) {
+      int intValue = m_scanner.readNBitUnsigned(11, istream) - 64 * 14;
+      final boolean isNegative;
+      if (isNegative = intValue < 0)
+        intValue = 0 - intValue;
+      final int timeZone = 60 * (intValue / 64) + intValue % 64;
+      return isNegative ? 0 - timeZone : timeZone;
+    }
+    return XSDateTime.FIELD_UNDEFINED;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Character composition
+  ///////////////////////////////////////////////////////////////////////////
+
+  private void appendYear(int year) {
+    if (year < 0) {
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+      year = 0 - year;
+    }
+    if (year < 10) {
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = '0';
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = '0';
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = '0';
+    }
+    else if (year < 100) {
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = '0';
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = '0';
+    }
+    else if (year < 1000) {
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = '0';
+    }
+    int n_transientCharacters = 0;
+    for (; year != 0; year /= 10) {
+      final char digitChar = (char)(48 + year % 10);
+      m_transientCharacters[n_transientCharacters++] = digitChar;
+    }
+    --n_transientCharacters;
+    for (; n_transientCharacters != -1; n_transientCharacters--)
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = m_transientCharacters[n_transientCharacters];
+  }
+
+  private void appendMonthDay(int month, int day) {
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+    appendTwoDigits(month);
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+    appendTwoDigits(day);
+  }
+
+  private void appendTime(int hours, int minutes, int seconds) {
+    appendTwoDigits(hours);
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = ':';
+    appendTwoDigits(minutes);
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = ':';
+    appendTwoDigits(seconds);
+  }
+
+  /**
+   * Fractional second digits are encoded in reverse order. 
+   */
+  private void appendReverseFractionalSecond(BigInteger reverseFractionalSecond) {
+    m_dateTimeCharacters[m_n_dateTimeCharacters++] = '.';
+    if (reverseFractionalSecond.bitLength() < 64) {
+      long digits = reverseFractionalSecond.longValue();
+      do {
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = (char)(48 + (int)(digits % 10));
+        digits /= 10;
+      }
+      while (digits != 0);
+    }
+    else {
+      final String digits = reverseFractionalSecond.toString();
+      for (int i = digits.length(); i-- != 0;)
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = digits.charAt(i);
+    }
+  }
+
+  private void appendTimeZone(int timeZone) {
+    if (timeZone != 0) {
+      if (timeZone < 0) {
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = '-';
+        timeZone = 0 - timeZone;
+      }
+      else
+        m_dateTimeCharacters[m_n_dateTimeCharacters++] = '+';
+      appendTwoDigits(timeZone / 60);
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = ':';
+      appendTwoDigits(timeZone % 60);
+    }
+    else
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = 'Z';
+  }
+
+  private void appendTwoDigits(int value) {
+    if (value < 10) {
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = '0';
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = (char)(48 + value);
+    }
+    else {
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = (char)(48 + value / 10);
+      m_dateTimeCharacters[m_n_dateTimeCharacters++] = (char)(48 + value % 10);
+    }
+  }
+
+}
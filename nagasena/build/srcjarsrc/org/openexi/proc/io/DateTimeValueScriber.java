@@ -0,0 +1,110 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+
+import org.openexi.proc.common.QName;
+import org.openexi.proc.util.ExiUriConst;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EXISchemaConst;
+import org.openexi.schema.XSDateTime;
+
+public final class DateTimeValueScriber extends DateTimeValueScriberBase {
+
+  public static final DateTimeValueScriber instance;
+  static {
+    instance = new DateTimeValueScriber();
+  }
+
+  private DateTimeValueScriber() {
+    super(new QName("exi:dateTime", ExiUriConst.W3C_2009_EXI_URI));
+  }
+
+  @Override
+  public short getCodecID() {
+    return Scriber.CODEC_DATETIME;
+  }
+
+  @Override
+  public int getBuiltinRCS(int simpleType, Scriber scriber) {
+    return BuiltinRCS.RCS_ID_DATETIME;
+  }
+
+  ////////////////////////////////////////////////////////////
+
+  @Override
+  public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    if (!trimWhitespaces(value, scribble))
+      return false;
+    final boolean useUTCTime = scribble.booleanValue1;
+    final int year, month, day, hour, minute, second;
+    long reverseFractionalSecond = 0;
+    BigInteger bigReverseFractionalSecond = null;
+    int tz = XSDateTime.FIELD_UNDEFINED;
+    scribble.nextPosition = scribble.startPosition; // OK, Let's start parsing
+    if (!parseYearField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    year = scribble.intValue1;
+    if (value.charAt(scribble.nextPosition++) != '-' || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    if (!parseMonthField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    month = scribble.intValue1;
+    if (value.charAt(scribble.nextPosition++) != '-' || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    if (!parseDayField(value, year, month, scribble) || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    day = scribble.intValue1;
+    if (value.charAt(scribble.nextPosition++) != 'T' || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    if (!parseHourField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    hour = scribble.intValue1;
+    if (value.charAt(scribble.nextPosition++) != ':' || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    if (!parseMinuteField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    minute = scribble.intValue1;
+    if (hour == 24 && minute != 0)
+      return false;
+    if (value.charAt(scribble.nextPosition++) != ':' || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    if (!parseSecondField(value, scribble))
+      return false;
+    second = scribble.intValue1;
+    if (hour == 24 && second != 0)
+      return false;
+    if (scribble.nextPosition != scribble.limitPosition) {
+      if (value.charAt(scribble.nextPosition) == '.') {
+        final int startPosition = ++scribble.nextPosition;
+        final int n_digits;
+        if ((n_digits = parseFractionalSecondField(value, scribble)) == 0)
+          return false;
+        else if (n_digits <= MAX_FRACTIONAL_SECOND_DIGITS)
+          reverseFractionalSecond = scribble.longValue;
+        else if ((bigReverseFractionalSecond = toReverseFractionalSecond(value, startPosition, scribble.nextPosition)).signum() == 0)
+          bigReverseFractionalSecond = null;
+      }
+      if (scribble.nextPosition != scribble.limitPosition) {
+        if (!parseTimezoneField(value, scribble) || scribble.nextPosition != scribble.limitPosition)
+          return false;
+        tz = scribble.intValue1;
+      }
+    }
+    scribble.dateTime = new XSDateTime(year, month, day, hour, minute, second, bigReverseFractionalSecond, tz, EXISchemaConst.DATETIME_TYPE);
+    scribble.dateTime.normalize(useUTCTime);
+    scribble.longValue = reverseFractionalSecond;
+    return true;
+  }
+
+  @Override
+  void scribeDateTimeValue(XSDateTime dateTime, long reverseFractionalSecond, OutputStream channelStream, Scriber scriber) throws IOException {
+    writeYear(dateTime.year, channelStream, scriber);
+    writeMonthDay(dateTime.month, dateTime.day, channelStream, scriber);
+    writeTime(dateTime.hour, dateTime.minute, dateTime.second,
+        reverseFractionalSecond, dateTime.reverseFractionalSecond, channelStream, scriber);
+    writeTimeZone(dateTime.timeZone, channelStream, scriber);
+  }
+  
+}
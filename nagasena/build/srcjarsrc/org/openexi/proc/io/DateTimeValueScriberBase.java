@@ -0,0 +1,344 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+
+import org.openexi.proc.common.QName;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EXISchemaConst;
+import org.openexi.schema.XSDateTime;
+
+abstract class DateTimeValueScriberBase extends ValueScriberBase {
+  
+  protected DateTimeValueScriberBase(QName name) {
+    super(name);
+  }
+
+  @Override
+  public final boolean processDateTime(XSDateTime value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    final byte primTypeId;
+    if ((primTypeId = getPrimTypeId()) != value.getPrimTypeId())
+      return false;
+    final boolean hasTime = primTypeId == EXISchemaConst.DATETIME_TYPE || primTypeId == EXISchemaConst.TIME_TYPE;
+    final boolean hasYear = primTypeId == EXISchemaConst.DATETIME_TYPE || primTypeId == EXISchemaConst.DATE_TYPE ||
+      primTypeId == EXISchemaConst.G_YEARMONTH_TYPE || primTypeId == EXISchemaConst.G_YEAR_TYPE;
+    final boolean hasMonth = primTypeId == EXISchemaConst.DATETIME_TYPE || primTypeId == EXISchemaConst.DATE_TYPE ||
+      primTypeId == EXISchemaConst.G_YEARMONTH_TYPE || primTypeId == EXISchemaConst.G_MONTHDAY_TYPE || 
+      primTypeId == EXISchemaConst.G_MONTH_TYPE;
+    final boolean hasDay = primTypeId == EXISchemaConst.DATETIME_TYPE || primTypeId == EXISchemaConst.DATE_TYPE ||
+      primTypeId == EXISchemaConst.G_MONTHDAY_TYPE || primTypeId == EXISchemaConst.G_DAY_TYPE;
+    int year = XSDateTime.FIELD_UNDEFINED;
+    int month = XSDateTime.FIELD_UNDEFINED;
+    int day = XSDateTime.FIELD_UNDEFINED;
+    if (hasYear && ((year = value.year) == 0 || year == XSDateTime.FIELD_UNDEFINED))
+      return false;
+    if (hasMonth && ((month = value.month) < 1 || 12 < month))
+      return false;
+    if (hasDay && ((day = value.day) < 1 || XSDateTime.getLastDayOfMonth(year, month) < day))
+      return false;
+    int hour = XSDateTime.FIELD_UNDEFINED;
+    int minute = XSDateTime.FIELD_UNDEFINED;
+    int second = XSDateTime.FIELD_UNDEFINED;
+    BigInteger reverseFractionalSecond = null;
+    if (hasTime) {
+      hour = value.hour;
+      minute = value.minute;
+      second = value.second;
+      if ((reverseFractionalSecond = value.reverseFractionalSecond) != null) {
+        final int signum;
+        if ((signum = reverseFractionalSecond.signum()) < 0)
+          return false;
+        else if (signum == 0)
+          reverseFractionalSecond = null;
+      }
+      if (hour < 0 || 24 < hour || minute < 0 || 59 < minute || second < 0 || 60 < second)
+        return false;
+      if (hour == 24 && (minute != 0 || second != 0 || reverseFractionalSecond != null))
+        return false;
+    }
+    final int timeZone = value.timeZone;
+    if (timeZone != XSDateTime.FIELD_UNDEFINED && (timeZone < -840 || 840 < timeZone))
+      return false;
+    scribble.dateTime = new XSDateTime(year, month, day, hour, minute, second, reverseFractionalSecond, timeZone, primTypeId);
+    if (primTypeId == EXISchemaConst.DATETIME_TYPE || primTypeId == EXISchemaConst.DATE_TYPE)
+      scribble.dateTime.normalize(scribble.booleanValue1);
+    scribble.longValue = 0;
+    return true;
+  }
+
+  /**
+   * Returns the identifier of the datatype of the values that this 
+   * value scriber takes, which is one of those defined in EXISchemaConst.
+   */
+  private byte getPrimTypeId() {
+    switch (getCodecID()) {
+      case Scriber.CODEC_DATETIME:
+        return EXISchemaConst.DATETIME_TYPE;
+      case Scriber.CODEC_TIME:
+        return EXISchemaConst.TIME_TYPE;
+      case Scriber.CODEC_DATE:
+        return EXISchemaConst.DATE_TYPE;
+      case Scriber.CODEC_GYEARMONTH:
+        return EXISchemaConst.G_YEARMONTH_TYPE;
+      case Scriber.CODEC_GYEAR:
+        return EXISchemaConst.G_YEAR_TYPE;
+      case Scriber.CODEC_GMONTHDAY:
+        return EXISchemaConst.G_MONTHDAY_TYPE;
+      case Scriber.CODEC_GDAY:
+        return EXISchemaConst.G_DAY_TYPE;
+      default:
+        assert getCodecID() == Scriber.CODEC_GMONTH;
+        return EXISchemaConst.G_MONTH_TYPE;
+    }
+  }
+
+  @Override
+  public final Object toValue(String value, Scribble scribble, Scriber scriber) {
+    return toDateTime(scribble);
+  }
+
+  @Override
+  public final void doScribe(Object value, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException  {
+    scribeDateTimeValue((XSDateTime)value, 0, channelStream, scriber);
+  }
+  
+  @Override
+  public final void scribe(String value, Scribble scribble, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException {
+    scribeDateTimeValue(scribble.dateTime, scribble.longValue, channelStream, scriber);
+  }
+
+  /**
+   * Writes a date-time value.
+   * @param reverseFractionalSecond fractional seconds with the digits in reverse 
+   * order if they were parsed into a long, otherwise 0 in which case those of 
+   * dateTime apply
+   */
+  abstract void scribeDateTimeValue(XSDateTime dateTime, long reverseFractionalSecond, OutputStream channelStream, Scriber scriber) throws IOException;
+
+  /**
+   * Returns scribble.dateTime with the fractional seconds parsed into 
+   * scribble.longValue, if any, moved into it, for use beyond the scribble.
+   */
+  private static XSDateTime toDateTime(Scribble scribble) {
+    final XSDateTime dateTime = scribble.dateTime;
+    if (scribble.longValue != 0) {
+      dateTime.reverseFractionalSecond = BigInteger.valueOf(scribble.longValue);
+      scribble.longValue = 0;
+    }
+    return dateTime;
+  }
+
+  ////////////////////////////////////////////////////////////
+
+  public final static void canonicalizeValue(Scribble scribble) {
+    toDateTime(scribble).normalize(true);
+  }
+
+  ////////////////////////////////////////////////////////////
+
+  protected final void writeYear(int year, OutputStream ostream, Scriber scriber) throws IOException {
+    if ((year -= 2000) < 0) {
+      scriber.writeBoolean(true, ostream);
+      year = -1 - year;
+    }
+    else {
+      scriber.writeBoolean(false, ostream);
+    }
+    scriber.writeUnsignedInteger32(year, ostream);
+  }
+
+  protected final void writeMonthDay(int month, int day, OutputStream ostream, Scriber scriber) throws IOException {
+    final int monthDay = month * 32 + day;
+    scriber.writeNBitUnsigned(monthDay, 9, ostream);
+  }
+
+  /**
+   * Writes the time fields. Fractional seconds are given either as a long, 
+   * or as a BigInteger when the long is 0.
+   */
+  protected final void writeTime(int hour, int minute, int second, long reverseFractionalSecond, 
+    BigInteger bigReverseFractionalSecond, OutputStream ostream, Scriber scriber) throws IOException {
+    int time = (hour * 64 + minute) * 64 + second;
+    scriber.writeNBitUnsigned(time, 17, ostream);
+    if (reverseFractionalSecond != 0) {
+      scriber.writeBoolean(true, ostream);
+      assert reverseFractionalSecond > 0;
+      scriber.writeUnsignedInteger64(reverseFractionalSecond, ostream);
+    }
+    else if (bigReverseFractionalSecond != null) {
+      scriber.writeBoolean(true, ostream);
+      assert bigReverseFractionalSecond.signum() == 1;
+      if (bigReverseFractionalSecond.bitLength() < 64)
+        scriber.writeUnsignedInteger64(bigReverseFractionalSecond.longValue(), ostream);
+      else
+        scriber.writeUnsignedInteger(bigReverseFractionalSecond, ostream);
+    }
+    else {
+      scriber.writeBoolean(false, ostream);
+    }
+  }
+
+  protected final void writeTimeZone(int timeZone, OutputStream ostream, Scriber scriber) throws IOException {
+    if (timeZone != XSDateTime.FIELD_UNDEFINED) {
+      scriber.writeBoolean(true, ostream);
+      final int hours = timeZone / 60;
+      final int minutes = timeZone % 60;
+      scriber.writeNBitUnsigned((hours + 14) * 64 + minutes, 11, ostream);
+    }
+    else {
+      scriber.writeBoolean(false, ostream);
+    }
+  }
+
+  ////////////////////////////////////////////////////////////
+
+  protected final boolean parseYearField(String value, Scribble scribble) {
+    final boolean isNegative; 
+    if (isNegative = value.charAt(scribble.nextPosition) == '-')
+      ++scribble.nextPosition;
+    int year, n_digits;
+    for (year = n_digits = 0; scribble.nextPosition < scribble.limitPosition; n_digits++, scribble.nextPosition++) {
+      final char c = value.charAt(scribble.nextPosition);
+      if (c < '0' || '9' < c)
+        break;
+      year = 10 * year + (c - '0');
+    }
+    if (n_digits < 4 || year == 0)
+      return false;
+    scribble.intValue1 = isNegative ? 0 - year : year; 
+    return true; 
+  }
+  
+  protected final boolean parseMonthField(String value, Scribble scribble) {
+    final int month;
+    if ((month = parseTwoDigitField(value, scribble)) < 1 || 12 < month)
+      return false;
+    scribble.intValue1 = month;
+    return true;
+  }
+
+  protected final boolean parseDayField(String value, int year, int month, Scribble scribble) {
+    final int day;
+    if ((day = parseTwoDigitField(value, scribble)) < 1 || XSDateTime.getLastDayOfMonth(year, month) < day)
+      return false;
+    scribble.intValue1 = day;
+    return true;
+  }
+
+  protected final boolean parseHourField(String value, Scribble scribble) {
+    final int hour;
+    if ((hour = parseTwoDigitField(value, scribble)) < 0 || 24 < hour)
+      return false;
+    scribble.intValue1 = hour;
+    return true;
+  }
+
+  protected final boolean parseMinuteField(String value, Scribble scribble) {
+    final int minute;
+    if ((minute = parseTwoDigitField(value, scribble)) < 0 || 59 < minute)
+      return false;
+    scribble.intValue1 = minute;
+    return true;
+  }
+
+  protected final boolean parseSecondField(String value, Scribble scribble) {
+    final int second;
+    if ((second = parseTwoDigitField(value, scribble)) < 0)
+      return false;
+    scribble.intValue1 = second;
+    return true;
+  }
+
+  /**
+   * Parses a field that consists of exactly two digits. 
+   * @return the value of the field, or -1 if the field is not two digits
+   */
+  private static int parseTwoDigitField(String value, Scribble scribble) {
+    final int pos = scribble.nextPosition;
+    final int limit = scribble.limitPosition;
+    if (limit - pos < 2)
+      return -1;
+    final int d1 = value.charAt(pos) - '0';
+    final int d2 = value.charAt(pos + 1) - '0';
+    if (d1 < 0 || 9 < d1 || d2 < 0 || 9 < d2)
+      return -1;
+    if (pos + 2 != limit) {
+      final char c = value.charAt(pos + 2);
+      if ('0' <= c && c <= '9')
+        return -1;
+    }
+    scribble.nextPosition = pos + 2;
+    return 10 * d1 + d2;
+  }
+
+  // Number of fraction digits that are accumulated in a long without overflow.
+  protected static final int MAX_FRACTIONAL_SECOND_DIGITS = 18;
+
+  /**
+   * Parses the digits of fractional seconds into scribble.longValue in reverse
+   * order, provided that there are no more than MAX_FRACTIONAL_SECOND_DIGITS.
+   * Use toReverseFractionalSecond() for those that have more digits.
+   * @return the number of digits
+   */
+  protected final int parseFractionalSecondField(String value, Scribble scribble) {
+    long reverseFractionalSecond = 0;
+    long magnitude = 1;
+    int n_digits;
+    for (n_digits = 0; scribble.nextPosition < scribble.limitPosition; n_digits++, scribble.nextPosition++) {
+      final char c = value.charAt(scribble.nextPosition);
+      if (c < '0' || '9' < c)
+        break;
+      if (n_digits < MAX_FRACTIONAL_SECOND_DIGITS) {
+        reverseFractionalSecond += (c - '0') * magnitude;
+        magnitude *= 10;
+      }
+    }
+    scribble.longValue = reverseFractionalSecond;
+    return n_digits;
+  }
+
+  /**
+   * Returns the digits of fractional seconds between the positions in reverse
+   * order. Only excessively precise fractions need this.
+   */
+  protected static BigInteger toReverseFractionalSecond(String value, int startPosition, int endPosition) {
+    BigInteger bigMagnitude = BigInteger.ONE;
+    BigInteger bigReverseFractionalSecond = BigInteger.ZERO;
+    for (int pos = startPosition; pos < endPosition; pos++, bigMagnitude = BigInteger.TEN.multiply(bigMagnitude)) {
+      bigReverseFractionalSecond = bigReverseFractionalSecond.add(bigMagnitude.multiply(BigInteger.valueOf(value.charAt(pos) - '0')));
+    }
+    return bigReverseFractionalSecond;
+  }
+  
+  protected final boolean parseTimezoneField(String value, Scribble scribble) {
+    int tz = 0;
+    boolean isNegative = false; 
+    char c = value.charAt(scribble.nextPosition++);
+    if (c == 'Z') {
+      tz = 0;
+    }
+    else {
+      if (c == '-')
+        isNegative = true;
+      else if (c != '+')
+        return false;
+      if (scribble.nextPosition == scribble.limitPosition)
+        return false;
+      if (!parseHourField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
+        return false;
+      int hour = scribble.intValue1;
+      if (value.charAt(scribble.nextPosition++) != ':' || scribble.nextPosition == scribble.limitPosition)
+        return false;
+      if (!parseMinuteField(value, scribble))
+        return false;
+      int minute = scribble.intValue1;
+      tz = 60 * hour + minute;
+    }
+    if (isNegative)
+      tz = 0 - tz;
+    scribble.intValue1 = tz;
+    return true;
+  }
+  
+}
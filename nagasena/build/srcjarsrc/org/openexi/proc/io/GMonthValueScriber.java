@@ -0,0 +1,67 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.openexi.proc.common.QName;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EXISchemaConst;
+import org.openexi.schema.XSDateTime;
+
+public final class GMonthValueScriber extends DateTimeValueScriberBase {
+
+  public static final GMonthValueScriber instance;
+  static {
+    instance = new GMonthValueScriber();
+  }
+
+  private GMonthValueScriber() {
+    super(new QName("exi:gMonth", "http://www.w3.org/2009/exi"));
+  }
+
+  @Override
+  public short getCodecID() {
+    return Scriber.CODEC_GMONTH;
+  }
+  
+  @Override
+  public int getBuiltinRCS(int simpleType, Scriber scriber) {
+    return BuiltinRCS.RCS_ID_DATETIME;
+  }
+
+  ////////////////////////////////////////////////////////////
+
+  @Override
+  public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    if (!trimWhitespaces(value, scribble))
+      return false;
+    final int month;
+    int tz = XSDateTime.FIELD_UNDEFINED;
+    scribble.nextPosition = scribble.startPosition; // OK, Let's start parsing
+    if (value.charAt(scribble.nextPosition++) != '-' || scribble.nextPosition == scribble.limitPosition || 
+        value.charAt(scribble.nextPosition++) != '-'  || scribble.nextPosition == scribble.limitPosition)
+      return false;
+    if (!parseMonthField(value, scribble))
+      return false;
+    month = scribble.intValue1;
+    if (scribble.nextPosition != scribble.limitPosition) {
+      if (!parseTimezoneField(value, scribble) || scribble.nextPosition != scribble.limitPosition)
+        return false;
+      tz = scribble.intValue1;
+    }
+    scribble.dateTime = new XSDateTime(XSDateTime.FIELD_UNDEFINED, 
+        month, XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, 
+        XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, 
+        null, tz, EXISchemaConst.G_MONTH_TYPE);
+    return true;
+  }
+
+  ////////////////////////////////////////////////////////////
+  
+  @Override
+  void scribeDateTimeValue(XSDateTime dateTime, long reverseFractionalSecond, OutputStream channelStream, Scriber scriber) throws IOException {
+    writeMonthDay(dateTime.month, 0, channelStream, scriber);
+    writeTimeZone(dateTime.timeZone, channelStream, scriber);
+  }
+
+}
@@ -0,0 +1,317 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+
+import org.openexi.proc.common.QName;
+import org.openexi.proc.util.ExiUriConst;
+import org.openexi.schema.EXISchema;
+
+public final class IntegerValueScriber extends ValueScriberBase {
+
+  public static final IntegerValueScriber instance;
+  static {
+    instance = new IntegerValueScriber();
+  }
+  
+  private IntegerValueScriber() {
+    super(new QName("exi:integer", ExiUriConst.W3C_2009_EXI_URI));
+  }
+
+  @Override
+  public short getCodecID() {
+    return Scriber.CODEC_INTEGER;
+  }
+
+  @Override
+  public int getBuiltinRCS(int simpleType, Scriber scriber) {
+    return BuiltinRCS.RCS_ID_INTEGER;
+  }
+
+  ////////////////////////////////////////////////////////////
+  
+  @Override
+  public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return process(scriber.toChars(value), 0, value.length(), tp, schema, scribble, scriber);
+  }
+
+  @Override
+  public boolean processesChars() {
+    return true;
+  }
+
+  @Override
+  public boolean process(char[] value, int start, int length, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    if (!trimWhitespaces(value, start, length, scribble))
+      return false;
+    int pos = scribble.startPosition;
+    boolean useIntValue = true;
+    int intValue = 0;
+    long longValue = 0;
+    boolean isNegative = false;
+    char c = value[pos];
+    if (c == '-' || c == '+') {
+      ++pos;
+      if (c != '+')
+        isNegative = true;
+    }
+    boolean foundNonZero = false;
+    int st = -1;
+    posLoop:
+    for (int n_digits = 0; pos < scribble.limitPosition; pos++) {
+      switch (c = value[pos]) {
+        case '0':
+          if (!foundNonZero)
+            continue;
+          else {
+            if (++n_digits < 10)
+              intValue *= 10;
+            else {
+              if (n_digits == 10) {
+                longValue = 10 * (long)intValue;
+                useIntValue = false;
+              }
+              else {
+                if (n_digits < 19)
+                  longValue *= 10;
+                else {
+                  longValue = Long.MIN_VALUE;
+                  ++pos;
+                  break posLoop;
+                }
+              }
+            }
+          }
+          break;
+        case '1': 
+        case '2': 
+        case '3': 
+        case '4': 
+        case '5': 
+        case '6': 
+        case '7': 
+        case '8': 
+        case '9':
+          if (!foundNonZero) {
+            foundNonZero = true;
+            st = pos;
+          }
+          final int deposit = ((int)c) - 48;
+          if (++n_digits < 10)
+            intValue = 10 * intValue + deposit;
+          else {
+            if (n_digits == 10) {
+              longValue = 10 * (long)intValue + deposit;
+              useIntValue = false;
+            }
+            else {
+              if (n_digits < 19)
+                longValue = 10 * longValue + deposit;
+              else {
+                longValue = Long.MIN_VALUE;
+                ++pos;
+                break posLoop;
+              }
+            }
+          }
+          break;
+        default:
+          return false;
+      }
+    }
+    if (pos != scribble.limitPosition) {
+      assert longValue == Long.MIN_VALUE;
+      for (; pos != scribble.limitPosition; pos++) {
+        c = value[pos];
+        if (c < '0' || '9' < c)
+          return false;
+      }
+    }
+    assert (st >= 0 && foundNonZero) || (!foundNonZero && longValue == 0 && intValue == 0 && useIntValue);
+    if (!foundNonZero && isNegative) {
+      isNegative = false;
+    }
+    final String digits = !useIntValue && longValue == Long.MIN_VALUE ? 
+        new String(value, st, scribble.limitPosition - st) : null;
+    return processIntegerValue(isNegative, useIntValue, intValue, longValue, digits, tp, schema, scribble);
+  }
+
+  @Override
+  public boolean processLong(long value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    final boolean isNegative;
+    if (isNegative = value < 0)
+      value = 0 - value; // Long.MIN_VALUE stays negative
+    // Numbers are held the same way as process() does. 
+    if (0 <= value && value < 1000000000L)
+      return processIntegerValue(isNegative, true, (int)value, 0, (String)null, tp, schema, scribble);
+    else if (0 <= value && value < 1000000000000000000L)
+      return processIntegerValue(isNegative, false, 0, value, (String)null, tp, schema, scribble);
+    else {
+      final String digits = value < 0 ? "9223372036854775808" : Long.toString(value);
+      return processIntegerValue(isNegative, false, 0, Long.MIN_VALUE, digits, tp, schema, scribble);
+    }
+  }
+
+  /**
+   * Store an integer value into scribble.
+   * @param digits digits of the value, which are only used when longValue is Long.MIN_VALUE
+   */
+  private boolean processIntegerValue(boolean isNegative, boolean useIntValue, int intValue, long longValue, 
+      String digits, int tp, EXISchema schema, Scribble scribble) {
+    if (schema.isIntegralSimpleType(tp)) {
+      switch (scribble.intValue2 = schema.getWidthOfIntegralSimpleType(tp)) {
+        /**
+         * scribble.booleanValue is relevant only to default integer representation.
+         * Values "true" and "false" represent signs of minus and plus. 
+         */
+        case EXISchema.INTEGER_CODEC_DEFAULT:
+          break;
+        case EXISchema.INTEGER_CODEC_NONNEGATIVE:
+          if (isNegative)
+            return false;
+          if (scribble.booleanValue2 = useIntValue) {
+            scribble.intValue1 = intValue;
+          }
+          else if ((scribble.longValue = longValue) == Long.MIN_VALUE) {
+            scribble.stringValue1 = digits; 
+          }
+          return true;
+        default:
+          if (!useIntValue && longValue == Long.MIN_VALUE)
+            return false;
+          if (isNegative) {
+            if (useIntValue)
+              intValue = 0 - intValue;
+            else
+              longValue = 0 - longValue;
+          }
+          final int minInclusiveFacet = schema.getMinInclusiveFacetOfIntegerSimpleType(tp);
+          switch (schema.getTypeOfVariant(minInclusiveFacet)) {
+            case EXISchema.VARIANT_INT:
+              final int minInclusiveIntValue = schema.getIntValueOfVariant(minInclusiveFacet);
+              if (useIntValue) {
+                if (intValue < minInclusiveIntValue || (intValue -= minInclusiveIntValue) > NBIT_INTEGER_RANGES[scribble.intValue2])
+                  return false;
+              }
+              else {
+                if (longValue < minInclusiveIntValue || (longValue -= minInclusiveIntValue) > NBIT_INTEGER_RANGES[scribble.intValue2])
+                  return false;
+                intValue = (int)longValue;
+              }
+              break;
+            case EXISchema.VARIANT_LONG:
+              final long minInclusiveLongValue = schema.getLongValueOfVariant(minInclusiveFacet);
+              if (useIntValue) {
+                if (intValue < minInclusiveLongValue || (intValue -= minInclusiveLongValue) > NBIT_INTEGER_RANGES[scribble.intValue2])
+                  return false;
+              }
+              else {
+                if (longValue < minInclusiveLongValue || (longValue -= minInclusiveLongValue) > NBIT_INTEGER_RANGES[scribble.intValue2])
+                  return false;
+                intValue = (int)longValue;
+              }
+              break;
+            default:
+              return false;
+          }
+          scribble.intValue1 = intValue;
+          return true;
+      }
+    }
+    scribble.intValue2 = EXISchema.INTEGER_CODEC_DEFAULT;
+    scribble.booleanValue1 = isNegative;
+    if (scribble.booleanValue2 = useIntValue) {
+      scribble.intValue1 = intValue;
+    }
+    else if ((scribble.longValue = longValue) == Long.MIN_VALUE) {
+      scribble.stringValue1 = digits; 
+    }
+    return true;
+  }
+
+  /**
+   * Store an unsigned int value into scribble.
+   * (For use by EXIOptionsEncoder)
+   */
+  public boolean processUnsignedInt(int uintValue, Scribble scribble) {
+    assert uintValue >= 0;
+    scribble.intValue2 = EXISchema.INTEGER_CODEC_NONNEGATIVE;
+    scribble.booleanValue2 = true;
+    scribble.intValue1 = uintValue;
+    return true;
+  }
+  
+  @Override
+  public void scribe(String value, Scribble scribble, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException {
+    scribeIntegerValue(scribble.booleanValue2, scribble.longValue, scribble.stringValue1, scribble.intValue1, scribble.intValue2,
+        scribble.booleanValue1, channelStream, scriber);
+  }
+
+  ////////////////////////////////////////////////////////////
+  
+  private static class IntegerValue {
+    boolean useIntValue;
+    long longValue;
+    String digits;
+    int intValue;
+    int width;
+    boolean isNegative;
+    IntegerValue(boolean useIntValue, long longValue, String digits, int intValue, int width, boolean isNegative) {
+      this.useIntValue = useIntValue;
+      this.longValue = longValue;
+      this.digits = digits;
+      this.intValue = intValue;
+      this.width = width;
+      this.isNegative = isNegative;
+    }
+  }
+
+  @Override
+  public Object toValue(String value, Scribble scribble, Scriber scriber) {
+    return new IntegerValue(scribble.booleanValue2, scribble.longValue, scribble.stringValue1, 
+        scribble.intValue1, scribble.intValue2, scribble.booleanValue1);
+  }
+ 
+  @Override
+  public void doScribe(Object value, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException  {
+    final IntegerValue integerValue = (IntegerValue)value;
+    scribeIntegerValue(integerValue.useIntValue, integerValue.longValue, integerValue.digits, integerValue.intValue, 
+        integerValue.width, integerValue.isNegative, channelStream, scriber);
+  }
+
+  ////////////////////////////////////////////////////////////
+
+  private void scribeIntegerValue(boolean useIntValue, long longValue, String digits, int intValue, int width, 
+      boolean isNegative, OutputStream ostream, Scriber scriber) throws IOException {
+    switch (width) {
+      case EXISchema.INTEGER_CODEC_DEFAULT:
+        scriber.writeBoolean(isNegative, ostream);
+        if (useIntValue) {
+          assert isNegative && intValue != 0 || !isNegative;
+          scriber.writeUnsignedInteger32(isNegative ? intValue - 1 : intValue, ostream);
+        }
+        else if (longValue != Long.MIN_VALUE)
+          scriber.writeUnsignedInteger64(isNegative ? longValue - 1 : longValue, ostream);
+        else {
+          BigInteger bint = new BigInteger(digits);
+          if (isNegative)
+            bint = bint.subtract(BigInteger.ONE);
+          scriber.writeUnsignedInteger(bint, ostream);
+        }
+        break;
+      case EXISchema.INTEGER_CODEC_NONNEGATIVE:
+        if (useIntValue)
+          scriber.writeUnsignedInteger32(intValue, ostream);
+        else if (longValue != Long.MIN_VALUE)
+          scriber.writeUnsignedInteger64(longValue, ostream);
+        else
+          scriber.writeUnsignedInteger(new BigInteger(digits), ostream);
+        break;
+      default:
+        scriber.writeNBitUnsigned(intValue, width, ostream);
+        break;
+    }
+  }
+  
+}
@@ -0,0 +1,11 @@
+package org.openexi.proc.io;
+
+import org.openexi.util.XMLResourceBundle;
+
+/**
+ * This class is not intended for public use though it is qualified
+ * as 'public'.
+ */
+public class ScriberRuntimeExceptionXMsg extends XMLResourceBundle {
+
+}
@@ -0,0 +1,586 @@
+package org.openexi.proc.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.openexi.proc.common.EventCode;
+import org.openexi.proc.common.EventType;
+import org.openexi.proc.common.EventTypeList;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.common.QName;
+import org.openexi.proc.grammars.EventCodeTuple;
+import org.openexi.proc.grammars.EventTypeSchema;
+import org.openexi.proc.grammars.Grammar;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.grammars.GrammarState;
+import org.openexi.schema.EXISchema;
+
+/**
+ * SpecializedCodecGenerator generates the Java source of an encoder and
+ * a decoder that are specialized for a schema. It walks the strict grammars
+ * of the schema once, numbering every grammar state it reaches, and writes
+ * out each state's event codes, their widths, the subsequent states and the
+ * value codecs as constants in switch statements. The generated classes
+ * extend {@link SpecializedEncoder} and {@link SpecializedDecoder}.
+ * <br /><br />
+ * Generated classes only support strict grammar options and bitPacked
+ * alignment. Events that fall on wildcards, xsi:type or xsi:nil are not
+ * supported.
+ */
+public final class SpecializedCodecGenerator {
+
+  private static final String[] CODEC_NAMES = {
+    null,
+    "CODEC_BASE64BINARY",
+    "CODEC_HEXBINARY",
+    "CODEC_BOOLEAN",
+    "CODEC_DATETIME",
+    "CODEC_TIME",
+    "CODEC_DATE",
+    "CODEC_GYEARMONTH",
+    "CODEC_GYEAR",
+    "CODEC_GMONTHDAY",
+    "CODEC_GDAY",
+    "CODEC_GMONTH",
+    "CODEC_DECIMAL",
+    "CODEC_DOUBLE",
+    "CODEC_INTEGER",
+    "CODEC_STRING",
+    "CODEC_LIST",
+    "CODEC_ENUMERATION"
+  };
+
+  private final ArrayList<State> m_states;
+
+  /**
+   * Walks the grammars of a grammar cache.
+   * @param grammarCache grammar cache of the schema, which must use strict
+   * grammar options
+   */
+  public SpecializedCodecGenerator(GrammarCache grammarCache) {
+    if (grammarCache.grammarOptions != GrammarOptions.STRICT_OPTIONS)
+      throw new IllegalArgumentException("Specialized codecs only support strict grammar options.");
+    m_states = new ArrayList<State>();
+
+    // The grammars are driven by a scriber that writes nothing.
+    final BitPackedScriber scriber = new BitPackedScriber(false);
+    scriber.setSchema(grammarCache.getEXISchema(), (QName[])null, 0);
+    scriber.setStringTable(Scriber.createStringTable(grammarCache));
+    scriber.reset();
+    final GrammarState state = scriber.currentState;
+    grammarCache.retrieveRootGrammar(false, scriber.eventTypesWorkSpace).init(state);
+
+    final HashMap<StateKey,State> stateMap = new HashMap<StateKey,State>();
+    toState(state, stateMap);
+    for (int i = 0; i < m_states.size(); i++) {
+      final State st = m_states.get(i);
+      st.restore(state);
+      st.width = scriber.getNextEventCodes().width;
+      final EventTypeList eventTypes = scriber.getNextEventTypes();
+      for (int j = 0, len = eventTypes.getLength(); j < len; j++) {
+        final EventType eventType = eventTypes.item(j);
+        if (eventType.depth != EventCode.EVENT_CODE_DEPTH_ONE)
+          continue;
+        final Event event = new Event(eventType);
+        st.restore(state);
+        switch (eventType.itemType) {
+          case EventType.ITEM_SD:
+            scriber.startDocument();
+            event.nextState = toState(state, stateMap);
+            break;
+          case EventType.ITEM_ED:
+          case EventType.ITEM_EE:
+            break;
+          case EventType.ITEM_SE:
+            scriber.startElement(eventType);
+            event.elementState = toState(scriber.currentState, stateMap);
+            event.setType(scriber.currentState.contentDatatype, scriber);
+            scriber.endElement();
+            event.nextState = toState(state, stateMap);
+            break;
+          case EventType.ITEM_SCHEMA_AT:
+            scriber.attribute(eventType);
+            event.setType(((EventTypeSchema)eventType).nd, scriber);
+            event.nextState = toState(state, stateMap);
+            break;
+          case EventType.ITEM_SCHEMA_CH:
+            scriber.characters(eventType);
+            event.nextState = toState(state, stateMap);
+            break;
+          case EventType.ITEM_SCHEMA_CH_MIXED:
+            scriber.undeclaredCharacters(eventType.getIndex());
+            event.nextState = toState(state, stateMap);
+            break;
+          default:
+            // Wildcards are not supported.
+            continue;
+        }
+        st.events.add(event);
+      }
+    }
+  }
+
+  private int toState(GrammarState state, HashMap<StateKey,State> stateMap) {
+    final StateKey key = new StateKey(state);
+    State st;
+    if ((st = stateMap.get(key)) == null) {
+      st = new State(m_states.size(), state);
+      stateMap.put(key, st);
+      m_states.add(st);
+    }
+    return st.id;
+  }
+
+  /**
+   * Returns the number of grammar states that generated classes distinguish.
+   */
+  public int getStatesCount() {
+    return m_states.size();
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Encoder
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Writes out the source of an encoder class.
+   * @param packageName package of the class, or null for the default package
+   * @param className simple name of the class
+   * @param writer writer to which the source is written
+   */
+  public void writeEncoder(String packageName, String className, Writer writer) throws IOException {
+    final PrintWriter out = new PrintWriter(writer);
+    writePreamble(packageName, out);
+    out.println("import org.openexi.proc.io.SpecializedEncoder;");
+    out.println();
+    out.println("public final class " + className + " extends SpecializedEncoder {");
+    out.println();
+    out.println("  public " + className + "(GrammarCache grammarCache) {");
+    out.println("    super(grammarCache);");
+    out.println("  }");
+    out.println();
+
+    int i, len;
+    Event event;
+    out.println("  @Override");
+    out.println("  protected void encodeStartDocument() throws IOException {");
+    event = m_states.get(0).getEvent(EventType.ITEM_SD);
+    writeEventCode(event, "    ", out);
+    out.println("    m_state = " + event.nextState + ";");
+    out.println("  }");
+    out.println();
+
+    out.println("  @Override");
+    out.println("  protected boolean encodeStartElement(String uri, String localName) throws IOException {");
+    out.println("    switch (m_state) {");
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      if (st.getEvent(EventType.ITEM_SE) != null) {
+        out.println("      case " + st.id + ":");
+        out.println("        return startElement" + st.id + "(uri, localName);");
+      }
+    }
+    out.println("      default:");
+    out.println("        return false;");
+    out.println("    }");
+    out.println("  }");
+    out.println();
+
+    out.println("  @Override");
+    out.println("  protected boolean encodeAttribute(String uri, String localName, String value) throws IOException {");
+    out.println("    switch (m_state) {");
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      if (st.getEvent(EventType.ITEM_SCHEMA_AT) != null) {
+        out.println("      case " + st.id + ":");
+        out.println("        return attribute" + st.id + "(uri, localName, value);");
+      }
+    }
+    out.println("      default:");
+    out.println("        return false;");
+    out.println("    }");
+    out.println("  }");
+    out.println();
+
+    out.println("  @Override");
+    out.println("  protected boolean encodeCharacters() throws IOException {");
+    out.println("    switch (m_state) {");
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      if ((event = st.getEvent(EventType.ITEM_SCHEMA_CH)) != null) {
+        out.println("      case " + st.id + ":");
+        out.println("        return scribeCharacters(" + event.code + ", " + event.width + ", " + event.nextState + ");");
+      }
+    }
+    out.println("      default:");
+    out.println("        return false;");
+    out.println("    }");
+    out.println("  }");
+    out.println();
+
+    out.println("  @Override");
+    out.println("  protected boolean encodeMixedCharacters() throws IOException {");
+    out.println("    switch (m_state) {");
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      if ((event = st.getEvent(EventType.ITEM_SCHEMA_CH_MIXED)) != null) {
+        out.println("      case " + st.id + ":");
+        out.println("        return scribeMixedCharacters(" + event.code + ", " + event.width + ", " + event.nextState + ");");
+      }
+    }
+    out.println("      default:");
+    out.println("        return false;");
+    out.println("    }");
+    out.println("  }");
+    out.println();
+
+    out.println("  @Override");
+    out.println("  protected boolean encodeEndElement() throws IOException {");
+    out.println("    switch (m_state) {");
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      if ((event = st.getEvent(EventType.ITEM_EE)) != null) {
+        out.println("      case " + st.id + ":");
+        writeEventCode(event, "        ", out);
+        out.println("        leaveElement();");
+        out.println("        return true;");
+      }
+    }
+    out.println("      default:");
+    out.println("        return false;");
+    out.println("    }");
+    out.println("  }");
+    out.println();
+
+    out.println("  @Override");
+    out.println("  protected boolean encodeEndDocument() throws IOException {");
+    out.println("    switch (m_state) {");
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      if ((event = st.getEvent(EventType.ITEM_ED)) != null) {
+        out.println("      case " + st.id + ":");
+        writeEventCode(event, "        ", out);
+        out.println("        return true;");
+      }
+    }
+    out.println("      default:");
+    out.println("        return false;");
+    out.println("    }");
+    out.println("  }");
+
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      if (st.getEvent(EventType.ITEM_SE) != null) {
+        out.println();
+        out.println("  private boolean startElement" + st.id + "(String uri, String localName) throws IOException {");
+        for (int j = 0; j < st.events.size(); j++) {
+          if ((event = st.events.get(j)).itemType == EventType.ITEM_SE) {
+            out.println("    if (" + quote(event.name) + ".equals(localName) && " + quote(event.uri) + ".equals(uri)) {");
+            writeEventCode(event, "      ", out);
+            out.println("      enterElement(" + event.nextState + ", " + event.elementState + ", " +
+                quote(event.uri) + ", " + quote(event.name) + ", " + event.uriId + ", " + event.nameId + ", " +
+                event.tp + ", " + toCodecName(event.codec) + ");");
+            out.println("      return true;");
+            out.println("    }");
+          }
+        }
+        out.println("    return false;");
+        out.println("  }");
+      }
+    }
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      if (st.getEvent(EventType.ITEM_SCHEMA_AT) != null) {
+        out.println();
+        out.println("  private boolean attribute" + st.id + "(String uri, String localName, String value) throws IOException {");
+        for (int j = 0; j < st.events.size(); j++) {
+          if ((event = st.events.get(j)).itemType == EventType.ITEM_SCHEMA_AT) {
+            out.println("    if (" + quote(event.name) + ".equals(localName) && " + quote(event.uri) + ".equals(uri))");
+            out.println("      return scribeAttribute(" + event.code + ", " + event.width + ", " + event.nextState + ", " +
+                event.uriId + ", " + event.nameId + ", " + event.tp + ", " + toCodecName(event.codec) + ", value);");
+          }
+        }
+        out.println("    return false;");
+        out.println("  }");
+      }
+    }
+    out.println();
+    out.println("}");
+    out.flush();
+  }
+
+  private static void writeEventCode(Event event, String indent, PrintWriter out) {
+    if (event.width != 0)
+      out.println(indent + "writeEventCode(" + event.code + ", " + event.width + ");");
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Decoder
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Writes out the source of a decoder class.
+   * @param packageName package of the class, or null for the default package
+   * @param className simple name of the class
+   * @param writer writer to which the source is written
+   */
+  public void writeDecoder(String packageName, String className, Writer writer) throws IOException {
+    final PrintWriter out = new PrintWriter(writer);
+    writePreamble(packageName, out);
+    out.println("import org.openexi.proc.common.EventDescription;");
+    out.println("import org.openexi.proc.io.SpecializedDecoder;");
+    out.println();
+    out.println("public final class " + className + " extends SpecializedDecoder {");
+    out.println();
+    out.println("  public " + className + "(GrammarCache grammarCache) {");
+    out.println("    super(grammarCache);");
+    out.println("  }");
+    out.println();
+
+    int i, len;
+    out.println("  @Override");
+    out.println("  protected EventDescription decodeEvent() throws IOException {");
+    out.println("    switch (m_state) {");
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      out.println("      case " + st.id + ":");
+      if (st.width == 0 && st.events.size() == 1)
+        out.println("        return " + toDecoderCall(st.events.get(0)) + ";");
+      else
+        out.println("        return decode" + st.id + "();");
+    }
+    out.println("      default:");
+    out.println("        throw new IllegalStateException();");
+    out.println("    }");
+    out.println("  }");
+
+    for (i = 0, len = m_states.size(); i < len; i++) {
+      final State st = m_states.get(i);
+      if (st.width == 0 && st.events.size() == 1)
+        continue;
+      out.println();
+      out.println("  private EventDescription decode" + st.id + "() throws IOException {");
+      out.println("    final int code;");
+      out.println("    switch (code = " + (st.width != 0 ? "readEventCode(" + st.width + ")" : "0") + ") {");
+      for (int j = 0; j < st.events.size(); j++) {
+        final Event event = st.events.get(j);
+        out.println("      case " + event.code + ":");
+        out.println("        return " + toDecoderCall(event) + ";");
+      }
+      out.println("      default:");
+      out.println("        throw unsupportedEventCode(code);");
+      out.println("    }");
+      out.println("  }");
+    }
+    out.println();
+    out.println("}");
+    out.flush();
+  }
+
+  private static String toDecoderCall(Event event) {
+    switch (event.itemType) {
+      case EventType.ITEM_SD:
+        return "startDocument(" + event.nextState + ")";
+      case EventType.ITEM_ED:
+        return "endDocument()";
+      case EventType.ITEM_SE:
+        return "startElement(" + event.nextState + ", " + event.elementState + ", " + quote(event.uri) + ", " +
+            quote(event.name) + ", " + event.uriId + ", " + event.nameId + ", " + event.tp + ", " +
+            toCodecName(event.codec) + ")";
+      case EventType.ITEM_SCHEMA_AT:
+        return "attribute(" + event.nextState + ", " + quote(event.uri) + ", " + quote(event.name) + ", " +
+            event.uriId + ", " + event.nameId + ", " + event.tp + ", " + toCodecName(event.codec) + ")";
+      case EventType.ITEM_SCHEMA_CH:
+        return "characters(" + event.nextState + ")";
+      case EventType.ITEM_SCHEMA_CH_MIXED:
+        return "mixedCharacters(" + event.nextState + ")";
+      case EventType.ITEM_EE:
+        return "endElement()";
+      default:
+        assert false;
+        return null;
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private static void writePreamble(String packageName, PrintWriter out) {
+    out.println("// Generated by " + SpecializedCodecGenerator.class.getName() + ". Do not edit.");
+    if (packageName != null && packageName.length() != 0) {
+      out.println("package " + packageName + ";");
+    }
+    out.println();
+    out.println("import java.io.IOException;");
+    out.println();
+    out.println("import org.openexi.proc.grammars.Apparatus;");
+    out.println("import org.openexi.proc.grammars.GrammarCache;");
+  }
+
+  private static String toCodecName(short codec) {
+    return "Apparatus." + CODEC_NAMES[codec];
+  }
+
+  private static String quote(String str) {
+    final StringBuilder stringBuilder = new StringBuilder(str.length() + 2);
+    stringBuilder.append('"');
+    for (int i = 0, len = str.length(); i < len; i++) {
+      final char c = str.charAt(i);
+      if (c == '"' || c == '\\')
+        stringBuilder.append('\\').append(c);
+      else if (c < 0x20 || c > 0x7e) {
+        final String hex = Integer.toHexString(c);
+        stringBuilder.append("\\u");
+        for (int j = hex.length(); j < 4; j++)
+          stringBuilder.append('0');
+        stringBuilder.append(hex);
+      }
+      else
+        stringBuilder.append(c);
+    }
+    return stringBuilder.append('"').toString();
+  }
+
+  /**
+   * Grammars of the document are distinguished by their phases as well.
+   */
+  private static final class StateKey {
+    private final Grammar m_grammar;
+    private final byte m_phase;
+    StateKey(GrammarState state) {
+      m_grammar = state.targetGrammar;
+      m_phase = m_grammar.grammarType == Grammar.SCHEMA_GRAMMAR_DOCUMENT ? state.phase : 0;
+    }
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(m_grammar) + m_phase;
+    }
+    @Override
+    public boolean equals(Object obj) {
+      final StateKey key = (StateKey)obj;
+      return m_grammar == key.m_grammar && m_phase == key.m_phase;
+    }
+  }
+
+  private static final class State {
+    final int id;
+    private final Grammar m_grammar;
+    private final byte m_phase;
+    private final int m_contentDatatype;
+    int width;
+    final ArrayList<Event> events;
+    State(int id, GrammarState state) {
+      this.id = id;
+      m_grammar = state.targetGrammar;
+      m_phase = state.phase;
+      m_contentDatatype = state.contentDatatype;
+      events = new ArrayList<Event>();
+    }
+    void restore(GrammarState state) {
+      state.targetGrammar = m_grammar;
+      state.phase = m_phase;
+      state.contentDatatype = m_contentDatatype;
+    }
+    Event getEvent(byte itemType) {
+      for (int i = 0; i < events.size(); i++) {
+        final Event event = events.get(i);
+        if (event.itemType == itemType)
+          return event;
+      }
+      return null;
+    }
+  }
+
+  private static final class Event {
+    final byte itemType;
+    final int code;
+    final int width;
+    final String uri;
+    final String name;
+    final int uriId;
+    final int nameId;
+    int nextState;
+    int elementState;
+    int tp;
+    short codec;
+    Event(EventType eventType) {
+      itemType = eventType.itemType;
+      final EventCode item = eventType.getItemPath()[0];
+      final EventCodeTuple tuple = (EventCodeTuple)item.parent;
+      code = tuple.reversed ? tuple.itemsCount - 1 - item.position : item.position;
+      width = tuple.width;
+      uri = eventType.uri;
+      name = eventType.name;
+      uriId = eventType.getURIId();
+      nameId = eventType.getNameId();
+      nextState = -1;
+      elementState = -1;
+      tp = EXISchema.NIL_NODE;
+      codec = Scriber.CODEC_STRING;
+    }
+    void setType(int tp, Scriber scriber) {
+      if ((this.tp = tp) != EXISchema.NIL_NODE)
+        codec = scriber.getValueScriber(tp).getCodecID();
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Command line
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Generates an encoder and a decoder for a compiled schema.
+   * Not for public use.
+   * @y.exclude
+   */
+  public static void main(String args[])
+      throws IOException, ClassNotFoundException {
+
+    if (args.length < 3) {
+      System.err.println("USAGE: " + SpecializedCodecGenerator.class.getName() +
+                         " <Compiled Schema File> <Package> <Class Name Prefix> [Output Directory]");
+      System.exit(1);
+      return;
+    }
+
+    final EXISchema schema = EXISchema.readIn(new File(args[0]));
+    final SpecializedCodecGenerator generator = new SpecializedCodecGenerator(
+        new GrammarCache(schema, GrammarOptions.STRICT_OPTIONS));
+
+    final String packageName = args[1];
+    File directory = new File(args.length > 3 ? args[3] : System.getProperty("user.dir"));
+    if (packageName.length() != 0)
+      directory = new File(directory, packageName.replace('.', File.separatorChar));
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      System.err.println("Directory '" + directory + "' could not be created.");
+      System.exit(1);
+      return;
+    }
+
+    final String encoderName = args[2] + "Encoder";
+    final String decoderName = args[2] + "Decoder";
+    Writer writer;
+    writer = new OutputStreamWriter(new FileOutputStream(new File(directory, encoderName + ".java")), "UTF-8");
+    try {
+      generator.writeEncoder(packageName, encoderName, writer);
+    }
+    finally {
+      writer.close();
+    }
+    writer = new OutputStreamWriter(new FileOutputStream(new File(directory, decoderName + ".java")), "UTF-8");
+    try {
+      generator.writeDecoder(packageName, decoderName, writer);
+    }
+    finally {
+      writer.close();
+    }
+  }
+
+}
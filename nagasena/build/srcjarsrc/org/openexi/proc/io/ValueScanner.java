@@ -0,0 +1,39 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.openexi.proc.grammars.ValueApparatus;
+import org.openexi.schema.Characters;
+
+public abstract class ValueScanner extends ValueApparatus {
+  
+  protected InputStream m_istream;
+
+  protected ValueScanner() {
+    m_istream = null;
+  }
+  
+  public abstract int getBuiltinRCS(int simpleType);
+  
+  public abstract void setInputStream(InputStream istream);
+  
+  public abstract Characters scan(int name, int uri, int tp) throws IOException;
+
+  /**
+   * Reads a value into the typed value of an event. Value scanners that
+   * do not override this method give the value as characters.
+   */
+  void scanTyped(int name, int uri, int tp, EXIEventTypedValue typedValue) throws IOException {
+    typedValue.setCharacters(scan(name, uri, tp));
+  }
+
+  /**
+   * Renders the characters of a typed value read by scanTyped.
+   */
+  Characters toCharacters(EXIEventTypedValue typedValue) {
+    assert false;
+    return null;
+  }
+
+}
@@ -0,0 +1,81 @@
+package org.openexi.proc.io.compression;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Deflater;
+
+/**
+ * DeflaterPool keeps the Deflaters of one level and strategy that workers
+ * take to deflate a block and give back afterwards. Ending the pool ends
+ * the Deflaters in it, as well as those given back later by workers that
+ * were still running at that time.
+ */
+final class DeflaterPool {
+
+  private final int m_level;
+  private final int m_strategy;
+  private final ConcurrentLinkedQueue<Deflater> m_deflaters;
+  private volatile boolean m_ended;
+
+  DeflaterPool(int level, int strategy) {
+    m_level = level;
+    m_strategy = strategy;
+    m_deflaters = new ConcurrentLinkedQueue<Deflater>();
+    m_ended = false;
+  }
+
+  int getLevel() {
+    return m_level;
+  }
+
+  int getStrategy() {
+    return m_strategy;
+  }
+
+  /**
+   * Takes a Deflater out of the pool, or creates one if there is none.
+   */
+  Deflater take() {
+    Deflater deflater;
+    if ((deflater = m_deflaters.poll()) == null) {
+      deflater = new Deflater(m_level, true);
+      deflater.setStrategy(m_strategy);
+    }
+    return deflater;
+  }
+
+  /**
+   * Gives back a Deflater that has been reset.
+   */
+  void give(Deflater deflater) {
+    m_deflaters.add(deflater);
+    // end() may have emptied the pool before the Deflater was added.
+    if (m_ended)
+      endIdle();
+  }
+
+  /**
+   * Ends the Deflaters in the pool and those given back from now on.
+   */
+  void end() {
+    m_ended = true;
+    endIdle();
+  }
+
+  boolean isEnded() {
+    return m_ended;
+  }
+
+  /**
+   * Returns the number of Deflaters in the pool.
+   */
+  int getIdleCount() {
+    return m_deflaters.size();
+  }
+
+  private void endIdle() {
+    Deflater deflater;
+    while ((deflater = m_deflaters.poll()) != null)
+      deflater.end();
+  }
+
+}
@@ -0,0 +1,116 @@
+package org.openexi.proc.io.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.zip.Deflater;
+
+import org.openexi.proc.common.MetricsListener;
+
+final class EXIDeflaterOutputStream extends OutputStream {
+  
+  private final OutputStream m_outputStream;
+
+  private final Deflater m_deflater;
+  
+  private final byte[] m_bytesIn;
+  private int m_n_bytesIn;
+  
+  private final byte[] m_bytesOut;
+  
+  private final MetricsListener m_metrics;
+  // Time spent deflating the current compressed stream, measured only for m_metrics.
+  private long m_nanos;
+  // Totals of the compressed streams of the current block, kept only for m_metrics.
+  private long m_blockBytesIn;
+  private long m_blockBytesOut;
+  private long m_blockNanos;
+  
+  public EXIDeflaterOutputStream(OutputStream outputStream, Deflater deflater, MetricsListener metrics) {
+    m_outputStream = outputStream;
+    deflater.reset();
+    m_deflater = deflater; 
+    m_metrics = metrics;
+    m_nanos = 0;
+    m_blockBytesIn = m_blockBytesOut = m_blockNanos = 0;
+    
+    m_bytesIn  = new byte[65536];
+    m_n_bytesIn = 0;    
+    m_bytesOut = new byte[8192];
+  }
+
+  @Override
+  public void flush() throws IOException {
+    flushInput();
+    m_outputStream.flush();
+  }
+  
+  @Override
+  public void close() throws IOException {
+    m_outputStream.close();
+  }
+  
+  @Override
+  public void write(int bt) throws IOException {
+    m_bytesIn[m_n_bytesIn] = (byte)bt;
+    if (++m_n_bytesIn == m_bytesIn.length) {
+      flushInput();
+    }
+  }
+  
+  private void flushInput() throws IOException {
+    final long startTime = m_metrics != null ? System.nanoTime() : 0;
+    final long initialBytesRead = m_deflater.getBytesRead();
+    m_deflater.setInput(m_bytesIn, 0, m_n_bytesIn);
+    int n_bytesOut;
+    do {
+      if ((n_bytesOut = m_deflater.deflate(m_bytesOut)) != 0) { 
+        m_outputStream.write(m_bytesOut, 0, n_bytesOut);
+      }
+      else
+        break;
+    }
+    while (true);
+    final int bytesRead = (int)(m_deflater.getBytesRead() - initialBytesRead);
+    if (bytesRead == m_n_bytesIn)
+      m_n_bytesIn = 0;
+    else if (bytesRead != 0) {
+      m_n_bytesIn -= bytesRead;
+      System.arraycopy(m_bytesIn, bytesRead, m_bytesIn, 0, m_n_bytesIn);
+    }
+    if (m_metrics != null)
+      m_nanos += System.nanoTime() - startTime;
+  }
+
+  void resetDeflater() throws IOException {
+    if (m_n_bytesIn != 0)
+      flushInput();
+    final long startTime = m_metrics != null ? System.nanoTime() : 0;
+    m_deflater.setInput(m_bytesIn, 0, m_n_bytesIn);
+    m_deflater.finish();
+    while (!m_deflater.finished()) {
+      int len = m_deflater.deflate(m_bytesOut);
+      m_outputStream.write(m_bytesOut, 0, len);
+    }
+    if (m_metrics != null) {
+      m_nanos += System.nanoTime() - startTime;
+      m_metrics.deflated(m_deflater.getBytesRead(), m_deflater.getBytesWritten(), m_nanos);
+      m_blockBytesIn += m_deflater.getBytesRead();
+      m_blockBytesOut += m_deflater.getBytesWritten();
+      m_blockNanos += m_nanos;
+      m_nanos = 0;
+    }
+    m_deflater.reset();
+  }
+
+  /**
+   * Notifies the totals of the compressed streams of the current block.
+   */
+  void finishBlock() {
+    if (m_metrics != null) {
+      m_metrics.blockDeflated(m_blockBytesIn, m_blockBytesOut, m_blockNanos);
+      m_blockBytesIn = m_blockBytesOut = m_blockNanos = 0;
+    }
+  }
+  
+}
@@ -0,0 +1,238 @@
+package org.openexi.proc.io.compression;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.zip.Deflater;
+
+import org.openexi.proc.common.MetricsListener;
+
+/**
+ * EXIDeflaterOutputStreamParallel collects the bytes of each block, and
+ * hands the block to an executor once it is complete. The compressed
+ * streams of a block are deflated by a worker with its own Deflater, and
+ * are written to the underlying output stream in the order of the blocks.
+ * Each call to resetDeflater delimits a compressed stream, in the same way
+ * as {@link EXIDeflaterOutputStream#resetDeflater()} does.
+ * <br /><br />
+ * The Deflaters of the workers come from a DeflaterPool that belongs to
+ * the stream. The pool is ended when it is replaced, when the stream is
+ * finished or closed, and by endDeflaters() when the stream is abandoned.
+ */
+final class EXIDeflaterOutputStreamParallel extends OutputStream {
+
+  private final OutputStream m_outputStream;
+
+  private final Executor m_executor;
+  private final int m_maxPendingBlocks;
+
+  private DeflaterPool m_deflaterPool;
+
+  private byte[] m_bytesIn;
+  private int m_n_bytesIn;
+
+  private ArrayList<Segment> m_segments;
+
+  private final LinkedList<FutureTask<Segment>> m_pendingBlocks;
+
+  private final MetricsListener m_metrics;
+
+  EXIDeflaterOutputStreamParallel(OutputStream outputStream, Executor executor,
+      DeflaterPool deflaterPool, MetricsListener metrics) {
+    m_outputStream = outputStream;
+    m_executor = executor;
+    m_maxPendingBlocks = 2 * Runtime.getRuntime().availableProcessors();
+    m_deflaterPool = deflaterPool;
+    m_bytesIn = new byte[8192];
+    m_n_bytesIn = 0;
+    m_segments = new ArrayList<Segment>();
+    m_pendingBlocks = new LinkedList<FutureTask<Segment>>();
+    m_metrics = metrics;
+  }
+
+  DeflaterPool getDeflaterPool() {
+    return m_deflaterPool;
+  }
+
+  /**
+   * Blocks completed from now on are deflated with Deflaters of the pool.
+   * The previous pool is ended. Its Deflaters that are in use by blocks in
+   * progress are ended as they are given back.
+   */
+  void setDeflaterPool(DeflaterPool deflaterPool) {
+    if (m_deflaterPool != deflaterPool) {
+      m_deflaterPool.end();
+      m_deflaterPool = deflaterPool;
+    }
+  }
+
+  @Override
+  public void write(int bt) throws IOException {
+    if (m_n_bytesIn == m_bytesIn.length)
+      ensureCapacity(1);
+    m_bytesIn[m_n_bytesIn++] = (byte)bt;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (m_bytesIn.length - m_n_bytesIn < len)
+      ensureCapacity(len);
+    System.arraycopy(b, off, m_bytesIn, m_n_bytesIn, len);
+    m_n_bytesIn += len;
+  }
+
+  private void ensureCapacity(int len) {
+    int capacity = m_bytesIn.length << 1;
+    while (capacity - m_n_bytesIn < len)
+      capacity <<= 1;
+    final byte[] bytesIn = new byte[capacity];
+    System.arraycopy(m_bytesIn, 0, bytesIn, 0, m_n_bytesIn);
+    m_bytesIn = bytesIn;
+  }
+
+  /**
+   * Ends the current compressed stream.
+   */
+  void resetDeflater() {
+    m_segments.add(new Segment(m_bytesIn, m_n_bytesIn));
+    m_bytesIn = new byte[8192];
+    m_n_bytesIn = 0;
+  }
+
+  /**
+   * Hands the compressed streams of the current block to the executor,
+   * and writes out those of preceding blocks that are done.
+   */
+  void finishBlock() throws IOException {
+    if (m_segments.size() != 0) {
+      final FutureTask<Segment> block = new FutureTask<Segment>(
+          new BlockDeflater(m_segments, m_deflaterPool, m_metrics != null));
+      m_segments = new ArrayList<Segment>();
+      m_pendingBlocks.addLast(block);
+      m_executor.execute(block);
+    }
+    while (m_pendingBlocks.size() != 0) {
+      if (!m_pendingBlocks.getFirst().isDone() && m_pendingBlocks.size() <= m_maxPendingBlocks)
+        break;
+      writeBlock(m_pendingBlocks.removeFirst());
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    finishBlock();
+    while (m_pendingBlocks.size() != 0)
+      writeBlock(m_pendingBlocks.removeFirst());
+    m_outputStream.flush();
+  }
+
+  /**
+   * Writes out all the blocks, then ends the Deflaters.
+   */
+  void finish() throws IOException {
+    flush();
+    m_deflaterPool.end();
+  }
+
+  /**
+   * Ends the Deflaters of a stream that is not going to be finished.
+   * Those in use by blocks in progress are ended as they are given back.
+   */
+  void endDeflaters() {
+    m_deflaterPool.end();
+  }
+
+  @Override
+  public void close() throws IOException {
+    m_deflaterPool.end();
+    m_outputStream.close();
+  }
+
+  private void writeBlock(FutureTask<Segment> block) throws IOException {
+    final Segment deflated;
+    try {
+      deflated = block.get();
+    }
+    catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(ie.getMessage());
+    }
+    catch (ExecutionException ee) {
+      final IOException ioe = new IOException(ee.getCause().getMessage());
+      ioe.initCause(ee.getCause());
+      throw ioe;
+    }
+    m_outputStream.write(deflated.bytes, 0, deflated.length);
+    if (m_metrics != null) {
+      m_metrics.deflated(deflated.n_bytesIn, deflated.length, deflated.nanos);
+      m_metrics.blockDeflated(deflated.n_bytesIn, deflated.length, deflated.nanos);
+    }
+  }
+
+  private static final class Segment {
+    final byte[] bytes;
+    final int length;
+    // Set for the result of BlockDeflater.
+    int n_bytesIn;
+    long nanos;
+    Segment(byte[] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+  }
+
+  /**
+   * BlockDeflater deflates each segment of a block into a separate
+   * compressed stream, using a Deflater taken from the pool.
+   */
+  private static final class BlockDeflater implements Callable<Segment> {
+
+    private final ArrayList<Segment> m_segments;
+    private final DeflaterPool m_deflaterPool;
+    private final boolean m_timed;
+
+    BlockDeflater(ArrayList<Segment> segments, DeflaterPool deflaterPool, boolean timed) {
+      m_segments = segments;
+      m_deflaterPool = deflaterPool;
+      m_timed = timed;
+    }
+
+    public Segment call() {
+      final long startTime = m_timed ? System.nanoTime() : 0;
+      final Deflater deflater = m_deflaterPool.take();
+      int n_bytesIn = 0;
+      final int n_segments = m_segments.size();
+      for (int i = 0; i < n_segments; i++)
+        n_bytesIn += m_segments.get(i).length;
+      byte[] bytesOut = new byte[(n_bytesIn >>> 1) + 64];
+      int n_bytesOut = 0;
+      for (int i = 0; i < n_segments; i++) {
+        final Segment segment = m_segments.get(i);
+        deflater.setInput(segment.bytes, 0, segment.length);
+        deflater.finish();
+        while (!deflater.finished()) {
+          if (n_bytesOut == bytesOut.length) {
+            final byte[] _bytesOut = new byte[bytesOut.length << 1];
+            System.arraycopy(bytesOut, 0, _bytesOut, 0, n_bytesOut);
+            bytesOut = _bytesOut;
+          }
+          n_bytesOut += deflater.deflate(bytesOut, n_bytesOut, bytesOut.length - n_bytesOut);
+        }
+        deflater.reset();
+      }
+      m_deflaterPool.give(deflater);
+      final Segment deflated = new Segment(bytesOut, n_bytesOut);
+      deflated.n_bytesIn = n_bytesIn;
+      if (m_timed)
+        deflated.nanos = System.nanoTime() - startTime;
+      return deflated;
+    }
+  }
+
+}
@@ -0,0 +1,112 @@
+package org.openexi.proc.io.compression;
+
+import java.io.InputStream;
+import java.io.IOException;
+import java.util.zip.Inflater;
+import java.util.zip.DataFormatException;
+
+import org.openexi.proc.common.MetricsListener;
+
+final class EXIInflaterInputStream extends InputStream {
+
+  private final InputStream m_inputStream;
+  
+  private final Inflater m_inflater;
+
+  private final byte[] outputBuffer;
+  private int outputOffset;
+  private int outputLimit;
+
+  private final byte[] inputBuffer;
+  private int inputLength;
+  
+  private final MetricsListener m_metrics;
+  // Time spent inflating the current compressed stream, measured only for m_metrics.
+  private long m_nanos;
+  // Totals of the compressed streams of the current block, kept only for m_metrics.
+  private long m_blockBytesIn;
+  private long m_blockBytesOut;
+  private long m_blockNanos;
+  
+  public EXIInflaterInputStream(InputStream inputStream, Inflater inflater, int bufSize, MetricsListener metrics) {
+    m_inputStream = inputStream;
+    m_inflater = inflater;
+    m_metrics = metrics;
+    m_nanos = 0;
+    m_blockBytesIn = m_blockBytesOut = m_blockNanos = 0;
+    inputBuffer = new byte[bufSize];
+    inputLength = 0;
+    outputBuffer = new byte[bufSize];
+    outputOffset = outputLimit = 0;
+  }
+  
+  @Override
+  public int read() throws IOException {
+    while (outputOffset == outputLimit && !m_inflater.finished()) {
+      outputOffset = 0;
+      try {
+        final int remain;
+        m_inflater.setInput(inputBuffer, 0, inputLength);
+        if (m_metrics != null) {
+          final long startTime = System.nanoTime();
+          outputLimit = m_inflater.inflate(outputBuffer);
+          m_nanos += System.nanoTime() - startTime;
+        }
+        else
+          outputLimit = m_inflater.inflate(outputBuffer);
+        if ((remain = m_inflater.getRemaining()) != 0 && remain != inputLength) {
+          final int inputOffset;
+          inputOffset = inputLength - remain;
+          inputLength = remain;
+          int i, pos;
+          for (i = 0, pos = inputOffset; i < inputLength; i++, pos++) {
+            inputBuffer[i] = inputBuffer[pos];
+          }
+        }
+        else { // remain == 0 || remain == inputLength
+          if (outputLimit == 0 && remain == 0) {
+            assert !m_inflater.finished();
+            if ((inputLength = m_inputStream.read(inputBuffer, 0, inputBuffer.length)) < 0) {
+              inputLength = 0;
+              return -1;
+            }
+          }
+          else
+            inputLength = remain;
+        }
+      }
+      catch (DataFormatException dfe) {
+        throw new IOException(dfe.getMessage());
+      }
+    }
+    return outputOffset != outputLimit ? outputBuffer[outputOffset++] & 0x00ff : -1;
+  }
+  
+  void resetInflator() throws IOException {
+    for (int bt = 0; !m_inflater.finished() && bt != -1;) {
+      bt = read();
+    }
+    if (m_metrics != null) {
+      m_metrics.inflated(m_inflater.getBytesRead(), m_inflater.getBytesWritten(), m_nanos);
+      m_blockBytesIn += m_inflater.getBytesRead();
+      m_blockBytesOut += m_inflater.getBytesWritten();
+      m_blockNanos += m_nanos;
+      m_nanos = 0;
+    }
+    m_inflater.reset();
+  }
+
+  /**
+   * Notifies the totals of the compressed streams of the current block.
+   */
+  void finishBlock() {
+    if (m_metrics != null) {
+      m_metrics.blockInflated(m_blockBytesIn, m_blockBytesOut, m_blockNanos);
+      m_blockBytesIn = m_blockBytesOut = m_blockNanos = 0;
+    }
+  }
+
+  void end() {
+  }
+
+}
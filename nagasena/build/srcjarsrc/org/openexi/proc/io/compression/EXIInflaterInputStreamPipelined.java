@@ -0,0 +1,284 @@
+package org.openexi.proc.io.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.openexi.proc.common.MetricsListener;
+
+/**
+ * EXIInflaterInputStreamPipelined inflates the compressed streams that
+ * follow the one being read ahead of time using an executor, so that
+ * the scanner can decode a block while the blocks after it are inflated.
+ * Each compressed stream is inflated as a whole into a segment, and the
+ * segments are read in the order of the compressed streams. A call to
+ * resetInflator moves to the next segment, in the same way as
+ * {@link EXIInflaterInputStream#resetInflator()} moves to the next
+ * compressed stream.
+ * <br /><br />
+ * Where a compressed stream ends is only known after it has been inflated,
+ * therefore the compressed streams are inflated one after another by a
+ * single task at a time, which reschedules itself until the number of
+ * segments inflated ahead reaches the limit.
+ * <br /><br />
+ * The Inflater is ended once the last compressed stream has been inflated, 
+ * or when the stream is closed. It is ended by the task if one is running 
+ * at that time, otherwise by close().
+ */
+final class EXIInflaterInputStreamPipelined extends InputStream {
+
+  private static final Segment END = new Segment(new byte[0], 0, null);
+
+  private final InputStream m_inputStream;
+  private final Inflater m_inflater;
+  private final Executor m_executor;
+  private final int m_maxSegmentsAhead;
+
+  private final byte[] m_inputBuffer;
+  private int m_inputOffset;
+  private int m_inputLimit;
+
+  private final SegmentInflater m_segmentInflater;
+
+  // Guarded by m_segments.
+  private final LinkedList<Segment> m_segments;
+  private boolean m_inflating;
+  private boolean m_done;
+  private boolean m_closed;
+
+  private Segment m_segment;
+  private int m_position;
+
+  private final MetricsListener m_metrics;
+  // Totals of the segments of the current block, kept only for m_metrics.
+  private long m_blockBytesIn;
+  private long m_blockBytesOut;
+  private long m_blockNanos;
+
+  EXIInflaterInputStreamPipelined(InputStream inputStream, int bufSize,
+      Executor executor, int maxSegmentsAhead, MetricsListener metrics) {
+    m_inputStream = inputStream;
+    // Not shared with the scanner, since a task of this stream may still be
+    // running after the scanner has moved on to another stream.
+    m_inflater = new Inflater(true);
+    m_executor = executor;
+    m_maxSegmentsAhead = maxSegmentsAhead;
+    m_inputBuffer = new byte[bufSize];
+    m_inputOffset = m_inputLimit = 0;
+    m_segmentInflater = new SegmentInflater();
+    m_segments = new LinkedList<Segment>();
+    m_inflating = true;
+    m_done = false;
+    m_closed = false;
+    m_segment = null;
+    m_position = 0;
+    m_metrics = metrics;
+    m_blockBytesIn = m_blockBytesOut = m_blockNanos = 0;
+    m_executor.execute(m_segmentInflater);
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (m_segment == null) {
+      m_segment = takeSegment();
+      m_position = 0;
+    }
+    return m_position != m_segment.length ? m_segment.bytes[m_position++] & 0x00ff : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (m_segment == null) {
+      m_segment = takeSegment();
+      m_position = 0;
+    }
+    final int n_bytes;
+    if ((n_bytes = Math.min(len, m_segment.length - m_position)) == 0)
+      return len == 0 ? 0 : -1;
+    System.arraycopy(m_segment.bytes, m_position, b, off, n_bytes);
+    m_position += n_bytes;
+    return n_bytes;
+  }
+
+  /**
+   * Skips the rest of the current compressed stream.
+   */
+  void resetInflator() throws IOException {
+    if (m_segment == null)
+      takeSegment();
+    else if (m_segment != END)
+      m_segment = null;
+  }
+
+  /**
+   * Notifies the totals of the segments of the current block, which were
+   * inflated by the executor.
+   */
+  void finishBlock() {
+    if (m_metrics != null) {
+      m_metrics.blockInflated(m_blockBytesIn, m_blockBytesOut, m_blockNanos);
+      m_blockBytesIn = m_blockBytesOut = m_blockNanos = 0;
+    }
+  }
+
+  /**
+   * Drops the segments inflated ahead and ends the Inflater, so that a 
+   * stream abandoned before its end does not hold on to either.
+   */
+  @Override
+  public void close() throws IOException {
+    final boolean idle;
+    synchronized (m_segments) {
+      m_closed = true;
+      m_segments.clear();
+      idle = !m_inflating;
+    }
+    m_segment = null;
+    if (idle)
+      m_inflater.end();
+    m_inputStream.close();
+  }
+
+  private Segment takeSegment() throws IOException {
+    final Segment segment;
+    boolean resume = false;
+    synchronized (m_segments) {
+      try {
+        while (m_segments.size() == 0) {
+          if (m_closed)
+            throw new IOException("The stream has been closed.");
+          m_segments.wait();
+        }
+      }
+      catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(ie.getMessage());
+      }
+      // END and failures stay in place for subsequent reads.
+      if ((segment = m_segments.getFirst()) != END && segment.exception == null)
+        m_segments.removeFirst();
+      if (!m_inflating && !m_done) {
+        m_inflating = resume = true;
+      }
+    }
+    if (resume)
+      m_executor.execute(m_segmentInflater);
+    if (segment.exception != null) {
+      final IOException ioe = new IOException(segment.exception.getMessage());
+      ioe.initCause(segment.exception);
+      throw ioe;
+    }
+    if (m_metrics != null) {
+      m_blockBytesIn += segment.n_bytesIn;
+      m_blockBytesOut += segment.length;
+      m_blockNanos += segment.nanos;
+    }
+    return segment;
+  }
+
+  /**
+   * Inflates the next compressed stream as a whole. Returns null when
+   * the input stream has no more bytes.
+   */
+  private Segment inflateSegment() throws IOException, DataFormatException {
+    final long startTime = m_metrics != null ? System.nanoTime() : 0;
+    byte[] bytes = new byte[m_inputBuffer.length];
+    int n_bytes = 0;
+    if (m_inputOffset != m_inputLimit)
+      m_inflater.setInput(m_inputBuffer, m_inputOffset, m_inputLimit - m_inputOffset);
+    boolean started = m_inputOffset != m_inputLimit;
+    while (!m_inflater.finished()) {
+      if (m_inflater.needsInput()) {
+        if ((m_inputLimit = m_inputStream.read(m_inputBuffer, 0, m_inputBuffer.length)) < 0) {
+          m_inputOffset = m_inputLimit = 0;
+          return started ? new Segment(bytes, n_bytes, null) : null;
+        }
+        m_inputOffset = 0;
+        m_inflater.setInput(m_inputBuffer, 0, m_inputLimit);
+        started = true;
+      }
+      if (n_bytes == bytes.length) {
+        final byte[] _bytes = new byte[bytes.length << 1];
+        System.arraycopy(bytes, 0, _bytes, 0, n_bytes);
+        bytes = _bytes;
+      }
+      n_bytes += m_inflater.inflate(bytes, n_bytes, bytes.length - n_bytes);
+    }
+    m_inputOffset = m_inputLimit - m_inflater.getRemaining();
+    final Segment segment = new Segment(bytes, n_bytes, null);
+    if (m_metrics != null) {
+      segment.n_bytesIn = m_inflater.getBytesRead();
+      segment.nanos = System.nanoTime() - startTime;
+    }
+    m_inflater.reset();
+    return segment;
+  }
+
+  private static final class Segment {
+    final byte[] bytes;
+    final int length;
+    final Exception exception;
+    // Set for m_metrics.
+    long n_bytesIn;
+    long nanos;
+    Segment(byte[] bytes, int length, Exception exception) {
+      this.bytes = bytes;
+      this.length = length;
+      this.exception = exception;
+    }
+  }
+
+  /**
+   * SegmentInflater inflates compressed streams one after another until
+   * the number of segments not yet read reaches the limit. It is scheduled
+   * again by the reader once a segment has been taken.
+   */
+  private final class SegmentInflater implements Runnable {
+    public void run() {
+      boolean more = true;
+      while (more) {
+        synchronized (m_segments) {
+          if (m_closed) {
+            m_inflating = false;
+            break;
+          }
+        }
+        Segment segment;
+        boolean done = false;
+        try {
+          if ((segment = inflateSegment()) == null) {
+            segment = END;
+            done = true;
+          }
+        }
+        catch (Exception e) {
+          segment = new Segment(null, 0, e);
+          done = true;
+        }
+        if (done)
+          m_inflater.end();
+        synchronized (m_segments) {
+          if (m_closed) {
+            m_inflating = false;
+            break;
+          }
+          m_segments.addLast(segment);
+          if (done)
+            m_done = true;
+          if (done || m_segments.size() >= m_maxSegmentsAhead)
+            more = m_inflating = false;
+          m_segments.notifyAll();
+        }
+      }
+      if (!more)
+        return;
+      // The stream was closed while the task was running.
+      m_inflater.end();
+    }
+  }
+
+}
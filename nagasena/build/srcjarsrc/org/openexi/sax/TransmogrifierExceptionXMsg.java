@@ -0,0 +1,10 @@
+package org.openexi.sax;
+
+import org.openexi.util.XMLResourceBundle;
+
+/**
+ * This class is not intended for public use though it is qualified
+ * as 'public'.
+ */
+public final class TransmogrifierExceptionXMsg extends XMLResourceBundle {
+}
@@ -0,0 +1,18 @@
+package org.openexi.schema;
+
+/**
+ * SchemaLoadListener is notified when a compiled EXISchema has been read
+ * from its serialized form by {@link EXISchema#readIn(java.io.File, SchemaLoadListener)}
+ * and the like, or by {@link CommonSchema#loadCompiledSchema(java.net.URL, SchemaLoadListener)}.
+ * org.openexi.proc.common.MetricsListener implements it, so that a
+ * MetricsListener can also time the loading of schemas.
+ */
+public interface SchemaLoadListener {
+
+  /**
+   * A schema has been loaded.
+   * @param nanos time spent loading the schema, in nanoseconds
+   */
+  public void schemaLoaded(long nanos);
+
+}
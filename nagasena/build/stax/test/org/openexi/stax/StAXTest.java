@@ -0,0 +1,427 @@
+package org.openexi.stax;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+import junit.framework.Assert;
+
+import org.openexi.proc.HeaderOptionsOutputType;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.sax.EXIReader;
+import org.openexi.sax.Transmogrifier;
+import org.openexi.sax.TransmogrifierException;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.TestBase;
+import org.openexi.scomp.EXISchemaFactoryErrorMonitor;
+import org.openexi.scomp.EXISchemaFactoryTestUtil;
+
+public class StAXTest extends TestBase {
+
+  public StAXTest(String name) {
+    super(name);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_compilerErrors = new EXISchemaFactoryErrorMonitor();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    super.tearDown();
+    m_compilerErrors.clear();
+  }
+
+  private EXISchemaFactoryErrorMonitor m_compilerErrors;
+
+  private static final AlignmentType[] Alignments = new AlignmentType[] {
+    AlignmentType.bitPacked,
+    AlignmentType.byteAligned,
+    AlignmentType.preCompress,
+    AlignmentType.compress
+  };
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * EXIStreamReader reports the same elements, attributes and characters
+   * as EXIReader does.
+   */
+  public void testReaderJTLM() throws Exception {
+    final GrammarCache grammarCache = createJTLMGrammarCache();
+    for (AlignmentType alignment : Alignments) {
+      final byte[] bts = encodeJTLM(grammarCache, alignment);
+
+      final EXIReader saxReader = new EXIReader();
+      saxReader.setGrammarCache(grammarCache);
+      saxReader.setAlignmentType(alignment);
+      final ArrayList<String> saxEvents = new ArrayList<String>();
+      saxReader.setContentHandler(new EventRecorder(saxEvents));
+      saxReader.parse(new InputSource(new ByteArrayInputStream(bts)));
+
+      final EXIStreamReader staxReader = new EXIStreamReader();
+      staxReader.setGrammarCache(grammarCache);
+      staxReader.setAlignmentType(alignment);
+      staxReader.setInputStream(new ByteArrayInputStream(bts));
+      final ArrayList<String> staxEvents = recordEvents(staxReader, Integer.MAX_VALUE);
+
+      Assert.assertTrue(saxEvents.size() > 1000);
+      Assert.assertEquals(saxEvents, staxEvents);
+      Assert.assertFalse(staxReader.hasNext());
+    }
+  }
+
+  /**
+   * EXIStreamReader can stop reading in the middle of a document, and
+   * read another document thereafter.
+   */
+  public void testReaderEarlyStop() throws Exception {
+    final GrammarCache grammarCache = createJTLMGrammarCache();
+    for (AlignmentType alignment : Alignments) {
+      final byte[] bts = encodeJTLM(grammarCache, alignment);
+
+      final EXIStreamReader reader = new EXIStreamReader();
+      reader.setGrammarCache(grammarCache);
+      reader.setAlignmentType(alignment);
+
+      reader.setInputStream(new ByteArrayInputStream(bts));
+      final ArrayList<String> allEvents = recordEvents(reader, Integer.MAX_VALUE);
+
+      // The rest of the stream is not needed for reading the first elements.
+      final int length = alignment == AlignmentType.bitPacked || alignment == AlignmentType.byteAligned ?
+          bts.length / 2 : bts.length;
+      reader.setInputStream(new ByteArrayInputStream(bts, 0, length));
+      final ArrayList<String> firstEvents = recordEvents(reader, 5);
+      reader.close();
+      Assert.assertFalse(reader.hasNext());
+      Assert.assertEquals(allEvents.subList(0, firstEvents.size()), firstEvents);
+
+      reader.setInputStream(new ByteArrayInputStream(bts));
+      Assert.assertEquals(allEvents, recordEvents(reader, Integer.MAX_VALUE));
+    }
+  }
+
+  /**
+   * EXIStreamWriter fed with events of a StAX parser produces the same
+   * EXI stream as Transmogrifier does with the same XML document.
+   */
+  public void testWriterJTLM() throws Exception {
+    final GrammarCache grammarCache = createJTLMGrammarCache();
+    for (AlignmentType alignment : Alignments) {
+      final byte[] bts = encodeJTLM(grammarCache, alignment);
+
+      final Transmogrifier transmogrifier = new Transmogrifier();
+      transmogrifier.setGrammarCache(grammarCache);
+      transmogrifier.setAlignmentType(alignment);
+      transmogrifier.setOutputOptions(HeaderOptionsOutputType.lessSchemaId);
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      transmogrifier.setOutputStream(baos);
+
+      final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+      inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+      final URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+      final InputStream inputStream = url.openStream();
+      try {
+        copy(inputFactory.createXMLStreamReader(inputStream), new EXIStreamWriter(transmogrifier));
+      }
+      finally {
+        inputStream.close();
+      }
+      Assert.assertTrue(Arrays.equals(bts, baos.toByteArray()));
+    }
+  }
+
+  /**
+   * An element that the strict grammar does not accept is reported with
+   * XMLStreamException that wraps TransmogrifierException.
+   */
+  public void testWriterUnexpectedElement() throws Exception {
+    final GrammarCache grammarCache = createJTLMGrammarCache();
+    final Transmogrifier transmogrifier = new Transmogrifier();
+    transmogrifier.setGrammarCache(grammarCache);
+    transmogrifier.setOutputStream(new ByteArrayOutputStream());
+
+    final EXIStreamWriter writer = new EXIStreamWriter(transmogrifier);
+    writer.writeStartDocument();
+    try {
+      writer.writeStartElement("s", "Envelope", "http://schemas.xmlsoap.org/soap/envelope/");
+      writer.writeNamespace("s", "http://schemas.xmlsoap.org/soap/envelope/");
+      writer.writeStartElement("", "A", "");
+      writer.writeEndElement();
+    }
+    catch (XMLStreamException xse) {
+      Assert.assertTrue(xse.getNestedException() instanceof TransmogrifierException);
+      return;
+    }
+    Assert.fail();
+  }
+
+  /**
+   * Prefixes, namespace declarations, comments and processing instructions
+   * are preserved through EXIStreamWriter and EXIStreamReader.
+   */
+  public void testPreservePrefixes() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null,
+        GrammarOptions.addPI(GrammarOptions.addCM(GrammarOptions.addNS(GrammarOptions.DEFAULT_OPTIONS))));
+    for (AlignmentType alignment : Alignments) {
+      final Transmogrifier transmogrifier = new Transmogrifier();
+      transmogrifier.setGrammarCache(grammarCache);
+      transmogrifier.setAlignmentType(alignment);
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      transmogrifier.setOutputStream(baos);
+
+      final EXIStreamWriter writer = new EXIStreamWriter(transmogrifier);
+      writer.writeStartDocument();
+      writer.writeStartElement("p", "A", "urn:foo");
+      writer.writeNamespace("p", "urn:foo");
+      writer.writeDefaultNamespace("urn:goo");
+      writer.writeAttribute("a", "1");
+      writer.writeAttribute("urn:foo", "b", "2");
+      writer.writeStartElement("urn:goo", "B");
+      writer.writeCharacters("xyz");
+      writer.writeEndElement();
+      writer.writeComment(" c ");
+      writer.writeProcessingInstruction("pi", "data");
+      writer.writeEmptyElement("urn:foo", "C");
+      try {
+        writer.writeStartElement("urn:hoo", "D");
+        Assert.fail();
+      }
+      catch (XMLStreamException xse) {
+      }
+      writer.writeEndDocument();
+
+      final EXIStreamReader reader = new EXIStreamReader();
+      reader.setGrammarCache(grammarCache);
+      reader.setAlignmentType(alignment);
+      reader.setInputStream(new ByteArrayInputStream(baos.toByteArray()));
+
+      Assert.assertEquals(XMLStreamConstants.START_DOCUMENT, reader.getEventType());
+      Assert.assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+      Assert.assertEquals("urn:foo", reader.getNamespaceURI());
+      Assert.assertEquals("A", reader.getLocalName());
+      Assert.assertEquals("p", reader.getPrefix());
+      Assert.assertEquals(2, reader.getNamespaceCount());
+      Assert.assertEquals("p", reader.getNamespacePrefix(0));
+      Assert.assertEquals("urn:foo", reader.getNamespaceURI(0));
+      Assert.assertNull(reader.getNamespacePrefix(1));
+      Assert.assertEquals("urn:goo", reader.getNamespaceURI(1));
+      Assert.assertEquals("urn:goo", reader.getNamespaceURI(""));
+      Assert.assertEquals("p", reader.getNamespaceContext().getPrefix("urn:foo"));
+      Assert.assertEquals(2, reader.getAttributeCount());
+      Assert.assertEquals("1", reader.getAttributeValue(null, "a"));
+      Assert.assertEquals("2", reader.getAttributeValue("urn:foo", "b"));
+      final int b = "urn:foo".equals(reader.getAttributeNamespace(0)) ? 0 : 1;
+      Assert.assertEquals("p", reader.getAttributePrefix(b));
+      Assert.assertEquals("", reader.getAttributePrefix(1 - b));
+
+      Assert.assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+      Assert.assertEquals("B", reader.getLocalName());
+      Assert.assertEquals("", reader.getPrefix());
+      Assert.assertEquals(0, reader.getNamespaceCount());
+      Assert.assertEquals("xyz", reader.getElementText());
+      Assert.assertEquals(XMLStreamConstants.END_ELEMENT, reader.getEventType());
+
+      Assert.assertEquals(XMLStreamConstants.COMMENT, reader.next());
+      Assert.assertEquals(" c ", reader.getText());
+      Assert.assertEquals(XMLStreamConstants.PROCESSING_INSTRUCTION, reader.next());
+      Assert.assertEquals("pi", reader.getPITarget());
+      Assert.assertEquals("data", reader.getPIData());
+
+      Assert.assertEquals(XMLStreamConstants.START_ELEMENT, reader.next());
+      Assert.assertEquals("C", reader.getLocalName());
+      Assert.assertEquals("p", reader.getPrefix());
+      Assert.assertEquals(XMLStreamConstants.END_ELEMENT, reader.next());
+      Assert.assertEquals("C", reader.getLocalName());
+
+      Assert.assertEquals(XMLStreamConstants.END_ELEMENT, reader.next());
+      Assert.assertEquals("A", reader.getLocalName());
+      Assert.assertEquals(2, reader.getNamespaceCount());
+      Assert.assertEquals(XMLStreamConstants.END_DOCUMENT, reader.next());
+      Assert.assertNull(reader.getNamespaceURI("p"));
+      Assert.assertFalse(reader.hasNext());
+    }
+  }
+
+  /**
+   * Prefixes are made up for namespaces when prefixes are not preserved.
+   */
+  public void testMadeUpPrefixes() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null, GrammarOptions.DEFAULT_OPTIONS);
+    final String xmlString =
+      "<A xmlns='urn:foo' xmlns:q='urn:goo' q:a='1'><B xmlns=''>xyz</B></A>";
+
+    final Transmogrifier transmogrifier = new Transmogrifier();
+    transmogrifier.setGrammarCache(grammarCache);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    transmogrifier.setOutputStream(baos);
+    transmogrifier.encode(new InputSource(new StringReader(xmlString)));
+
+    final EXIStreamReader reader = new EXIStreamReader();
+    reader.setGrammarCache(grammarCache);
+    reader.setInputStream(new ByteArrayInputStream(baos.toByteArray()));
+
+    Assert.assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+    Assert.assertEquals("urn:foo", reader.getNamespaceURI());
+    final String prefix = reader.getPrefix();
+    Assert.assertEquals("urn:foo", reader.getNamespaceURI(prefix));
+    Assert.assertEquals("urn:goo", reader.getAttributeNamespace(0));
+    final String attrPrefix = reader.getAttributePrefix(0);
+    Assert.assertFalse(prefix.equals(attrPrefix));
+    Assert.assertEquals("urn:goo", reader.getNamespaceURI(attrPrefix));
+    Assert.assertEquals("1", reader.getAttributeValue("urn:goo", "a"));
+
+    Assert.assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+    Assert.assertNull(reader.getNamespaceURI());
+    Assert.assertEquals("xyz", reader.getElementText());
+    Assert.assertEquals(XMLStreamConstants.END_ELEMENT, reader.nextTag());
+    Assert.assertEquals("A", reader.getLocalName());
+    Assert.assertEquals(XMLStreamConstants.END_DOCUMENT, reader.next());
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private GrammarCache createJTLMGrammarCache() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/JTLM/schemas/TLMComposite.xsd", getClass(), m_compilerErrors);
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+    return new GrammarCache(corpus, GrammarOptions.STRICT_OPTIONS);
+  }
+
+  private byte[] encodeJTLM(GrammarCache grammarCache, AlignmentType alignment) throws Exception {
+    final Transmogrifier encoder = new Transmogrifier();
+    encoder.setGrammarCache(grammarCache);
+    encoder.setAlignmentType(alignment);
+    encoder.setOutputOptions(HeaderOptionsOutputType.lessSchemaId);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    encoder.setOutputStream(baos);
+
+    final URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+    final InputSource inputSource = new InputSource(url.toString());
+    inputSource.setByteStream(url.openStream());
+    encoder.encode(inputSource);
+    return baos.toByteArray();
+  }
+
+  /**
+   * Records events until the number of start elements reaches the limit.
+   */
+  private static ArrayList<String> recordEvents(XMLStreamReader reader, int maxElements) throws XMLStreamException {
+    final ArrayList<String> events = new ArrayList<String>();
+    int n_elements = 0;
+    while (reader.hasNext() && n_elements < maxElements) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          ++n_elements;
+          final String prefix = reader.getPrefix();
+          events.add("SE {" + reader.getNamespaceURI() + "}" + reader.getLocalName() + " " +
+              (prefix.length() != 0 ? prefix + ":" + reader.getLocalName() : reader.getLocalName()));
+          for (int i = 0; i < reader.getAttributeCount(); i++) {
+            final String attrPrefix = reader.getAttributePrefix(i);
+            final String attrNamespace = reader.getAttributeNamespace(i);
+            events.add("AT {" + (attrNamespace != null ? attrNamespace : "") + "}" + reader.getAttributeLocalName(i) + " " +
+                (attrPrefix.length() != 0 ? attrPrefix + ":" : "") + reader.getAttributeLocalName(i) +
+                "=" + reader.getAttributeValue(i));
+          }
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          events.add("EE {" + reader.getNamespaceURI() + "}" + reader.getLocalName());
+          break;
+        case XMLStreamConstants.CHARACTERS:
+          events.add("CH " + new String(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength()));
+          break;
+        default:
+          break;
+      }
+    }
+    return events;
+  }
+
+  private static void copy(XMLStreamReader reader, EXIStreamWriter writer) throws XMLStreamException {
+    int depth = 0;
+    writer.writeStartDocument();
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          ++depth;
+          final String prefix = reader.getPrefix();
+          final String uri = reader.getNamespaceURI();
+          writer.writeStartElement(prefix != null ? prefix : "", reader.getLocalName(), uri != null ? uri : "");
+          for (int i = 0; i < reader.getNamespaceCount(); i++)
+            writer.writeNamespace(reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+          for (int i = 0; i < reader.getAttributeCount(); i++) {
+            final String attrPrefix = reader.getAttributePrefix(i);
+            final String attrUri = reader.getAttributeNamespace(i);
+            writer.writeAttribute(attrPrefix != null ? attrPrefix : "", attrUri != null ? attrUri : "",
+                reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+          }
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          --depth;
+          writer.writeEndElement();
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+        case XMLStreamConstants.CDATA:
+          // Whitespaces outside the root element are not reported by SAX parsers.
+          if (depth != 0)
+            writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+          break;
+        case XMLStreamConstants.COMMENT:
+          writer.writeComment(reader.getText());
+          break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+          break;
+        default:
+          break;
+      }
+    }
+    writer.writeEndDocument();
+  }
+
+  private static class EventRecorder extends DefaultHandler {
+    private final ArrayList<String> m_events;
+    EventRecorder(ArrayList<String> events) {
+      m_events = events;
+    }
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+      m_events.add("SE {" + (uri.length() != 0 ? uri : null) + "}" + localName + " " + qName);
+      for (int i = 0; i < attributes.getLength(); i++) {
+        m_events.add("AT {" + attributes.getURI(i) + "}" + attributes.getLocalName(i) + " " +
+            attributes.getQName(i) + "=" + attributes.getValue(i));
+      }
+    }
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+      m_events.add("EE {" + (uri.length() != 0 ? uri : null) + "}" + localName);
+    }
+    @Override
+    public void characters(char[] ch, int start, int length) {
+      m_events.add("CH " + new String(ch, start, length));
+    }
+  }
+
+}
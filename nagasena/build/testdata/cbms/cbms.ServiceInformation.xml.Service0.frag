@@ -0,0 +1,13 @@
+<Service xmlns="urn:dvb:ipdc:esg:2005" serviceID="BBCOne" freeToAir="true" xmlns:esg="urn:dvb:ipdc:esg:2005"
+         xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance" xmlns:tva="urn:tva:metadata:2005" xmlns:mpeg7="urn:mpeg:mpeg7:schema:2001">
+  <ServiceName>BBC One</ServiceName>
+  <ServiceLogo>
+    <mpeg7:TitleImage>
+      <mpeg7:MediaUri>logo/BBCOne.gif</mpeg7:MediaUri>
+    </mpeg7:TitleImage>
+  </ServiceLogo>
+  <ServiceGenre type="main" href="urn:tva:metadata:cs:MediaTypeCS:2004:7.1.3">
+    <tva:Name>Audio and video</tva:Name>
+  </ServiceGenre>
+  <AcquisitionRef IDRef="BBCOne_acq"/>
+</Service>
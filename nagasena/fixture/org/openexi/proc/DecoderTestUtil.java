@@ -0,0 +1,77 @@
+package org.openexi.proc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.io.Scanner;
+import org.openexi.schema.Characters;
+
+/**
+ * Helpers for tests that compare the events decoded out of EXI streams.
+ */
+public class DecoderTestUtil {
+
+  private DecoderTestUtil() {
+  }
+
+  /**
+   * Reads all the bytes available from an URL.
+   */
+  public static byte[] readBytes(URL url) throws IOException {
+    final InputStream inputStream = url.openStream();
+    try {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final byte[] buf = new byte[4096];
+      int n;
+      while ((n = inputStream.read(buf)) != -1)
+        baos.write(buf, 0, n);
+      return baos.toByteArray();
+    }
+    finally {
+      inputStream.close();
+    }
+  }
+
+  /**
+   * Decodes an EXI stream into a list of event strings as formatted by
+   * {@link #toString(EventDescription)}.
+   */
+  public static ArrayList<String> decode(EXIDecoder decoder, byte[] bts) throws Exception {
+    decoder.setInputStream(new ByteArrayInputStream(bts));
+    return decode(decoder);
+  }
+
+  /**
+   * Decodes the EXI stream already set in a decoder into a list of
+   * event strings.
+   */
+  public static ArrayList<String> decode(EXIDecoder decoder) throws Exception {
+    final Scanner scanner = decoder.processHeader();
+    final ArrayList<String> events = new ArrayList<String>();
+    EventDescription exiEvent;
+    while ((exiEvent = scanner.nextEvent()) != null) {
+      events.add(toString(exiEvent));
+    }
+    return events;
+  }
+
+  /**
+   * Returns a string made of the event kind, URI, name and characters
+   * (if any) of an event.
+   */
+  public static String toString(EventDescription exiEvent) {
+    final StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(exiEvent.getEventKind()).append(' ');
+    stringBuilder.append(exiEvent.getURI()).append(' ').append(exiEvent.getName());
+    final Characters characters;
+    if ((characters = exiEvent.getCharacters()) != null)
+      stringBuilder.append(' ').append(characters.makeString());
+    return stringBuilder.toString();
+  }
+
+}
@@ -1,14 +1,19 @@
 package org.openexi.proc;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import org.openexi.proc.common.AlignmentType;
 import org.openexi.proc.common.EXIOptions;
 import org.openexi.proc.common.EXIOptionsException;
+import org.openexi.proc.common.MetricsListener;
 import org.openexi.proc.common.QName;
 import org.openexi.proc.common.SchemaId;
 import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.ByteBufferInputStream;
 import org.openexi.proc.io.HeaderOptionsInputStream;
 import org.openexi.proc.io.BitPackedScanner;
 import org.openexi.proc.io.Scanner;
@@ -42,8 +47,16 @@ public class EXIDecoder {
   
   private boolean m_binaryDataEnabled;
   private int m_initialBinaryDataBufferSize;
+  private int m_binaryChunkSize;
+  
+  private boolean m_typedValuesEnabled;
   
   private boolean m_useBuiltinElementGrammar;
+
+  private boolean m_flyweight;
+
+  private Executor m_inflateExecutor;
+  private MetricsListener m_metrics;
   
   /**
    * Creates an instance of EXIDecoder with the default inflator 
@@ -76,7 +89,12 @@ public class EXIDecoder {
     m_scanner.setStringTable(Scanner.createStringTable(m_grammarCache));
     m_binaryDataEnabled = false;
     m_initialBinaryDataBufferSize = 8192;
+    m_binaryChunkSize = -1;
+    m_typedValuesEnabled = false;
     m_useBuiltinElementGrammar = true;
+    m_flyweight = false;
+    m_inflateExecutor = null;
+    m_metrics = null;
   }
 
   /**
@@ -86,6 +104,26 @@ public class EXIDecoder {
   public final void setInputStream(InputStream istream) {
     m_inputStream = istream;
   }
+
+  /**
+   * Set a buffer from which the encoded stream is read. The bytes between 
+   * the position and the limit of the buffer are decoded without being 
+   * copied, whether the buffer is a heap or a direct buffer. The position 
+   * and limit of the buffer are left unchanged.
+   * @param byteBuffer ByteBuffer to be read.
+   */
+  public final void setInput(ByteBuffer byteBuffer) {
+    m_inputStream = new ByteBufferInputStream(byteBuffer);
+  }
+
+  /**
+   * Set a channel from which the encoded stream is read. 
+   * @param channel ReadableByteChannel in blocking mode to be read.
+   * @throws java.nio.channels.IllegalBlockingModeException if the channel is in non-blocking mode
+   */
+  public final void setInput(ReadableByteChannel channel) {
+    m_inputStream = new ByteBufferInputStream(channel);
+  }
   
   /**
    * Set the bit alignment style of the stream to be decoded.
@@ -232,7 +270,74 @@ public class EXIDecoder {
   public final void setInitialBinaryDataBufferSize(int initialSize) {
     m_initialBinaryDataBufferSize = initialSize;
   }
+
+  /**
+   * Binary values of EVENT_BLOB events are read in chunks of at most the 
+   * specified number of bytes, so that a large value never has to be held 
+   * in memory as a whole. The remaining chunks are read by way of 
+   * {@link org.openexi.proc.common.BinaryDataSource#next()} or 
+   * {@link org.openexi.proc.common.BinaryDataSource#writeTo(java.nio.channels.WritableByteChannel)}.
+   * The default value of -1 reads each value in a single chunk. The setting 
+   * has no effect in compression and pre-compression alignment, where 
+   * values of a block are read into channels before any of them are reported.
+   * @param chunkSize maximum number of bytes per chunk, or -1
+   */
+  public final void setBinaryChunkSize(int chunkSize) {
+    m_binaryChunkSize = chunkSize;
+  }
+
+  /**
+   * Each schema-typed value of EVENT_CH and EVENT_AT events will be 
+   * returned in a {@link org.openexi.proc.common.TypedEventDescription}
+   * when enabled, which gives access to booleans, integers, floats, 
+   * date-time values and binary values as they were decoded. Characters 
+   * of such values are then only computed when getCharacters() is called. 
+   * The setting has no effect in compression and pre-compression alignment,
+   * and on values that are decoded as strings, such as those of datatypes
+   * whose lexical values are preserved.
+   * @param enable
+   */
+  public final void setEnableTypedValues(boolean enable) {
+    m_typedValuesEnabled = enable;
+  }
   
+  /**
+   * Set to true to have the scanner reuse the event objects it returns 
+   * and one Characters for the values, which spares allocations per event. 
+   * An event and its value are then only valid until the next call to 
+   * {@link org.openexi.proc.io.Scanner#nextEvent()}, so callers have to 
+   * copy anything they need to keep. Values found in the string table 
+   * and values that are added to it are given in the string table's own 
+   * Characters, which stay intact. The setting has no effect in compression 
+   * and pre-compression alignment. 
+   * @param flyweight true to reuse events and value characters
+   */
+  public final void setFlyweight(boolean flyweight) {
+    m_flyweight = flyweight;
+  }
+
+  /**
+   * Set an executor with which the compressed streams of the blocks that
+   * follow are inflated while a block is being decoded, when the alignment 
+   * type is <i>compression</i>. Events are reported in the same order as 
+   * without the executor. Compressed streams are inflated on the calling 
+   * thread if the executor is null, which is the default.
+   * @param executor executor used to inflate compressed streams, or null
+   */
+  public final void setInflateExecutor(Executor executor) {
+    m_inflateExecutor = executor;
+  }
+
+  /**
+   * Set a listener that is notified of the events decoded, of the use of
+   * the String Table and of the blocks of compressed streams. Nothing is
+   * notified if the listener is null, which is the default.
+   * @param metrics MetricsListener to be notified, or null
+   */
+  public final void setMetricsListener(MetricsListener metrics) {
+    m_metrics = metrics;
+  }
+
   public final void setUseBuiltinElementGrammar(boolean useBuiltinElementGrammar) {
     m_useBuiltinElementGrammar = useBuiltinElementGrammar;
   }
@@ -246,6 +351,7 @@ public class EXIDecoder {
    * @throws EXIOptionsException
    */
   public Scanner processHeader() throws IOException, EXIOptionsException {
+    final long startTime = m_metrics != null ? System.nanoTime() : 0;
     int val = m_inputStream.read();
     if (val == 36) {
       m_inputStream.read(); // 69
@@ -325,6 +431,13 @@ public class EXIDecoder {
     }
     scanner.reset();
     scanner.setEnableBinaryData(m_binaryDataEnabled, m_initialBinaryDataBufferSize);
+    final AlignmentType scannerAlignmentType = scanner.getAlignmentType();
+    if (scannerAlignmentType == AlignmentType.bitPacked || scannerAlignmentType == AlignmentType.byteAligned)
+      scanner.setBinaryChunkSize(m_binaryChunkSize);
+    scanner.setEnableTypedValues(m_typedValuesEnabled);
+    scanner.setFlyweight(m_flyweight);
+    scanner.setInflateExecutor(m_inflateExecutor);
+    scanner.setMetricsListener(m_metrics);
     scanner.useBuiltinElementGrammar = m_useBuiltinElementGrammar;
   
     if (bitInputStream != null)
@@ -333,6 +446,8 @@ public class EXIDecoder {
       scanner.setInputStream(m_inputStream);
   
     scanner.setGrammar(grammarCache.retrieveRootGrammar(isFragment, scanner.eventTypesWorkSpace), grammarCache.grammarOptions);
+    if (m_metrics != null)
+      m_metrics.headerProcessed(System.nanoTime() - startTime);
     scanner.prepare();
     
     return scanner;
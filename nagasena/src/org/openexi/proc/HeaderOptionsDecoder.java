@@ -44,8 +44,10 @@ class HeaderOptionsDecoder {
   
   public HeaderOptionsInputStream decode(EXIOptions options, InputStream istream) throws IOException, EXIOptionsException {
     m_scanner.setEXIOptionsInputStream(istream);
-    m_scanner.setGrammar(m_grammarCache.retrieveRootGrammar(false, m_scanner.eventTypesWorkSpace), m_grammarCache.grammarOptions);
+    // Reset first, so that the grammar is set to the bottom of the stack even 
+    // when the previous decoding ended prematurely.
     m_scanner.reset();
+    m_scanner.setGrammar(m_grammarCache.retrieveRootGrammar(false, m_scanner.eventTypesWorkSpace), m_grammarCache.grammarOptions);
 
     short eventVariety;
     do {
@@ -1,6 +1,8 @@
 package org.openexi.proc.common;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 public final class BinaryDataSource {
 
@@ -50,5 +52,25 @@ public final class BinaryDataSource {
     }
     return -1;
   }
+
+  /**
+   * Writes the current chunk and all the remaining chunks of the binary 
+   * value to the channel, reading each chunk only after the previous one 
+   * has been written. The memory used is therefore bounded by the chunk 
+   * size in effect, regardless of the size of the value.
+   * @param channel channel to which the octets are written
+   * @return the number of octets written
+   */
+  public long writeTo(WritableByteChannel channel) throws IOException {
+    long n_written = 0;
+    do {
+      final ByteBuffer byteBuffer = ByteBuffer.wrap(m_byteArray, m_startIndex, m_length);
+      while (byteBuffer.hasRemaining())
+        channel.write(byteBuffer);
+      n_written += m_length;
+    }
+    while (next() != -1);
+    return n_written;
+  }
   
 }
@@ -14,7 +14,7 @@ public abstract class EventTypeList {
   
   public abstract EventType getSD();
   
-  public final EventType getED() {
+  public EventType getED() {
     final int len = getLength();
     for (int i = 0; i < len; i++) {
       final EventType eventType = item(i);
@@ -27,6 +27,41 @@ public abstract class EventTypeList {
   
   public abstract EventType getEE();
   
+  /**
+   * Returns the first event type that matches the start of an element, 
+   * which is either SE(qname), SE(uri:*) or SE(*), or null if none matches.
+   */
+  public EventType getStartElement(String uri, String name) {
+    return getStartElement(uri, name, 0);
+  }
+  
+  /**
+   * Returns the first event type at or after the position that matches 
+   * the start of an element.
+   */
+  protected final EventType getStartElement(String uri, String name, int start) {
+    final int len = getLength();
+    for (int i = start; i < len; i++) {
+      final EventType eventType = item(i);
+      switch (eventType.itemType) {
+        case EventType.ITEM_SE:
+          if (name.equals(eventType.name) && uri.equals(eventType.uri))
+            return eventType;
+          break;
+        case EventType.ITEM_SCHEMA_WC_NS:
+          if (uri.equals(eventType.uri))
+            return eventType;
+          break;
+        case EventType.ITEM_SCHEMA_WC_ANY:
+        case EventType.ITEM_SE_WC:
+          return eventType;
+        default:
+          break;
+      }
+    }
+    return null;
+  }
+  
   public abstract EventType getSchemaAttribute(String uri, String name);
   public abstract EventType getSchemaAttributeInvalid(String uri, String name);
   public abstract EventType getLearnedAttribute(String uri, String name);
@@ -0,0 +1,158 @@
+package org.openexi.proc.common;
+
+import org.openexi.schema.SchemaLoadListener;
+
+/**
+ * MetricsListener receives notifications about the inner workings of
+ * encoders and decoders, such as the events coded by each kind of grammar,
+ * the use of the string table and the blocks of compressed streams.
+ * Subclasses override the methods of the notifications of interest, and
+ * export what they collect as counters or timers.
+ * <br/><br/>
+ * A listener is set on a Transmogrifier or an EXIDecoder. Neither
+ * notifies anything when no listener is set, which is the default.
+ * Notifications are made on the thread that encodes or decodes, thus
+ * a listener shared by encoders or decoders working in parallel must be
+ * thread-safe.
+ */
+public abstract class MetricsListener implements SchemaLoadListener {
+
+  /**
+   * An event has been encoded or decoded.
+   * @param grammarType type of the grammar that the event belongs to,
+   * which is one of the grammar type constants defined in
+   * org.openexi.proc.grammars.Grammar
+   * @param eventType event type of the event
+   */
+  public void event(byte grammarType, EventType eventType) {
+  }
+
+  /**
+   * A production has been added to a built-in grammar.
+   * @param grammarType type of the grammar that learned the production
+   * @param eventType event type of the production
+   */
+  public void productionLearned(byte grammarType, EventType eventType) {
+  }
+
+  /**
+   * A string value has been found in the local value partition of the
+   * element or attribute that it belongs to.
+   * @param uriId id of the namespace name of the element or attribute
+   * @param localNameId id of the local name of the element or attribute
+   */
+  public void localValueHit(int uriId, int localNameId) {
+  }
+
+  /**
+   * A string value has been found in the global value partition.
+   * @param uriId id of the namespace name of the element or attribute
+   * @param localNameId id of the local name of the element or attribute
+   */
+  public void globalValueHit(int uriId, int localNameId) {
+  }
+
+  /**
+   * A string value has been found in neither value partitions, and was
+   * therefore encoded or decoded as a literal.
+   * @param uriId id of the namespace name of the element or attribute
+   * @param localNameId id of the local name of the element or attribute
+   * @param length number of characters of the value
+   */
+  public void valueMiss(int uriId, int localNameId, int length) {
+  }
+
+  /**
+   * A value has been removed from the global value partition to make
+   * room for a new one, as the partition had reached the capacity
+   * given by valuePartitionCapacity.
+   */
+  public void valueEvicted() {
+  }
+
+  /**
+   * A block of a stream in compress or pre-compress alignment has been
+   * completed.
+   * @param n_values number of values in the block
+   * @param n_smallChannels number of channels that have at most 100 values
+   * @param n_largeChannels number of channels that have more than 100 values
+   */
+  public void block(int n_values, int n_smallChannels, int n_largeChannels) {
+  }
+
+  /**
+   * Bytes have been deflated in compress alignment. This is notified once
+   * for each compressed stream, or for each block when blocks are deflated
+   * by an executor.
+   * @param n_bytesIn number of bytes before compression
+   * @param n_bytesOut number of bytes after compression
+   * @param nanos time spent deflating, in nanoseconds
+   */
+  public void deflated(long n_bytesIn, long n_bytesOut, long nanos) {
+  }
+
+  /**
+   * Bytes have been inflated in compress alignment. This is notified once
+   * for each compressed stream that is inflated on the decoding thread.
+   * @param n_bytesIn number of compressed bytes
+   * @param n_bytesOut number of bytes after decompression
+   * @param nanos time spent inflating, in nanoseconds
+   */
+  public void inflated(long n_bytesIn, long n_bytesOut, long nanos) {
+  }
+
+  /**
+   * A block of a stream in compress alignment has been deflated. This is
+   * notified once for each block, whether its compressed streams were
+   * deflated on the encoding thread or by an executor.
+   * @param n_bytesIn number of bytes of the block before compression
+   * @param n_bytesOut number of bytes of the block after compression
+   * @param nanos time spent deflating the block, in nanoseconds
+   */
+  public void blockDeflated(long n_bytesIn, long n_bytesOut, long nanos) {
+  }
+
+  /**
+   * A block of a stream in compress alignment has been inflated. This is
+   * notified once for each block, whether its compressed streams were
+   * inflated on the decoding thread or ahead of time by an executor.
+   * @param n_bytesIn number of compressed bytes of the block
+   * @param n_bytesOut number of bytes of the block after decompression
+   * @param nanos time spent inflating the block, in nanoseconds
+   */
+  public void blockInflated(long n_bytesIn, long n_bytesOut, long nanos) {
+  }
+
+  /**
+   * The header of a stream has been processed by an EXIDecoder.
+   * @param nanos time spent processing the header, in nanoseconds
+   */
+  public void headerProcessed(long nanos) {
+  }
+
+  /**
+   * A document has been encoded, from the start of the document through
+   * the end of the stream.
+   * @param nanos time spent encoding the document, in nanoseconds
+   */
+  public void documentEncoded(long nanos) {
+  }
+
+  /**
+   * A document has been decoded by an EXIReader.
+   * @param nanos time spent decoding the document, including the header,
+   * in nanoseconds
+   */
+  public void documentDecoded(long nanos) {
+  }
+
+  /**
+   * A schema has been read from its EXI-encoded EXI Grammar by an
+   * EXISchemaReader, or from its serialized form by EXISchema.readIn
+   * or CommonSchema.loadCompiledSchema.
+   * @param nanos time spent reading the schema, in nanoseconds
+   */
+  public void schemaLoaded(long nanos) {
+  }
+
+}
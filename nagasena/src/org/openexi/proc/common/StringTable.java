@@ -2,6 +2,7 @@ package org.openexi.proc.common;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 
@@ -33,6 +34,18 @@ public final class StringTable {
   
   private final boolean m_useMap;
   
+  private MetricsListener m_metrics;
+
+  // Partitions that have grown since the mark, of which the sizes at the mark are saved
+  private Markable[] m_marked;
+  private int m_n_marked;
+  private boolean m_marking;
+  private int m_marked_n_uris;
+  private int m_markedUriWidth;
+
+  private static final int INITIAL_INDEX_BITS = 6;
+  private static final int INITIAL_INDEX_SIZE = 1 << INITIAL_INDEX_BITS;
+  
   ///////////////////////////////////////////////////////////////////////////
   // URIPartition fields
   ///////////////////////////////////////////////////////////////////////////
@@ -62,13 +75,17 @@ public final class StringTable {
     m_valuePartitionCapacity = EXIOptions.VALUE_PARTITION_CAPACITY_UNBOUNDED;
     channels = new LinkedList<Channel>();
     n_channels = 0;
+    m_marked = new Markable[8];
+    m_n_marked = 0;
+    m_marking = false;
     LocalNamePartition[] initialLocalNamePartitions;
     PrefixPartition[] initialPrefixPartitions;
     if (m_hasSchema) {
       final int[][] localNames = schema.getLocalNames();
       initialLocalNamePartitions = new LocalNamePartition[localNames.length];
       for (int i = 0; i < localNames.length; i++) {
-        final LocalNamePartition localNamePartition = new LocalNamePartition(schema.uris[i], schema.localNames[i], schema);
+        final LocalNamePartition localNamePartition = new LocalNamePartition(schema.uris[i], schema.localNames[i], 
+            grammarCache.getLocalNameGrammars(i), grammarCache.getLocalNameIds(i));
         localNamePartition.uriId = i;
         initialLocalNamePartitions[i] = localNamePartition;
       }
@@ -76,13 +93,13 @@ public final class StringTable {
     else {
       initialLocalNamePartitions = new LocalNamePartition[3];
       LocalNamePartition localNamePartition;
-      localNamePartition = new LocalNamePartition("", new String[] {}, (EXISchema)null); 
+      localNamePartition = new LocalNamePartition("", EMPTY, (IGrammar[])null, (Map<String,Integer>)null);
       localNamePartition.uriId = 0;
       initialLocalNamePartitions[0] = localNamePartition; 
-      localNamePartition = new LocalNamePartition(XmlUriConst.W3C_XML_1998_URI, EXISchemaConst.XML_LOCALNAMES, (EXISchema)null);
+      localNamePartition = new LocalNamePartition(XmlUriConst.W3C_XML_1998_URI, EXISchemaConst.XML_LOCALNAMES, (IGrammar[])null, (Map<String,Integer>)null);
       localNamePartition.uriId = XmlUriConst.W3C_XML_1998_URI_ID;
       initialLocalNamePartitions[1] = localNamePartition;
-      localNamePartition = new LocalNamePartition(XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI, EXISchemaConst.XSI_LOCALNAMES, (EXISchema)null);
+      localNamePartition = new LocalNamePartition(XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI, EXISchemaConst.XSI_LOCALNAMES, (IGrammar[])null, (Map<String,Integer>)null);
       localNamePartition.uriId = XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI_ID;
       initialLocalNamePartitions[2] = localNamePartition;
     }
@@ -106,7 +123,16 @@ public final class StringTable {
     m_start_uriForwardedWidth = uriWidth;
   }
 
+  public void setMetricsListener(MetricsListener metrics) {
+    m_metrics = metrics;
+  }
+
+  public IGrammarCache getGrammarCache() {
+    return m_grammarCache;
+  }
+
   public void reset() {
+    unmark();
   	// Reset URIPartition
     final int n_initialLocalNamePartitions = m_initialLocalNamePartitions.length;
     final int n_initialPrefixPartitions = m_initialPrefixPartitions.length;
@@ -153,6 +179,73 @@ public final class StringTable {
     }
   }
   
+  ///////////////////////////////////////////////////////////////////////////
+  // Marks
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Marks the current state of the partitions so that rollback() can return 
+   * them to it. While a stream is decoded, partitions only grow except that 
+   * the global value partition evicts entries once it is full. Therefore a 
+   * partition is restored by restoring its size, which is saved the first 
+   * time the partition grows after the mark, and evicted entries are put back.
+   * Marks are only used in decoding.
+   */
+  public void mark() {
+    assert !m_useMap;
+    unmark();
+    m_marking = true;
+    m_marked_n_uris = n_uris;
+    m_markedUriWidth = uriWidth;
+    globalValuePartition.mark();
+  }
+
+  /**
+   * Returns the partitions to the state they were in when mark() was last called.
+   */
+  public void rollback() {
+    assert m_marking;
+    while (m_n_marked != 0) {
+      final Markable partition = m_marked[--m_n_marked];
+      m_marked[m_n_marked] = null;
+      partition.rollback();
+    }
+    n_uris = m_marked_n_uris;
+    uriWidth = m_markedUriWidth;
+    globalValuePartition.rollback();
+  }
+
+  private void unmark() {
+    while (m_n_marked != 0) {
+      m_marked[--m_n_marked].unmark();
+      m_marked[m_n_marked] = null;
+    }
+    globalValuePartition.unmark();
+    m_marking = false;
+  }
+
+  /**
+   * Registers a partition that is about to grow for the first time since the mark.
+   */
+  private void marked(Markable partition) {
+    if (m_n_marked == m_marked.length) {
+      final Markable[] marked = new Markable[m_n_marked << 1];
+      System.arraycopy(m_marked, 0, marked, 0, m_n_marked);
+      m_marked = marked;
+    }
+    m_marked[m_n_marked++] = partition;
+  }
+
+  /**
+   * A partition of which the size at the time of the mark has been saved.
+   */
+  private interface Markable {
+    /** Restores the size at the time of the mark. */
+    void rollback();
+    /** Discards the size saved at the time of the mark. */
+    void unmark();
+  }
+
   public int getValuePartitionCapacity() {
     return m_valuePartitionCapacity;
   }
@@ -189,6 +282,7 @@ public final class StringTable {
    * Add a name which has *not* been in the partition.
    */
   public int addURI(String uri, LocalNamePartition localNamePartition, PrefixPartition prefixPartition) {
+    // URIs added after the mark are removed by restoring n_uris upon rollback.
     URIEntry uriEntry;
     final int number = n_uris;
     final int length;
@@ -263,7 +357,7 @@ public final class StringTable {
     }
   }
 
-  public final class LocalNamePartition {
+  public final class LocalNamePartition implements Markable {
 
     public LocalNameEntry[] localNameEntries;
     
@@ -275,13 +369,19 @@ public final class StringTable {
     private final int m_start_width;
     private final int m_start_milestone;
 
+    private boolean m_marked;
+    private int m_marked_n_strings;
+    private int m_markedWidth;
+    private int m_markedMilestone;
+
+    // Local-name IDs of the initial names, which may be shared by StringTables of different streams
+    private final Map<String,Integer> m_initialNameIds;
+    // Local names that have been added to the partition since the start of the stream
     private final HashMap<String,LocalNameEntry> m_nameMap;
     
     String uri;
     int uriId;
     
-    private final String[] m_initialNames;
-
     // Registry of touched (i.e. modified) LocalValuePartitions
     private int m_n_localValuePartitionsTouched;
     private LocalValuePartition[] m_localValuePartitionsTouched;
@@ -291,36 +391,38 @@ public final class StringTable {
     private IGrammar[] m_grammarsTouched;
 
     LocalNamePartition(String uri) {
-      this(uri, EMPTY, (EXISchema)null);
+      this(uri, EMPTY, (IGrammar[])null, (Map<String,Integer>)null);
     }
 
-    LocalNamePartition(String uri, String[] names, EXISchema schema) {
+    /**
+     * Constructs a LocalNamePartition with initial names.
+     * @param grammars grammars of the names indexed by local-name ID, or null if there is none
+     * @param initialNameIds immutable map of the names to their local-name IDs, or null 
+     * if it needs to be computed.
+     */
+    LocalNamePartition(String uri, String[] names, IGrammar[] grammars, Map<String,Integer> initialNameIds) {
       this.uri = uri;
       uriId = -1;
-      if (m_useMap) {
-        m_nameMap = new HashMap<String,LocalNameEntry>();
-        m_initialNames = names;
-      }
-      else {
-        m_nameMap = null;
-        m_initialNames = null;
-      }
       localNameEntries = new LocalNameEntry[256];
       int i;
       final int len;
       for (i = 0, len = names.length; i < len; i++) {
-        final String name = names[i];
-        final IGrammar grammar;
-        if (schema != null) {
-          final int elem;
-          if ((elem = schema.getGlobalElemOfSchema(uri, name)) != EXISchema.NIL_NODE)
-            grammar = m_grammarCache.getElementGrammarUse(elem);
-          else
-            grammar = null;
+        appendName(names[i], grammars != null ? grammars[i] : null);
+      }
+      if (m_useMap) {
+        if (initialNameIds == null) {
+          final HashMap<String,Integer> nameIds = new HashMap<String,Integer>();
+          for (i = 0; i < len; i++) {
+            nameIds.put(names[i], i);
+          }
+          initialNameIds = nameIds;
         }
-        else
-          grammar = null;
-        addName(name, grammar);
+        m_initialNameIds = initialNameIds;
+        m_nameMap = new HashMap<String,LocalNameEntry>();
+      }
+      else {
+        m_initialNameIds = null;
+        m_nameMap = null;
       }
       m_start_n_strings = n_strings;
       m_start_width = width;
@@ -330,14 +432,23 @@ public final class StringTable {
       m_n_localValuePartitionsTouched = 0;
       m_grammarsTouched = new IGrammar[32];
       m_n_grammarsTouched = 0;
+      m_marked = false;
+    }
+
+    public void rollback() {
+      n_strings = m_marked_n_strings;
+      width = m_markedWidth;
+      m_milestone = m_markedMilestone;
+      m_marked = false;
+    }
+
+    public void unmark() {
+      m_marked = false;
     }
 
     public void reset() {
       if (m_useMap) {
         m_nameMap.clear();
-        for (int i = 0; i < m_initialNames.length; i++) {
-          m_nameMap.put(m_initialNames[i], localNameEntries[i]);
-        }
       }
       for (int i = 0; i < m_n_localValuePartitionsTouched; i++) {
         m_localValuePartitionsTouched[i].reset();
@@ -365,6 +476,10 @@ public final class StringTable {
     }
 
     public int getCompactId(String name) {
+      final Integer number;
+      if ((number = m_initialNameIds.get(name)) != null) {
+        return number.intValue();
+      }
       final LocalNameEntry item;
       if ((item = m_nameMap.get(name)) != null) {
         return item.number;
@@ -385,6 +500,20 @@ public final class StringTable {
      * @return localName ID within the partition
      */
     public int addName(String name, IGrammar grammar) {
+      final LocalNameEntry localNameEntry = appendName(name, grammar);
+      if (m_useMap)
+        m_nameMap.put(name, localNameEntry);
+      return localNameEntry.number;
+    }
+    
+    private LocalNameEntry appendName(String name, IGrammar grammar) {
+      if (m_marking && !m_marked) {
+        m_marked_n_strings = n_strings;
+        m_markedWidth = width;
+        m_markedMilestone = m_milestone;
+        m_marked = true;
+        StringTable.this.marked(this);
+      }
       LocalNameEntry localNameEntry;
       final int number = n_strings;
       final int length;
@@ -415,9 +544,7 @@ public final class StringTable {
         m_milestone <<= 1;
       }
       localNameEntries[n_strings++] = localNameEntry;
-      if (m_useMap)
-        m_nameMap.put(name, localNameEntry);
-      return number;
+      return localNameEntry;
     }
     
     public LocalValuePartition getLocalValuePartition(int i) {
@@ -428,6 +555,14 @@ public final class StringTable {
       else
         return item.localValuePartition = new LocalValuePartition(this);
     }
+
+    boolean isMarking() {
+      return m_marking;
+    }
+
+    void marked(LocalValuePartition localValuePartition) {
+      StringTable.this.marked(localValuePartition);
+    }
     
     public void addTouchedValuePartitions(LocalValuePartition localValuePartition) {
       if (m_n_localValuePartitionsTouched == m_localValuePartitionsTouched.length) {
@@ -464,7 +599,7 @@ public final class StringTable {
     }
   }
 
-  public final class PrefixPartition {
+  public final class PrefixPartition implements Markable {
 
     public PrefixEntry[] prefixEntries;
     
@@ -478,6 +613,12 @@ public final class StringTable {
     private final int m_start_forwardedWidth;
     private final int m_start_milestone;
 
+    private boolean m_marked;
+    private int m_marked_n_strings;
+    private int m_markedWidth;
+    private int m_markedForwardedWidth;
+    private int m_markedMilestone;
+
     private final HashMap<String,PrefixEntry> m_prefixMap;
 
     private final String[] m_prefixes;
@@ -501,6 +642,19 @@ public final class StringTable {
       m_start_width = width;
       m_start_forwardedWidth = forwardedWidth;
       m_start_milestone = m_milestone;
+      m_marked = false;
+    }
+
+    public void rollback() {
+      n_strings = m_marked_n_strings;
+      width = m_markedWidth;
+      forwardedWidth = m_markedForwardedWidth;
+      m_milestone = m_markedMilestone;
+      m_marked = false;
+    }
+
+    public void unmark() {
+      m_marked = false;
     }
 
     public void reset() {
@@ -538,6 +692,14 @@ public final class StringTable {
      * Add a name which has *not* been in the partition.
      */
     public int addPrefix(final String prefix) {
+      if (m_marking && !m_marked) {
+        m_marked_n_strings = n_strings;
+        m_markedWidth = width;
+        m_markedForwardedWidth = forwardedWidth;
+        m_markedMilestone = m_milestone;
+        m_marked = true;
+        marked(this);
+      }
       final PrefixEntry item;
       final int number = n_strings;
       item = new PrefixEntry(prefix, number);
@@ -594,7 +756,7 @@ public final class StringTable {
     }
   }
 
-  public static final class LocalValuePartition {
+  public static final class LocalValuePartition implements Markable {
 
     public NumberedCharacters[] valueEntries;
 
@@ -604,9 +766,26 @@ public final class StringTable {
     
     private final LocalNamePartition m_localNamePartition;
 
+    private boolean m_marked;
+    private int m_marked_n_strings;
+    private int m_markedWidth;
+    private int m_markedMilestone;
+
     LocalValuePartition(LocalNamePartition localNamePartition) {
       valueEntries = new NumberedCharacters[1];
       m_localNamePartition = localNamePartition;
+      m_marked = false;
+    }
+
+    public void rollback() {
+      n_strings = m_marked_n_strings;
+      width = m_markedWidth;
+      m_milestone = m_markedMilestone;
+      m_marked = false;
+    }
+
+    public void unmark() {
+      m_marked = false;
     }
 
     void reset() {
@@ -623,6 +802,13 @@ public final class StringTable {
      * Add a value which has *not* been in the local-value partition.
      */
     int addString(Characters value) {
+      if (!m_marked && m_localNamePartition.isMarking()) {
+        m_marked_n_strings = n_strings;
+        m_markedWidth = width;
+        m_markedMilestone = m_milestone;
+        m_marked = true;
+        m_localNamePartition.marked(this);
+      }
       NumberedCharacters item;
       final int number = n_strings;
       item = new NumberedCharacters(value, number);
@@ -647,21 +833,49 @@ public final class StringTable {
   public final class GlobalValuePartition {
 
     public GlobalEntry[] valueEntries;
-    private final HashMap<Characters,GlobalEntry> m_stringMap;
+    
+    /**
+     * Open-addressing index of valueEntries used in encoding. Each slot holds 
+     * the global ID plus one of an entry, or 0 if the slot is empty, and 
+     * m_indexHashes holds the hash code of the value of the entry in the slot.
+     * Slots are probed linearly, and evicted entries are removed by shifting 
+     * back the entries that follow, so that there is no need for tombstones.
+     */
+    private int[] m_index;
+    private int[] m_indexHashes;
+    private int m_indexShift;
+    private int m_n_indexed;
     
     public int globalID = 0;
     public int width = 0;
     private int m_milestone = 1;
     private boolean m_wrapped = false;
 
+    private int m_markedGlobalID;
+    private int m_markedWidth;
+    private int m_markedMilestone;
+    private boolean m_markedWrapped;
+    // Entries evicted since the mark
+    private GlobalEntry[] m_evicted;
+    private int m_n_evicted;
+
     GlobalValuePartition() {
-      m_stringMap = m_useMap ? new HashMap<Characters,GlobalEntry>() : null;
+      if (m_useMap) {
+        m_index = new int[INITIAL_INDEX_SIZE];
+        m_indexHashes = new int[INITIAL_INDEX_SIZE];
+        m_indexShift = 32 - INITIAL_INDEX_BITS;
+        m_n_indexed = 0;
+      }
       valueEntries = new GlobalEntry[1];
+      m_evicted = null;
+      m_n_evicted = 0;
     }
     
     public void reset() {
-      if (m_useMap)
-        m_stringMap.clear();
+      if (m_useMap && m_n_indexed != 0) {
+        Arrays.fill(m_index, 0);
+        m_n_indexed = 0;
+      }
       init();
     }
     
@@ -671,13 +885,56 @@ public final class StringTable {
       m_milestone = 1;
       m_wrapped = false;
     }
+
+    void mark() {
+      m_markedGlobalID = globalID;
+      m_markedWidth = width;
+      m_markedMilestone = m_milestone;
+      m_markedWrapped = m_wrapped;
+    }
+
+    void rollback() {
+      while (m_n_evicted != 0) {
+        final GlobalEntry item = m_evicted[--m_n_evicted];
+        m_evicted[m_n_evicted] = null;
+        valueEntries[item.number] = item;
+        item.localPartition.valueEntries[item.localEntry.number] = item.localEntry;
+      }
+      globalID = m_markedGlobalID;
+      width = m_markedWidth;
+      m_milestone = m_markedMilestone;
+      m_wrapped = m_markedWrapped;
+    }
+
+    void unmark() {
+      while (m_n_evicted != 0)
+        m_evicted[--m_n_evicted] = null;
+    }
+
+    private void evicted(final GlobalEntry item) {
+      if (m_evicted == null)
+        m_evicted = new GlobalEntry[4];
+      else if (m_n_evicted == m_evicted.length) {
+        final GlobalEntry[] evicted = new GlobalEntry[m_n_evicted << 1];
+        System.arraycopy(m_evicted, 0, evicted, 0, m_n_evicted);
+        m_evicted = evicted;
+      }
+      m_evicted[m_n_evicted++] = item;
+    }
     
     public GlobalEntry getEntry(final Characters characterSequence) {
-      final GlobalEntry item;
-      if ((item = m_stringMap.get(characterSequence)) != null) {
-        return item;
+      final int hashCode = characterSequence.hashCode();
+      final int mask = m_index.length - 1;
+      for (int pos = indexPosition(hashCode); ; pos = (pos + 1) & mask) {
+        final int id;
+        if ((id = m_index[pos]) == 0)
+          return null;
+        if (m_indexHashes[pos] == hashCode) {
+          final GlobalEntry item = valueEntries[id - 1];
+          if (item.value.equals(characterSequence))
+            return item;
+        }
       }
-      return null;
     }
     
     public LocalValuePartition getLocalPartition(final int name, final int uri) {
@@ -707,21 +964,81 @@ public final class StringTable {
           m_milestone <<= 1;
         }
         final GlobalEntry item;
-        if ((item = valueEntries[globalID]) != null) {
-          if (m_wrapped)
-            item.localPartition.releaseEntry(item.localEntry.number);
+        // Entries left over from before the last reset are not in the index.
+        if ((item = valueEntries[globalID]) != null && m_wrapped) {
+          item.localPartition.releaseEntry(item.localEntry.number);
           if (m_useMap)
-            m_stringMap.remove(item.value);
+            removeFromIndex(globalID, item.value.hashCode());
+          else if (m_marking)
+            evicted(item);
+          if (m_metrics != null)
+            m_metrics.valueEvicted();
         }
         valueEntries[globalID] = newItem;
         if (m_useMap)
-          m_stringMap.put(characterSequence, newItem);
+          addToIndex(globalID, characterSequence.hashCode());
         if (++globalID == m_valuePartitionCapacity) {
           globalID = 0;
           m_wrapped = true;
         }
       }
     }
+    
+    private int indexPosition(final int hashCode) {
+      return (hashCode * 0x9E3779B9) >>> m_indexShift;
+    }
+    
+    private void addToIndex(final int id, final int hashCode) {
+      if (4 * (m_n_indexed + 1) > 3 * m_index.length)
+        growIndex();
+      final int mask = m_index.length - 1;
+      int pos = indexPosition(hashCode);
+      while (m_index[pos] != 0)
+        pos = (pos + 1) & mask;
+      m_index[pos] = id + 1;
+      m_indexHashes[pos] = hashCode;
+      ++m_n_indexed;
+    }
+
+    private void removeFromIndex(final int id, final int hashCode) {
+      final int mask = m_index.length - 1;
+      int pos = indexPosition(hashCode);
+      int indexed;
+      while ((indexed = m_index[pos]) != id + 1) {
+        if (indexed == 0)
+          return;
+        pos = (pos + 1) & mask;
+      }
+      // Shift back the entries that would otherwise become unreachable.
+      for (int next = (pos + 1) & mask; m_index[next] != 0; next = (next + 1) & mask) {
+        final int home = indexPosition(m_indexHashes[next]);
+        if (pos <= next ? pos < home && home <= next : pos < home || home <= next)
+          continue;
+        m_index[pos] = m_index[next];
+        m_indexHashes[pos] = m_indexHashes[next];
+        pos = next;
+      }
+      m_index[pos] = 0;
+      --m_n_indexed;
+    }
+
+    private void growIndex() {
+      final int[] index = m_index;
+      final int[] indexHashes = m_indexHashes;
+      m_index = new int[index.length << 1];
+      m_indexHashes = new int[index.length << 1];
+      --m_indexShift;
+      final int mask = m_index.length - 1;
+      for (int i = 0; i < index.length; i++) {
+        if (index[i] != 0) {
+          int pos = indexPosition(indexHashes[i]);
+          while (m_index[pos] != 0)
+            pos = (pos + 1) & mask;
+          m_index[pos] = index[i];
+          m_indexHashes[pos] = indexHashes[i];
+        }
+      }
+    }
   }
   
   public static final class GlobalEntry {
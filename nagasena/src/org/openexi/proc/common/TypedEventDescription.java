@@ -0,0 +1,97 @@
+package org.openexi.proc.common;
+
+import java.nio.ByteBuffer;
+
+import org.openexi.schema.XSDateTime;
+
+/**
+ * <p>TypedEventDescription gives access to the value of a schema-typed
+ * EVENT_CH or EVENT_AT event in the form in which it was decoded, without
+ * going through its lexical representation. Decoders return events of
+ * this type when the use of typed values is enabled.</p>
+ *
+ * <p>The characters of the value are only computed when getCharacters()
+ * is called. As with other events, the content of TypedEventDescription
+ * is transient, and is only valid until the decoder is asked for the
+ * next event.</p>
+ */
+public interface TypedEventDescription extends EventDescription {
+
+  /**
+   * The value is only available as characters.
+   */
+  public static final byte VALUE_CHARACTERS = 0;
+  /**
+   * The value is available by getBooleanValue().
+   */
+  public static final byte VALUE_BOOLEAN = 1;
+  /**
+   * The value is available by getLongValue().
+   */
+  public static final byte VALUE_INTEGER = 2;
+  /**
+   * The value is available by getMantissa() and getExponent(),
+   * or getDoubleValue().
+   */
+  public static final byte VALUE_FLOAT = 3;
+  /**
+   * The value is available by getDateTimeValue().
+   */
+  public static final byte VALUE_DATETIME = 4;
+  /**
+   * The value is available by getBinaryValue().
+   */
+  public static final byte VALUE_BINARY = 5;
+
+  /**
+   * Exponent of the float values INF, -INF and NaN. The mantissa is
+   * 1 for INF, -1 for -INF and any other value for NaN.
+   */
+  public static final int EXPONENT_SPECIAL_VALUES = -16384;
+
+  /**
+   * Returns the kind of the value, which is one of VALUE_CHARACTERS,
+   * VALUE_BOOLEAN, VALUE_INTEGER, VALUE_FLOAT, VALUE_DATETIME and
+   * VALUE_BINARY. Integers that do not fit in a long are given as
+   * VALUE_CHARACTERS.
+   */
+  public byte getValueType();
+
+  /**
+   * Gets the value of a VALUE_BOOLEAN.
+   */
+  public boolean getBooleanValue();
+
+  /**
+   * Gets the value of a VALUE_INTEGER.
+   */
+  public long getLongValue();
+
+  /**
+   * Gets the mantissa of a VALUE_FLOAT.
+   */
+  public long getMantissa();
+
+  /**
+   * Gets the base-10 exponent of a VALUE_FLOAT, which is
+   * EXPONENT_SPECIAL_VALUES for INF, -INF and NaN.
+   */
+  public int getExponent();
+
+  /**
+   * Gets the value of a VALUE_FLOAT as a double.
+   */
+  public double getDoubleValue();
+
+  /**
+   * Gets the value of a VALUE_DATETIME. Fields that are absent from the
+   * value are set to XSDateTime.FIELD_UNDEFINED.
+   */
+  public XSDateTime getDateTimeValue();
+
+  /**
+   * Gets the octets of a VALUE_BINARY.
+   */
+  public ByteBuffer getBinaryValue();
+
+}
@@ -3,6 +3,7 @@ package org.openexi.proc.grammars;
 import org.openexi.proc.common.AlignmentType;
 import org.openexi.proc.common.EventType;
 import org.openexi.proc.common.EventTypeList;
+import org.openexi.proc.common.MetricsListener;
 import org.openexi.proc.common.QName;
 import org.openexi.proc.common.StringTable;
 import org.openexi.schema.EXISchema;
@@ -90,6 +91,14 @@ public abstract class Apparatus {
   protected boolean m_preserveLexicalValues;
   public boolean useBuiltinElementGrammar;
   
+  protected MetricsListener m_metrics;
+
+  // State on top of the stack when mark() was last called
+  private int m_marked_n_stackedStates;
+  private Grammar m_markedGrammar;
+  private byte m_markedPhase;
+  private int m_markedContentDatatype;
+  
   public Apparatus() {
     m_statesStack = new GrammarState[INIT_GRAMMARS_DEPTH];
     currentState = m_statesStack[0] = new GrammarState(this);
@@ -104,6 +113,7 @@ public abstract class Apparatus {
     m_codecTable = null;
     m_restrictedCharacterCountTable = null;
     useBuiltinElementGrammar = true;
+    m_metrics = null;
   }
 
   public void reset() {
@@ -114,6 +124,36 @@ public abstract class Apparatus {
   
   public abstract AlignmentType getAlignmentType();
 
+  /**
+   * Marks the state of grammars and the string table at an event boundary 
+   * so that rollbackGrammars() can return to it. An event changes only the 
+   * state on top of the stack, pushes states above it and learns productions 
+   * in the grammar of the state on top. Therefore the mark consists of the 
+   * depth of the stack, the contents of the state on top and the productions 
+   * learned so far by its grammar.
+   */
+  protected final void markGrammars() {
+    final GrammarState state = currentState;
+    m_marked_n_stackedStates = m_n_stackedStates;
+    (m_markedGrammar = state.targetGrammar).markLearned();
+    m_markedPhase = state.phase;
+    m_markedContentDatatype = state.contentDatatype;
+    stringTable.mark();
+  }
+
+  /**
+   * Returns the grammars and the string table to the state they were in 
+   * when markGrammars() was last called.
+   */
+  protected final void rollbackGrammars() {
+    final GrammarState state;
+    state = currentState = m_statesStack[(m_n_stackedStates = m_marked_n_stackedStates) - 1];
+    (state.targetGrammar = m_markedGrammar).unlearn();
+    state.phase = m_markedPhase;
+    state.contentDatatype = m_markedContentDatatype;
+    stringTable.rollback();
+  }
+  
   public void setSchema(EXISchema schema, QName[] dtrm, int n_bindings) {
     if ((this.schema = schema) != null) {
       m_types = schema.getTypes();
@@ -127,6 +167,24 @@ public abstract class Apparatus {
   
   public void setStringTable(StringTable stringTable) {
     this.stringTable = stringTable;
+    stringTable.setMetricsListener(m_metrics);
+  }
+  
+  /**
+   * Sets a listener to be notified of the inner workings, or null.
+   */
+  public void setMetricsListener(MetricsListener metrics) {
+    m_metrics = metrics;
+    if (stringTable != null)
+      stringTable.setMetricsListener(metrics);
+  }
+
+  /**
+   * Not for public use.
+   * @y.exclude
+   */
+  public final MetricsListener getMetricsListener() {
+    return m_metrics;
   }
   
   public void setPreserveLexicalValues(boolean preserveLexicalValues) {
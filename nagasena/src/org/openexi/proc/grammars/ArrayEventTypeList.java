@@ -30,6 +30,21 @@ final class ArrayEventTypeList extends EventTypeList {
   
   private EventType m_namespaceDeclaration;
   
+  private EventType m_endElement;
+  private EventType m_endDocument;
+  
+  /**
+   * Open addressing hash table of the SE(qname) event types that precede 
+   * all element wildcards in the list, keyed by local name. Null if there 
+   * are none.
+   */
+  private EventType[] m_startElements;
+  /**
+   * Position of the first element wildcard, or the length of the list if 
+   * there are none.
+   */
+  private int m_startElementWildcardPosition;
+  
   ArrayEventTypeList() {
     super(false);
     m_schemaAttributes = SCHEMA_ATTRIBUTES_NONE;
@@ -43,17 +58,41 @@ final class ArrayEventTypeList extends EventTypeList {
     m_schemaCharacters = null;
     m_characters = null;
     m_namespaceDeclaration = null;
+    m_endElement = null;
+    m_endDocument = null;
+    m_startElements = null;
+    m_startElementWildcardPosition = 0;
   }
   
   final void setItems(EventType[] eventTypes) {
     assert m_eventTypes == null;
     m_eventTypes = eventTypes;
     int i, len;
+    int n_startElements = 0;
+    m_startElementWildcardPosition = -1;
     for (i = 0, len = m_eventTypes.length; i < len; i++) {
       final EventType eventType = eventTypes[i]; 
       eventType.setIndex(i);
       final short itemType = eventType.itemType;
       switch (itemType) {
+        case EventType.ITEM_SE:
+          if (m_startElementWildcardPosition == -1)
+            ++n_startElements;
+          break;
+        case EventType.ITEM_SCHEMA_WC_ANY:
+        case EventType.ITEM_SCHEMA_WC_NS:
+        case EventType.ITEM_SE_WC:
+          if (m_startElementWildcardPosition == -1)
+            m_startElementWildcardPosition = i;
+          break;
+        case EventType.ITEM_EE:
+          if (m_endElement == null)
+            m_endElement = eventType;
+          break;
+        case EventType.ITEM_ED:
+          if (m_endDocument == null)
+            m_endDocument = eventType;
+          break;
         case EventType.ITEM_SCHEMA_AT:
           if (m_schemaAttributes.length == m_n_schemaAttributes) {
             final int sz = m_n_schemaAttributes == 0 ? 4 : 2 * m_n_schemaAttributes;
@@ -115,6 +154,23 @@ final class ArrayEventTypeList extends EventTypeList {
           break;
       }
     }
+    if (m_startElementWildcardPosition == -1)
+      m_startElementWildcardPosition = len;
+    if (n_startElements != 0) {
+      int sz = 4;
+      while (sz < 2 * n_startElements)
+        sz <<= 1;
+      m_startElements = new EventType[sz];
+      for (i = 0; i < m_startElementWildcardPosition; i++) {
+        final EventType eventType = eventTypes[i];
+        if (eventType.itemType == EventType.ITEM_SE) {
+          int pos = eventType.name.hashCode() & (sz - 1);
+          while (m_startElements[pos] != null)
+            pos = (pos + 1) & (sz - 1);
+          m_startElements[pos] = eventType;
+        }
+      }
+    }
   }
 
   @Override
@@ -133,16 +189,28 @@ final class ArrayEventTypeList extends EventTypeList {
     return eventType.itemType == EventType.ITEM_SD ? eventType : null;
   }
 
+  @Override
+  public final EventType getED() {
+    return m_endDocument;
+  }
+
   @Override
   public final EventType getEE() {
-    // REVISIT: replace with optimization
-    int i, len;
-    for (i = 0, len = m_eventTypes.length; i < len; i++) {
-      final EventType eventType = m_eventTypes[i];
-      if (eventType.itemType == EventType.ITEM_EE)
-        return eventType;
+    return m_endElement;
+  }
+  
+  @Override
+  public final EventType getStartElement(String uri, String name) {
+    final EventType[] startElements;
+    if ((startElements = m_startElements) != null) {
+      final int mask = startElements.length - 1;
+      EventType eventType;
+      for (int pos = name.hashCode() & mask; (eventType = startElements[pos]) != null; pos = (pos + 1) & mask) {
+        if (name.equals(eventType.name) && uri.equals(eventType.uri))
+          return eventType;
+      }
     }
-    return null;
+    return getStartElement(uri, name, m_startElementWildcardPosition);
   }
   
   @Override
@@ -23,6 +23,10 @@ final class BuiltinElementGrammar extends BuiltinGrammar implements IGrammar {
 
   private boolean m_xsiTypeAvailable; 
 
+  private int m_marked_n_tagEventTypes;
+  private int m_marked_n_contentEventTypes;
+  private boolean m_markedXsiTypeAvailable;
+
   private static final EventType[] m_eventTypesInit;
   static {
     m_eventTypesInit = new EventType[N_NONSCHEMA_ITEMS];
@@ -458,6 +462,31 @@ final class BuiltinElementGrammar extends BuiltinGrammar implements IGrammar {
     }
   }
 
+  ///////////////////////////////////////////////////////////////////////////
+  /// Marks
+  ///////////////////////////////////////////////////////////////////////////
+
+  @Override
+  void markLearned() {
+    m_marked_n_tagEventTypes = m_eventTypeListTag.getLength();
+    m_marked_n_contentEventTypes = m_eventTypeListContent.getLength();
+    m_markedXsiTypeAvailable = m_xsiTypeAvailable;
+  }
+
+  @Override
+  void unlearn() {
+    int n_learned;
+    if ((n_learned = m_eventTypeListTag.getLength() - m_marked_n_tagEventTypes) != 0) {
+      m_eventTypeListTag.truncate(m_marked_n_tagEventTypes);
+      m_eventCodesTag.truncate(m_eventCodesTag.itemsCount - n_learned);
+    }
+    if ((n_learned = m_eventTypeListContent.getLength() - m_marked_n_contentEventTypes) != 0) {
+      m_eventTypeListContent.truncate(m_marked_n_contentEventTypes);
+      m_eventCodesContent.truncate(m_eventCodesContent.itemsCount - n_learned);
+    }
+    m_xsiTypeAvailable = m_markedXsiTypeAvailable;
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   /// Method implementations for event processing
   ///////////////////////////////////////////////////////////////////////////
@@ -481,6 +510,7 @@ final class BuiltinElementGrammar extends BuiltinGrammar implements IGrammar {
       untypedCharacters = new EventType(EventCode.EVENT_CODE_DEPTH_ONE, eventTypeList, EventType.ITEM_CH, (IGrammar)null);
       eventTypeList.add(untypedCharacters);
       eventCodes.addItem(untypedCharacters);
+      learned(untypedCharacters, stateVariables);
       if (!dirty) {
         localNamePartition.addTouchedBuiltinElementGrammars(this);
         dirty = true;
@@ -497,6 +527,7 @@ final class BuiltinElementGrammar extends BuiltinGrammar implements IGrammar {
       undeclaredEE = EventTypeFactory.creatEndElement(EventCode.EVENT_CODE_DEPTH_ONE, m_eventTypeListTag); 
       m_eventTypeListTag.add(undeclaredEE);
       m_eventCodesTag.addItem(undeclaredEE);
+      learned(undeclaredEE, stateVariables);
       if (!dirty) {
         localNamePartition.addTouchedBuiltinElementGrammars(this);
         dirty = true;
@@ -549,6 +580,7 @@ final class BuiltinElementGrammar extends BuiltinGrammar implements IGrammar {
         eventTypeList, ensuingGrammar, (IGrammar)null); 
     eventTypeList.add(eventTypeElement);
     eventCodes.addItem(eventTypeElement);
+    learned(eventTypeElement, stateVariables);
     if (!dirty) {
       localNamePartition.addTouchedBuiltinElementGrammars(this);
       dirty = true;
@@ -567,6 +599,7 @@ final class BuiltinElementGrammar extends BuiltinGrammar implements IGrammar {
       final EventType eventTypeAttribute = new EventType(uri, name, uriId, localNameId, EventCode.EVENT_CODE_DEPTH_ONE, m_eventTypeListTag, EventType.ITEM_AT, (IGrammar)null);
       m_eventTypeListTag.add(eventTypeAttribute);
       m_eventCodesTag.addItem(eventTypeAttribute);
+      learned(eventTypeAttribute, stateVariables);
       if (!dirty) {
         localNamePartition.addTouchedBuiltinElementGrammars(this);
         dirty = true;
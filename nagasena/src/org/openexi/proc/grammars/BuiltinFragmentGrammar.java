@@ -11,6 +11,8 @@ final class BuiltinFragmentGrammar extends BuiltinGrammar {
   
   private final EventTypeList[] m_eventTypeLists;
   private final EventCodeTuple[] m_eventCodes;
+
+  private int m_marked_n_eventTypes;
   
   private static final EventType[] m_eventTypesInit;
   static {
@@ -215,6 +217,25 @@ final class BuiltinFragmentGrammar extends BuiltinGrammar {
     }
   }
 
+  ///////////////////////////////////////////////////////////////////////////
+  /// Marks
+  ///////////////////////////////////////////////////////////////////////////
+
+  @Override
+  void markLearned() {
+    m_marked_n_eventTypes = m_eventTypeLists[1].getLength();
+  }
+
+  @Override
+  void unlearn() {
+    final int n_learned;
+    if ((n_learned = m_eventTypeLists[1].getLength() - m_marked_n_eventTypes) != 0) {
+      ((ReversedEventTypeList)m_eventTypeLists[1]).truncate(m_marked_n_eventTypes);
+      final ReverseEventCodeTuple eventCodes = (ReverseEventCodeTuple)m_eventCodes[1];
+      eventCodes.truncate(eventCodes.itemsCount - n_learned);
+    }
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   /// Method implementations for event processing
   ///////////////////////////////////////////////////////////////////////////
@@ -285,6 +306,7 @@ final class BuiltinFragmentGrammar extends BuiltinGrammar {
     final EventTypeElement eventTypeElement = new EventTypeElement(uriId, uri, localNameId, name, m_eventTypeLists[1], ensuingGrammar, (IGrammar)null); 
     ((ReversedEventTypeList)m_eventTypeLists[1]).add(eventTypeElement);
     ((ReverseEventCodeTuple)m_eventCodes[1]).addItem(eventTypeElement);
+    learned(eventTypeElement, stateVariables);
     return ensuingGrammar;
   }
 
@@ -4,6 +4,7 @@ import org.openexi.proc.common.EventCode;
 import org.openexi.proc.common.EventType;
 import org.openexi.proc.common.EventTypeList;
 import org.openexi.proc.common.IGrammar;
+import org.openexi.proc.common.MetricsListener;
 
 public abstract class BuiltinGrammar extends Grammar {
 
@@ -32,6 +33,15 @@ public abstract class BuiltinGrammar extends Grammar {
     throw new IllegalStateException("char() cannot be invoked on a built-in element grammar.");
   }
   
+  /**
+   * Notifies the metrics listener, if any, of a production learned by this grammar.
+   */
+  final void learned(EventType eventType, GrammarState stateVariables) {
+    final MetricsListener metrics = stateVariables.apparatus.getMetricsListener();
+    if (metrics != null)
+      metrics.productionLearned(grammarType, eventType);
+  }
+
   public final EventType duplicate(EventType eventType, EventTypeList eventTypeList) {
     switch (eventType.itemType) {
       case EventType.ITEM_AT_WC_ANY_UNTYPED:
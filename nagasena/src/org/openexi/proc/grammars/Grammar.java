@@ -131,6 +131,19 @@ public abstract class Grammar {
     assert false;
   }
 
+  /**
+   * Marks the productions learned so far so that unlearn() can take back 
+   * those learned afterwards. Only built-in grammars learn productions.
+   */
+  void markLearned() {
+  }
+
+  /**
+   * Takes back the productions learned since markLearned() was last called.
+   */
+  void unlearn() {
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   /// Utility implementations
   ///////////////////////////////////////////////////////////////////////////
@@ -1,5 +1,11 @@
 package org.openexi.proc.grammars;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import org.openexi.proc.common.EventType;
 import org.openexi.proc.common.GrammarOptions;
 import org.openexi.proc.common.IGrammar;
@@ -12,6 +18,12 @@ import org.openexi.schema.EXISchemaLayout;
  * for processing EXI streams using specific grammar options. 
  * The GrammarCache is passed as an argument to 
  * the EXIReader and Transmogrifier prior to processing an EXI stream.
+ * <br/><br/>
+ * A GrammarCache does not change once it has been constructed. 
+ * It can therefore be shared by any number of EXIReader, EXIDecoder and 
+ * Transmogrifier instances, including those that run in different threads  
+ * at the same time. Built-in element grammars learned during the processing
+ * of a stream and the string table are kept in the state of each stream. 
  */
 public final class GrammarCache implements IGrammarCache {
 
@@ -26,6 +38,14 @@ public final class GrammarCache implements IGrammarCache {
   // Element grammars [0 ... #elements]
   final EXIGrammarUse[] exiGrammarUses;
   
+  // Initial local-name partitions of string tables, indexed by uri ID
+  private final IGrammar[][] m_localNameGrammars;
+  private final ArrayList<Map<String,Integer>> m_localNameIds;
+
+  // Enumeration indices of atomic simple types, built lazily by encoders. 
+  // Indexed by the serial of simple types.
+  private final AtomicReferenceArray<Map<Object,Integer>> m_enumerationIndices;
+  
   /**
    * Short integer that encapsulates {@link org.openexi.proc.common.GrammarOptions}
    * for the EXI stream.
@@ -120,12 +140,33 @@ public final class GrammarCache implements IGrammarCache {
       }
       elementFragmentGrammar = new ElementFragmentGrammar(this);
       m_fragmentGrammar = new FragmentGrammar(this);
+      final int n_uris = schema.localNames.length;
+      m_localNameGrammars = new IGrammar[n_uris][];
+      m_localNameIds = new ArrayList<Map<String,Integer>>(n_uris);
+      for (i = 0; i < n_uris; i++) {
+        final String uri = schema.uris[i];
+        final String[] names = schema.localNames[i];
+        final IGrammar[] nameGrammars = new IGrammar[names.length];
+        final HashMap<String,Integer> nameIds = new HashMap<String,Integer>();
+        for (int j = 0; j < names.length; j++) {
+          final String name = names[j];
+          if ((elem = schema.getGlobalElemOfSchema(uri, name)) != EXISchema.NIL_NODE)
+            nameGrammars[j] = getElementGrammarUse(elem);
+          nameIds.put(name, j);
+        }
+        m_localNameGrammars[i] = nameGrammars;
+        m_localNameIds.add(Collections.unmodifiableMap(nameIds));
+      }
+      m_enumerationIndices = new AtomicReferenceArray<Map<Object,Integer>>(schema.getTotalSimpleTypeCount() + 1);
     }
     else {
       elementFragmentGrammar = null;
       m_fragmentGrammar = new BuiltinFragmentGrammar(this);
       exiGrammars = null;
       exiGrammarUses = null;
+      m_localNameGrammars = null;
+      m_localNameIds = null;
+      m_enumerationIndices = null;
     }
     m_documentGrammar = new DocumentGrammar(this);
     m_builtinElementGrammarTemplate = new BuiltinElementGrammar("", this);
@@ -162,4 +203,27 @@ public final class GrammarCache implements IGrammarCache {
     return exiGrammarUses[m_schema.getSerialOfElem(elem)];
   }
 
+  /** @y.exclude */
+  public IGrammar[] getLocalNameGrammars(int uriId) {
+    return m_localNameGrammars[uriId];
+  }
+
+  /** @y.exclude */
+  public Map<String,Integer> getLocalNameIds(int uriId) {
+    return m_localNameIds.get(uriId);
+  }
+
+  /** @y.exclude */
+  public Map<Object,Integer> getEnumerationIndex(int stype) {
+    return m_enumerationIndices.get(m_schema.getSerialOfType(stype));
+  }
+
+  /** @y.exclude */
+  public Map<Object,Integer> putEnumerationIndex(int stype, Map<Object,Integer> enumerationIndex) {
+    final int serial = m_schema.getSerialOfType(stype);
+    if (m_enumerationIndices.compareAndSet(serial, null, enumerationIndex))
+      return enumerationIndex;
+    return m_enumerationIndices.get(serial);
+  }
+
 }
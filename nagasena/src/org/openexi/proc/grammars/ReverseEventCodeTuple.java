@@ -22,6 +22,14 @@ final class ReverseEventCodeTuple extends EventCodeTuple {
     width = m_initial_width;
     itemsCount = m_initial_itemsCount;
   }
+
+  /**
+   * Removes the items added since the tuple had n_items items.
+   */
+  void truncate(int n_items) {
+    itemsCount = n_items;
+    updateWidth();
+  }
   
   ///////////////////////////////////////////////////////////////////////////
   // Implementation of EventCodeTuple interface
@@ -62,6 +62,28 @@ final class ReversedEventTypeList extends EventTypeList {
     m_eventTypeEndElement = m_initialEventTypeEndElement;
     m_eventTypeCharacters = m_initialEventTypeCharacters;
   }
+
+  /**
+   * Removes the event types added since the list had n_eventTypes items.
+   * Those are learned event types, of which EE and CH are of depth one.
+   */
+  void truncate(int n_eventTypes) {
+    while (m_n_eventTypes > n_eventTypes) {
+      switch (m_eventTypes.get(--m_n_eventTypes).itemType) {
+        case EventType.ITEM_EE:
+          hasDepthOneEE = false;
+          m_eventTypeEndElement = m_initialEventTypeEndElement;
+          break;
+        case EventType.ITEM_CH:
+          hasDepthOneCH = false;
+          m_eventTypeCharacters = m_initialEventTypeCharacters;
+          break;
+        case EventType.ITEM_AT:
+          m_attributes[--m_n_attributes] = null;
+          break;
+      }
+    }
+  }
   
   ///////////////////////////////////////////////////////////////////////////
   // Implementation of EventTypeList APIs
@@ -1,7 +1,5 @@
 package org.openexi.proc.io;
 
-import java.io.IOException;
-
 import org.openexi.proc.common.QName;
 import org.openexi.proc.grammars.Apparatus;
 import org.openexi.proc.util.ExiUriConst;
@@ -25,20 +23,13 @@ final class Base64BinaryValueScanner extends BinaryValueScanner {
   }
   
   @Override
-  public Characters scan(int localNameId, int uriId, int tp) throws IOException {
-    final int len = m_scanner.readUnsignedInteger(m_istream);
-    if (m_octets.length < len) {
-      expandBuffer(len);
-    }
-    for (int i = 0; i < len; i++) {
-      m_octets[i] = (byte)m_scanner.readEightBitsUnsigned(m_istream);
-    }
+  protected Characters toCharacters(byte[] octets, int len) {
     final int maxChars = Base64.calculateTextMaxLength(len);
     m_scanner.m_characterBuffer.ensureCharacters(maxChars);
     final char[] characters = m_scanner.m_characterBuffer.characters;
     final int startIndex = m_scanner.m_characterBuffer.allocCharacters(maxChars);
-    int n_chars = Base64.encode(m_octets, 0, len, characters, startIndex);
-    return new Characters(characters, startIndex, n_chars, m_scanner.m_characterBuffer.isVolatile);
+    int n_chars = Base64.encode(octets, 0, len, characters, startIndex);
+    return m_scanner.m_characterBuffer.makeCharacters(characters, startIndex, n_chars);
   }
 
 }
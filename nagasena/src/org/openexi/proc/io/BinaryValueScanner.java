@@ -6,6 +6,7 @@ import org.openexi.proc.common.AlignmentType;
 import org.openexi.proc.common.BinaryDataSource;
 import org.openexi.proc.common.IBinaryValueScanner;
 import org.openexi.proc.common.QName;
+import org.openexi.schema.Characters;
 
 public abstract class BinaryValueScanner extends ValueScannerBase implements IBinaryValueScanner {
 
@@ -31,6 +32,43 @@ public abstract class BinaryValueScanner extends ValueScannerBase implements IBi
     m_octets = new byte[_length];
   }
 
+  /**
+   * Reads a binary value into m_octets.
+   * @return the number of octets
+   */
+  protected final int readOctets() throws IOException {
+    final int len = m_scanner.readUnsignedInteger(m_istream);
+    if (m_octets.length < len) {
+      expandBuffer(len);
+    }
+    for (int i = 0; i < len; i++) {
+      m_octets[i] = (byte)m_scanner.readEightBitsUnsigned(m_istream);
+    }
+    return len;
+  }
+
+  /**
+   * Renders octets in the lexical representation of the datatype.
+   */
+  protected abstract Characters toCharacters(byte[] octets, int len);
+
+  @Override
+  public final Characters scan(int localNameId, int uriId, int tp) throws IOException {
+    final int len = readOctets();
+    return toCharacters(m_octets, len);
+  }
+
+  @Override
+  final void scanTyped(int localNameId, int uriId, int tp, EXIEventTypedValue typedValue) throws IOException {
+    final int len = readOctets();
+    typedValue.setBinaryValue(m_octets, len, this);
+  }
+
+  @Override
+  final Characters toCharacters(EXIEventTypedValue typedValue) {
+    return toCharacters(typedValue.getOctets(), typedValue.getIntValue());
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   /// IBinaryValueScanner methods
   ///////////////////////////////////////////////////////////////////////////
@@ -2,9 +2,11 @@ package org.openexi.proc.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.openexi.proc.common.QName;
 import org.openexi.proc.util.ExiUriConst;
+import org.openexi.schema.EXISchema;
 
 public abstract class BinaryValueScriber extends ValueScriberBase implements BinaryDataSink {
 
@@ -12,6 +14,18 @@ public abstract class BinaryValueScriber extends ValueScriberBase implements Bin
     super(new QName(codecName, ExiUriConst.W3C_2009_EXI_URI));
   }
   
+  @Override
+  public final boolean processBinary(ByteBuffer value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    final int n_bytes = value.remaining();
+    final byte[] binaryValue = scribble.expandOctetArray(n_bytes);
+    final int position = value.position();
+    value.get(binaryValue, 0, n_bytes);
+    value.position(position);
+    scribble.intValue1 = n_bytes;
+    scribble.binaryValue = binaryValue;
+    return true;
+  }
+
   @Override
   public final void scribe(String value, Scribble scribble, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException {
     scribeBinaryValue(scribble.binaryValue, scribble.intValue1, channelStream, scriber);
@@ -51,6 +65,7 @@ public abstract class BinaryValueScriber extends ValueScriberBase implements Bin
     for (int i = 0; i < length; i++) {
       scriber.writeNBitUnsigned(byteArray[offset + i], 8, null);
     }
+    scriber.drain();
     scribble.longValue -= length;
   }
 
@@ -49,6 +49,25 @@ public final class BitPackedScanner extends SimpleScanner {
     return AlignmentType.bitPacked;
   }
 
+  /**
+   * Marks are supported when the body is read from a ByteBufferInputStream.
+   */
+  @Override
+  public boolean supportsMark() {
+    return m_bitInputStream == m_bodyBitInputStream && m_bodyBitInputStream.markSupported();
+  }
+
+  @Override
+  protected void markInput() {
+    assert supportsMark();
+    m_bodyBitInputStream.mark();
+  }
+
+  @Override
+  protected void resetInput() throws IOException {
+    m_bodyBitInputStream.reset();
+  }
+
   @Override
   protected boolean readBoolean(InputStream istream) throws IOException {
     // use m_dataStream irrespective of istream
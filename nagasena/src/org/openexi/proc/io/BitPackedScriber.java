@@ -94,6 +94,11 @@ public final class BitPackedScriber extends SimpleScriber {
     m_dataStream.putBits(width, val);
   }
   
+  @Override
+  void drain() throws IOException {
+    m_dataStream.drain();
+  }
+
   @Override
   public void finish() throws IOException {
     m_dataStream.flush();    
@@ -3,39 +3,113 @@ package org.openexi.proc.io;
 import java.io.InputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * An implementation of BitInputStream representing the EXI body of
  * a bit-packed stream.
+ * Bits are served from a 64-bit register, which is refilled from the
+ * byte array a long word at a time so that a refill makes at least 57
+ * bits available.
+ * When the input is a ByteBufferInputStream, bytes are read straight out
+ * of its buffer instead of being copied into the byte array.
  */
 public final class BodyBitInputStream extends BitInputStream {
 
   private static final int BYTEBUFFER_LENGTH = 8192;
   private final byte[] m_bytes;
+  private final ByteBuffer m_ownByteBuffer;
+  // Either m_ownByteBuffer or the buffer of m_source.
+  private ByteBuffer m_byteBuffer;
+  private ByteBufferInputStream m_source;
   private int m_bufLen;
   private int m_curPos;
 
+  /** Bits yet to be read are the right-most m_n_bits of m_bitBuf. */
+  private long m_bitBuf;
+  private int m_n_bits;
+
+  private long m_markedBitBuf;
+  private int m_marked_n_bits;
+
   BodyBitInputStream() {
     m_bytes = new byte[BYTEBUFFER_LENGTH];
+    m_byteBuffer = m_ownByteBuffer = ByteBuffer.wrap(m_bytes);
+    m_source = null;
     m_curPos = m_bufLen = 0;
+    m_bitBuf = 0;
+    m_n_bits = 0;
   }
   
   void setInputStream(InputStream in) {
-    this.in = in;
-    nBits = 0;
-    bitBuf = 0;
-    m_curPos = m_bufLen = 0;
+    m_bitBuf = 0;
+    m_n_bits = 0;
+    setSource(in);
   }
 
   void inheritResidue(HeaderOptionsInputStream inputStreamDirect) {
-    in = inputStreamDirect.in;
-    nBits = inputStreamDirect.nBits;
-    bitBuf = inputStreamDirect.bitBuf;
-    m_curPos = m_bufLen = 0;
+    m_n_bits = inputStreamDirect.nBits;
+    m_bitBuf = inputStreamDirect.bitBuf & ((1 << m_n_bits) - 1);
+    setSource(inputStreamDirect.in);
+  }
+
+  private void setSource(InputStream in) {
+    this.in = in;
+    if (in instanceof ByteBufferInputStream) {
+      m_source = (ByteBufferInputStream)in;
+      m_byteBuffer = m_source.getByteBuffer();
+      m_curPos = m_byteBuffer.position();
+      m_bufLen = m_byteBuffer.limit();
+    }
+    else {
+      m_source = null;
+      m_byteBuffer = m_ownByteBuffer;
+      m_curPos = m_bufLen = 0;
+    }
   }
   
+  /**
+   * Returns true if bytes are read out of a ByteBufferInputStream, which
+   * keeps the bytes from its mark on, so that mark() can be used.
+   */
+  boolean markSupported() {
+    return m_source != null;
+  }
+
+  /**
+   * Marks the current position so that reset() can return to it. Call it 
+   * only if markSupported() returns true.
+   */
+  void mark() {
+    assert m_source != null;
+    m_byteBuffer.position(m_curPos);
+    m_source.mark(0);
+    m_markedBitBuf = m_bitBuf;
+    m_marked_n_bits = m_n_bits;
+  }
+
+  /**
+   * Returns to the position marked by mark(). The buffer of the source is 
+   * looked up anew as bytes may have been appended to the source since.
+   */
+  void reset() throws IOException {
+    m_source.reset();
+    m_byteBuffer = m_source.getByteBuffer();
+    m_curPos = m_byteBuffer.position();
+    m_bufLen = m_byteBuffer.limit();
+    m_bitBuf = m_markedBitBuf;
+    m_n_bits = m_marked_n_bits;
+  }
+
   private int fill() throws IOException {
     assert m_curPos == m_bufLen;
+    if (m_source != null) {
+      m_byteBuffer.position(m_curPos);
+      if (m_source.fill() == -1)
+        return -1; /** EOF */
+      m_curPos = m_byteBuffer.position();
+      return m_bufLen = m_byteBuffer.limit();
+    }
     m_curPos = 0;
     if ((m_bufLen = in.read(m_bytes, 0, BYTEBUFFER_LENGTH)) == -1) {
       m_bufLen = 0;
@@ -44,18 +118,41 @@ public final class BodyBitInputStream extends BitInputStream {
     return m_bufLen;
   }
 
+  /**
+   * Makes at least n bits available in the register where n <= 32.
+   */
+  private void refill(int n) throws IOException {
+    assert m_n_bits < n && n <= 32;
+    while (m_curPos + 8 > m_bufLen) {
+      // Fewer than 8 bytes are left in the byte array.
+      if (m_curPos == m_bufLen && fill() == -1)
+        throw new EOFException();
+      if (m_curPos + 8 <= m_bufLen)
+        break;
+      m_bitBuf = m_bitBuf << 8 | m_byteBuffer.get(m_curPos++) & 0xFF;
+      if ((m_n_bits += 8) >= n)
+        return;
+    }
+    final long word = m_byteBuffer.getLong(m_curPos);
+    final int n_bytes = (64 - m_n_bits) >>> 3;
+    if (n_bytes == 8)
+      m_bitBuf = word;
+    else {
+      final int n_bits = n_bytes << 3;
+      m_bitBuf = m_bitBuf << n_bits | word >>> (64 - n_bits);
+    }
+    m_curPos += n_bytes;
+    m_n_bits += n_bytes << 3;
+  }
+
   /**
    * Retrieves a single bit.
    */
   @Override
   public boolean getBit() throws IOException {
-    if (--nBits != -1)
-      return ((bitBuf >>> nBits) & 1) == 1;
-    if (m_curPos == m_bufLen && fill() == -1)
-      throw new EOFException();
-    nBits = 7;
-    bitBuf = m_bytes[m_curPos++] & 0xFF;
-    return ((bitBuf >>> 7) & 1) == 1;
+    if (m_n_bits == 0)
+      refill(1);
+    return ((m_bitBuf >>> --m_n_bits) & 1) == 1;
   }
 
   /**
@@ -63,330 +160,51 @@ public final class BodyBitInputStream extends BitInputStream {
    */
   @Override
   public int getBits(int n) throws IOException {
-    int x = 0;
-    while (n > nBits) {
-      /**
-       * NOTE: used to be the following next two lines.
-       * n -= getCount;
-       * x |= rightBits(getCount, bitBuf) << n;
-       */
-      x |= (bitBuf & ((1 << nBits) - 1)) << (n -= nBits);
-      if (m_curPos == m_bufLen && fill() == -1) {
-        throw new EOFException();
-      }      
-      bitBuf = m_bytes[m_curPos++] & 0xFF;
-      nBits = 8;
-    }
-    /**
-     * NOTE: used to be the following next two lines.
-     * getCount -= n;
-     * return x | rightBits(n, bitBuf >>> getCount);  
-     */
-    return x | (bitBuf >>> (nBits -= n)) & ((1 << n) - 1);
+    if (m_n_bits < n)
+      refill(n);
+    return (int)((m_bitBuf >>> (m_n_bits -= n)) & ((1L << n) - 1));
   }
 
   @Override
   public int getOneBit() throws IOException {
-    switch (nBits) {
-	    case 0:
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 7;
-	      return (bitBuf >>> 7) & 0x01;
-    	case 1:
-	      nBits = 0;
-	      return bitBuf & 0x01;
-	    case 2:
-	    	nBits = 1;
-	    	return (bitBuf >>> 1) & 0x01;
-	    case 3:
-	    	nBits = 2;
-	    	return (bitBuf >>> 2) & 0x01;
-	    case 4:
-	    	nBits = 3;
-	    	return (bitBuf >>> 3) & 0x01;
-	    case 5:
-	    	nBits = 4;
-	    	return (bitBuf >>> 4) & 0x01;
-	    case 6:
-	    	nBits = 5;
-	    	return (bitBuf >>> 5) & 0x01;
-	    case 7:
-	    	nBits = 6;
-	    	return (bitBuf >>> 6) & 0x01;
-	    case 8:
-	    	nBits = 7;
-	    	return (bitBuf >>> 7) & 0x01;
-	    default:
-	      assert false;
-	      return -1;
-	  }
+    if (m_n_bits == 0)
+      refill(1);
+    return (int)(m_bitBuf >>> --m_n_bits) & 0x01;
   }
 
   @Override
   public int getTwoBits() throws IOException {
-    switch (nBits) {
-	    case 0:
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 6;
-	      return (bitBuf >>> 6) & 0x03;
-    	case 1:
-        final int x = (bitBuf & 0x01) << 1;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 7;
-	      return x | ((bitBuf >>> 7) & 0x01);
-	    case 2:
-	    	nBits = 0;
-	    	return bitBuf & 0x03;
-	    case 3:
-	    	nBits = 1;
-	    	return (bitBuf >>> 1) & 0x03;
-	    case 4:
-	    	nBits = 2;
-	    	return (bitBuf >>> 2) & 0x03;
-	    case 5:
-	    	nBits = 3;
-	    	return (bitBuf >>> 3) & 0x03;
-	    case 6:
-	    	nBits = 4;
-	    	return (bitBuf >>> 4) & 0x03;
-	    case 7:
-	    	nBits = 5;
-	    	return (bitBuf >>> 5) & 0x03;
-	    case 8:
-	    	nBits = 6;
-	    	return (bitBuf >>> 6) & 0x03;
-	    default:
-	      assert false;
-	      return -1;
-	  }
+    if (m_n_bits < 2)
+      refill(2);
+    return (int)(m_bitBuf >>> (m_n_bits -= 2)) & 0x03;
   }
 
   @Override
   public int getThreeBits() throws IOException {
-  	final int x;
-    switch (nBits) {
-	    case 0:
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 5;
-	      return (bitBuf >>> 5) & 0x07;
-    	case 1:
-        x = (bitBuf & 0x01) << 2;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 6;
-	      return x | ((bitBuf >>> 6) & 0x03);
-	    case 2:
-        x = (bitBuf & 0x03) << 1;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 7;
-	      return x | ((bitBuf >>> 7) & 0x01);
-	    case 3:
-	    	nBits = 0;
-	    	return bitBuf & 0x07;
-	    case 4:
-	    	nBits = 1;
-	    	return (bitBuf >>> 1) & 0x07;
-	    case 5:
-	    	nBits = 2;
-	    	return (bitBuf >>> 2) & 0x07;
-	    case 6:
-	    	nBits = 3;
-	    	return (bitBuf >>> 3) & 0x07;
-	    case 7:
-	    	nBits = 4;
-	    	return (bitBuf >>> 4) & 0x07;
-	    case 8:
-	    	nBits = 5;
-	    	return (bitBuf >>> 5) & 0x07;
-	    default:
-	      assert false;
-	      return -1;
-	  }
+    if (m_n_bits < 3)
+      refill(3);
+    return (int)(m_bitBuf >>> (m_n_bits -= 3)) & 0x07;
   }
 
   @Override
   public int getFourBits() throws IOException {
-  	final int x;
-    switch (nBits) {
-	    case 0:
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 4;
-	      return (bitBuf >>> 4) & 0x0F;
-    	case 1:
-        x = (bitBuf & 0x01) << 3;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 5;
-	      return x | ((bitBuf >>> 5) & 0x07);
-	    case 2:
-        x = (bitBuf & 0x03) << 2;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 6;
-	      return x | ((bitBuf >>> 6) & 0x03);
-	    case 3:
-        x = (bitBuf & 0x07) << 1;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 7;
-	      return x | ((bitBuf >>> 7) & 0x01);
-	    case 4:
-	    	nBits = 0;
-	    	return bitBuf & 0x0F;
-	    case 5:
-	    	nBits = 1;
-	    	return (bitBuf >>> 1) & 0x0F;
-	    case 6:
-	    	nBits = 2;
-	    	return (bitBuf >>> 2) & 0x0F;
-	    case 7:
-	    	nBits = 3;
-	    	return (bitBuf >>> 3) & 0x0F;
-	    case 8:
-	    	nBits = 4;
-	    	return (bitBuf >>> 4) & 0x0F;
-	    default:
-	      assert false;
-	      return -1;
-	  }
+    if (m_n_bits < 4)
+      refill(4);
+    return (int)(m_bitBuf >>> (m_n_bits -= 4)) & 0x0F;
   }
 
   @Override
   public int getFiveBits() throws IOException {
-  	final int x;
-    switch (nBits) {
-	    case 0:
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 3;
-	      return (bitBuf >>> 3) & 0x1F;
-    	case 1:
-        x = (bitBuf & 0x01) << 4;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 4;
-	      return x | ((bitBuf >>> 4) & 0x0F);
-	    case 2:
-        x = (bitBuf & 0x03) << 3;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 5;
-	      return x | ((bitBuf >>> 5) & 0x07);
-	    case 3:
-        x = (bitBuf & 0x07) << 2;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 6;
-	      return x | ((bitBuf >>> 6) & 0x03);
-	    case 4:
-        x = (bitBuf & 0x0F) << 1;
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        bitBuf = m_bytes[m_curPos++];
-	      nBits = 7;
-	      return x | ((bitBuf >>> 7) & 0x01);
-	    case 5:
-	    	nBits = 0;
-	    	return bitBuf & 0x1F;
-	    case 6:
-	    	nBits = 1;
-	    	return (bitBuf >>> 1) & 0x1F;
-	    case 7:
-	    	nBits = 2;
-	    	return (bitBuf >>> 2) & 0x1F;
-	    case 8:
-	    	nBits = 3;
-	    	return (bitBuf >>> 3) & 0x1F;
-	    default:
-	      assert false;
-	      return -1;
-	  }
+    if (m_n_bits < 5)
+      refill(5);
+    return (int)(m_bitBuf >>> (m_n_bits -= 5)) & 0x1F;
   }
 
   @Override
   public int getEightBits() throws IOException {
-    final int x;
-    switch (nBits) {
-      case 0:
-        if (m_curPos == m_bufLen && fill() == -1)
-          throw new EOFException();
-        return m_bytes[m_curPos++] & 0xFF;
-      case 8:
-        nBits = 0;
-        return bitBuf;
-      case 1:
-        x = (bitBuf & 1) << 7;
-        if (m_curPos == m_bufLen && fill() == -1) {
-          throw new EOFException();
-        }      
-        bitBuf = m_bytes[m_curPos++] & 0xFF;
-        return x | (bitBuf >>> 1);
-      case 2:
-        x = (bitBuf & 3) << 6;
-        if (m_curPos == m_bufLen && fill() == -1) {
-          throw new EOFException();
-        }      
-        bitBuf = m_bytes[m_curPos++] & 0xFF;
-        return x | (bitBuf >>> 2);
-      case 3:
-        x = (bitBuf & 7) << 5;
-        if (m_curPos == m_bufLen && fill() == -1) {
-          throw new EOFException();
-        }      
-        bitBuf = m_bytes[m_curPos++] & 0xFF;
-        return x | (bitBuf >>> 3);
-      case 4:
-        x = (bitBuf & 15) << 4;
-        if (m_curPos == m_bufLen && fill() == -1) {
-          throw new EOFException();
-        }      
-        bitBuf = m_bytes[m_curPos++] & 0xFF;
-        return x | (bitBuf >>> 4);
-      case 5:
-        x = (bitBuf & 31) << 3;
-        if (m_curPos == m_bufLen && fill() == -1) {
-          throw new EOFException();
-        }      
-        bitBuf = m_bytes[m_curPos++] & 0xFF;
-        return x | (bitBuf >>> 5);
-      case 6:
-        x = (bitBuf & 63) << 2;
-        if (m_curPos == m_bufLen && fill() == -1) {
-          throw new EOFException();
-        }      
-        bitBuf = m_bytes[m_curPos++] & 0xFF;
-        return x | (bitBuf >>> 6);
-      case 7:
-        x = (bitBuf & 127) << 1;
-        if (m_curPos == m_bufLen && fill() == -1) {
-          throw new EOFException();
-        }      
-        bitBuf = m_bytes[m_curPos++] & 0xFF;
-        return x | (bitBuf >>> 7);
-      default:
-        assert false;
-        return -1;
-    }
+    if (m_n_bits < 8)
+      refill(8);
+    return (int)(m_bitBuf >>> (m_n_bits -= 8)) & 0xFF;
   }
   
   /**
@@ -32,22 +32,22 @@ final class BooleanValueScriber extends ValueScriberBase {
   
   @Override
   public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
-    if (!trimWhitespaces(value))
+    if (!trimWhitespaces(value, scribble))
       return false;
     
     final boolean distinguishLexicalValues = scribble.booleanValue2 = schema.isPatternedBooleanSimpleType(tp);
     
-    final int len = limitPosition - startPosition;
-    if (len == 4 && value.charAt(startPosition) == 't' && value.charAt(startPosition + 1) == 'r' &&
-        value.charAt(startPosition + 2) == 'u' && value.charAt(startPosition + 3) == 'e') {
+    final int len = scribble.limitPosition - scribble.startPosition;
+    if (len == 4 && value.charAt(scribble.startPosition) == 't' && value.charAt(scribble.startPosition + 1) == 'r' &&
+        value.charAt(scribble.startPosition + 2) == 'u' && value.charAt(scribble.startPosition + 3) == 'e') {
       if (distinguishLexicalValues)
         scribble.intValue1 = 2;
       else
         scribble.booleanValue1 = true;
     }
-    else if (len == 5 && value.charAt(startPosition) == 'f' && value.charAt(startPosition + 1) == 'a' &&
-        value.charAt(startPosition + 2) == 'l' && value.charAt(startPosition + 3) == 's' && 
-        value.charAt(startPosition + 4) == 'e') {
+    else if (len == 5 && value.charAt(scribble.startPosition) == 'f' && value.charAt(scribble.startPosition + 1) == 'a' &&
+        value.charAt(scribble.startPosition + 2) == 'l' && value.charAt(scribble.startPosition + 3) == 's' && 
+        value.charAt(scribble.startPosition + 4) == 'e') {
       if (distinguishLexicalValues)
         scribble.intValue1 = 0;
       else
@@ -55,7 +55,7 @@ final class BooleanValueScriber extends ValueScriberBase {
     }
     else if (len == 1) {
       char c;
-      if ((c = value.charAt(startPosition)) == '1') {
+      if ((c = value.charAt(scribble.startPosition)) == '1') {
         if (distinguishLexicalValues)
           scribble.intValue1 = 3;
         else
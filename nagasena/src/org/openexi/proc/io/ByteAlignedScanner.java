@@ -20,6 +20,26 @@ final class ByteAlignedScanner extends SimpleScanner {
     return AlignmentType.byteAligned;
   }
 
+  /**
+   * Marks are supported when reading from a ByteBufferInputStream, which 
+   * keeps the bytes from its mark on.
+   */
+  @Override
+  public boolean supportsMark() {
+    return m_inputStream instanceof ByteBufferInputStream;
+  }
+
+  @Override
+  protected void markInput() {
+    assert supportsMark();
+    m_inputStream.mark(0);
+  }
+
+  @Override
+  protected void resetInput() throws IOException {
+    ((ByteBufferInputStream)m_inputStream).reset();
+  }
+
   @Override
   protected boolean readBoolean(InputStream istream) throws IOException {
     // use m_inputStream irrespective of istream
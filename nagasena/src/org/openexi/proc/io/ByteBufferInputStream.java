@@ -0,0 +1,241 @@
+package org.openexi.proc.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * ByteBufferInputStream presents the bytes of a ByteBuffer, or of a
+ * ReadableByteChannel, as an InputStream. Bit-packed body streams read
+ * straight out of the buffer rather than through the InputStream methods.
+ * A partial stream is one of which the bytes are appended as they arrive.
+ * @y.exclude
+ */
+public final class ByteBufferInputStream extends InputStream {
+
+  private static final int CHANNEL_BUFFER_SIZE = 8192;
+
+  private ByteBuffer m_byteBuffer;
+  private final ReadableByteChannel m_channel;
+  private boolean m_partial;
+  // Position marked by mark(), or -1 if there is none
+  private int m_mark;
+
+  /**
+   * Creates a stream that reads the remaining bytes of a buffer, which may
+   * be either a heap or a direct buffer. The position and limit of the
+   * buffer are left unchanged.
+   */
+  public ByteBufferInputStream(ByteBuffer byteBuffer) {
+    m_byteBuffer = byteBuffer.duplicate();
+    m_byteBuffer.order(ByteOrder.BIG_ENDIAN);
+    m_channel = null;
+    m_partial = false;
+    m_mark = -1;
+  }
+
+  /**
+   * Creates a partial stream, to which bytes are appended by append() as 
+   * they arrive. Reading past the bytes appended so far results in an 
+   * EOFException instead of the end of the stream.
+   * @param capacity initial capacity of the buffer
+   */
+  public ByteBufferInputStream(int capacity) {
+    m_byteBuffer = ByteBuffer.allocate(capacity);
+    m_byteBuffer.flip();
+    m_channel = null;
+    m_partial = true;
+    m_mark = -1;
+  }
+
+  /**
+   * Creates a stream that reads the bytes of a channel in blocking mode.
+   * @throws IllegalBlockingModeException if the channel is in non-blocking mode
+   */
+  public ByteBufferInputStream(ReadableByteChannel channel) {
+    if (channel instanceof SelectableChannel && !((SelectableChannel)channel).isBlocking())
+      throw new IllegalBlockingModeException();
+    m_byteBuffer = ByteBuffer.allocate(CHANNEL_BUFFER_SIZE);
+    m_byteBuffer.flip();
+    m_channel = channel;
+    m_partial = false;
+    m_mark = -1;
+  }
+
+  /**
+   * Returns the buffer of which the bytes between the position and the
+   * limit are yet to be read.
+   */
+  ByteBuffer getByteBuffer() {
+    return m_byteBuffer;
+  }
+
+  /**
+   * Appends bytes to a partial stream.
+   * @param b array that contains the bytes
+   * @param off offset of the first byte in the array
+   * @param len number of bytes
+   */
+  public void append(byte[] b, int off, int len) {
+    final int position = makeRoom(len);
+    m_byteBuffer.put(b, off, len);
+    m_byteBuffer.limit(m_byteBuffer.position());
+    m_byteBuffer.position(position);
+  }
+
+  /**
+   * Appends the remaining bytes of a buffer to a partial stream, which 
+   * consumes them all.
+   */
+  public void append(ByteBuffer byteBuffer) {
+    final int position = makeRoom(byteBuffer.remaining());
+    m_byteBuffer.put(byteBuffer);
+    m_byteBuffer.limit(m_byteBuffer.position());
+    m_byteBuffer.position(position);
+  }
+
+  /**
+   * Notifies that no more bytes are to be appended, after which reading 
+   * past the bytes appended results in the end of the stream.
+   */
+  public void endOfInput() {
+    assert m_channel == null;
+    m_partial = false;
+  }
+
+  /**
+   * Discards all the bytes of a stream created for appending bytes, 
+   * which becomes partial again.
+   */
+  public void clear() {
+    assert m_channel == null;
+    m_byteBuffer.clear();
+    m_byteBuffer.flip();
+    m_partial = true;
+    m_mark = -1;
+  }
+
+  /**
+   * Makes room for len bytes past the limit, and positions the buffer at 
+   * the limit with the limit moved to the capacity. When there is not enough 
+   * room, the bytes that precede both the mark and the position are dropped, 
+   * and the buffer is grown so that at most half of it is taken up. 
+   * @return the position to be restored after the bytes are put
+   */
+  private int makeRoom(int len) {
+    assert m_partial && m_channel == null;
+    int position = m_byteBuffer.position();
+    final int limit = m_byteBuffer.limit();
+    if (m_byteBuffer.capacity() - limit < len) {
+      final int start = m_mark != -1 && m_mark < position ? m_mark : position;
+      final int n_kept = limit - start;
+      int capacity = m_byteBuffer.capacity();
+      while (capacity < 2 * (n_kept + len))
+        capacity <<= 1;
+      m_byteBuffer.position(start);
+      if (capacity == m_byteBuffer.capacity())
+        m_byteBuffer.compact();
+      else {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(capacity);
+        byteBuffer.put(m_byteBuffer);
+        m_byteBuffer = byteBuffer;
+      }
+      position -= start;
+      if (m_mark != -1)
+        m_mark -= start;
+    }
+    else {
+      m_byteBuffer.position(limit);
+      m_byteBuffer.limit(m_byteBuffer.capacity());
+    }
+    return position;
+  }
+
+  /**
+   * Reads more bytes from the channel into the buffer after all the bytes
+   * in it have been consumed.
+   * @return the number of bytes read, or -1 at the end of the stream
+   * @throws EOFException if the stream is partial and all its bytes have been read
+   */
+  int fill() throws IOException {
+    assert !m_byteBuffer.hasRemaining();
+    if (m_channel == null) {
+      if (m_partial)
+        throw new EOFException();
+      return -1;
+    }
+    m_byteBuffer.clear();
+    m_mark = -1;
+    int n;
+    while ((n = m_channel.read(m_byteBuffer)) == 0);
+    m_byteBuffer.flip();
+    return n;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!m_byteBuffer.hasRemaining() && fill() == -1)
+      return -1;
+    return m_byteBuffer.get() & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0)
+      return 0;
+    if (!m_byteBuffer.hasRemaining() && fill() == -1)
+      return -1;
+    final int n = Math.min(len, m_byteBuffer.remaining());
+    m_byteBuffer.get(b, off, n);
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long n_skipped = 0;
+    while (n_skipped < n && (m_byteBuffer.hasRemaining() || fill() != -1)) {
+      final int k = (int)Math.min(n - n_skipped, m_byteBuffer.remaining());
+      m_byteBuffer.position(m_byteBuffer.position() + k);
+      n_skipped += k;
+    }
+    return n_skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return true;
+  }
+
+  /**
+   * Marks the current position. The mark of a stream that reads from a 
+   * channel is discarded when more bytes are read from the channel.
+   */
+  @Override
+  public void mark(int readlimit) {
+    m_mark = m_byteBuffer.position();
+  }
+
+  @Override
+  public void reset() throws IOException {
+    if (m_mark == -1)
+      throw new IOException("There is no mark to return to.");
+    m_byteBuffer.position(m_mark);
+  }
+
+  @Override
+  public int available() {
+    return m_byteBuffer.remaining();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (m_channel != null)
+      m_channel.close();
+  }
+
+}
@@ -17,6 +17,11 @@ public final class CharacterBuffer {
   /** @y.exclude */
   public int nextIndex;
   
+  /**
+   * Window that is handed out for every value in flyweight mode.
+   */
+  private CharactersWindow m_window;
+  
   public CharacterBuffer(int bufSize) {
     this(bufSize, true);
   }
@@ -32,6 +37,27 @@ public final class CharacterBuffer {
     characters = new char[bufSize];
     this.bufSize = bufSize;
     nextIndex = 0;
+    m_window = null;
+  }
+  
+  /**
+   * In flyweight mode, Characters returned by the methods of this class are 
+   * one window that moves to the next value, as opposed to new instances.
+   */
+  void setFlyweight(boolean flyweight) {
+    if (!flyweight)
+      m_window = null;
+    else if (m_window == null)
+      m_window = new CharactersWindow();
+  }
+  
+  /**
+   * Returns Characters that represents the specified sequence of characters.
+   */
+  Characters makeCharacters(char[] chars, int index, int length) {
+    if (m_window != null)
+      return m_window.moveTo(chars, index, length, isVolatile);
+    return new Characters(chars, index, length, isVolatile);
   }
   
   /** @y.exclude */
@@ -90,7 +116,7 @@ public final class CharacterBuffer {
       return null;
     }
     nextIndex = pos;
-    return new Characters(characters, index, length, isVolatile);
+    return makeCharacters(characters, index, length);
   }
 
   /** @y.exclude */
@@ -104,7 +130,7 @@ public final class CharacterBuffer {
     if (i != length)
       return null;
     nextIndex = pos;
-    return new Characters(characters, index, length, isVolatile);
+    return makeCharacters(characters, index, length);
   }
   
   /** @y.exclude */
@@ -118,7 +144,7 @@ public final class CharacterBuffer {
     for (int i = 0; i < n_fractionDigits; i++, pos++)
       characters[pos] = fractionalDigitsChars[i];
     nextIndex = pos;
-    return new Characters(characters, index, totalLength, isVolatile);
+    return makeCharacters(characters, index, totalLength);
   }
   
   /** @y.exclude */
@@ -133,7 +159,7 @@ public final class CharacterBuffer {
       return null;
     }
     nextIndex = pos;
-    return new Characters(characters, index, length, isVolatile);
+    return makeCharacters(characters, index, length);
   }
 
 }
@@ -0,0 +1,20 @@
+package org.openexi.proc.io;
+
+import org.openexi.schema.Characters;
+
+/**
+ * Characters that the decoder hands out for every value in flyweight mode, 
+ * moved over the character buffer rather than allocated per value.
+ */
+final class CharactersWindow extends Characters {
+
+  CharactersWindow() {
+    super(Characters.CHARACTERS_EMPTY.characters, 0, 0, true);
+  }
+
+  Characters moveTo(char[] characters, int startIndex, int length, boolean isVolatile) {
+    set(characters, startIndex, length, isVolatile);
+    return this;
+  }
+
+}
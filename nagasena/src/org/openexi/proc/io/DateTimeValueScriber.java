@@ -35,71 +35,75 @@ public final class DateTimeValueScriber extends DateTimeValueScriberBase {
 
   @Override
   public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
-    if (!trimWhitespaces(value))
+    if (!trimWhitespaces(value, scribble))
       return false;
     final boolean useUTCTime = scribble.booleanValue1;
     final int year, month, day, hour, minute, second;
-    BigInteger reverseFractionalSecond = null;
+    long reverseFractionalSecond = 0;
+    BigInteger bigReverseFractionalSecond = null;
     int tz = XSDateTime.FIELD_UNDEFINED;
-    nextPosition = startPosition; // OK, Let's start parsing
-    if (!parseYearField(value, scribble) || nextPosition == limitPosition)
+    scribble.nextPosition = scribble.startPosition; // OK, Let's start parsing
+    if (!parseYearField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
       return false;
     year = scribble.intValue1;
-    if (value.charAt(nextPosition++) != '-' || nextPosition == limitPosition)
+    if (value.charAt(scribble.nextPosition++) != '-' || scribble.nextPosition == scribble.limitPosition)
       return false;
-    if (!parseMonthField(value, scribble) || nextPosition == limitPosition)
+    if (!parseMonthField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
       return false;
     month = scribble.intValue1;
-    if (value.charAt(nextPosition++) != '-' || nextPosition == limitPosition)
+    if (value.charAt(scribble.nextPosition++) != '-' || scribble.nextPosition == scribble.limitPosition)
       return false;
-    if (!parseDayField(value, year, month, scribble) || nextPosition == limitPosition)
+    if (!parseDayField(value, year, month, scribble) || scribble.nextPosition == scribble.limitPosition)
       return false;
     day = scribble.intValue1;
-    if (value.charAt(nextPosition++) != 'T' || nextPosition == limitPosition)
+    if (value.charAt(scribble.nextPosition++) != 'T' || scribble.nextPosition == scribble.limitPosition)
       return false;
-    if (!parseHourField(value, scribble) || nextPosition == limitPosition)
+    if (!parseHourField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
       return false;
     hour = scribble.intValue1;
-    if (value.charAt(nextPosition++) != ':' || nextPosition == limitPosition)
+    if (value.charAt(scribble.nextPosition++) != ':' || scribble.nextPosition == scribble.limitPosition)
       return false;
-    if (!parseMinuteField(value, scribble) || nextPosition == limitPosition)
+    if (!parseMinuteField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
       return false;
     minute = scribble.intValue1;
     if (hour == 24 && minute != 0)
       return false;
-    if (value.charAt(nextPosition++) != ':' || nextPosition == limitPosition)
+    if (value.charAt(scribble.nextPosition++) != ':' || scribble.nextPosition == scribble.limitPosition)
       return false;
     if (!parseSecondField(value, scribble))
       return false;
     second = scribble.intValue1;
     if (hour == 24 && second != 0)
       return false;
-    if (nextPosition != limitPosition) {
-      if (value.charAt(nextPosition) == '.') {
-        if (++nextPosition == limitPosition)
+    if (scribble.nextPosition != scribble.limitPosition) {
+      if (value.charAt(scribble.nextPosition) == '.') {
+        final int startPosition = ++scribble.nextPosition;
+        final int n_digits;
+        if ((n_digits = parseFractionalSecondField(value, scribble)) == 0)
           return false;
-        else if ((reverseFractionalSecond = parseFractionalSecondField(value)) == null)
-          return false;
-        else if (reverseFractionalSecond.signum() == 0)
-          reverseFractionalSecond = null;
+        else if (n_digits <= MAX_FRACTIONAL_SECOND_DIGITS)
+          reverseFractionalSecond = scribble.longValue;
+        else if ((bigReverseFractionalSecond = toReverseFractionalSecond(value, startPosition, scribble.nextPosition)).signum() == 0)
+          bigReverseFractionalSecond = null;
       }
-      if (nextPosition != limitPosition) {
-        if (!parseTimezoneField(value, scribble) || nextPosition != limitPosition)
+      if (scribble.nextPosition != scribble.limitPosition) {
+        if (!parseTimezoneField(value, scribble) || scribble.nextPosition != scribble.limitPosition)
           return false;
         tz = scribble.intValue1;
       }
     }
-    scribble.dateTime = new XSDateTime(year, month, day, hour, minute, second, reverseFractionalSecond, tz, EXISchemaConst.DATETIME_TYPE);
+    scribble.dateTime = new XSDateTime(year, month, day, hour, minute, second, bigReverseFractionalSecond, tz, EXISchemaConst.DATETIME_TYPE);
     scribble.dateTime.normalize(useUTCTime);
+    scribble.longValue = reverseFractionalSecond;
     return true;
   }
 
   @Override
-  void scribeDateTimeValue(XSDateTime dateTime, OutputStream channelStream, Scriber scriber) throws IOException {
+  void scribeDateTimeValue(XSDateTime dateTime, long reverseFractionalSecond, OutputStream channelStream, Scriber scriber) throws IOException {
     writeYear(dateTime.year, channelStream, scriber);
     writeMonthDay(dateTime.month, dateTime.day, channelStream, scriber);
     writeTime(dateTime.hour, dateTime.minute, dateTime.second,
-        dateTime.reverseFractionalSecond, channelStream, scriber);
+        reverseFractionalSecond, dateTime.reverseFractionalSecond, channelStream, scriber);
     writeTimeZone(dateTime.timeZone, channelStream, scriber);
   }
   
@@ -2,6 +2,7 @@ package org.openexi.proc.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.math.BigInteger;
 
 import org.openexi.proc.common.QName;
@@ -33,34 +34,91 @@ public final class DecimalValueScriber extends ValueScriberBase {
   
   @Override
   public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
-    return doProcess(value, scribble, scriber.stringBuilder1, scriber.stringBuilder2);
+    return doProcess(scriber.toChars(value), 0, value.length(), scribble, scriber.stringBuilder1, scriber.stringBuilder2);
+  }
+
+  @Override
+  public boolean processesChars() {
+    return true;
+  }
+
+  @Override
+  public boolean process(char[] ch, int start, int length, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return doProcess(ch, start, length, scribble, scriber.stringBuilder1, scriber.stringBuilder2);
+  }
+  
+  @Override
+  public boolean processDecimal(BigDecimal value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    final int signum;
+    if ((signum = value.signum()) == 0) {
+      scribble.booleanValue1 = false;
+      scribble.stringValue1 = scribble.stringValue2 = null;
+      scribble.longValue = 0;
+      scribble.intValue1 = 0;
+      return true;
+    }
+    int scale = value.scale();
+    final BigInteger unscaledValue = value.unscaledValue();
+    if (0 <= scale && scale <= 18 && unscaledValue.bitLength() < 63) {
+      long digitsValue = unscaledValue.longValue();
+      if (signum < 0)
+        digitsValue = 0 - digitsValue;
+      // Trailing zeros of the fraction are not represented.
+      for (; scale != 0 && digitsValue % 10 == 0; --scale)
+        digitsValue /= 10;
+      long scaleValue = 1;
+      for (int i = 0; i < scale; i++)
+        scaleValue *= 10;
+      final long integralValue = digitsValue / scaleValue;
+      if (integralValue < 1000000000000000000L && scale <= MAX_FRACTIONAL_VALUE_DIGITS) {
+        long fractionalValue = digitsValue % scaleValue;
+        int reverseFractionalValue = 0;
+        for (int i = 0; i < scale; i++, fractionalValue /= 10)
+          reverseFractionalValue = 10 * reverseFractionalValue + (int)(fractionalValue % 10);
+        scribble.booleanValue1 = signum < 0;
+        scribble.stringValue1 = scribble.stringValue2 = null;
+        scribble.longValue = integralValue;
+        scribble.intValue1 = reverseFractionalValue;
+        return true;
+      }
+    }
+    final String stringValue = value.toPlainString();
+    return doProcess(scriber.toChars(stringValue), 0, stringValue.length(), scribble, 
+        scriber.stringBuilder1, scriber.stringBuilder2);
   }
   
   @Override
   public void scribe(String value, Scribble scribble, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException {
-    scribeDecimalValue(scribble.stringValue1, scribble.stringValue2, scribble.booleanValue1, channelStream, scriber);
+    scribeDecimalValue(scribble.stringValue1, scribble.stringValue2, scribble.longValue, scribble.intValue1, 
+        scribble.booleanValue1, channelStream, scriber);
   }
   
   private static class DecimalValue {
     String integralDigits;
     String fractionalDigits;
+    long integralValue;
+    int fractionalValue;
     boolean isNegative;
-    DecimalValue(String integralDigits, String fractionalDigits, boolean isNegative) {
+    DecimalValue(String integralDigits, String fractionalDigits, long integralValue, int fractionalValue, boolean isNegative) {
       this.integralDigits = integralDigits;
       this.fractionalDigits = fractionalDigits;
+      this.integralValue = integralValue;
+      this.fractionalValue = fractionalValue;
       this.isNegative = isNegative;
     }
   }
 
   @Override
   public Object toValue(String value, Scribble scribble, Scriber scriber) {
-    return new DecimalValue(scribble.stringValue1, scribble.stringValue2, scribble.booleanValue1);
+    return new DecimalValue(scribble.stringValue1, scribble.stringValue2, scribble.longValue, scribble.intValue1, 
+        scribble.booleanValue1);
   }
   
   @Override
   public void doScribe(Object value, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException  {
     final DecimalValue decimalValue = (DecimalValue)value;
-    scribeDecimalValue(decimalValue.integralDigits, decimalValue.fractionalDigits, decimalValue.isNegative, channelStream, scriber);
+    scribeDecimalValue(decimalValue.integralDigits, decimalValue.fractionalDigits, decimalValue.integralValue, 
+        decimalValue.fractionalValue, decimalValue.isNegative, channelStream, scriber);
   }
 
   ////////////////////////////////////////////////////////////
@@ -76,6 +134,8 @@ public final class DecimalValueScriber extends ValueScriberBase {
    * Extract integral digits from a scribble.
    */
   public static String getIntegralDigits(Scribble scribble) {
+    if (scribble.stringValue1 == null)
+      toDigits(scribble);
     return scribble.stringValue1;
   }
   
@@ -83,24 +143,49 @@ public final class DecimalValueScriber extends ValueScriberBase {
    * Extract reverse-fractional digits from a scribble.
    */
   public static String getReverseFractionalDigits(Scribble scribble) {
+    if (scribble.stringValue1 == null)
+      toDigits(scribble);
     return scribble.stringValue2;
   }
   
+  /**
+   * Convert the digits held as numbers into strings of digits.
+   */
+  private static void toDigits(Scribble scribble) {
+    scribble.stringValue1 = Long.toString(scribble.longValue);
+    scribble.stringValue2 = Integer.toString(scribble.intValue1);
+  }
+  
   /**
    * Convert -0.0 to + 0.0.
    */
   public static final void canonicalizeValue(Scribble scribble) {
     boolean sign = scribble.booleanValue1;
-    String integralDigits = scribble.stringValue1;
-    String reverseFractionalDigits = scribble.stringValue2;
-    if (sign && "0".equals(integralDigits) && "0".equals(reverseFractionalDigits)) {
+    final boolean isZero;
+    if (scribble.stringValue1 == null)
+      isZero = scribble.longValue == 0 && scribble.intValue1 == 0;
+    else
+      isZero = "0".equals(scribble.stringValue1) && "0".equals(scribble.stringValue2);
+    if (sign && isZero) {
       scribble.booleanValue1 = false;
     }
   }
   
+  // Numbers of digits that are held as long and int values without overflow.
+  private static final int MAX_INTEGRAL_VALUE_DIGITS = 18;
+  private static final int MAX_FRACTIONAL_VALUE_DIGITS = 9;
+  
   public boolean doProcess(String value, Scribble scribble, StringBuilder integralDigits, StringBuilder reverseFractionalDigits) {
+    return doProcess(value.toCharArray(), 0, value.length(), scribble, integralDigits, reverseFractionalDigits);
+  }
+
+  /**
+   * Parses a value given as a range of characters into a scribble.
+   */
+  public boolean doProcess(char[] value, int start, int length, Scribble scribble, 
+      StringBuilder integralDigits, StringBuilder reverseFractionalDigits) {
 
-    if (!trimWhitespaces(value))
+    if (!trimWhitespaces(value, start, length, scribble))
       return false;
     
     final boolean observeC14N = scribble.booleanValue2;
@@ -108,6 +193,12 @@ public final class DecimalValueScriber extends ValueScriberBase {
     int digits = 0; // for detecting zero-length decimal
     int totalDigits = 0, fractionDigits = 0;
     int trailingZeros = 0;
+    
+    // Digits are also accumulated as numbers, which are used in place of
+    // the strings of digits unless there are too many digits.
+    long integralValue = 0;
+    int reverseFractionalValue = 0;
+    int fractionalScale = 1;
 
     integralDigits.setLength(0);
     reverseFractionalDigits.setLength(0);
@@ -115,9 +206,9 @@ public final class DecimalValueScriber extends ValueScriberBase {
     boolean positive = true;
     boolean syntaxInvalid = false;
     int pos, mode;
-    for (pos = startPosition, mode = DECIMAL_MODE_MAYBE_SIGN;
-         pos < limitPosition && !syntaxInvalid; pos++) {
-      final char c = value.charAt(pos);
+    for (pos = scribble.startPosition, mode = DECIMAL_MODE_MAYBE_SIGN;
+         pos < scribble.limitPosition && !syntaxInvalid; pos++) {
+      final char c = value[pos];
       switch (mode) {
         case DECIMAL_MODE_MAYBE_SIGN:
           if (c == '-' || c == '+') {
@@ -133,6 +224,7 @@ public final class DecimalValueScriber extends ValueScriberBase {
             ++digits;
             if (c != '0') {
               integralDigits.append(c);
+              integralValue = c - '0';
               ++totalDigits;
             }
           }
@@ -149,6 +241,8 @@ public final class DecimalValueScriber extends ValueScriberBase {
             ++digits;
             if (totalDigits > 0 || c != '0') {
               integralDigits.append(c);
+              if (totalDigits < MAX_INTEGRAL_VALUE_DIGITS)
+                integralValue = 10 * integralValue + (c - '0');
               ++totalDigits;
             }
           }
@@ -163,6 +257,10 @@ public final class DecimalValueScriber extends ValueScriberBase {
           else {
             if (c >= '1' && c <= '9') {
               reverseFractionalDigits.append(c);
+              if (fractionDigits < MAX_FRACTIONAL_VALUE_DIGITS) {
+                reverseFractionalValue += (c - '0') * fractionalScale;
+                fractionalScale *= 10;
+              }
               ++digits;
               ++fractionDigits;
             }
@@ -182,6 +280,13 @@ public final class DecimalValueScriber extends ValueScriberBase {
               for (int i = 0; i < trailingZeros; i++)
                 reverseFractionalDigits.append('0');
               reverseFractionalDigits.append(c);
+              if (fractionDigits < MAX_FRACTIONAL_VALUE_DIGITS) {
+                // fractionDigits already includes the zeros that precede c. 
+                for (int i = fractionDigits - trailingZeros; i < fractionDigits; i++)
+                  fractionalScale *= 10;
+                reverseFractionalValue += (c - '0') * fractionalScale;
+                fractionalScale *= 10;
+              }
               ++digits;
               ++fractionDigits;
               trailingZeros = 0; 
@@ -212,12 +317,6 @@ public final class DecimalValueScriber extends ValueScriberBase {
     
     final int n_integralDigits = integralDigits.length();
     final int n_reverseFractionalDigits = reverseFractionalDigits.length();
-    if (n_integralDigits == 0)
-      integralDigits.append('0');
-    if (n_reverseFractionalDigits == 0)
-      reverseFractionalDigits.append('0');
-    else
-      reverseFractionalDigits.reverse();
 
     if (observeC14N && !positive) {
       // According to C14N encoding rule, the sign value MUST be zero (0) if both the integral portion 
@@ -226,17 +325,44 @@ public final class DecimalValueScriber extends ValueScriberBase {
     }
     
     scribble.booleanValue1 = !positive;
+    if (n_integralDigits <= MAX_INTEGRAL_VALUE_DIGITS && n_reverseFractionalDigits <= MAX_FRACTIONAL_VALUE_DIGITS) {
+      scribble.stringValue1 = scribble.stringValue2 = null;
+      scribble.longValue = integralValue;
+      scribble.intValue1 = reverseFractionalValue;
+      return true;
+    }
+    
+    if (n_integralDigits == 0)
+      integralDigits.append('0');
+    if (n_reverseFractionalDigits == 0)
+      reverseFractionalDigits.append('0');
+    else
+      reverseFractionalDigits.reverse();
+
     scribble.stringValue1 = integralDigits.toString();
     scribble.stringValue2 = reverseFractionalDigits.toString();
     
     return true;
   }
   
-  private void scribeDecimalValue(String integralDigits, String fractionalDigits, boolean isNegative, 
-      OutputStream ostream, Scriber scriber) throws IOException {
+  /**
+   * Writes a decimal value given either as strings of digits or, when the 
+   * strings are null, as numbers.
+   */
+  private void scribeDecimalValue(String integralDigits, String fractionalDigits, long integralValue, int fractionalValue, 
+      boolean isNegative, OutputStream ostream, Scriber scriber) throws IOException {
 
     scriber.writeBoolean(isNegative, ostream);
 
+    if (integralDigits == null) {
+      if (integralValue <= Integer.MAX_VALUE)
+        scriber.writeUnsignedInteger32((int)integralValue, ostream);
+      else
+        scriber.writeUnsignedInteger64(integralValue, ostream);
+      scriber.writeUnsignedInteger32(fractionalValue, ostream);
+      return;
+    }
+
     final int n_integralDigits = integralDigits.length();
     if (n_integralDigits < 10 || n_integralDigits == 10 && "2147483647".compareTo(integralDigits) >= 0) {
       final int integralDigitsIntValue = Integer.parseInt(integralDigits);
@@ -0,0 +1,170 @@
+package org.openexi.proc.io;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+import org.openexi.proc.common.BinaryDataSource;
+import org.openexi.proc.common.EventType;
+import org.openexi.proc.common.TypedEventDescription;
+import org.openexi.schema.Characters;
+import org.openexi.schema.XSDateTime;
+
+/**
+ * Transient event of a schema-typed value that holds the value as it
+ * was decoded, and renders its characters on demand by way of the
+ * value scanner that decoded it.
+ */
+abstract class EXIEventTypedValue implements TypedEventDescription {
+
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  EventType eventType;
+
+  private byte m_valueType;
+  private ValueScanner m_valueScanner;
+  private Characters m_characters;
+
+  private boolean m_booleanValue;
+  private long m_longValue;
+  private int m_intValue;
+  private XSDateTime m_dateTimeValue;
+  private byte[] m_octets;
+
+  EXIEventTypedValue() {
+    eventType = null;
+    m_valueType = VALUE_CHARACTERS;
+    m_valueScanner = null;
+    m_characters = null;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Methods used by value scanners
+  ///////////////////////////////////////////////////////////////////////////
+
+  final void setCharacters(Characters characters) {
+    m_valueType = VALUE_CHARACTERS;
+    m_characters = characters;
+    m_dateTimeValue = null;
+    m_octets = null;
+  }
+
+  /**
+   * @param booleanValue the value
+   * @param lexicalId one of 0 ("false"), 1 ("0"), 2 ("true") and 3 ("1")
+   */
+  final void setBooleanValue(boolean booleanValue, int lexicalId, ValueScanner valueScanner) {
+    set(VALUE_BOOLEAN, valueScanner);
+    m_booleanValue = booleanValue;
+    m_intValue = lexicalId;
+  }
+
+  final void setLongValue(long longValue, ValueScanner valueScanner) {
+    set(VALUE_INTEGER, valueScanner);
+    m_longValue = longValue;
+  }
+
+  final void setFloatValue(long mantissa, int exponent, ValueScanner valueScanner) {
+    set(VALUE_FLOAT, valueScanner);
+    m_longValue = mantissa;
+    m_intValue = exponent;
+  }
+
+  final void setDateTimeValue(XSDateTime dateTime, ValueScanner valueScanner) {
+    set(VALUE_DATETIME, valueScanner);
+    m_dateTimeValue = dateTime;
+  }
+
+  final void setBinaryValue(byte[] octets, int n_octets, ValueScanner valueScanner) {
+    set(VALUE_BINARY, valueScanner);
+    m_octets = octets;
+    m_intValue = n_octets;
+  }
+
+  private void set(byte valueType, ValueScanner valueScanner) {
+    m_valueType = valueType;
+    m_valueScanner = valueScanner;
+    m_characters = null;
+    m_dateTimeValue = null;
+    m_octets = null;
+  }
+
+  final int getIntValue() {
+    return m_intValue;
+  }
+
+  final byte[] getOctets() {
+    return m_octets;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// TypedEventDescription methods
+  ///////////////////////////////////////////////////////////////////////////
+
+  public final Characters getCharacters() {
+    if (m_characters == null)
+      m_characters = m_valueScanner.toCharacters(this);
+    return m_characters;
+  }
+
+  public final BinaryDataSource getBinaryDataSource() {
+    return null;
+  }
+
+  public final EventType getEventType() {
+    return eventType;
+  }
+
+  public final byte getValueType() {
+    return m_valueType;
+  }
+
+  public final boolean getBooleanValue() {
+    return m_booleanValue;
+  }
+
+  public final long getLongValue() {
+    return m_longValue;
+  }
+
+  public final long getMantissa() {
+    return m_longValue;
+  }
+
+  public final int getExponent() {
+    return m_intValue;
+  }
+
+  public final double getDoubleValue() {
+    final long mantissa = m_longValue;
+    final int exponent = m_intValue;
+    if (exponent == EXPONENT_SPECIAL_VALUES) {
+      return mantissa == 1 ? Double.POSITIVE_INFINITY :
+        mantissa == -1 ? Double.NEGATIVE_INFINITY : Double.NaN;
+    }
+    // Both the mantissa and the power of ten are exact in a double. A single 
+    // multiplication or division of them is therefore correctly rounded, 
+    // which gives the same double as Double.parseDouble would.
+    if (-(1L << 53) <= mantissa && mantissa <= (1L << 53)) {
+      if (exponent == 0)
+        return mantissa;
+      else if (0 < exponent && exponent < POWERS_OF_TEN.length)
+        return mantissa * POWERS_OF_TEN[exponent];
+      else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+        return mantissa / POWERS_OF_TEN[-exponent];
+    }
+    return new BigDecimal(BigInteger.valueOf(mantissa), -exponent).doubleValue();
+  }
+
+  public final XSDateTime getDateTimeValue() {
+    return m_dateTimeValue;
+  }
+
+  public final ByteBuffer getBinaryValue() {
+    return m_octets != null ? ByteBuffer.wrap(m_octets, 0, m_intValue) : null;
+  }
+
+}
@@ -4,20 +4,20 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
-import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.Duration;
 
+import org.openexi.proc.common.IGrammarCache;
 import org.openexi.proc.common.QName;
 import org.openexi.schema.Base64;
 import org.openexi.schema.EXISchema;
 import org.openexi.schema.EXISchemaConst;
-import org.openexi.schema.XSDateTime;
 
 final class EnumerationValueScriber extends ValueScriberBase {
   
-  private final DatatypeFactory m_datatypeFactory;
-  
   private final static FloatValueScriber m_floatValueScriber;
   private final static DateTimeValueScriber m_dateTimeValueScriber;
   private final static DateValueScriber m_dateValueScriber;
@@ -41,9 +41,8 @@ final class EnumerationValueScriber extends ValueScriberBase {
     m_decimalValueScriber = DecimalValueScriber.instance;
   }
 
-  public EnumerationValueScriber(DatatypeFactory datatypeFactory) {
+  public EnumerationValueScriber() {
     super((QName)null);
-    m_datatypeFactory = datatypeFactory;
   }
 
   @Override
@@ -70,7 +69,7 @@ final class EnumerationValueScriber extends ValueScriberBase {
     final String norm = whiteSpace == EXISchema.WHITESPACE_PRESERVE ? value : normalize(value, whiteSpace);  
     final Object data;
     if ((data = parseTextValue(norm, tp, ancestryId, schema, scribble, scriber)) != null && 
-        (index = getEnumerationIndex(norm, data, tp, n_enums, schema)) >= 0) {
+        (index = getEnumerationIndex(data, tp, ancestryId, n_enums, schema, scriber)) >= 0) {
       scribble.intValue1 = index;
       return true;
     }
@@ -115,62 +114,65 @@ final class EnumerationValueScriber extends ValueScriberBase {
   /// Functions to enumeration
   ///////////////////////////////////////////////////////////////////////////
   
-  private final int getEnumerationIndex(String norm, Object data, int stype, int n_enums, EXISchema schema) {
+  private final int getEnumerationIndex(Object data, int stype, byte ancestryId, int n_enums, EXISchema schema, Scriber scriber) {
     final int variety = schema.getVarietyOfSimpleType(stype);
     assert variety != EXISchema.UNION_SIMPLE_TYPE && variety != EXISchema.LIST_SIMPLE_TYPE;
+    final IGrammarCache grammarCache = scriber.stringTable.getGrammarCache();
+    Map<Object,Integer> enumerationIndex;
+    if (grammarCache != null && grammarCache.getEXISchema() == schema) {
+      if ((enumerationIndex = grammarCache.getEnumerationIndex(stype)) == null) {
+        enumerationIndex = createEnumerationIndex(stype, ancestryId, n_enums, schema);
+        enumerationIndex = grammarCache.putEnumerationIndex(stype, enumerationIndex);
+      }
+    }
+    else
+      enumerationIndex = createEnumerationIndex(stype, ancestryId, n_enums, schema);
+    final Integer index = enumerationIndex.get(toKey(data, ancestryId));
+    return index != null ? index.intValue() : -1;
+  }
+
+  /**
+   * Creates a map of the enumerated values of an atomic simple type to their 
+   * enumeration indices. The first of duplicate values takes the index.
+   */
+  private static Map<Object,Integer> createEnumerationIndex(int stype, byte ancestryId, int n_enums, EXISchema schema) {
+    final HashMap<Object,Integer> enumerationIndex = new HashMap<Object,Integer>(2 * n_enums);
     for (int i = 0; i < n_enums; i++) {
-      int facet = schema.getEnumerationFacetOfAtomicSimpleType(stype, i);
+      final int facet = schema.getEnumerationFacetOfAtomicSimpleType(stype, i);
       assert facet != EXISchema.NIL_VALUE;
-      if (equalToVariant(data, stype, schema.ancestryIds[schema.getSerialOfType(stype)], facet, schema)) {
-        return i;
-      }
+      final Object key = variantToKey(facet, ancestryId, schema);
+      if (!enumerationIndex.containsKey(key))
+        enumerationIndex.put(key, i);
     }
-    return -1;
+    return enumerationIndex;
   }
-  
-  private final boolean equalToVariant(Object data, int stype, int ancestryId, int variant, EXISchema schema) {
+
+  /**
+   * Returns the key of an enumeration variant in the enumeration index.
+   */
+  private static Object variantToKey(int variant, byte ancestryId, EXISchema schema) {
     switch (ancestryId) {
       case EXISchemaConst.ANYURI_TYPE:
       case EXISchemaConst.STRING_TYPE:
-        String str = schema.getStringValueOfVariant(variant);
-        if (((String)data).equals(str))
-          return true;
-        break;
+        return schema.getStringValueOfVariant(variant);
       case EXISchemaConst.DECIMAL_TYPE:
-        final Scribble decimalScribble = (Scribble)data;
-        if (DecimalValueScriber.getSign(decimalScribble) == schema.getSignOfDecimalVariant(variant) &&
-            DecimalValueScriber.getIntegralDigits(decimalScribble).equals(schema.getIntegralDigitsOfDecimalVariant(variant)) &&
-            DecimalValueScriber.getReverseFractionalDigits(decimalScribble).equals(schema.getReverseFractionalDigitsOfDecimalVariant(variant)))
-            return true;
-        break;
+        return toDecimalKey(schema.getSignOfDecimalVariant(variant), 
+            schema.getIntegralDigitsOfDecimalVariant(variant), schema.getReverseFractionalDigitsOfDecimalVariant(variant));
       case EXISchemaConst.INTEGER_TYPE:
-        BigInteger integer;
         switch (schema.getTypeOfVariant(variant)) {
           case EXISchema.VARIANT_INT:
-            int intVal = schema.getIntValueOfVariant(variant);
-            integer = BigInteger.valueOf((long)intVal);
-            break;
+            return BigInteger.valueOf((long)schema.getIntValueOfVariant(variant));
           case EXISchema.VARIANT_LONG:
-            long longVal = schema.getLongValueOfVariant(variant);
-            integer = BigInteger.valueOf(longVal);
-            break;
+            return BigInteger.valueOf(schema.getLongValueOfVariant(variant));
           case EXISchema.VARIANT_INTEGER:
-            integer = schema.getIntegerValueOfVariant(variant);
-            break;
+            return schema.getIntegerValueOfVariant(variant);
           default:
             assert false;
-            return false;
+            return null;
         }
-        if (((BigInteger)data).equals(integer))
-          return true;
-        break;
       case EXISchemaConst.FLOAT_TYPE:
       case EXISchemaConst.DOUBLE_TYPE:
-        final Scribble floatScribble = (Scribble)data;
-        if (FloatValueScriber.getMantissa(floatScribble) == schema.getMantissaOfFloatVariant(variant) && 
-            FloatValueScriber.getExponent(floatScribble) == schema.getExponentOfFloatVariant(variant))
-          return true;
-        break;
+        return new FloatKey(schema.getMantissaOfFloatVariant(variant), schema.getExponentOfFloatVariant(variant));
       case EXISchemaConst.G_YEAR_TYPE:
       case EXISchemaConst.G_YEARMONTH_TYPE:
       case EXISchemaConst.G_MONTHDAY_TYPE:
@@ -179,32 +181,79 @@ final class EnumerationValueScriber extends ValueScriberBase {
       case EXISchemaConst.TIME_TYPE:
       case EXISchemaConst.DATE_TYPE:
       case EXISchemaConst.DATETIME_TYPE:
-        final XSDateTime dateTime = schema.getComputedDateTimeValueOfVariant(variant);
-        return ((XSDateTime)data).equals(dateTime);
+        return schema.getComputedDateTimeValueOfVariant(variant);
       case EXISchemaConst.DURATION_TYPE:
-        Duration duration = schema.getDurationValueOfVariant(variant);
-        if (((Duration)data).equals(duration))
-          return true;
-        break;
+        return schema.getDurationValueOfVariant(variant);
       case EXISchemaConst.HEXBINARY_TYPE:
       case EXISchemaConst.BASE64BINARY_TYPE:
-        byte[] binary = schema.getBinaryValueOfVariant(variant);
-        byte[] ibin = (byte[]) data; // instance binary data
-        if (ibin.length == binary.length) {
-          int j;
-          for (j = 0; j < ibin.length && ibin[j] == binary[j]; j++);
-          if (j == ibin.length)
-            return true;
-        }
-        break;
+        return new BinaryKey(schema.getBinaryValueOfVariant(variant));
       case EXISchemaConst.BOOLEAN_TYPE: // Enum facet does not apply to boolean
-        assert false;
-        break;
       default:
         assert false;
-        break;
+        return null;
+    }
+  }
+
+  /**
+   * Returns the key of a parsed value in the enumeration index.
+   */
+  private static Object toKey(Object data, byte ancestryId) {
+    switch (ancestryId) {
+      case EXISchemaConst.DECIMAL_TYPE:
+        final Scribble decimalScribble = (Scribble)data;
+        return toDecimalKey(DecimalValueScriber.getSign(decimalScribble), 
+            DecimalValueScriber.getIntegralDigits(decimalScribble), DecimalValueScriber.getReverseFractionalDigits(decimalScribble));
+      case EXISchemaConst.FLOAT_TYPE:
+      case EXISchemaConst.DOUBLE_TYPE:
+        final Scribble floatScribble = (Scribble)data;
+        return new FloatKey(FloatValueScriber.getMantissa(floatScribble), FloatValueScriber.getExponent(floatScribble));
+      case EXISchemaConst.HEXBINARY_TYPE:
+      case EXISchemaConst.BASE64BINARY_TYPE:
+        return new BinaryKey((byte[])data);
+      default:
+        // String, BigInteger, XSDateTime and Duration values are keys by themselves.
+        return data;
+    }
+  }
+
+  private static String toDecimalKey(boolean sign, String integralDigits, String reverseFractionalDigits) {
+    return (sign ? "-" : "") + integralDigits + '.' + reverseFractionalDigits; 
+  }
+
+  private static final class FloatKey {
+    private final long m_mantissa;
+    private final int m_exponent;
+    FloatKey(long mantissa, int exponent) {
+      m_mantissa = mantissa;
+      m_exponent = exponent;
+    }
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof FloatKey) {
+        final FloatKey floatKey = (FloatKey)obj;
+        return m_mantissa == floatKey.m_mantissa && m_exponent == floatKey.m_exponent;
+      }
+      return false;
+    }
+    @Override
+    public int hashCode() {
+      return 31 * (int)(m_mantissa ^ (m_mantissa >>> 32)) + m_exponent;
+    }
+  }
+
+  private static final class BinaryKey {
+    private final byte[] m_octets;
+    BinaryKey(byte[] octets) {
+      m_octets = octets;
+    }
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof BinaryKey && Arrays.equals(m_octets, ((BinaryKey)obj).m_octets);
+    }
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(m_octets);
     }
-    return false;
   }
   
   private Object parseTextValue(String norm, int stype, byte ancestryId, EXISchema schema, Scribble scribble, Scriber scriber) {
@@ -232,7 +281,7 @@ final class EnumerationValueScriber extends ValueScriberBase {
         return integer;
       case EXISchemaConst.FLOAT_TYPE:
       case EXISchemaConst.DOUBLE_TYPE:
-        if (m_floatValueScriber.doProcess(norm, scribble, scriber.stringBuilder1)) {
+        if (m_floatValueScriber.doProcess(norm, scribble)) {
           if (!scribble.booleanValue2)
             FloatValueScriber.canonicalizeValue(scribble);
           return scribble;
@@ -304,7 +353,8 @@ final class EnumerationValueScriber extends ValueScriberBase {
     Duration duration = null;
     if (norm.length() != 0) {
       try {
-        duration = m_datatypeFactory.newDuration(norm);
+        // Durations are rare enough to be left to the shared DatatypeFactory.
+        duration = EXISchema.datatypeFactory.newDuration(norm);
       }
       catch (IllegalArgumentException iae) {
       }
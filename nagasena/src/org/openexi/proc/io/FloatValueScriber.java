@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import org.openexi.proc.common.QName;
+import org.openexi.proc.common.TypedEventDescription;
 import org.openexi.proc.util.ExiUriConst;
 import org.openexi.schema.EXISchema;
 
@@ -14,6 +15,12 @@ public final class FloatValueScriber extends ValueScriberBase {
     instance = new FloatValueScriber();
   }
 
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  private static final double MAX_EXACT_MANTISSA = (double)(1L << 53);
+
   private FloatValueScriber() {
     super(new QName("exi:double", ExiUriConst.W3C_2009_EXI_URI));
   }
@@ -32,9 +39,53 @@ public final class FloatValueScriber extends ValueScriberBase {
   
   @Override
   public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
-    return doProcess(value, scribble, scriber.stringBuilder1);
+    return doProcess(scriber.toChars(value), 0, value.length(), scribble);
+  }
+
+  @Override
+  public boolean processesChars() {
+    return true;
+  }
+
+  @Override
+  public boolean process(char[] ch, int start, int length, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return doProcess(ch, start, length, scribble);
   }
   
+  @Override
+  public boolean processDouble(double value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    if (Double.isNaN(value)) {
+      scribble.longValue = 0;
+      scribble.intValue1 = TypedEventDescription.EXPONENT_SPECIAL_VALUES;
+      return true;
+    }
+    else if (Double.isInfinite(value)) {
+      scribble.longValue = value > 0 ? 1 : -1;
+      scribble.intValue1 = TypedEventDescription.EXPONENT_SPECIAL_VALUES;
+      return true;
+    }
+    // Look for the smallest number of fraction digits that represent the value 
+    // exactly as a mantissa of 53 bits or less, which is the case with values 
+    // such as 12.5 or 0.001. 
+    double scaledValue = value;
+    for (int fractionDigits = 0; fractionDigits < POWERS_OF_TEN.length; fractionDigits++) {
+      if (fractionDigits != 0)
+        scaledValue = value * POWERS_OF_TEN[fractionDigits];
+      if (!(-MAX_EXACT_MANTISSA <= scaledValue && scaledValue <= MAX_EXACT_MANTISSA))
+        break;
+      final long mantissa = (long)scaledValue;
+      if (mantissa == scaledValue && mantissa / POWERS_OF_TEN[fractionDigits] == value) {
+        scribble.longValue = mantissa;
+        scribble.intValue1 = -fractionDigits;
+        if (scribble.booleanValue2)
+          canonicalizeValue(scribble);
+        return true;
+      }
+    }
+    final String stringValue = Double.toString(value);
+    return doProcess(scriber.toChars(stringValue), 0, stringValue.length(), scribble);
+  }
+
   @Override
   public void scribe(String value, Scribble scribble, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException {
     scribeFloatValue(scribble.longValue, scribble.intValue1, channelStream, scriber);
@@ -91,25 +142,32 @@ public final class FloatValueScriber extends ValueScriberBase {
   
   ////////////////////////////////////////////////////////////
 
-  public boolean doProcess(String value, Scribble scribble, StringBuilder integralDigits) {
-    if (!trimWhitespaces(value))
+  public boolean doProcess(String value, Scribble scribble) {
+    return doProcess(value.toCharArray(), 0, value.length(), scribble);
+  }
+
+  /**
+   * Parses a value given as a range of characters into a scribble.
+   */
+  public boolean doProcess(char[] value, int start, int length, Scribble scribble) {
+    if (!trimWhitespaces(value, start, length, scribble))
       return false;
 
     int n_digits = 0; // for detecting zero-length decimal
-    int totalDigits = 0, fractionDigits = 0;
+    int fractionDigits = 0;
     int trailingZeros = 0;
 
-    final int len = limitPosition - startPosition;
-    switch (value.charAt(limitPosition - 1)) {
+    final int len = scribble.limitPosition - scribble.startPosition;
+    switch (value[scribble.limitPosition - 1]) {
       case 'F':
-        if (len == 3 && value.charAt(startPosition) == 'I' && value.charAt(startPosition + 1) == 'N') {
+        if (len == 3 && value[scribble.startPosition] == 'I' && value[scribble.startPosition + 1] == 'N') {
           // mantissa: 1 
           scribble.longValue = 1;
           // exponent: -16384
           scribble.intValue1 = -16384;
           return true;
         }
-        else if (len == 4 && value.charAt(startPosition) == '-' && value.charAt(startPosition + 1) == 'I' && value.charAt(startPosition + 2) == 'N') {
+        else if (len == 4 && value[scribble.startPosition] == '-' && value[scribble.startPosition + 1] == 'I' && value[scribble.startPosition + 2] == 'N') {
           // mantissa: -1 
           scribble.longValue = -1;
           // exponent: -16384
@@ -118,7 +176,7 @@ public final class FloatValueScriber extends ValueScriberBase {
         }
         return false;
       case 'N':
-        if (len == 3 && value.charAt(startPosition) == 'N' && value.charAt(startPosition + 1) == 'a') {
+        if (len == 3 && value[scribble.startPosition] == 'N' && value[scribble.startPosition + 1] == 'a') {
           // mantissa: 0
           scribble.longValue = 0;
           // exponent: -16384
@@ -130,12 +188,15 @@ public final class FloatValueScriber extends ValueScriberBase {
         break;
     }
     
-    integralDigits.setLength(0);
+    // Mantissa digits are accumulated as an unsigned 64-bit value, which
+    // holds any sequence of up to 19 digits.
+    long digitsValue = 0;
+    int n_mantissaDigits = 0;
     boolean positive = true;
     int pos, mode;
     parseFloat:
-    for (pos = startPosition, mode = DECIMAL_MODE_MAYBE_SIGN; pos < limitPosition; pos++) {
-      final char c = value.charAt(pos);
+    for (pos = scribble.startPosition, mode = DECIMAL_MODE_MAYBE_SIGN; pos < scribble.limitPosition; pos++) {
+      final char c = value[pos];
       switch (mode) {
         case DECIMAL_MODE_MAYBE_SIGN:
           if (c == '-' || c == '+') {
@@ -150,8 +211,8 @@ public final class FloatValueScriber extends ValueScriberBase {
             mode = DECIMAL_MODE_IS_INTEGRAL;
             ++n_digits;
             if (c != '0') {
-              integralDigits.append(c);
-              ++totalDigits;
+              ++n_mantissaDigits;
+              digitsValue = c - '0';
             }
           }
           else
@@ -165,9 +226,10 @@ public final class FloatValueScriber extends ValueScriberBase {
           else if (c >= '0' && c <= '9') {
             mode = DECIMAL_MODE_IS_INTEGRAL;
             ++n_digits;
-            if (totalDigits > 0 || c != '0') {
-              integralDigits.append(c);
-              ++totalDigits;
+            if (n_mantissaDigits > 0 || c != '0') {
+              if (++n_mantissaDigits > 19)
+                return false;
+              digitsValue = 10 * digitsValue + (c - '0');
             }
           }
           else if (mode == DECIMAL_MODE_IS_INTEGRAL && (c == 'e' || c == 'E'))
@@ -182,7 +244,9 @@ public final class FloatValueScriber extends ValueScriberBase {
           }
           else {
             if (c >= '1' && c <= '9') {
-              integralDigits.append(c);
+              if (++n_mantissaDigits > 19)
+                return false;
+              digitsValue = 10 * digitsValue + (c - '0');
               ++n_digits;
               ++fractionDigits;
             }
@@ -201,9 +265,11 @@ public final class FloatValueScriber extends ValueScriberBase {
             if (c >= '1' && c <= '9') {
               n_digits += trailingZeros;
               fractionDigits += trailingZeros;
+              if ((n_mantissaDigits += trailingZeros + 1) > 19)
+                return false;
               for (int i = 0; i < trailingZeros; i++)
-                integralDigits.append('0');
-              integralDigits.append(c);
+                digitsValue *= 10;
+              digitsValue = 10 * digitsValue + (c - '0');
               ++n_digits;
               ++fractionDigits;
               trailingZeros = 0; 
@@ -212,8 +278,10 @@ public final class FloatValueScriber extends ValueScriberBase {
             else if (c == 'e' || c == 'E') {
               n_digits += trailingZeros;
               fractionDigits += trailingZeros;
+              if ((n_mantissaDigits += trailingZeros) > 19)
+                return false;
               for (int i = 0; i < trailingZeros; i++)
-                integralDigits.append('0');
+                digitsValue *= 10;
               trailingZeros = 0; 
               break parseFloat;
             }
@@ -228,107 +296,39 @@ public final class FloatValueScriber extends ValueScriberBase {
     if (mode == DECIMAL_MODE_MAYBE_TRAILING_ZEROS) {
       mode = DECIMAL_MODE_IS_FRACTION;
     }
-    if (mode == DECIMAL_MODE_IS_FRACTION && fractionDigits == 0) {
-      // Assume there is at least one trailing fraction digits
-      // when decimal point has been encountered.
-      if (trailingZeros == 0)
-        trailingZeros = 1;
-    }
-    totalDigits += fractionDigits;
 
     if (mode != DECIMAL_MODE_IS_INTEGRAL && mode != DECIMAL_MODE_IS_FRACTION || n_digits == 0)
       return false;
     
-    if (integralDigits.length() == 0)
-      integralDigits.append('0');
-
-    String digitsString;
-    int n_integralDigits;
-    
-    digitsString = integralDigits.toString();
-    n_integralDigits = integralDigits.length();
-    final long mantissa;
-    if (n_integralDigits > 19)
+    // A 19-digit value may exceed the range of long. 
+    if (digitsValue < 0 && (positive || digitsValue != Long.MIN_VALUE))
       return false;
-    else if (n_integralDigits == 19) {
-      int cres;
-      if (positive) {
-        cres = "9223372036854775807".compareTo(digitsString);
-        if (cres == 0)
-          mantissa = Long.MAX_VALUE;
-        else if (cres < 0)
-          return false;
-        else
-          mantissa = Long.parseLong(digitsString);
-      }
-      else {
-        cres = "9223372036854775808".compareTo(digitsString);
-        if (cres == 0)
-          mantissa = Long.MIN_VALUE;
-        else if (cres < 0)
-          return false;
-        else
-          mantissa = - Long.parseLong(digitsString);
-      }
-    }
-    else {
-      mantissa = positive ? Long.parseLong(digitsString) : -Long.parseLong(digitsString);
-    }
+    final long mantissa = positive ? digitsValue : -digitsValue;
 
-    integralDigits.setLength(0);
-    
+    int exponent = 0;
     positive = true;
-    if (pos < limitPosition) {
-      char c = value.charAt(pos++); 
+    if (pos < scribble.limitPosition) {
+      char c = value[pos++]; 
       if (c == 'e' || c == 'E') {
-        if (pos < limitPosition) {
-          c = value.charAt(pos);
+        if (pos < scribble.limitPosition) {
+          c = value[pos];
           if (c == '-' || c == '+') {
             ++pos;
             if (c != '+')
               positive = false;
           }
-          boolean foundNonZero = false;
-          for (; pos < limitPosition; pos++) {
-            switch (c = value.charAt(pos)) {
-              case '0':
-                if (!foundNonZero)
-                  continue;
-                else
-                  integralDigits.append(c);
-                break;
-              case '1': 
-              case '2': 
-              case '3': 
-              case '4': 
-              case '5': 
-              case '6': 
-              case '7': 
-              case '8': 
-              case '9':
-                if (!foundNonZero)
-                  foundNonZero = true;
-                integralDigits.append(c);
-                break;
-              default:
-                return false;
-            }
+          for (; pos < scribble.limitPosition; pos++) {
+            c = value[pos];
+            if (c < '0' || '9' < c)
+              return false;
+            // Values beyond this bound are out of range whatever the fraction digits.
+            if ((exponent = 10 * exponent + (c - '0')) > 99999)
+              return false;
           }
         }
       }
     }
     
-    if (integralDigits.length() == 0)
-      integralDigits.append('0');
-
-    digitsString = integralDigits.toString();
-    int exponent;
-    try { 
-      exponent = Integer.parseInt(digitsString);
-    }
-    catch (NumberFormatException nfe) {
-      return false;
-    }
     if (positive)
       exponent -= fractionDigits;
     else
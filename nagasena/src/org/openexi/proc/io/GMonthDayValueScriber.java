@@ -33,24 +33,24 @@ public final class GMonthDayValueScriber extends DateTimeValueScriberBase {
 
   @Override
   public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
-    if (!trimWhitespaces(value))
+    if (!trimWhitespaces(value, scribble))
       return false;
     final int month, day;
     int tz = XSDateTime.FIELD_UNDEFINED;
-    nextPosition = startPosition; // OK, Let's start parsing
-    if (value.charAt(nextPosition++) != '-' || nextPosition == limitPosition || 
-        value.charAt(nextPosition++) != '-'  || nextPosition == limitPosition)
+    scribble.nextPosition = scribble.startPosition; // OK, Let's start parsing
+    if (value.charAt(scribble.nextPosition++) != '-' || scribble.nextPosition == scribble.limitPosition || 
+        value.charAt(scribble.nextPosition++) != '-'  || scribble.nextPosition == scribble.limitPosition)
       return false;
-    if (!parseMonthField(value, scribble) || nextPosition == limitPosition)
+    if (!parseMonthField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
       return false;
     month = scribble.intValue1;
-    if (value.charAt(nextPosition++) != '-' || nextPosition == limitPosition)
+    if (value.charAt(scribble.nextPosition++) != '-' || scribble.nextPosition == scribble.limitPosition)
       return false;
     if (!parseDayField(value, XSDateTime.FIELD_UNDEFINED, month, scribble))
       return false;
     day = scribble.intValue1;
-    if (nextPosition != limitPosition) {
-      if (!parseTimezoneField(value, scribble) || nextPosition != limitPosition)
+    if (scribble.nextPosition != scribble.limitPosition) {
+      if (!parseTimezoneField(value, scribble) || scribble.nextPosition != scribble.limitPosition)
         return false;
       tz = scribble.intValue1;
     }
@@ -64,7 +64,7 @@ public final class GMonthDayValueScriber extends DateTimeValueScriberBase {
   ////////////////////////////////////////////////////////////
   
   @Override
-  void scribeDateTimeValue(XSDateTime dateTime, OutputStream channelStream, Scriber scriber) throws IOException {
+  void scribeDateTimeValue(XSDateTime dateTime, long reverseFractionalSecond, OutputStream channelStream, Scriber scriber) throws IOException {
     writeMonthDay(dateTime.month, dateTime.day, channelStream, scriber);
     writeTimeZone(dateTime.timeZone, channelStream, scriber);
   }
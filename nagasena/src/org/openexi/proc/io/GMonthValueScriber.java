@@ -33,19 +33,19 @@ public final class GMonthValueScriber extends DateTimeValueScriberBase {
 
   @Override
   public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
-    if (!trimWhitespaces(value))
+    if (!trimWhitespaces(value, scribble))
       return false;
     final int month;
     int tz = XSDateTime.FIELD_UNDEFINED;
-    nextPosition = startPosition; // OK, Let's start parsing
-    if (value.charAt(nextPosition++) != '-' || nextPosition == limitPosition || 
-        value.charAt(nextPosition++) != '-'  || nextPosition == limitPosition)
+    scribble.nextPosition = scribble.startPosition; // OK, Let's start parsing
+    if (value.charAt(scribble.nextPosition++) != '-' || scribble.nextPosition == scribble.limitPosition || 
+        value.charAt(scribble.nextPosition++) != '-'  || scribble.nextPosition == scribble.limitPosition)
       return false;
     if (!parseMonthField(value, scribble))
       return false;
     month = scribble.intValue1;
-    if (nextPosition != limitPosition) {
-      if (!parseTimezoneField(value, scribble) || nextPosition != limitPosition)
+    if (scribble.nextPosition != scribble.limitPosition) {
+      if (!parseTimezoneField(value, scribble) || scribble.nextPosition != scribble.limitPosition)
         return false;
       tz = scribble.intValue1;
     }
@@ -59,7 +59,7 @@ public final class GMonthValueScriber extends DateTimeValueScriberBase {
   ////////////////////////////////////////////////////////////
   
   @Override
-  void scribeDateTimeValue(XSDateTime dateTime, OutputStream channelStream, Scriber scriber) throws IOException {
+  void scribeDateTimeValue(XSDateTime dateTime, long reverseFractionalSecond, OutputStream channelStream, Scriber scriber) throws IOException {
     writeMonthDay(dateTime.month, 0, channelStream, scriber);
     writeTimeZone(dateTime.timeZone, channelStream, scriber);
   }
@@ -34,21 +34,21 @@ public final class GYearMonthValueScriber extends DateTimeValueScriberBase {
 
   @Override
   public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
-    if (!trimWhitespaces(value))
+    if (!trimWhitespaces(value, scribble))
       return false;
     final int year, month;
     int tz = XSDateTime.FIELD_UNDEFINED;
-    nextPosition = startPosition; // OK, Let's start parsing
-    if (!parseYearField(value, scribble) || nextPosition == limitPosition)
+    scribble.nextPosition = scribble.startPosition; // OK, Let's start parsing
+    if (!parseYearField(value, scribble) || scribble.nextPosition == scribble.limitPosition)
       return false;
     year = scribble.intValue1;
-    if (value.charAt(nextPosition++) != '-' || nextPosition == limitPosition)
+    if (value.charAt(scribble.nextPosition++) != '-' || scribble.nextPosition == scribble.limitPosition)
       return false;
     if (!parseMonthField(value, scribble))
       return false;
     month = scribble.intValue1;
-    if (nextPosition != limitPosition) {
-      if (!parseTimezoneField(value, scribble) || nextPosition != limitPosition)
+    if (scribble.nextPosition != scribble.limitPosition) {
+      if (!parseTimezoneField(value, scribble) || scribble.nextPosition != scribble.limitPosition)
         return false;
       tz = scribble.intValue1;
     }
@@ -62,7 +62,7 @@ public final class GYearMonthValueScriber extends DateTimeValueScriberBase {
   ////////////////////////////////////////////////////////////
   
   @Override
-  void scribeDateTimeValue(XSDateTime dateTime, OutputStream channelStream, Scriber scriber) throws IOException {
+  void scribeDateTimeValue(XSDateTime dateTime, long reverseFractionalSecond, OutputStream channelStream, Scriber scriber) throws IOException {
     writeYear(dateTime.year, channelStream, scriber);
     writeMonthDay(dateTime.month, 0, channelStream, scriber);
     writeTimeZone(dateTime.timeZone, channelStream, scriber);
@@ -1,7 +1,5 @@
 package org.openexi.proc.io;
 
-import java.io.IOException;
-
 import org.openexi.proc.common.QName;
 import org.openexi.proc.grammars.Apparatus;
 import org.openexi.proc.util.ExiUriConst;
@@ -28,16 +26,9 @@ final class HexBinaryValueScanner extends BinaryValueScanner {
   }
   
   @Override
-  public Characters scan(int localNameId, int uriId, int tp) throws IOException {
-    final int len = m_scanner.readUnsignedInteger(m_istream);
-    if (m_octets.length < len) {
-      expandBuffer(len);
-    }
-    for (int i = 0; i < len; i++) {
-      m_octets[i] = (byte)m_scanner.readEightBitsUnsigned(m_istream);
-    }
+  protected Characters toCharacters(byte[] octets, int len) {
     m_stringBuffer.setLength(0);
-    HexBin.encode(m_octets, len, m_stringBuffer);
+    HexBin.encode(octets, len, m_stringBuffer);
     final String stringValue = m_stringBuffer.toString();
     final int length = stringValue.length();
     m_scanner.m_characterBuffer.ensureCharacters(length);
@@ -33,14 +33,24 @@ public final class IntegerValueScriber extends ValueScriberBase {
   
   @Override
   public boolean process(String value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
-    if (!trimWhitespaces(value))
+    return process(scriber.toChars(value), 0, value.length(), tp, schema, scribble, scriber);
+  }
+
+  @Override
+  public boolean processesChars() {
+    return true;
+  }
+
+  @Override
+  public boolean process(char[] value, int start, int length, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    if (!trimWhitespaces(value, start, length, scribble))
       return false;
-    int pos = startPosition;
+    int pos = scribble.startPosition;
     boolean useIntValue = true;
     int intValue = 0;
     long longValue = 0;
     boolean isNegative = false;
-    char c = value.charAt(pos);
+    char c = value[pos];
     if (c == '-' || c == '+') {
       ++pos;
       if (c != '+')
@@ -49,8 +59,8 @@ public final class IntegerValueScriber extends ValueScriberBase {
     boolean foundNonZero = false;
     int st = -1;
     posLoop:
-    for (int n_digits = 0; pos < limitPosition; pos++) {
-      switch (c = value.charAt(pos)) {
+    for (int n_digits = 0; pos < scribble.limitPosition; pos++) {
+      switch (c = value[pos]) {
         case '0':
           if (!foundNonZero)
             continue;
@@ -110,10 +120,10 @@ public final class IntegerValueScriber extends ValueScriberBase {
           return false;
       }
     }
-    if (pos != limitPosition) {
+    if (pos != scribble.limitPosition) {
       assert longValue == Long.MIN_VALUE;
-      for (; pos != limitPosition; pos++) {
-        c = value.charAt(pos);
+      for (; pos != scribble.limitPosition; pos++) {
+        c = value[pos];
         if (c < '0' || '9' < c)
           return false;
       }
@@ -122,7 +132,33 @@ public final class IntegerValueScriber extends ValueScriberBase {
     if (!foundNonZero && isNegative) {
       isNegative = false;
     }
-    
+    final String digits = !useIntValue && longValue == Long.MIN_VALUE ? 
+        new String(value, st, scribble.limitPosition - st) : null;
+    return processIntegerValue(isNegative, useIntValue, intValue, longValue, digits, tp, schema, scribble);
+  }
+
+  @Override
+  public boolean processLong(long value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    final boolean isNegative;
+    if (isNegative = value < 0)
+      value = 0 - value; // Long.MIN_VALUE stays negative
+    // Numbers are held the same way as process() does. 
+    if (0 <= value && value < 1000000000L)
+      return processIntegerValue(isNegative, true, (int)value, 0, (String)null, tp, schema, scribble);
+    else if (0 <= value && value < 1000000000000000000L)
+      return processIntegerValue(isNegative, false, 0, value, (String)null, tp, schema, scribble);
+    else {
+      final String digits = value < 0 ? "9223372036854775808" : Long.toString(value);
+      return processIntegerValue(isNegative, false, 0, Long.MIN_VALUE, digits, tp, schema, scribble);
+    }
+  }
+
+  /**
+   * Store an integer value into scribble.
+   * @param digits digits of the value, which are only used when longValue is Long.MIN_VALUE
+   */
+  private boolean processIntegerValue(boolean isNegative, boolean useIntValue, int intValue, long longValue, 
+      String digits, int tp, EXISchema schema, Scribble scribble) {
     if (schema.isIntegralSimpleType(tp)) {
       switch (scribble.intValue2 = schema.getWidthOfIntegralSimpleType(tp)) {
         /**
@@ -138,7 +174,7 @@ public final class IntegerValueScriber extends ValueScriberBase {
             scribble.intValue1 = intValue;
           }
           else if ((scribble.longValue = longValue) == Long.MIN_VALUE) {
-            scribble.stringValue1 = value.substring(st, limitPosition); 
+            scribble.stringValue1 = digits; 
           }
           return true;
         default:
@@ -189,7 +225,7 @@ public final class IntegerValueScriber extends ValueScriberBase {
       scribble.intValue1 = intValue;
     }
     else if ((scribble.longValue = longValue) == Long.MIN_VALUE) {
-      scribble.stringValue1 = value.substring(st, limitPosition); 
+      scribble.stringValue1 = digits; 
     }
     return true;
   }
@@ -4,6 +4,7 @@ import java.math.BigInteger;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 import org.openexi.proc.common.EventDescription;
 import org.openexi.proc.common.EXIOptions;
@@ -13,6 +14,7 @@ import org.openexi.proc.common.IGrammar;
 import org.openexi.proc.common.QName;
 import org.openexi.proc.common.StringTable;
 import org.openexi.proc.common.StringTable.PrefixPartition;
+import org.openexi.proc.common.TypedEventDescription;
 import org.openexi.proc.common.XmlUriConst;
 import org.openexi.proc.events.EXIEventNS;
 import org.openexi.proc.events.EXIEventSchemaNil;
@@ -143,12 +145,21 @@ public abstract class Scanner extends Apparatus {
   protected boolean m_binaryDataEnabled;
   /** @y.exclude */
   protected int m_binaryChunkSize;
+  /** @y.exclude */
+  protected boolean m_flyweight;
+  /** @y.exclude */
+  protected boolean m_typedValuesEnabled;
   
   /**
    * Not for public use.
    * @y.exclude
    */
   protected InputStream m_inputStream;
+
+  // Locus of the stream when mark() was last called
+  private int m_markedNameLocusLastDepth;
+  private int m_markedPrefixUriBindingsLocusLastDepth;
+  private PrefixUriBindings m_markedPrefixUriBindings;
   
   private static final Characters TRUE; // "true" (4)
   private static final Characters FALSE; // "false" (5)
@@ -197,6 +208,7 @@ public abstract class Scanner extends Apparatus {
     
     m_binaryDataEnabled = false;
     m_binaryChunkSize = -1;
+    m_typedValuesEnabled = false;
 
     final ArrayList<ValueScanner> valueScanners = new ArrayList<ValueScanner>();
     valueScanners.add(m_stringValueScannerInherent = new StringValueScanner(this));
@@ -311,6 +323,53 @@ public abstract class Scanner extends Apparatus {
     m_prefixUriBindingsLocusLastDepth = -1;
     m_prefixUriBindings = null;
   }
+
+  /**
+   * Marks the state of decoding at an event boundary so that rollback() 
+   * can return to it when the next event turns out to be cut off at the 
+   * end of the input available. Call it only if {@link #supportsMark()} 
+   * returns true.
+   * Not for public use.
+   * @y.exclude
+   */
+  public void mark() {
+    markInput();
+    markGrammars();
+    m_markedNameLocusLastDepth = m_nameLocusLastDepth;
+    m_markedPrefixUriBindingsLocusLastDepth = m_prefixUriBindingsLocusLastDepth;
+    m_markedPrefixUriBindings = m_prefixUriBindings;
+  }
+
+  /**
+   * Returns to the state of decoding as of when mark() was last called.
+   * Not for public use.
+   * @y.exclude
+   */
+  public void rollback() throws IOException {
+    resetInput();
+    rollbackGrammars();
+    m_nameLocusLastDepth = m_markedNameLocusLastDepth;
+    m_prefixUriBindingsLocusLastDepth = m_markedPrefixUriBindingsLocusLastDepth;
+    m_prefixUriBindings = m_markedPrefixUriBindings;
+  }
+
+  /**
+   * Returns true if mark() and rollback() can be used with the current 
+   * input stream. 
+   * Not for public use.
+   * @y.exclude
+   */
+  public abstract boolean supportsMark();
+
+  /**
+   * Marks the current position of the input.
+   */
+  protected abstract void markInput();
+
+  /**
+   * Returns the input to the position marked by markInput().
+   */
+  protected abstract void resetInput() throws IOException;
   
   @Override
   public void setSchema(EXISchema schema, QName[] dtrm, int n_bindings) {
@@ -495,6 +554,17 @@ public abstract class Scanner extends Apparatus {
     }
   }
 
+  /**
+   * Let the scanner return TypedEventDescription instances for 
+   * schema-typed values when enabled. Only bit-packed and byte-aligned 
+   * scanners make use of this setting.
+   * Not for public use.
+   * @y.exclude
+   */
+  public final void setEnableTypedValues(boolean enable) {
+    m_typedValuesEnabled = enable;
+  }
+
   /**
    * Binary values are read in chunks of the specified size when the
    * use of binary data is enabled.
@@ -502,6 +572,26 @@ public abstract class Scanner extends Apparatus {
    */
   public abstract void setBinaryChunkSize(int chunkSize);
 
+  /**
+   * Let the scanner reuse event objects and the Characters of values across 
+   * calls to {@link #nextEvent()} when flyweight is true. In that mode, an event 
+   * returned by nextEvent() and its value are valid only until the next 
+   * invocation of nextEvent(). 
+   * Not for public use.
+   * @y.exclude
+   */
+  public abstract void setFlyweight(boolean flyweight);
+
+  /**
+   * Set an executor with which compressed streams are inflated ahead of
+   * the block being decoded. Only used in compression alignment.
+   * Not for public use.
+   * @y.exclude
+   */
+  public void setInflateExecutor(Executor executor) {
+    // Do nothing.
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   /// Accessors
   ///////////////////////////////////////////////////////////////////////////
@@ -800,6 +890,38 @@ public abstract class Scanner extends Apparatus {
     while (true);
   }
 
+  /**
+   * Reads an unsigned integer of any length.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final BigInteger readUnsignedIntegerAsBigInteger(InputStream istream) throws IOException {
+    int shift = 0;
+    long ulong = 0;
+    boolean continued = true;
+    do {
+      long nextByte = readEightBitsUnsigned(istream);
+      if ((nextByte & 0x0080) != 0) // check continuation flag
+        nextByte &= 0x007F;
+      else
+        continued = false;
+      ulong += (nextByte << shift);
+      shift += 7;
+    }
+    while (continued && shift != 63);
+    BigInteger uinteger = BigInteger.valueOf(ulong);
+    while (continued) {
+      int nextByte = readEightBitsUnsigned(istream);
+      if ((nextByte & 0x0080) != 0) // check continuation flag
+        nextByte &= 0x007F;
+      else
+        continued = false;
+      uinteger = uinteger.add(BigInteger.valueOf(nextByte).shiftLeft(shift));
+      shift += 7;
+    }
+    return uinteger;
+  }
+
   /**
    * Digits are stored into the character array in reverse order. 
    * @y.exclude
@@ -959,7 +1081,7 @@ public abstract class Scanner extends Apparatus {
       }
       characters[charactersIndex + length++] = (char)c;
     }
-    return new Characters(characters, charactersIndex, length, m_characterBuffer.isVolatile);
+    return m_characterBuffer.makeCharacters(characters, charactersIndex, length);
   }
 
   /** @y.exclude */
@@ -1006,6 +1128,28 @@ public abstract class Scanner extends Apparatus {
         return val ? TRUE : FALSE;
       }
     }
+    @Override
+    void scanTyped(int localNameId, int uriId, int tp, EXIEventTypedValue typedValue) throws IOException {
+      final int lexicalId;
+      if (schema.isPatternedBooleanSimpleType(tp))
+        lexicalId = readNBitUnsigned(2, m_istream);
+      else
+        lexicalId = readBoolean(m_istream) ? 2 : 0;
+      typedValue.setBooleanValue(lexicalId > 1, lexicalId, this);
+    }
+    @Override
+    Characters toCharacters(EXIEventTypedValue typedValue) {
+      switch (typedValue.getIntValue()) {
+        case 0:
+          return FALSE;
+        case 1:
+          return ZERO;
+        case 2:
+          return TRUE; 
+        default:
+          return ONE; 
+      }
+    }
   }
 
   private final class IntegerValueScanner extends ValueScannerBase {
@@ -1117,6 +1261,110 @@ public abstract class Scanner extends Apparatus {
         return m_characterBuffer.addCharsReverse(m_digitsBuffer, pos);
       }
     }
+    /**
+     * Not for public use.
+     * @y.exclude
+     */
+    @Override
+    void scanTyped(int localName, int uri, int tp, EXIEventTypedValue typedValue) throws IOException {
+      boolean isNegative = false;
+      if (schema.ancestryIds[m_types[tp + EXISchemaLayout.TYPE_NUMBER]] == EXISchemaConst.INTEGER_TYPE) {
+        final int width;
+        switch (width = EXISchema._getWidthOfIntegralSimpleType(tp, m_types)) {
+          case EXISchema.INTEGER_CODEC_DEFAULT:
+            isNegative = readBoolean(m_istream);
+          case EXISchema.INTEGER_CODEC_NONNEGATIVE:
+            scanUnsignedInteger(isNegative, typedValue);
+            return;
+          default:
+            final int intValue = readNBitUnsigned(width, m_istream);
+            final int minInclusiveFacet = schema.getMinInclusiveFacetOfIntegerSimpleType(tp);
+            final int variantType;
+            switch ((variantType = schema.getTypeOfVariant(minInclusiveFacet))) {
+              case EXISchema.VARIANT_INT:
+                typedValue.setLongValue((long)m_ints[m_variants[minInclusiveFacet]] + intValue, this);
+                return;
+              case EXISchema.VARIANT_LONG:
+                typedValue.setLongValue(m_longs[m_variants[minInclusiveFacet]] + intValue, this);
+                return;
+              default:
+                assert variantType ==  EXISchema.VARIANT_INTEGER;
+                final BigInteger minInclusiveIntegerValue = schema.getIntegerValueOfVariant(minInclusiveFacet);
+                setIntegerValue(minInclusiveIntegerValue.add(BigInteger.valueOf(intValue)), typedValue);
+                return;
+            }
+        }
+      }
+      else {
+        isNegative = readBoolean(m_istream);
+        scanUnsignedInteger(isNegative, typedValue);
+      }
+    }
+    /**
+     * Reads an unsigned integer, which represents -(value + 1) when 
+     * isNegative is true. 
+     */
+    private void scanUnsignedInteger(boolean isNegative, EXIEventTypedValue typedValue) throws IOException {
+      int shift = 0;
+      boolean continued = true;
+      long ulong = 0;
+      do {
+        long nextByte = readEightBitsUnsigned(m_istream);
+        if ((nextByte & 0x0080) != 0) // check continuation flag
+          nextByte &= 0x007F;
+        else
+          continued = false;
+        ulong += (nextByte << shift);
+        shift += 7;
+      }
+      while (continued && shift != 63);
+      if (!continued) {
+        typedValue.setLongValue(isNegative ? -ulong - 1 : ulong, this);
+        return;
+      }
+      BigInteger uinteger = BigInteger.valueOf(ulong);
+      do {
+        int nextByte = readEightBitsUnsigned(m_istream);
+        if ((nextByte & 0x0080) != 0) // check continuation flag
+          nextByte &= 0x007F;
+        else
+          continued = false;
+        uinteger = uinteger.add(BigInteger.valueOf(nextByte).shiftLeft(shift));
+        shift += 7;
+      }
+      while (continued);
+      setIntegerValue(isNegative ? uinteger.add(BigInteger.ONE).negate() : uinteger, typedValue);
+    }
+    private void setIntegerValue(BigInteger integerValue, EXIEventTypedValue typedValue) {
+      if (integerValue.bitLength() < 64)
+        typedValue.setLongValue(integerValue.longValue(), this);
+      else {
+        final String stringValue = integerValue.toString();
+        final int length = stringValue.length();
+        m_characterBuffer.ensureCharacters(length);
+        typedValue.setCharacters(m_characterBuffer.addString(stringValue, length));
+      }
+    }
+    /**
+     * Not for public use.
+     * @y.exclude
+     */
+    @Override
+    Characters toCharacters(EXIEventTypedValue typedValue) {
+      long longValue = typedValue.getLongValue();
+      final boolean isNegative = longValue < 0;
+      int pos = 0;
+      do {
+        final int digit = (int)(longValue % 10);
+        m_digitsBuffer[pos++] = (char)('0' + (digit < 0 ? -digit : digit));
+        longValue /= 10;
+      }
+      while (longValue != 0);
+      if (isNegative)
+        m_digitsBuffer[pos++] = '-';
+      m_characterBuffer.ensureCharacters(pos);
+      return m_characterBuffer.addCharsReverse(m_digitsBuffer, pos);
+    }
   }
 
   private final class EnumerationValueScanner extends ValueScannerBase {
@@ -1249,7 +1497,7 @@ public abstract class Scanner extends Apparatus {
 
   private final class DateTimeValueScanner extends DateTimeValueScannerBase {
     DateTimeValueScanner() {
-      super(new QName("exi:dateTime", ExiUriConst.W3C_2009_EXI_URI), Scanner.this);
+      super(new QName("exi:dateTime", ExiUriConst.W3C_2009_EXI_URI), EXISchemaConst.DATETIME_TYPE, Scanner.this);
     }
     @Override
     public short getCodecID() {
@@ -1270,7 +1518,7 @@ public abstract class Scanner extends Apparatus {
   
   private final class TimeValueScanner extends DateTimeValueScannerBase {
     TimeValueScanner() {
-      super(new QName("exi:time", ExiUriConst.W3C_2009_EXI_URI), Scanner.this);
+      super(new QName("exi:time", ExiUriConst.W3C_2009_EXI_URI), EXISchemaConst.TIME_TYPE, Scanner.this);
     }
     @Override
     public short getCodecID() {
@@ -1288,7 +1536,7 @@ public abstract class Scanner extends Apparatus {
 
   private final class DateValueScanner extends DateTimeValueScannerBase {
     DateValueScanner() {
-      super(new QName("exi:date", ExiUriConst.W3C_2009_EXI_URI), Scanner.this);
+      super(new QName("exi:date", ExiUriConst.W3C_2009_EXI_URI), EXISchemaConst.DATE_TYPE, Scanner.this);
     }
     @Override
     public short getCodecID() {
@@ -1307,7 +1555,7 @@ public abstract class Scanner extends Apparatus {
 
   private final class GYearMonthValueScanner extends DateTimeValueScannerBase {
     GYearMonthValueScanner() {
-      super(new QName("exi:gYearMonth", ExiUriConst.W3C_2009_EXI_URI), Scanner.this);
+      super(new QName("exi:gYearMonth", ExiUriConst.W3C_2009_EXI_URI), EXISchemaConst.G_YEARMONTH_TYPE, Scanner.this);
     }
     @Override
     public short getCodecID() {
@@ -1325,7 +1573,7 @@ public abstract class Scanner extends Apparatus {
 
   private final class GYearValueScanner extends DateTimeValueScannerBase {
     GYearValueScanner() {
-      super(new QName("exi:gYear", ExiUriConst.W3C_2009_EXI_URI), Scanner.this);
+      super(new QName("exi:gYear", ExiUriConst.W3C_2009_EXI_URI), EXISchemaConst.G_YEAR_TYPE, Scanner.this);
     }
     @Override
     public short getCodecID() {
@@ -1343,7 +1591,7 @@ public abstract class Scanner extends Apparatus {
 
   private final class GMonthDayValueScanner extends DateTimeValueScannerBase {
     GMonthDayValueScanner() {
-      super(new QName("exi:gMonthDay", ExiUriConst.W3C_2009_EXI_URI), Scanner.this);
+      super(new QName("exi:gMonthDay", ExiUriConst.W3C_2009_EXI_URI), EXISchemaConst.G_MONTHDAY_TYPE, Scanner.this);
     }
     @Override
     public short getCodecID() {
@@ -1361,7 +1609,7 @@ public abstract class Scanner extends Apparatus {
 
   private final class GDayValueScanner extends DateTimeValueScannerBase {
     GDayValueScanner() {
-      super(new QName("exi:gDay", ExiUriConst.W3C_2009_EXI_URI), Scanner.this);
+      super(new QName("exi:gDay", ExiUriConst.W3C_2009_EXI_URI), EXISchemaConst.G_DAY_TYPE, Scanner.this);
     }
     @Override
     public short getCodecID() {
@@ -1379,7 +1627,7 @@ public abstract class Scanner extends Apparatus {
   
   private final class GMonthValueScanner extends DateTimeValueScannerBase {
     GMonthValueScanner() {
-      super(new QName("exi:gMonth", ExiUriConst.W3C_2009_EXI_URI), Scanner.this);
+      super(new QName("exi:gMonth", ExiUriConst.W3C_2009_EXI_URI), EXISchemaConst.G_MONTH_TYPE, Scanner.this);
     }
     @Override
     public short getCodecID() {
@@ -1396,8 +1644,11 @@ public abstract class Scanner extends Apparatus {
   }
   
   private final class FloatValueScanner extends ValueScannerBase {
+    // sign, 19 mantissa digits, 'E', exponent sign and 10 exponent digits
+    private final char[] m_digitsBuffer;
     FloatValueScanner() {
       super(new QName("exi:double", ExiUriConst.W3C_2009_EXI_URI));
+      m_digitsBuffer = new char[32];
     }
     /**
      * Not for public use.
@@ -1425,21 +1676,69 @@ public abstract class Scanner extends Apparatus {
       long longValue = readUnsignedInteger63(m_istream);
       if (isNegative)
         longValue = -longValue - 1;
-      final String mantissaDigitsString = Long.toString(longValue); 
       final boolean isNegativeExponent = readBoolean(m_istream);
       int intValue = readUnsignedInteger(m_istream);
       if (isNegativeExponent)
-        ++intValue;
-      final String stringValue;
-      if (16384 != intValue) {
-        stringValue = mantissaDigitsString + 'E' + (isNegativeExponent ? "-" : "") +  Integer.toString(intValue); 
+        intValue = -intValue - 1;
+      return toCharacters(longValue, intValue);
+    }
+    /**
+     * Not for public use.
+     * @y.exclude
+     */
+    @Override
+    void scanTyped(int localNameId, int uriId, int tp, EXIEventTypedValue typedValue) throws IOException {
+      final boolean isNegative = readBoolean(m_istream);
+      long longValue = readUnsignedInteger63(m_istream);
+      if (isNegative)
+        longValue = -longValue - 1;
+      final boolean isNegativeExponent = readBoolean(m_istream);
+      int intValue = readUnsignedInteger(m_istream);
+      if (isNegativeExponent)
+        intValue = -intValue - 1;
+      typedValue.setFloatValue(longValue, intValue, this);
+    }
+    /**
+     * Not for public use.
+     * @y.exclude
+     */
+    @Override
+    Characters toCharacters(EXIEventTypedValue typedValue) {
+      return toCharacters(typedValue.getMantissa(), typedValue.getExponent());
+    }
+    private Characters toCharacters(long longValue, int intValue) {
+      if (TypedEventDescription.EXPONENT_SPECIAL_VALUES != intValue) {
+        final boolean isNegative = longValue < 0;
+        final boolean isNegativeExponent = intValue < 0;
+        if (isNegativeExponent)
+          intValue = -intValue;
+        // Digits are laid out in reverse order, then copied in place into the character buffer. 
+        int pos = 0;
+        do {
+          m_digitsBuffer[pos++] = (char)('0' + intValue % 10);
+          intValue /= 10;
+        }
+        while (intValue != 0);
+        if (isNegativeExponent)
+          m_digitsBuffer[pos++] = '-';
+        m_digitsBuffer[pos++] = 'E';
+        do {
+          final int digit = (int)(longValue % 10);
+          m_digitsBuffer[pos++] = (char)('0' + (digit < 0 ? -digit : digit));
+          longValue /= 10;
+        }
+        while (longValue != 0);
+        if (isNegative)
+          m_digitsBuffer[pos++] = '-';
+        m_characterBuffer.ensureCharacters(pos);
+        return m_characterBuffer.addCharsReverse(m_digitsBuffer, pos);
       }
       else {
-        stringValue = longValue == 1 ? "INF" : longValue == -1 ? "-INF" : "NaN";    
+        final String stringValue = longValue == 1 ? "INF" : longValue == -1 ? "-INF" : "NaN";    
+        final int length = stringValue.length();
+        m_characterBuffer.ensureCharacters(length);
+        return m_characterBuffer.addString(stringValue, length);
       }
-      final int length = stringValue.length();
-      m_characterBuffer.ensureCharacters(length);
-      return m_characterBuffer.addString(stringValue, length);
     }
     /**
      * Read an unsigned integer value of range [0 ... 2^63 - 1].
@@ -21,6 +21,12 @@ public final class Scribble {
   public XSDateTime dateTime;
   public byte[] binaryValue;
   
+  // Positions in the text value being parsed by a ValueScriber. ValueScribers 
+  // are shared by all Scribers, so that they keep no parse state of their own.
+  int startPosition;
+  int limitPosition;
+  int nextPosition;
+  
   public Scribble() {
   }
   
@@ -4,9 +4,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
 import java.util.ArrayList;
-
-import javax.xml.datatype.DatatypeConfigurationException;
-import javax.xml.datatype.DatatypeFactory;
+import java.util.concurrent.Executor;
 
 import org.openexi.proc.common.EXIOptions;
 import org.openexi.proc.common.EventType;
@@ -27,8 +25,6 @@ public abstract class Scriber extends Apparatus {
 
   private static final byte[] COOKIE = { 36, 69, 88, 73 }; // "$", "E", "X", "I"
 
-  protected final DatatypeFactory m_datatypeFactory;
-
   protected boolean m_preserveNS;
   int valueMaxExclusiveLength;
   
@@ -96,6 +92,8 @@ public abstract class Scriber extends Apparatus {
   private int[] m_ucsBuffer;
   // Used by some of the ValueScribers to temporarily store digits
   final StringBuilder stringBuilder1, stringBuilder2;
+  // Used by the ValueScribers that parse characters to hold a String value
+  private char[] m_valueChars;
   final Scribble scribble1;
   
   protected OutputStream m_outputStream;
@@ -118,15 +116,6 @@ public abstract class Scriber extends Apparatus {
     m_preserveNS = false;
     valueMaxExclusiveLength = Integer.MAX_VALUE;
     m_preserveLexicalValues = false;
-    DatatypeFactory datatypeFactory = null;
-    try {
-      datatypeFactory = DatatypeFactory.newInstance();
-    }
-    catch(DatatypeConfigurationException dce) {
-      throw new RuntimeException(dce);
-    }
-    m_datatypeFactory = datatypeFactory;
-    
     final ArrayList<ValueScriber> valueScribers = new ArrayList<ValueScriber>();
     valueScribers.add(m_stringValueScriberInherent);
     valueScribers.add(m_booleanValueScriberInherent);
@@ -139,7 +128,7 @@ public abstract class Scriber extends Apparatus {
       m_stringValueScriberLexical = new ValueScriberLexical(m_stringValueScriberInherent, m_stringValueScriberInherent);
       m_booleanValueScriberLexical = new ValueScriberLexical(m_booleanValueScriberInherent, m_stringValueScriberInherent);
       m_integerValueScriberLexical = new ValueScriberLexical(m_integerValueScriberInherent, m_stringValueScriberInherent);
-      valueScribers.add(m_enumerationValueScriberInherent = new EnumerationValueScriber(m_datatypeFactory));
+      valueScribers.add(m_enumerationValueScriberInherent = new EnumerationValueScriber());
       m_enumerationValueScriberLexical = new ValueScriberLexical(m_enumerationValueScriberInherent, m_stringValueScriberInherent);
       valueScribers.add(m_listValueScriberInherent = new ListValueScriber());
       m_listValueScriberLexical = new ValueScriberLexical(m_listValueScriberInherent, m_stringValueScriberInherent);
@@ -195,11 +184,24 @@ public abstract class Scriber extends Apparatus {
     m_ucsBuffer = new int[1024];
     stringBuilder1 = new StringBuilder();
     stringBuilder2 = new StringBuilder();
+    m_valueChars = new char[64];
     scribble1 = new Scribble();
     
     m_outputStream = null;
   }
   
+  /**
+   * Copies the characters of a value into an array that is reused from one
+   * value to another, for use by ValueScribers that parse characters.
+   */
+  final char[] toChars(String value) {
+    final int len = value.length();
+    if (m_valueChars.length < len)
+      m_valueChars = new char[Math.max(len, 2 * m_valueChars.length)];
+    value.getChars(0, len, m_valueChars, 0);
+    return m_valueChars;
+  }
+
   protected final CharacterBuffer ensureCharacters(final int length) {
     CharacterBuffer characterBuffer = m_characterBuffer;
     final int availability;
@@ -253,6 +255,10 @@ public abstract class Scriber extends Apparatus {
     // Do nothing.
   }
 
+  public void setDeflateExecutor(Executor executor) {
+    // Do nothing.
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   /// Value Scriber Functions
   ///////////////////////////////////////////////////////////////////////////
@@ -352,6 +358,13 @@ public abstract class Scriber extends Apparatus {
   ///////////////////////////////////////////////////////////////////////////
 
   public abstract void finish() throws IOException;
+
+  /**
+   * Writes out the whole bytes buffered so far, if any, so that large binary
+   * data reach the output stream as they are written.
+   */
+  void drain() throws IOException {
+  }
   
   protected abstract void writeUnsignedInteger32(int uint, OutputStream ostream) throws IOException;
   protected abstract void writeUnsignedInteger64(long ulong, OutputStream ostream) throws IOException;
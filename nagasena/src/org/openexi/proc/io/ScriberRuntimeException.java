@@ -21,6 +21,26 @@ public final class ScriberRuntimeException extends RuntimeException {
    * Prefix cannot be null.
    */
   public static final int PREFIX_IS_NULL = 3;
+  /**
+   * Element is not expected by a specialized encoder.
+   */
+  public static final int UNEXPECTED_ELEM = 4;
+  /**
+   * Attribute is not expected by a specialized encoder.
+   */
+  public static final int UNEXPECTED_ATTR = 5;
+  /**
+   * Characters are not expected by a specialized encoder.
+   */
+  public static final int UNEXPECTED_CHARS = 6;
+  /**
+   * End of element is not expected by a specialized encoder.
+   */
+  public static final int UNEXPECTED_END_ELEM = 7;
+  /**
+   * End of document is not expected by a specialized encoder.
+   */
+  public static final int UNEXPECTED_ED = 8;
 
   private static final MessageResolver m_msgs =
       new MessageResolver(ScriberRuntimeException.class);
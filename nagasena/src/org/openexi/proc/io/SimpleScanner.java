@@ -29,6 +29,8 @@ abstract class SimpleScanner extends Scanner {
   private final EXIEventTransientElement m_transientElement;
   private final EXIEventTransientAttribute m_transientAttribute;
   private final EXIEventTransientBinaryData m_transientBinaryData;
+  private final EXIEventTypedCharacters m_typedCharacters;
+  private final EXIEventTypedAttribute m_typedAttribute;
   
   SimpleScanner(boolean isForEXIOptions) {
     super(isForEXIOptions);
@@ -36,8 +38,16 @@ abstract class SimpleScanner extends Scanner {
     m_transientElement = new EXIEventTransientElement();
     m_transientAttribute = new EXIEventTransientAttribute();
     m_transientBinaryData = new EXIEventTransientBinaryData();
+    m_typedCharacters = new EXIEventTypedCharacters();
+    m_typedAttribute = new EXIEventTypedAttribute();
   }
   
+  @Override
+  public void reset() {
+    super.reset();
+    m_transientBinaryData.binaryData.setValues(null, 0, 0, null, 0);
+  }
+
   @Override
   public final void setBlockSize(int blockSize){
     // Do nothing.
@@ -47,8 +57,21 @@ abstract class SimpleScanner extends Scanner {
     m_binaryChunkSize = chunkSize;
   }
 
+  @Override
+  public final void setFlyweight(boolean flyweight) {
+    m_characterBuffer.setFlyweight(m_flyweight = flyweight);
+  }
+
   @Override
   public final EventDescription nextEvent() throws IOException {
+    final BinaryDataSource binaryData;
+    if ((binaryData = m_transientBinaryData.binaryData).hasNext()) {
+      // Skip the chunks of the last binary value that were left unread.
+      do {
+        binaryData.next();
+      }
+      while (binaryData.hasNext());
+    }
     EventCodeTuple eventCodeTuple;
     if ((eventCodeTuple = getNextEventCodes()) == null)
       return null;
@@ -71,6 +94,8 @@ abstract class SimpleScanner extends Scanner {
       eventCodeTuple = (EventCodeTuple)eventCodeItem;
     }
     while (true);
+    if (m_metrics != null)
+      m_metrics.event(currentState.targetGrammar.grammarType, eventType);
 
     switch (eventType.itemType) {
       case EventType.ITEM_SD:
@@ -188,6 +213,12 @@ abstract class SimpleScanner extends Scanner {
         if ((tp = eventTypeSchemaAttribute.nd) != EXISchema.NIL_NODE) {
           final int simpleTypeSerial = m_types[tp + EXISchemaLayout.TYPE_NUMBER];
           final ValueScanner valueScanner = m_valueScannerTable[m_codecTable[simpleTypeSerial]];
+          if (m_typedValuesEnabled) {
+            m_typedAttribute.prefix = prefix;
+            m_typedAttribute.eventType = eventType;
+            valueScanner.scanTyped(localNameId, uriId, tp, m_typedAttribute);
+            return m_typedAttribute;
+          }
           m_transientAttribute.text = valueScanner.scan(localNameId, uriId, tp);
           return m_transientAttribute;
         }
@@ -227,6 +258,11 @@ abstract class SimpleScanner extends Scanner {
         return m_transientBinaryData;
       }
     }
+    if (m_typedValuesEnabled) {
+      valueScanner.scanTyped(m_nameLocusStack[m_nameLocusLastDepth], m_nameLocusStack[m_nameLocusLastDepth + 1], contentDatatype, m_typedCharacters);
+      m_typedCharacters.eventType = eventType;
+      return m_typedCharacters;
+    }
     text = valueScanner.scan(m_nameLocusStack[m_nameLocusLastDepth], m_nameLocusStack[m_nameLocusLastDepth + 1], contentDatatype);
     m_transientCharacters.characters = text;
     m_transientCharacters.eventType = eventType;
@@ -237,6 +273,11 @@ abstract class SimpleScanner extends Scanner {
     final Characters text;    
     undeclaredCharacters(eventType.getIndex());
     text = m_valueScannerTable[CODEC_STRING].scan(m_nameLocusStack[m_nameLocusLastDepth], m_nameLocusStack[m_nameLocusLastDepth + 1], EXISchema.NIL_NODE);
+    if (m_flyweight) {
+      m_transientCharacters.characters = text;
+      m_transientCharacters.eventType = eventType;
+      return m_transientCharacters;
+    }
     return new EXIEventSchemaMixedCharacters(text, eventType);
   }
 
@@ -244,6 +285,11 @@ abstract class SimpleScanner extends Scanner {
     final Characters text;    
     undeclaredCharacters(eventType.getIndex());
     text = m_valueScannerTable[CODEC_STRING].scan(m_nameLocusStack[m_nameLocusLastDepth], m_nameLocusStack[m_nameLocusLastDepth + 1], EXISchema.NIL_NODE);
+    if (m_flyweight) {
+      m_transientCharacters.characters = text;
+      m_transientCharacters.eventType = eventType;
+      return m_transientCharacters;
+    }
     return new EXIEventUndeclaredCharacter(text, eventType);
   }
 
@@ -730,5 +776,60 @@ abstract class SimpleScanner extends Scanner {
     }
   }
   
-}
+  private static final class EXIEventTypedCharacters extends EXIEventTypedValue {
+
+    public byte getEventKind() {
+      return EventDescription.EVENT_CH;
+    }
+    
+    public String getURI() {
+      return null;
+    }
+    
+    public String getName() {
+      return "#text";
+    }
 
+    public int getURIId() {
+      return -1;
+    }
+    
+    public int getNameId() {
+      return -1;
+    }
+
+    public String getPrefix() {
+      return null;
+    }
+  }
+
+  private static final class EXIEventTypedAttribute extends EXIEventTypedValue {
+
+    String prefix;
+    
+    public byte getEventKind() {
+      return EventDescription.EVENT_AT;
+    }
+
+    public String getURI() {
+      return eventType.uri;
+    }
+    
+    public String getName() {
+      return eventType.name;
+    }
+
+    public int getURIId() {
+      return eventType.getURIId();
+    }
+    
+    public int getNameId() {
+      return eventType.getNameId();
+    }
+
+    public String getPrefix() {
+      return prefix;
+    }
+  }
+  
+}
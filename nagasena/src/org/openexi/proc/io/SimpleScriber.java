@@ -92,6 +92,8 @@ abstract class SimpleScriber extends Scriber {
   
   @Override
   public final void writeEventType(EventType eventType) throws IOException {
+    if (m_metrics != null)
+      m_metrics.event(currentState.targetGrammar.grammarType, eventType);
     EventCode[] path;
     path = eventType.getItemPath();
 
@@ -0,0 +1,287 @@
+package org.openexi.proc.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.openexi.proc.common.BinaryDataSource;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.common.EventType;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.common.QName;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.schema.Characters;
+import org.openexi.schema.EXISchema;
+
+/**
+ * SpecializedDecoder is the base class of the decoders that
+ * {@link SpecializedCodecGenerator} generates for a schema. Generated
+ * decoders have the event codes, their widths and the value codecs of
+ * the schema's grammars compiled into switch statements, and do not
+ * consult the grammars while decoding.
+ * <br /><br />
+ * Generated decoders read the streams that a {@link SpecializedEncoder}
+ * or Transmogrifier writes given strict grammar options and bitPacked
+ * alignment with the other options left at their defaults. Streams that
+ * contain wildcard, xsi:type or xsi:nil events cannot be decoded.
+ */
+public abstract class SpecializedDecoder {
+
+  private final BitPackedScanner m_scanner;
+  private final ValueScanner[] m_valueScannerTable;
+  private final Event m_event;
+
+  /**
+   * Current state of the generated state machine.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected int m_state;
+
+  // States to continue with after the ancestor elements end, and the
+  // names and the content datatypes of the elements being decoded.
+  private int[] m_stateStack;
+  private int[] m_uriIdStack;
+  private int[] m_localNameIdStack;
+  private int[] m_typeStack;
+  private short[] m_codecStack;
+  private int m_depth;
+
+  private boolean m_done;
+
+  private static final int INIT_DEPTH = 32;
+
+  /**
+   * Constructor used by generated decoders.
+   * @param grammarCache grammar cache of the schema that the decoder was
+   * generated from, which must use strict grammar options
+   */
+  protected SpecializedDecoder(GrammarCache grammarCache) {
+    if (grammarCache.grammarOptions != GrammarOptions.STRICT_OPTIONS)
+      throw new IllegalArgumentException("Specialized decoders only support strict grammar options.");
+    m_scanner = new BitPackedScanner(false);
+    m_scanner.setSchema(grammarCache.getEXISchema(), (QName[])null, 0);
+    m_scanner.setStringTable(Scanner.createStringTable(grammarCache));
+    m_valueScannerTable = m_scanner.m_valueScannerTable;
+    m_event = new Event();
+    m_stateStack = new int[INIT_DEPTH];
+    m_uriIdStack = new int[INIT_DEPTH];
+    m_localNameIdStack = new int[INIT_DEPTH];
+    m_typeStack = new int[INIT_DEPTH];
+    m_codecStack = new short[INIT_DEPTH];
+  }
+
+  /**
+   * Set an input stream from which a stream is decoded. The header is read
+   * from the stream immediately. It may begin with the cookie, and must not
+   * contain options.
+   * @param istream input stream
+   * @throws IOException if the header is not what the decoder supports
+   */
+  public final void setInputStream(InputStream istream) throws IOException {
+    int b;
+    if ((b = istream.read()) == '$') {
+      if (istream.read() != 'E' || istream.read() != 'X' || istream.read() != 'I')
+        throw new IOException("The stream does not begin with a valid EXI cookie.");
+      b = istream.read();
+    }
+    if (b != 128)
+      throw new IOException("The stream header is not of EXI version 1 without options.");
+    m_scanner.reset();
+    m_scanner.setInputStream(istream);
+    m_state = 0;
+    m_depth = 0;
+    m_done = false;
+  }
+
+  /**
+   * Gets the next event. The same EventDescription instance is returned
+   * for every event, and its contents are valid until the next call.
+   * Events returned do not have an event type.
+   * @return next event, or null after the end of the document
+   * @throws IOException if the stream is cut off or contains an event
+   * that the decoder does not support
+   */
+  public final EventDescription nextEvent() throws IOException {
+    if (m_done)
+      return null;
+    return decodeEvent();
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Methods implemented by generated decoders
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Reads the next event in the current state.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected abstract EventDescription decodeEvent() throws IOException;
+
+  ///////////////////////////////////////////////////////////////////////////
+  /// Functions used by generated decoders
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final int readEventCode(int width) throws IOException {
+    return m_scanner.readNBitUnsigned(width, (InputStream)null);
+  }
+
+  /**
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final IOException unsupportedEventCode(int code) {
+    return new IOException("Event code " + code + " in state " + m_state + " is not supported.");
+  }
+
+  /**
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final EventDescription startDocument(int nextState) {
+    m_state = nextState;
+    return m_event.set(EventDescription.EVENT_SD, (String)null, (String)null, -1, -1, (Characters)null);
+  }
+
+  /**
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final EventDescription endDocument() {
+    m_done = true;
+    return m_event.set(EventDescription.EVENT_ED, (String)null, (String)null, -1, -1, (Characters)null);
+  }
+
+  /**
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final EventDescription startElement(int nextState, int elementState, String uri, String localName,
+      int uriId, int localNameId, int tp, short codec) {
+    m_scanner.m_characterBuffer.nextIndex = 0;
+    if (m_depth == m_stateStack.length)
+      expandStack();
+    m_stateStack[m_depth] = nextState;
+    m_uriIdStack[m_depth] = uriId;
+    m_localNameIdStack[m_depth] = localNameId;
+    m_typeStack[m_depth] = tp;
+    m_codecStack[m_depth++] = codec;
+    m_state = elementState;
+    return m_event.set(EventDescription.EVENT_SE, uri, localName, uriId, localNameId, (Characters)null);
+  }
+
+  /**
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final EventDescription endElement() {
+    m_state = m_stateStack[--m_depth];
+    return m_event.set(EventDescription.EVENT_EE, (String)null, (String)null, -1, -1, (Characters)null);
+  }
+
+  /**
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final EventDescription attribute(int nextState, String uri, String localName,
+      int uriId, int localNameId, int tp, short codec) throws IOException {
+    final Characters text = m_valueScannerTable[codec].scan(localNameId, uriId, tp);
+    m_state = nextState;
+    return m_event.set(EventDescription.EVENT_AT, uri, localName, uriId, localNameId, text);
+  }
+
+  /**
+   * Reads a typed CH of the current element.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final EventDescription characters(int nextState) throws IOException {
+    final int depth = m_depth - 1;
+    final Characters text = m_valueScannerTable[m_codecStack[depth]].scan(
+        m_localNameIdStack[depth], m_uriIdStack[depth], m_typeStack[depth]);
+    m_state = nextState;
+    return m_event.set(EventDescription.EVENT_CH, (String)null, "#text", -1, -1, text);
+  }
+
+  /**
+   * Reads a CH of mixed content of the current element.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final EventDescription mixedCharacters(int nextState) throws IOException {
+    final int depth = m_depth - 1;
+    final Characters text = m_valueScannerTable[Scanner.CODEC_STRING].scan(
+        m_localNameIdStack[depth], m_uriIdStack[depth], EXISchema.NIL_NODE);
+    m_state = nextState;
+    return m_event.set(EventDescription.EVENT_CH, (String)null, "#text", -1, -1, text);
+  }
+
+  private void expandStack() {
+    final int capacity = 2 * m_depth;
+    final int[] stateStack = new int[capacity];
+    final int[] uriIdStack = new int[capacity];
+    final int[] localNameIdStack = new int[capacity];
+    final int[] typeStack = new int[capacity];
+    final short[] codecStack = new short[capacity];
+    System.arraycopy(m_stateStack, 0, stateStack, 0, m_depth);
+    System.arraycopy(m_uriIdStack, 0, uriIdStack, 0, m_depth);
+    System.arraycopy(m_localNameIdStack, 0, localNameIdStack, 0, m_depth);
+    System.arraycopy(m_typeStack, 0, typeStack, 0, m_depth);
+    System.arraycopy(m_codecStack, 0, codecStack, 0, m_depth);
+    m_stateStack = stateStack;
+    m_uriIdStack = uriIdStack;
+    m_localNameIdStack = localNameIdStack;
+    m_typeStack = typeStack;
+    m_codecStack = codecStack;
+  }
+
+  private static final class Event implements EventDescription {
+    private byte m_eventKind;
+    private String m_uri;
+    private String m_name;
+    private int m_uriId;
+    private int m_nameId;
+    private Characters m_characters;
+    Event set(byte eventKind, String uri, String name, int uriId, int nameId, Characters characters) {
+      m_eventKind = eventKind;
+      m_uri = uri;
+      m_name = name;
+      m_uriId = uriId;
+      m_nameId = nameId;
+      m_characters = characters;
+      return this;
+    }
+    public byte getEventKind() {
+      return m_eventKind;
+    }
+    public String getURI() {
+      return m_uri;
+    }
+    public String getName() {
+      return m_name;
+    }
+    public int getURIId() {
+      return m_uriId;
+    }
+    public int getNameId() {
+      return m_nameId;
+    }
+    public String getPrefix() {
+      return null;
+    }
+    public Characters getCharacters() {
+      return m_characters;
+    }
+    public BinaryDataSource getBinaryDataSource() {
+      return null;
+    }
+    public EventType getEventType() {
+      return null;
+    }
+  }
+
+}
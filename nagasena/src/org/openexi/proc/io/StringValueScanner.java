@@ -2,6 +2,7 @@ package org.openexi.proc.io;
 
 import java.io.IOException;
 
+import org.openexi.proc.common.MetricsListener;
 import org.openexi.proc.common.QName;
 import org.openexi.proc.common.StringTable;
 import org.openexi.proc.grammars.Apparatus;
@@ -39,10 +40,20 @@ final class StringValueScanner extends ValueScannerBase {
   @Override
   public Characters scan(int localNameId, int uriId, int tp) throws IOException {
     int ucsCount = m_scanner.readUnsignedInteger(m_istream);
+    final MetricsListener metrics = m_scanner.getMetricsListener();
     if ((ucsCount & 0xFFFFFFFE) != 0) { // i.e. length > 1 
+      if (metrics != null)
+        metrics.valueMiss(uriId, localNameId, ucsCount - 2);
       if ((ucsCount -= 2) != 0) {
         final Characters value = m_scanner.readLiteralString(ucsCount, tp, m_istream);
         if (ucsCount < m_valueMaxExclusiveLength) {
+          if (m_scanner.m_flyweight) {
+            // The string table keeps an instance of its own instead of the 
+            // window that moves on to the next value.
+            final Characters entry = new Characters(value.characters, value.startIndex, value.length, value.isVolatile);
+            m_globalValuePartition.addValue(entry, localNameId, uriId);
+            return entry;
+          }
           m_globalValuePartition.addValue(value, localNameId, uriId);
         }
         return value;
@@ -53,12 +64,16 @@ final class StringValueScanner extends ValueScannerBase {
     else {
       final int id;
       if (ucsCount == 0) {
+        if (metrics != null)
+          metrics.localValueHit(uriId, localNameId);
         final StringTable.LocalValuePartition localPartition;
         localPartition = m_globalValuePartition.getLocalPartition(localNameId, uriId);
         id = m_scanner.readNBitUnsigned(localPartition.width, m_istream);
         return localPartition.valueEntries[id].value;
       }
       else { // length == 1
+        if (metrics != null)
+          metrics.globalValueHit(uriId, localNameId);
         id = m_scanner.readNBitUnsigned(m_globalValuePartition.width, m_istream);
         return m_globalValuePartition.valueEntries[id].value;
       }
@@ -3,6 +3,7 @@ package org.openexi.proc.io;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.openexi.proc.common.MetricsListener;
 import org.openexi.proc.common.QName;
 import org.openexi.proc.common.StringTable;
 import org.openexi.proc.common.StringTable.LocalValuePartition;
@@ -42,8 +43,11 @@ public final class StringValueScriber extends ValueScriberBase {
   void scribeStringValue(Characters value, int localNameId, int uriId, int tp, OutputStream ostream, Scriber scriber) throws IOException {
     final StringTable.GlobalValuePartition globalPartition = scriber.stringTable.globalValuePartition;
     final StringTable.GlobalEntry entry;
+    final MetricsListener metrics = scriber.getMetricsListener();
     if ((entry = globalPartition.getEntry(value)) == null) {
       final int length = value.length;
+      if (metrics != null)
+        metrics.valueMiss(uriId, localNameId, length);
       scriber.writeLiteralCharacters(value, length, 2, tp, ostream);
       if (length != 0 && length < scriber.valueMaxExclusiveLength) {
         globalPartition.addValue(value, localNameId, uriId);
@@ -52,10 +56,14 @@ public final class StringValueScriber extends ValueScriberBase {
     }
     final LocalValuePartition localPartition;
     if ((localPartition = entry.localPartition) == globalPartition.getLocalPartition(localNameId, uriId)) {
+      if (metrics != null)
+        metrics.localValueHit(uriId, localNameId);
       scriber.writeUnsignedInteger32(0, ostream);
       scriber.writeNBitUnsigned(entry.localEntry.number, localPartition.width, ostream);
       return;
     }
+    if (metrics != null)
+      metrics.globalValueHit(uriId, localNameId);
     scriber.writeUnsignedInteger32(1, ostream);
     scriber.writeNBitUnsigned(entry.number, globalPartition.width, ostream);
   }
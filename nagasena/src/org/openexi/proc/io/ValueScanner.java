@@ -20,4 +20,20 @@ public abstract class ValueScanner extends ValueApparatus {
   
   public abstract Characters scan(int name, int uri, int tp) throws IOException;
 
+  /**
+   * Reads a value into the typed value of an event. Value scanners that
+   * do not override this method give the value as characters.
+   */
+  void scanTyped(int name, int uri, int tp, EXIEventTypedValue typedValue) throws IOException {
+    typedValue.setCharacters(scan(name, uri, tp));
+  }
+
+  /**
+   * Renders the characters of a typed value read by scanTyped.
+   */
+  Characters toCharacters(EXIEventTypedValue typedValue) {
+    assert false;
+    return null;
+  }
+
 }
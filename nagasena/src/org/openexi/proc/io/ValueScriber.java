@@ -2,9 +2,12 @@ package org.openexi.proc.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
 import org.openexi.proc.grammars.ValueApparatus;
 import org.openexi.schema.EXISchema;
+import org.openexi.schema.XSDateTime;
 
 public abstract class ValueScriber extends ValueApparatus {
 
@@ -27,6 +30,48 @@ public abstract class ValueScriber extends ValueApparatus {
 
   public abstract void doScribe(Object value, int localName, int uri, int tp, OutputStream channelStream, Scriber scriber) throws IOException;
 
+  ////////////////////////////////////////////////////////////
+  // The following methods process a value that is given in its typed form
+  // instead of characters. They return false when the value scriber does
+  // not take such a value, or the value is not valid for the type tp, in
+  // which case the value needs to be processed as characters.
+  ////////////////////////////////////////////////////////////
+
+  public boolean processLong(long value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  public boolean processDouble(double value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  public boolean processDecimal(BigDecimal value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  public boolean processDateTime(XSDateTime value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  public boolean processBinary(ByteBuffer value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return false;
+  }
+
+  ////////////////////////////////////////////////////////////
+  // The following methods process a value that is given as a range of
+  // characters. Value scribers for which processesChars() returns true
+  // parse the characters in place, and do not refer to the String value
+  // when scribing, thus null can be passed to scribe() as the value.
+  ////////////////////////////////////////////////////////////
+
+  public boolean processesChars() {
+    return false;
+  }
+
+  public boolean process(char[] ch, int start, int length, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return process(new String(ch, start, length), tp, schema, scribble, scriber);
+  }
+
   ////////////////////////////////////////////////////////////
   
   public static final String normalize(final String text, final int whiteSpace) {
@@ -32,9 +32,6 @@ abstract class ValueScriberBase extends ValueScriber {
 
   protected static final int[] NBIT_INTEGER_RANGES = { 0, 1, 3, 7, 15, 31, 63, 127, 255, 511, 1023, 2047, 4095 };
 
-  protected int startPosition;
-  protected int limitPosition;
-
   @Override
   public final void scribe(String value, Scribble scribble, int localName, int uri, int tp, Scriber scriber) throws IOException {
     scribe(value, scribble, localName, uri, tp, (OutputStream)null, scriber);
@@ -42,11 +39,13 @@ abstract class ValueScriberBase extends ValueScriber {
 
   /**
    * Trims leading and trailing whitespace characters.
+   * The bounds of the trimmed value are set to the scribble's 
+   * startPosition and limitPosition.
    * @param value
    * @return false when there was found no non-whitespace characters,
    * otherwise returns true.
    */
-  protected final boolean trimWhitespaces(String value) {
+  protected final boolean trimWhitespaces(String value, Scribble scribble) {
     
     int pos, len;
     int limit = value.length();
@@ -85,9 +84,49 @@ abstract class ValueScriberBase extends ValueScriber {
     else if (len == 0)
       return false;
 
-    startPosition = pos;
-    limitPosition = limit;
+    scribble.startPosition = pos;
+    scribble.limitPosition = limit;
     return true;
   }
   
+  /**
+   * Trims leading and trailing whitespace characters off a range of
+   * characters. The bounds of the trimmed value, which are indices into 
+   * the array, are set to the scribble's startPosition and limitPosition.
+   * @return false when there was found no non-whitespace characters,
+   * otherwise returns true.
+   */
+  protected final boolean trimWhitespaces(char[] ch, int start, int length, Scribble scribble) {
+    int pos, limit;
+    skipWhiteSpaces:
+    for (pos = start, limit = start + length; pos < limit; pos++) {
+      switch (ch[pos]) {
+        case '\t':
+        case '\n':
+        case '\r':
+        case ' ':
+          break;
+        default:
+          break skipWhiteSpaces;
+      }
+    }
+    if (pos == limit)
+      return false;
+    skipTrailingWhiteSpaces:
+    for (; limit - 1 > pos; limit--) {
+      switch (ch[limit - 1]) {
+        case '\t':
+        case '\n':
+        case '\r':
+        case ' ':
+          break;
+        default:
+          break skipTrailingWhiteSpaces;
+      }
+    }
+    scribble.startPosition = pos;
+    scribble.limitPosition = limit;
+    return true;
+  }
+
 }
@@ -5,6 +5,7 @@ import java.io.InputStream;
 
 import java.util.List;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 import java.util.zip.Inflater;
 
 import org.openexi.proc.common.AlignmentType;
@@ -35,6 +36,15 @@ public final class ChannellingScanner extends Scanner {
   private int m_bufSize;
   
   private final boolean m_useThreadedInflater;
+
+  /**
+   * Maximum number of compressed streams inflated ahead of the one being
+   * decoded when an inflate executor is in use.
+   */
+  private static final int MAX_STREAMS_AHEAD = 16;
+
+  private Executor m_inflateExecutor;
+  private EXIInflaterInputStreamPipelined m_inflaterStreamPipelined;
   
   private boolean m_foundED;
   private int m_n_blocks;
@@ -53,6 +63,8 @@ public final class ChannellingScanner extends Scanner {
       m_inflater = null;
     
     m_useThreadedInflater = useThreadedInflater;
+    m_inflateExecutor = null;
+    m_inflaterStreamPipelined = null;
     
     m_eventList = new EventDescription[8192];
     m_n_events = 0;
@@ -79,15 +91,31 @@ public final class ChannellingScanner extends Scanner {
     m_channelKeeper.reset();
   }
 
+  /**
+   * Inflate compressed streams ahead of the block being decoded, using the
+   * executor. Compressed streams are inflated as they are read if the 
+   * executor is null.
+   */
+  @Override
+  public final void setInflateExecutor(Executor executor) {
+    m_inflateExecutor = executor;
+  }
+
   @Override
   public void setInputStream(InputStream istream) {
-    if (m_compressed) {
+    m_inflaterStreamPipelined = null;
+    if (m_compressed && m_inflateExecutor != null) {
+      m_inflaterStreamPipelined = new EXIInflaterInputStreamPipelined(
+          istream, m_bufSize, m_inflateExecutor, MAX_STREAMS_AHEAD, m_metrics);
+      super.setInputStream(m_inflaterStreamPipelined);
+    }
+    else if (m_compressed) {
       m_inflater.reset();
       // REVISIT: Consider reusing EXIInflaterInputStream instance.
       if (m_useThreadedInflater)
-        super.setInputStream(m_compressed ? new EXIInflaterInputStreamThreaded(istream, m_inflater, m_bufSize) : istream);
+        super.setInputStream(new EXIInflaterInputStreamThreaded(istream, m_bufSize));
       else
-        super.setInputStream(new EXIInflaterInputStream(istream, m_inflater, m_bufSize));
+        super.setInputStream(new EXIInflaterInputStream(istream, m_inflater, m_bufSize, m_metrics));
     }
     else
       super.setInputStream(istream);
@@ -123,6 +151,36 @@ public final class ChannellingScanner extends Scanner {
     throw new UnsupportedOperationException("Setting binary chunk size is not supported.");
   }
 
+  /**
+   * Marks are not supported in compression or pre-compression alignment, 
+   * where a block is decoded only after all of its channels have been 
+   * read in. There is no event boundary in the input to return to.
+   */
+  @Override
+  public final boolean supportsMark() {
+    return false;
+  }
+
+  @Override
+  protected final void markInput() {
+    throw new UnsupportedOperationException("Marks are not supported in compression or pre-compression alignment.");
+  }
+
+  @Override
+  protected final void resetInput() {
+    throw new UnsupportedOperationException("Marks are not supported in compression or pre-compression alignment.");
+  }
+
+  /**
+   * Flyweight is not supported in compression or pre-compression alignment, 
+   * where values of a block are read into channels before any of them are 
+   * reported. The setting is therefore ignored.
+   */
+  @Override
+  public final void setFlyweight(boolean flyweight) {
+    // Do nothing.
+  }
+
   @Override
   public EventDescription nextEvent() throws IOException {
     if (m_eventIndex < m_n_events) {
@@ -140,12 +198,15 @@ public final class ChannellingScanner extends Scanner {
     if (m_binaryDataEnabled)
       octetBuffer.nextIndex = 0;
     m_channelKeeper.finish();
+    if (m_metrics != null) {
+      m_metrics.block(m_channelKeeper.getTotalValueCount(),
+          m_channelKeeper.getSmallChannels().size(), m_channelKeeper.getLargeChannels().size());
+    }
     ScannerChannel channel;
     final Iterator<Channel> smallChannels = m_channelKeeper.getSmallChannels().iterator();
     if (smallChannels.hasNext()) {
       if (m_compressed && m_channelKeeper.getTotalValueCount() > 100) {
-        if (!m_useThreadedInflater)
-          ((EXIInflaterInputStream)m_inputStream).resetInflator();
+        resetInflator();
       }
       do {
         channel = (ScannerChannel)smallChannels.next();
@@ -158,8 +219,8 @@ public final class ChannellingScanner extends Scanner {
     }
     final Iterator<Channel> largeChannels = m_channelKeeper.getLargeChannels().iterator();
     while (largeChannels.hasNext()) {
-      if (m_compressed && !m_useThreadedInflater)
-        ((EXIInflaterInputStream)m_inputStream).resetInflator();
+      if (m_compressed)
+        resetInflator();
       channel = (ScannerChannel)largeChannels.next(); 
       List<EXIEventValueReference> textProviderList = channel.values;
       final int len = textProviderList.size();
@@ -167,10 +228,27 @@ public final class ChannellingScanner extends Scanner {
         textProviderList.get(j).scanText(this, m_binaryDataEnabled, m_inputStream);
       }
     }
-    if (m_compressed && !m_useThreadedInflater)
+    if (m_compressed)
+      resetInflator();
+  }
+
+  private void resetInflator() throws IOException {
+    if (m_inflaterStreamPipelined != null)
+      m_inflaterStreamPipelined.resetInflator();
+    else if (!m_useThreadedInflater)
       ((EXIInflaterInputStream)m_inputStream).resetInflator();
   }
 
+  /**
+   * Notifies that the block has been inflated.
+   */
+  private void finishInflaterBlock() {
+    if (m_inflaterStreamPipelined != null)
+      m_inflaterStreamPipelined.finishBlock();
+    else if (!m_useThreadedInflater)
+      ((EXIInflaterInputStream)m_inputStream).finishBlock();
+  }
+
   private void readStructureChannel() throws IOException {
     int n_values = 0;
     n_elements = 0;
@@ -196,6 +274,8 @@ public final class ChannellingScanner extends Scanner {
         eventCodeTuple = (EventCodeTuple)eventCodeItem;
       }
       while (true);
+      if (m_metrics != null)
+        m_metrics.event(currentState.targetGrammar.grammarType, eventType);
       
       String name;
       String prefix, publicId, systemId;
@@ -455,6 +535,8 @@ public final class ChannellingScanner extends Scanner {
         EventType eventType;
         switch ((eventType = eventTypeList.item(0)).itemType) {
           case EventType.ITEM_SE:
+            if (m_metrics != null)
+              m_metrics.event(currentState.targetGrammar.grammarType, eventType);
             final int uriId = eventType.getURIId();
             final int localNameId = eventType.getNameId();
             final String prefix = m_preserveNS ? readPrefixOfQName(uriId) : null;
@@ -474,6 +556,8 @@ public final class ChannellingScanner extends Scanner {
               addEvent(eventType.asEventDescription());
             break;
           case EventType.ITEM_EE:
+            if (m_metrics != null)
+              m_metrics.event(currentState.targetGrammar.grammarType, eventType);
             endElement();
             m_nameLocusLastDepth -= 2;
             if (m_preserveNS)
@@ -481,6 +565,8 @@ public final class ChannellingScanner extends Scanner {
             addEvent(eventType.asEventDescription());
             break;
           case EventType.ITEM_ED:
+            if (m_metrics != null)
+              m_metrics.event(currentState.targetGrammar.grammarType, eventType);
             endDocument();
             addEvent(eventType.asEventDescription());
             m_foundED = true;
@@ -497,6 +583,8 @@ public final class ChannellingScanner extends Scanner {
     m_n_events = 0;
     readStructureChannel();
     readValueChannels();
+    if (m_compressed)
+      finishInflaterBlock();
     m_channelKeeper.punctuate();
     m_eventIndex = 0;
   }
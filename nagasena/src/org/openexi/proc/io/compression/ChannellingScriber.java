@@ -5,6 +5,7 @@ import java.io.OutputStream;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.zip.Deflater;
 
 import org.openexi.proc.common.AlignmentType;
@@ -66,11 +67,20 @@ public final class ChannellingScriber extends Scriber {
   private final ChannelKeeper m_channelKeeper;
   private final Deflater m_deflator;
 
+  private Executor m_deflateExecutor;
+  private int m_deflateLevel;
+  private int m_deflateStrategy;
+  private EXIDeflaterOutputStreamParallel m_deflaterStreamParallel;
+
   public ChannellingScriber(boolean compressed) {
     super(false);
     m_compressed = compressed;
     m_channelKeeper = new ChannelKeeper(new ScriberChannelFactory());
     m_deflator = compressed ? new Deflater(Deflater.DEFAULT_COMPRESSION, true) : null;
+    m_deflateExecutor = null;
+    m_deflateLevel = Deflater.DEFAULT_COMPRESSION;
+    m_deflateStrategy = Deflater.DEFAULT_STRATEGY;
+    m_deflaterStreamParallel = null;
     
     m_stringValueScriberInherentProxy = new ChannellingValueScriberProxy(m_channelKeeper, m_stringValueScriberInherent);
     m_booleanValueScriberInherentProxy = new ChannellingValueScriberProxy(m_channelKeeper, m_booleanValueScriberInherent);
@@ -135,6 +145,7 @@ public final class ChannellingScriber extends Scriber {
       m_deflator.reset();
     m_baseDataStream = null;
     m_outputStream = null;
+    endDeflaters();
   }
 
   /**
@@ -149,9 +160,27 @@ public final class ChannellingScriber extends Scriber {
     if (m_compressed) {
       m_deflator.setLevel(level);
       m_deflator.setStrategy(strategy);
+      if (m_deflateLevel != level || m_deflateStrategy != strategy) {
+        m_deflateLevel = level;
+        m_deflateStrategy = strategy;
+        if (m_deflaterStreamParallel != null)
+          m_deflaterStreamParallel.setDeflaterPool(new DeflaterPool(level, strategy));
+      }
     }
   }
 
+  /**
+   * Set an executor to which blocks are handed for compression when they
+   * are complete. Each block is deflated by a worker with its own Deflater,
+   * and the results are written out in the order of the blocks. Blocks are
+   * compressed on the calling thread when the executor is null.
+   * @param executor executor used to deflate blocks, or null
+   */
+  @Override
+  public void setDeflateExecutor(Executor executor) {
+    m_deflateExecutor = executor;
+  }
+
   @Override
   public AlignmentType getAlignmentType() {
     return m_compressed ? AlignmentType.compress : AlignmentType.preCompress;
@@ -160,7 +189,18 @@ public final class ChannellingScriber extends Scriber {
   @Override
   public void setOutputStream(OutputStream dataStream) {
     m_baseDataStream = dataStream;
-    m_outputStream = m_compressed ? new EXIDeflaterOutputStream(m_baseDataStream, m_deflator) : m_baseDataStream;
+    endDeflaters();
+    if (m_compressed) {
+      if (m_deflateExecutor != null) {
+        m_deflaterStreamParallel = new EXIDeflaterOutputStreamParallel(m_baseDataStream, m_deflateExecutor, 
+            new DeflaterPool(m_deflateLevel, m_deflateStrategy), m_metrics);
+        m_outputStream = m_deflaterStreamParallel;
+      }
+      else
+        m_outputStream = new EXIDeflaterOutputStream(m_baseDataStream, m_deflator, m_metrics);
+    }
+    else
+      m_outputStream = m_baseDataStream;
   }
 
   @Override
@@ -220,6 +260,8 @@ public final class ChannellingScriber extends Scriber {
   
   @Override
   public final void writeEventType(EventType eventType) throws IOException {
+    if (m_metrics != null)
+      m_metrics.event(currentState.targetGrammar.grammarType, eventType);
     EventCode[] path;
     path = eventType.getItemPath();
 
@@ -337,19 +379,19 @@ public final class ChannellingScriber extends Scriber {
   ///////////////////////////////////////////////////////////////////////////
 
   public void finishBlock() throws IOException {
-    @SuppressWarnings("resource")
-	final EXIDeflaterOutputStream deflaterStream = m_compressed ? 
-        (EXIDeflaterOutputStream)m_outputStream : null;
     boolean moreValues = false;
     if (m_compressed) {
       final int n_values;
       if ((n_values = m_channelKeeper.getTotalValueCount()) == 0) {
-        deflaterStream.resetDeflater();
+        resetDeflater();
+        if (m_metrics != null)
+          m_metrics.block(0, 0, 0);
         m_channelKeeper.punctuate();
+        finishDeflaterBlock();
         return;
       }
       if (moreValues = n_values > 100)
-        deflaterStream.resetDeflater();
+        resetDeflater();
     }
     m_channelKeeper.finish();
     final List<Channel> smallChannels, largeChannels;
@@ -367,7 +409,7 @@ public final class ChannellingScriber extends Scriber {
         }
       } while (++i < n_smallChannels);
       if (m_compressed && moreValues)
-        deflaterStream.resetDeflater();
+        resetDeflater();
     }
     largeChannels = m_channelKeeper.getLargeChannels();
     n_largeChannels = largeChannels.size();
@@ -379,17 +421,54 @@ public final class ChannellingScriber extends Scriber {
         textProviderList.get(j).scribeValue(m_outputStream, this);
       }
       if (m_compressed)
-        deflaterStream.resetDeflater();
+        resetDeflater();
     }
     if (m_compressed && !moreValues)
-      deflaterStream.resetDeflater();
+      resetDeflater();
+    if (m_metrics != null)
+      m_metrics.block(m_channelKeeper.getTotalValueCount(), n_smallChannels, n_largeChannels);
     m_channelKeeper.punctuate();
+    finishDeflaterBlock();
+  }
+
+  /**
+   * Ends the compressed stream that is being written.
+   */
+  private void resetDeflater() throws IOException {
+    if (m_deflaterStreamParallel != null)
+      m_deflaterStreamParallel.resetDeflater();
+    else
+      ((EXIDeflaterOutputStream)m_outputStream).resetDeflater();
+  }
+
+  /**
+   * Hands the block to the executor when blocks are compressed in parallel,
+   * otherwise notifies that the block has been deflated.
+   */
+  private void finishDeflaterBlock() throws IOException {
+    if (m_deflaterStreamParallel != null)
+      m_deflaterStreamParallel.finishBlock();
+    else if (m_compressed)
+      ((EXIDeflaterOutputStream)m_outputStream).finishBlock();
   }
   
   @Override
   public void finish() throws IOException {
     finishBlock();
-    m_baseDataStream.flush();
+    if (m_deflaterStreamParallel != null)
+      m_deflaterStreamParallel.finish();
+    else
+      m_baseDataStream.flush();
+  }
+
+  /**
+   * Ends the Deflaters of the parallel stream, if any, and lets it go.
+   */
+  private void endDeflaters() {
+    if (m_deflaterStreamParallel != null) {
+      m_deflaterStreamParallel.endDeflaters();
+      m_deflaterStreamParallel = null;
+    }
   }
 
 }
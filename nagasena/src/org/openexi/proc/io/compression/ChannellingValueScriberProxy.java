@@ -2,6 +2,8 @@ package org.openexi.proc.io.compression;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
 import org.openexi.proc.common.QName;
 import org.openexi.proc.common.StringTable;
@@ -9,6 +11,7 @@ import org.openexi.proc.io.Scribble;
 import org.openexi.proc.io.Scriber;
 import org.openexi.proc.io.ValueScriber;
 import org.openexi.schema.EXISchema;
+import org.openexi.schema.XSDateTime;
 
 class ChannellingValueScriberProxy extends ValueScriber {
 
@@ -54,6 +57,41 @@ class ChannellingValueScriberProxy extends ValueScriber {
     return m_valueScriber.process(value, tp, schema, scribble, scriber);
   }
 
+  @Override
+  public final boolean processesChars() {
+    return m_valueScriber.processesChars();
+  }
+
+  @Override
+  public final boolean process(char[] ch, int start, int length, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return m_valueScriber.process(ch, start, length, tp, schema, scribble, scriber);
+  }
+
+  @Override
+  public final boolean processLong(long value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return m_valueScriber.processLong(value, tp, schema, scribble, scriber);
+  }
+
+  @Override
+  public final boolean processDouble(double value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return m_valueScriber.processDouble(value, tp, schema, scribble, scriber);
+  }
+
+  @Override
+  public final boolean processDecimal(BigDecimal value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return m_valueScriber.processDecimal(value, tp, schema, scribble, scriber);
+  }
+
+  @Override
+  public final boolean processDateTime(XSDateTime value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return m_valueScriber.processDateTime(value, tp, schema, scribble, scriber);
+  }
+
+  @Override
+  public final boolean processBinary(ByteBuffer value, int tp, EXISchema schema, Scribble scribble, Scriber scriber) {
+    return m_valueScriber.processBinary(value, tp, schema, scribble, scriber);
+  }
+
   @Override
   public final Object toValue(String value, Scribble scribble, Scriber scriber) {
     return m_valueScriber.toValue(value, scribble, scriber);
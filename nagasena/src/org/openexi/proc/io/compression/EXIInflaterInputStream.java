@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.util.zip.Inflater;
 import java.util.zip.DataFormatException;
 
+import org.openexi.proc.common.MetricsListener;
+
 final class EXIInflaterInputStream extends InputStream {
 
   private final InputStream m_inputStream;
@@ -18,9 +20,20 @@ final class EXIInflaterInputStream extends InputStream {
   private final byte[] inputBuffer;
   private int inputLength;
   
-  public EXIInflaterInputStream(InputStream inputStream, Inflater inflater, int bufSize) {
+  private final MetricsListener m_metrics;
+  // Time spent inflating the current compressed stream, measured only for m_metrics.
+  private long m_nanos;
+  // Totals of the compressed streams of the current block, kept only for m_metrics.
+  private long m_blockBytesIn;
+  private long m_blockBytesOut;
+  private long m_blockNanos;
+  
+  public EXIInflaterInputStream(InputStream inputStream, Inflater inflater, int bufSize, MetricsListener metrics) {
     m_inputStream = inputStream;
     m_inflater = inflater;
+    m_metrics = metrics;
+    m_nanos = 0;
+    m_blockBytesIn = m_blockBytesOut = m_blockNanos = 0;
     inputBuffer = new byte[bufSize];
     inputLength = 0;
     outputBuffer = new byte[bufSize];
@@ -34,7 +47,13 @@ final class EXIInflaterInputStream extends InputStream {
       try {
         final int remain;
         m_inflater.setInput(inputBuffer, 0, inputLength);
-        outputLimit = m_inflater.inflate(outputBuffer);
+        if (m_metrics != null) {
+          final long startTime = System.nanoTime();
+          outputLimit = m_inflater.inflate(outputBuffer);
+          m_nanos += System.nanoTime() - startTime;
+        }
+        else
+          outputLimit = m_inflater.inflate(outputBuffer);
         if ((remain = m_inflater.getRemaining()) != 0 && remain != inputLength) {
           final int inputOffset;
           inputOffset = inputLength - remain;
@@ -67,9 +86,26 @@ final class EXIInflaterInputStream extends InputStream {
     for (int bt = 0; !m_inflater.finished() && bt != -1;) {
       bt = read();
     }
+    if (m_metrics != null) {
+      m_metrics.inflated(m_inflater.getBytesRead(), m_inflater.getBytesWritten(), m_nanos);
+      m_blockBytesIn += m_inflater.getBytesRead();
+      m_blockBytesOut += m_inflater.getBytesWritten();
+      m_blockNanos += m_nanos;
+      m_nanos = 0;
+    }
     m_inflater.reset();
   }
 
+  /**
+   * Notifies the totals of the compressed streams of the current block.
+   */
+  void finishBlock() {
+    if (m_metrics != null) {
+      m_metrics.blockInflated(m_blockBytesIn, m_blockBytesOut, m_blockNanos);
+      m_blockBytesIn = m_blockBytesOut = m_blockNanos = 0;
+    }
+  }
+
   void end() {
   }
 
@@ -3,41 +3,116 @@ package org.openexi.proc.io.compression;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
+/**
+ * EXIInflaterInputStreamThreaded inflates the input stream ahead of the
+ * reader using a task run by an executor. Inflated bytes are handed to the
+ * reader through a ring of buffers that has a single producer and a single
+ * consumer, and which is free of locks. The task ends itself when all the
+ * buffers are full, and the reader schedules it again once a buffer has
+ * been read, so that no thread of the executor is ever kept waiting.
+ * <br /><br />
+ * Unless an executor is specified, the tasks of all the streams are run by
+ * a shared executor, which uses virtual threads when they are available.
+ */
 public class EXIInflaterInputStreamThreaded extends FilterInputStream {
 
+  private static final int N_BUFFERS = 4;
+
+  private static ExecutorService m_sharedExecutor = null;
+
+  private final Executor m_executor;
+
   private final Inflater m_inflater;
 
-  private final OutputBuffer[] alternateBuffers;
+  private final OutputBuffer[] m_ring;
+
+  /** Number of buffers published by the inflator. */
+  private volatile long m_tail;
+  /** Number of buffers consumed by the reader. */
+  private volatile long m_head;
+
+  private final AtomicBoolean m_inflating;
+  private volatile boolean m_closed;
+  private volatile Thread m_waitingReader;
 
   private final EXIInflator m_exiInflator;
 
-  private int m_bufferIndex;
-  
-  private Exception m_inflatorException;
-  
+  private OutputBuffer m_outputBuffer;
+
   private final byte[] m_bytes;
   private int m_bufLen;
   private int m_curPos;
 
+  public EXIInflaterInputStreamThreaded(InputStream inputStream, int bufSize) {
+    this(inputStream, bufSize, getSharedExecutor());
+  }
+
+  /**
+   * The stream uses an Inflater of its own, so the one specified is not used.
+   * @deprecated use {@link #EXIInflaterInputStreamThreaded(InputStream, int)}
+   */
+  @Deprecated
   public EXIInflaterInputStreamThreaded(InputStream inputStream, Inflater inflater, int bufSize) {
+    this(inputStream, bufSize);
+  }
+
+  public EXIInflaterInputStreamThreaded(InputStream inputStream, int bufSize, Executor executor) {
     super(inputStream);
-    m_inflater = inflater;
-    alternateBuffers = new OutputBuffer[2];
-    alternateBuffers[0] = new OutputBuffer(bufSize * 200);
-    alternateBuffers[1] = new OutputBuffer(bufSize * 200);
-    
-    m_bufferIndex = 0;
-    
+    m_executor = executor;
+    // Not shared with the scanner, since the task of this stream may still be
+    // running after the scanner has moved on to another stream.
+    m_inflater = new Inflater(true);
+    m_ring = new OutputBuffer[N_BUFFERS];
+    for (int i = 0; i < N_BUFFERS; i++)
+      m_ring[i] = new OutputBuffer(bufSize * 100);
+    m_tail = m_head = 0;
+    m_outputBuffer = null;
+
     m_bytes = new byte[8192];
     m_curPos = m_bufLen = 0;
-    
+
+    m_closed = false;
+    m_waitingReader = null;
+    m_inflating = new AtomicBoolean(true);
     m_exiInflator = new EXIInflator(bufSize);
-    new Thread(m_exiInflator).start();
+    m_executor.execute(m_exiInflator);
   }
-  
+
+  /**
+   * Returns the executor shared by the streams that are not given one.
+   * Virtual threads are used when the runtime provides them, otherwise
+   * a pool of daemon threads that are discarded after a period of idleness.
+   */
+  static synchronized Executor getSharedExecutor() {
+    if (m_sharedExecutor == null) {
+      try {
+        final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        m_sharedExecutor = (ExecutorService)method.invoke(null);
+      }
+      catch (Exception e) {
+        m_sharedExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+          public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "EXIInflator");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+      }
+    }
+    return m_sharedExecutor;
+  }
+
   private int fill() throws IOException {
     assert m_curPos == m_bufLen;
     m_curPos = 0;
@@ -58,193 +133,146 @@ public class EXIInflaterInputStreamThreaded extends FilterInputStream {
 
   @Override
   public void close() throws IOException {
-    for (int i = 0; i < 2; i++) {
-      final OutputBuffer outputBuffer;
-      synchronized (outputBuffer = alternateBuffers[i]) {
-        outputBuffer.quit = true;
-        outputBuffer.notify();
-      }
-    }
+    m_closed = true;
+    // End the inflater unless the task is running, in which case the task does.
+    if (m_inflating.compareAndSet(false, true))
+      m_inflater.end();
     super.close();
   }
-  
+
   @Override
   public int read(byte[] b, final int off, final int len) throws IOException {
-    final int limit = off + len;
-    int offset = off;
-    while (true) {
-      OutputBuffer outputBuffer;
-      synchronized (outputBuffer = alternateBuffers[m_bufferIndex]) {
-        try {
-          Status status;
-          while ((status = outputBuffer.status) == Status.doInflate) {
-            ++outputBuffer.waitCount;
-            outputBuffer.wait();
-            --outputBuffer.waitCount;
-          }
-          switch (status) {
-            case dataAvailable:
-              break;
-            case none:
-              return -1;
-            case errorFormat:
-              final DataFormatException dataFormatException = (DataFormatException)m_inflatorException;
-              m_inflatorException = null;
-              outputBuffer.status = Status.none;
-              outputBuffer.quit = true;
-              outputBuffer.notify();
-              throw new IOException(dataFormatException.getMessage());
-            case errorInteruption:
-              final InterruptedException interruptedException = (InterruptedException)m_inflatorException;
-              m_inflatorException = null;
-              outputBuffer.status = Status.none;
-              outputBuffer.quit = true;
-              throw interruptedException;
-            case errorIO:
-              final IOException ioe = (IOException)m_inflatorException;
-              m_inflatorException = null;
-              outputBuffer.status = Status.none;
-              outputBuffer.quit = true;
-              outputBuffer.notify();
-              throw ioe;
-            default:
-              assert false;
-              break;
-          }
-          assert outputBuffer.status == Status.dataAvailable;
-          while (outputBuffer.offset != outputBuffer.limit && offset != limit) {
-            b[offset++] = outputBuffer.bts[outputBuffer.offset++];
-          }
-          if (outputBuffer.offset == outputBuffer.limit) {
-            if (outputBuffer.endOfStream)
-              outputBuffer.status = Status.none;
-            else {
-              outputBuffer.status = Status.doInflate;
-              m_bufferIndex = 1 - m_bufferIndex;
-              if (outputBuffer.waitCount > 0)
-                outputBuffer.notify();
-            }
-          }
-          return offset - off;
-        }
-        catch (InterruptedException e) {
-          outputBuffer.status = Status.none;
-          outputBuffer.quit = true;
-          outputBuffer.notify();
-          throw new IOException(e.getMessage());
+    if (m_outputBuffer == null) {
+      if (m_head == m_tail)
+        awaitOutputBuffer();
+      m_outputBuffer = m_ring[(int)(m_head % N_BUFFERS)];
+    }
+    final OutputBuffer outputBuffer = m_outputBuffer;
+    if (outputBuffer.exception != null) {
+      final IOException ioe = new IOException(outputBuffer.exception.getMessage());
+      ioe.initCause(outputBuffer.exception);
+      throw ioe;
+    }
+    if (outputBuffer.offset == outputBuffer.limit) {
+      assert outputBuffer.endOfStream;
+      return len == 0 ? 0 : -1;
+    }
+    final int n_bytes = Math.min(len, outputBuffer.limit - outputBuffer.offset);
+    System.arraycopy(outputBuffer.bts, outputBuffer.offset, b, off, n_bytes);
+    if ((outputBuffer.offset += n_bytes) == outputBuffer.limit && !outputBuffer.endOfStream) {
+      m_outputBuffer = null;
+      m_head = m_head + 1;
+      if (!m_inflating.get() && m_inflating.compareAndSet(false, true))
+        m_executor.execute(m_exiInflator);
+    }
+    return n_bytes;
+  }
+
+  private void awaitOutputBuffer() throws IOException {
+    m_waitingReader = Thread.currentThread();
+    try {
+      while (m_head == m_tail) {
+        LockSupport.park(this);
+        if (Thread.interrupted()) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
         }
       }
     }
+    finally {
+      m_waitingReader = null;
+    }
   }
-  
+
   private class EXIInflator implements Runnable {
 
     private final byte[] inputBuffer;
     private int inputOffset;
     private int inputLimit;
-    
-    private int outputBufferIndex;
-    
-    private final int m_quorum;
-    
+
     public EXIInflator(int bufSize) {
       inputBuffer = new byte[bufSize];
-      m_quorum = 199 * bufSize;
       inputOffset = inputLimit = 0;
-      outputBufferIndex = 0;
     }
-    
+
     public void run() {
-      OutputBuffer outputBuffer = null;
+      do {
+        while (m_tail - m_head < N_BUFFERS) {
+          if (m_closed) {
+            m_inflater.end();
+            return;
+          }
+          final OutputBuffer outputBuffer = m_ring[(int)(m_tail % N_BUFFERS)];
+          final boolean ended = inflate(outputBuffer);
+          m_tail = m_tail + 1;
+          final Thread waitingReader;
+          if ((waitingReader = m_waitingReader) != null)
+            LockSupport.unpark(waitingReader);
+          if (ended) {
+            m_inflater.end();
+            return;
+          }
+        }
+        if (m_closed) {
+          m_inflater.end();
+          return;
+        }
+        m_inflating.set(false);
+        // The reader may have consumed a buffer or closed the stream before it could see the flag.
+      } while ((m_tail - m_head < N_BUFFERS || m_closed) && m_inflating.compareAndSet(false, true));
+    }
+
+    /**
+     * Fills the buffer with inflated bytes. Returns true if there are
+     * no more bytes to be inflated.
+     */
+    private boolean inflate(OutputBuffer outputBuffer) {
+      outputBuffer.offset = outputBuffer.limit = 0;
       try {
-          inflatorLife: 
-          while (true) {
-            synchronized (outputBuffer = alternateBuffers[outputBufferIndex]) {
-              boolean quit = false;
-              while (outputBuffer.status != Status.doInflate || (quit = outputBuffer.quit)) {
-                ++outputBuffer.waitCount;
-                outputBuffer.wait();
-                --outputBuffer.waitCount;
-              }
-              if (quit)
-                break inflatorLife;
-              assert outputBuffer.offset == outputBuffer.limit; // i.e. deplete
-              outputBuffer.offset = outputBuffer.limit = 0;
-              while (outputBuffer.limit < m_quorum) {
-                if (m_inflater.finished())
-                  m_inflater.reset();
-                final int n_inputBytes;
-                if ((n_inputBytes = EXIInflaterInputStreamThreaded.super.read(inputBuffer, inputLimit, inputBuffer.length - inputLimit)) != -1)
-                  inputLimit += n_inputBytes;
-                else if ((inputLimit - inputOffset) == 0) {
-                  m_inflater.reset();
-                  outputBuffer.endOfStream = true;
-                  outputBuffer.status = Status.dataAvailable;
-                  if (outputBuffer.waitCount > 0)
-                    outputBuffer.notify();
-                  break inflatorLife;
-                }
-                m_inflater.setInput(inputBuffer, inputOffset, inputLimit - inputOffset);
-                final int n_inflatedBytes;
-                n_inflatedBytes = m_inflater.inflate(outputBuffer.bts, outputBuffer.limit, outputBuffer.bts.length - outputBuffer.limit);
-                outputBuffer.limit += n_inflatedBytes;
-                final int remain = m_inflater.getRemaining();
-                if (remain == 0)
-                  inputOffset = inputLimit = 0;
-                else
-                  inputOffset += (inputLimit - inputOffset) - remain;
-              }
-              outputBuffer.status = Status.dataAvailable;
-              outputBufferIndex = 1 - outputBufferIndex;
-              if (outputBuffer.waitCount > 0)
-                outputBuffer.notify();
-            }
+        while (outputBuffer.limit < outputBuffer.bts.length) {
+          if (m_inflater.finished())
+            m_inflater.reset();
+          final int n_inputBytes;
+          if ((n_inputBytes = EXIInflaterInputStreamThreaded.super.read(inputBuffer, inputLimit, inputBuffer.length - inputLimit)) != -1)
+            inputLimit += n_inputBytes;
+          else if ((inputLimit - inputOffset) == 0) {
+            outputBuffer.endOfStream = true;
+            return true;
           }
+          m_inflater.setInput(inputBuffer, inputOffset, inputLimit - inputOffset);
+          outputBuffer.limit += m_inflater.inflate(outputBuffer.bts, outputBuffer.limit, outputBuffer.bts.length - outputBuffer.limit);
+          final int remain = m_inflater.getRemaining();
+          if (remain == 0)
+            inputOffset = inputLimit = 0;
+          else
+            inputOffset += (inputLimit - inputOffset) - remain;
+        }
+        return false;
       }
       catch (DataFormatException dfe) {
-        m_inflatorException = dfe;
-        outputBuffer.status = Status.errorFormat;
-      }
-      catch (InterruptedException ie) {
-        m_inflatorException = ie;
-        outputBuffer.status = Status.errorInteruption;
+        outputBuffer.exception = dfe;
       }
       catch (IOException ioe) {
-        m_inflatorException = ioe;
-        outputBuffer.status = Status.errorIO;
+        outputBuffer.exception = ioe;
       }
+      return true;
     }
   }
 
-  private class OutputBuffer {
+  private static class OutputBuffer {
     final byte[] bts;
     int offset;
     int limit;
-    
-    int waitCount;
-    
-    boolean quit;
-    
-    Status status;
+
     boolean endOfStream;
-    
+    Exception exception;
+
     OutputBuffer(int bufSize) {
       bts = new byte[bufSize];
       offset = limit = 0;
-      waitCount = 0;
-      quit = false;
-      status = Status.doInflate;
       endOfStream = false;
+      exception = null;
     }
   }
 
-  private static enum Status {
-    none,
-    doInflate,
-    dataAvailable,
-    errorFormat,
-    errorInteruption,
-    errorIO
-  }
-
 }
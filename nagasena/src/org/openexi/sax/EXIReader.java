@@ -17,12 +17,10 @@ import org.openexi.schema.Characters;
 import org.openexi.proc.common.AlignmentType;
 import org.openexi.proc.common.EventDescription;
 import org.openexi.proc.common.EXIOptionsException;
+import org.openexi.proc.common.MetricsListener;
 import org.openexi.proc.common.QName;
-import org.openexi.proc.common.XmlUriConst;
 import org.openexi.proc.events.EXIEventDTD;
 import org.openexi.proc.events.EXIEventNS;
-import org.openexi.proc.events.EXIEventSchemaNil;
-import org.openexi.proc.events.EXIEventSchemaType;
 import org.openexi.proc.io.Scanner;
 import org.openexi.proc.EXISchemaResolver;
 
@@ -34,18 +32,14 @@ public final class EXIReader extends ReaderSupport implements XMLReader {
 
   private boolean m_hasLexicalHandler;
   private LexicalHandler m_lexicalHandler;
-
-  private static final Characters CHARACTERS_TRUE;
-  private static final Characters CHARACTERS_FALSE;
-  static {
-    CHARACTERS_TRUE = new Characters("true".toCharArray(), 0, "true".length(), false);
-    CHARACTERS_FALSE = new Characters("false".toCharArray(), 0, "false".length(), false);
-  }
   
+  private MetricsListener m_metrics;
+
   public EXIReader() {
     super();
     m_hasLexicalHandler = false;
     m_lexicalHandler = null;
+    m_metrics = null;
   }
   
   ///////////////////////////////////////////////////////////////////////////
@@ -278,6 +272,16 @@ public final class EXIReader extends ReaderSupport implements XMLReader {
   public final void setValuePartitionCapacity(int valuePartitionCapacity) {
     m_decoder.setValuePartitionCapacity(valuePartitionCapacity);
   }
+  /**
+   * Set a listener that is notified of the documents decoded, as well as
+   * of what EXIDecoder notifies. Nothing is notified if the listener is
+   * null, which is the default.
+   * @param metrics MetricsListener to be notified, or null
+   */
+  public final void setMetricsListener(MetricsListener metrics) {
+    m_metrics = metrics;
+    m_decoder.setMetricsListener(metrics);
+  }
 
   ///////////////////////////////////////////////////////////////////////////
   // 
@@ -299,6 +303,7 @@ public final class EXIReader extends ReaderSupport implements XMLReader {
    * @throws SAXException
    */
   private void parse(InputStream inputStream) throws IOException, SAXException {
+    final long startTime = m_metrics != null ? System.nanoTime() : 0;
     reset();
     final Scanner scanner = processHeader(inputStream);
 
@@ -335,92 +340,8 @@ public final class EXIReader extends ReaderSupport implements XMLReader {
           break;
       }
     }
-  }
-
-  private void doXsiNil(EventDescription exiEvent) throws SAXException {
-    String attrQualifiedName, attrPrefix;
-    if (m_preserveNS) {
-      attrPrefix = exiEvent.getPrefix();
-      assert attrPrefix.length() != 0;
-      stringBuilder.setLength(0);
-      attrQualifiedName = stringBuilder.append(attrPrefix).append(":nil").toString();
-    }
-    else {
-      final int uriId = exiEvent.getURIId();
-      assert uriId < m_n_prefixes;
-      stringBuilder.setLength(0);
-      attrQualifiedName = stringBuilder.append(m_prefixesColon[uriId]).append("nil").toString();
-    }
-    addAttribute(XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI, "nil", attrQualifiedName, "", m_preserveLexicalValues ? 
-        exiEvent.getCharacters() : ((EXIEventSchemaNil)exiEvent).isNilled() ? CHARACTERS_TRUE :  CHARACTERS_FALSE);
-  }
-  
-  private boolean doXsiType(EventDescription exiEvent) throws SAXException {
-  	boolean namespaceDeclAdded = false;
-    final String attrQualifiedName, attrPrefix;
-    if (m_preserveNS) {
-      attrPrefix = exiEvent.getPrefix();
-      assert attrPrefix.length() != 0;
-      stringBuilder.setLength(0);
-      attrQualifiedName = stringBuilder.append(attrPrefix).append(":type").toString();
-    }
-    else {
-      final int uriId = exiEvent.getURIId();
-      assert uriId < m_n_prefixes;
-      stringBuilder.setLength(0);
-      attrQualifiedName = stringBuilder.append(m_prefixesColon[uriId]).append("type").toString();
-    }
-    final EXIEventSchemaType eventSchemaType = (EXIEventSchemaType)exiEvent;
-    final String typeQualifiedName;
-    if (m_preserveLexicalValues) {
-      typeQualifiedName = eventSchemaType.getCharacters().makeString();
-    }
-    else {
-      final String typeName = eventSchemaType.getTypeName();
-      final String typePrefix;
-      if (m_preserveNS) {
-        typePrefix = eventSchemaType.getTypePrefix();
-        if (typePrefix.length() != 0) {
-          stringBuilder.setLength(0);
-          typeQualifiedName = stringBuilder.append(typePrefix).append(':').append(typeName).toString();
-        }
-        else
-          typeQualifiedName = typeName;
-      }
-      else {
-        // REVISIT: use eventSchemaType.getTypeURIId()
-        final String typeUri = eventSchemaType.getTypeURI();
-        if (typeUri.length() != 0) {
-          int i;
-          for (i = m_n_namespaceDeclarations - 1; i > -1; i--)  {
-            if (typeUri.equals(m_namespaceDeclarationsLocus[i << 1 | 1])) {
-              break;
-            }
-          }                  
-          if (i != -1) {
-            typePrefix = m_namespaceDeclarationsLocus[i << 1];
-          }
-          else {
-            if (m_n_namespaceDeclarations < PREFIXES.length)
-              typePrefix = PREFIXES[m_n_namespaceDeclarations];
-            else { 
-              stringBuilder.setLength(0);
-              typePrefix = stringBuilder.append('p').append(m_n_namespaceDeclarations).toString();
-            }
-            m_contentHandler.startPrefixMapping(typePrefix, typeUri);
-            pushNamespaceDeclaration(typePrefix, typeUri);
-            namespaceDeclAdded = true;
-          }
-          stringBuilder.setLength(0);
-          typeQualifiedName = stringBuilder.append(typePrefix).append(':').append(typeName).toString();
-        }
-        else 
-          typeQualifiedName = typeName;
-      }
-    }
-    final char[] typeQualifiedNameChars = typeQualifiedName.toCharArray();
-    addAttribute(XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI, "type", attrQualifiedName, "", new Characters(typeQualifiedNameChars, 0, typeQualifiedNameChars.length, false));
-    return namespaceDeclAdded;
+    if (m_metrics != null)
+      m_metrics.documentDecoded(System.nanoTime() - startTime);
   }
 
   private void doElement(EventDescription exiEvent, Scanner scanner, final int depth) throws IOException, SAXException {
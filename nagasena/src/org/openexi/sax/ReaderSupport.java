@@ -11,6 +11,8 @@ import org.openexi.proc.EXIDecoder;
 import org.openexi.proc.common.EXIOptionsException;
 import org.openexi.proc.common.EventDescription;
 import org.openexi.proc.common.XmlUriConst;
+import org.openexi.proc.events.EXIEventSchemaNil;
+import org.openexi.proc.events.EXIEventSchemaType;
 import org.openexi.proc.grammars.GrammarCache;
 import org.openexi.proc.io.Scanner;
 import org.openexi.schema.Characters;
@@ -56,6 +58,13 @@ public abstract class ReaderSupport implements Attributes {
 
   protected final StringBuilder stringBuilder;
 
+  private static final Characters CHARACTERS_TRUE;
+  private static final Characters CHARACTERS_FALSE;
+  static {
+    CHARACTERS_TRUE = new Characters("true".toCharArray(), 0, "true".length(), false);
+    CHARACTERS_FALSE = new Characters("false".toCharArray(), 0, "false".length(), false);
+  }
+
   protected ReaderSupport() {
     m_decoder = new EXIDecoder();
     m_namespaceDeclarationsLocus = new String[PREFIXES.length * 2];
@@ -190,6 +199,93 @@ public abstract class ReaderSupport implements Attributes {
     return namespaceDeclAdded;
   }
 
+  protected final void doXsiNil(EventDescription exiEvent) throws SAXException {
+    String attrQualifiedName, attrPrefix;
+    if (m_preserveNS) {
+      attrPrefix = exiEvent.getPrefix();
+      assert attrPrefix.length() != 0;
+      stringBuilder.setLength(0);
+      attrQualifiedName = stringBuilder.append(attrPrefix).append(":nil").toString();
+    }
+    else {
+      final int uriId = exiEvent.getURIId();
+      assert uriId < m_n_prefixes;
+      stringBuilder.setLength(0);
+      attrQualifiedName = stringBuilder.append(m_prefixesColon[uriId]).append("nil").toString();
+    }
+    addAttribute(XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI, "nil", attrQualifiedName, "", m_preserveLexicalValues ? 
+        exiEvent.getCharacters() : ((EXIEventSchemaNil)exiEvent).isNilled() ? CHARACTERS_TRUE :  CHARACTERS_FALSE);
+  }
+  
+  protected final boolean doXsiType(EventDescription exiEvent) throws SAXException {
+  	boolean namespaceDeclAdded = false;
+    final String attrQualifiedName, attrPrefix;
+    if (m_preserveNS) {
+      attrPrefix = exiEvent.getPrefix();
+      assert attrPrefix.length() != 0;
+      stringBuilder.setLength(0);
+      attrQualifiedName = stringBuilder.append(attrPrefix).append(":type").toString();
+    }
+    else {
+      final int uriId = exiEvent.getURIId();
+      assert uriId < m_n_prefixes;
+      stringBuilder.setLength(0);
+      attrQualifiedName = stringBuilder.append(m_prefixesColon[uriId]).append("type").toString();
+    }
+    final EXIEventSchemaType eventSchemaType = (EXIEventSchemaType)exiEvent;
+    final String typeQualifiedName;
+    if (m_preserveLexicalValues) {
+      typeQualifiedName = eventSchemaType.getCharacters().makeString();
+    }
+    else {
+      final String typeName = eventSchemaType.getTypeName();
+      final String typePrefix;
+      if (m_preserveNS) {
+        typePrefix = eventSchemaType.getTypePrefix();
+        if (typePrefix.length() != 0) {
+          stringBuilder.setLength(0);
+          typeQualifiedName = stringBuilder.append(typePrefix).append(':').append(typeName).toString();
+        }
+        else
+          typeQualifiedName = typeName;
+      }
+      else {
+        // REVISIT: use eventSchemaType.getTypeURIId()
+        final String typeUri = eventSchemaType.getTypeURI();
+        if (typeUri.length() != 0) {
+          int i;
+          for (i = m_n_namespaceDeclarations - 1; i > -1; i--)  {
+            if (typeUri.equals(m_namespaceDeclarationsLocus[i << 1 | 1])) {
+              break;
+            }
+          }                  
+          if (i != -1) {
+            typePrefix = m_namespaceDeclarationsLocus[i << 1];
+          }
+          else {
+            if (m_n_namespaceDeclarations < PREFIXES.length)
+              typePrefix = PREFIXES[m_n_namespaceDeclarations];
+            else { 
+              stringBuilder.setLength(0);
+              typePrefix = stringBuilder.append('p').append(m_n_namespaceDeclarations).toString();
+            }
+            if (m_contentHandler != null)
+              m_contentHandler.startPrefixMapping(typePrefix, typeUri);
+            pushNamespaceDeclaration(typePrefix, typeUri);
+            namespaceDeclAdded = true;
+          }
+          stringBuilder.setLength(0);
+          typeQualifiedName = stringBuilder.append(typePrefix).append(':').append(typeName).toString();
+        }
+        else 
+          typeQualifiedName = typeName;
+      }
+    }
+    final char[] typeQualifiedNameChars = typeQualifiedName.toCharArray();
+    addAttribute(XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI, "type", attrQualifiedName, "", new Characters(typeQualifiedNameChars, 0, typeQualifiedNameChars.length, false));
+    return namespaceDeclAdded;
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   // Attribute Implementation
   ///////////////////////////////////////////////////////////////////////////
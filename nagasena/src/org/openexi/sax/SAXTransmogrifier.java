@@ -8,7 +8,7 @@ import org.openexi.proc.grammars.GrammarCache;
 /**
  * Applications can directly feed SAX events into a transmogrifier through SAXTransmogrifier.
  */
-public interface SAXTransmogrifier extends ContentHandler, LexicalHandler, BinaryDataHandler {
+public interface SAXTransmogrifier extends ContentHandler, LexicalHandler, BinaryDataHandler, TypedValueHandler {
 
   /**
    * Returns the GrammarCache that is in use by this SAXTransmogrifier.
@@ -2,6 +2,10 @@ package org.openexi.sax;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.Executor;
 
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
@@ -23,6 +27,7 @@ import org.openexi.proc.common.EXIOptionsException;
 import org.openexi.proc.common.EventType;
 import org.openexi.proc.common.EventTypeList;
 import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.common.MetricsListener;
 import org.openexi.proc.common.QName;
 import org.openexi.proc.common.SchemaId;
 import org.openexi.proc.common.StringTable;
@@ -33,15 +38,19 @@ import org.openexi.proc.grammars.GrammarCache;
 import org.openexi.proc.io.BitPackedScriber;
 import org.openexi.proc.io.BitOutputStream;
 import org.openexi.proc.io.BinaryDataSink;
+import org.openexi.proc.io.ByteBufferOutputStream;
 import org.openexi.proc.io.PrefixUriBindings;
 import org.openexi.proc.io.Scriber;
 import org.openexi.proc.io.Scribble;
 import org.openexi.proc.io.ScriberRuntimeException;
 import org.openexi.proc.io.ScriberFactory;
 import org.openexi.proc.io.ValueScriber;
+import org.openexi.schema.Base64;
 import org.openexi.schema.EXISchema;
 import org.openexi.schema.EXISchemaConst;
 import org.openexi.schema.EmptySchema;
+import org.openexi.schema.HexBin;
+import org.openexi.schema.XSDateTime;
 /**
  * The Transmogrifier converts an XML stream to an EXI stream.
  */
@@ -52,6 +61,9 @@ public final class Transmogrifier {
    * EXIEncoderSaxHandler handles SAX events coming from XMLReader. 
    **/
   private final SAXEventHandler m_saxHandler;
+
+  private ByteBufferOutputStream m_byteBufferOutputStream;
+  private boolean m_isBufferOutput;
   
   private HeaderOptionsOutputType m_outputOptions;
   private final EXIOptions m_exiOptions;
@@ -121,6 +133,8 @@ public final class Transmogrifier {
     m_outputOptions = HeaderOptionsOutputType.none;
     m_exiOptions = new EXIOptions();
     m_divertBuiltinGrammarToAnyType = false;
+    m_byteBufferOutputStream = null;
+    m_isBufferOutput = false;
   }
 
   /**
@@ -156,13 +170,61 @@ public final class Transmogrifier {
   }
 
   /**
-   * Set an output stream to which encoded streams are written.
+   * Set an output stream to which encoded streams are written. The buffer
+   * or channel set by a previous call to setOutput() is no longer referred to.
    * @param ostream output stream
    */
   public final void setOutputStream(OutputStream ostream) {
+    if (m_byteBufferOutputStream != null)
+      m_byteBufferOutputStream.clearOutput();
+    m_isBufferOutput = false;
     m_saxHandler.setOutputStream(ostream);
   }
 
+  /**
+   * Set a buffer into which encoded streams are written, starting at the
+   * position of the buffer. The buffer may be either a heap or a direct buffer. 
+   * @param byteBuffer buffer to write into
+   * @param growable if true, a larger buffer of the same kind takes the place
+   * of the buffer when it runs out of room. Otherwise encoding fails with an 
+   * IOException when the buffer runs out of room.
+   * @see #getOutputBuffer()
+   */
+  public final void setOutput(ByteBuffer byteBuffer, boolean growable) {
+    if (m_byteBufferOutputStream == null)
+      m_byteBufferOutputStream = new ByteBufferOutputStream(byteBuffer, growable);
+    else
+      m_byteBufferOutputStream.setOutput(byteBuffer, growable);
+    m_isBufferOutput = true;
+    m_saxHandler.setOutputStream(m_byteBufferOutputStream);
+  }
+
+  /**
+   * Set a channel to which encoded streams are written. Bytes are collected
+   * in a direct buffer, which is written to the channel when it is full and
+   * at the end of each stream. The buffer is allocated once per Transmogrifier 
+   * and reused for the channels that are set afterwards.
+   * @param channel channel to write to
+   */
+  public final void setOutput(WritableByteChannel channel) {
+    if (m_byteBufferOutputStream == null)
+      m_byteBufferOutputStream = new ByteBufferOutputStream(channel);
+    else
+      m_byteBufferOutputStream.setOutput(channel);
+    m_isBufferOutput = false;
+    m_saxHandler.setOutputStream(m_byteBufferOutputStream);
+  }
+
+  /**
+   * Returns the buffer that holds the encoded bytes, which precede the 
+   * position of the buffer. It is a different buffer from the one given 
+   * to {@link #setOutput(ByteBuffer, boolean)} if that one has grown.
+   * @return the output buffer, or null if the output is not a buffer
+   */
+  public final ByteBuffer getOutputBuffer() {
+    return m_isBufferOutput ? m_byteBufferOutputStream.getByteBuffer() : null;
+  }
+
   /** 
    * Set the bit alignment style for the encoded EXI stream.
    * @param alignmentType {@link org.openexi.proc.common.AlignmentType}. 
@@ -392,6 +454,29 @@ public final class Transmogrifier {
   public void setDeflateStrategy(int strategy) {
     m_saxHandler.setDeflateStrategy(strategy);
   }
+
+  /**
+   * Set an executor with which blocks are compressed in parallel when the
+   * alignment type is <i>compression</i>. Each block is handed to the executor
+   * once it is complete, and the compressed blocks are written out in order.
+   * Blocks are compressed on the calling thread if the executor is null,
+   * which is the default.
+   * @param executor executor used to compress blocks, or null
+   */
+  public void setDeflateExecutor(Executor executor) {
+    m_saxHandler.setDeflateExecutor(executor);
+  }
+
+  /**
+   * Set a listener that is notified of the events encoded, of the use of
+   * the String Table, and of the blocks and their compression when the
+   * alignment type is <i>preCompress</i> or <i>compression</i>. Nothing is
+   * notified if the listener is null, which is the default.
+   * @param metrics MetricsListener to be notified, or null
+   */
+  public void setMetricsListener(MetricsListener metrics) {
+    m_saxHandler.setMetricsListener(metrics);
+  }
   
   ///////////////////////////////////////////////////////////////////////////
   /// Encode methods
@@ -492,6 +577,9 @@ public final class Transmogrifier {
     
     private int m_zlibLevel;
     private int m_zlibStrategy;
+    private Executor m_deflateExecutor;
+    private MetricsListener m_metrics;
+    private long m_startTime;
     
     private boolean m_preserveWhitespaces;
     private boolean m_observeC14N;
@@ -520,6 +608,8 @@ public final class Transmogrifier {
       m_scribble = new Scribble();
       m_zlibLevel = java.util.zip.Deflater.DEFAULT_COMPRESSION;
       m_zlibStrategy = java.util.zip.Deflater.DEFAULT_STRATEGY;
+      m_deflateExecutor = null;
+      m_metrics = null;
       m_preserveWhitespaces = false;
       m_observeC14N = false;
       m_useBuiltinElementGrammar = true;
@@ -600,6 +690,14 @@ public final class Transmogrifier {
       m_zlibStrategy = strategy;
     }
 
+    public void setDeflateExecutor(Executor executor) {
+      m_deflateExecutor = executor;
+    }
+
+    public void setMetricsListener(MetricsListener metrics) {
+      m_metrics = metrics;
+    }
+
     public final void setPreserveWhitespaces(boolean preserveWhitespaces) {
       m_preserveWhitespaces = preserveWhitespaces;
     }
@@ -623,6 +721,7 @@ public final class Transmogrifier {
     }
 
     public final void startDocument() throws SAXException {
+      m_startTime = m_metrics != null ? System.nanoTime() : 0;
       m_locusLastDepth = -1;
       m_xmlSpaceLastDepth = 0;
       m_xmlSpaceStack[m_xmlSpaceLastDepth] = false;
@@ -645,6 +744,8 @@ public final class Transmogrifier {
           }
         }
         m_scriber.reset();
+        m_scriber.setDeflateExecutor(m_deflateExecutor);
+        m_scriber.setMetricsListener(m_metrics);
         if (bitOutputStream != null)
           ((BitPackedScriber)m_scriber).setBitOutputStream(bitOutputStream);
         else
@@ -755,46 +856,15 @@ public final class Transmogrifier {
       try {
         EventTypeList eventTypes = m_scriber.getNextEventTypes();
         int i, i_len;
-        EventType eventType = null;
-        String eventTypeUri;
+        EventType eventType;
         byte itemType = -1; 
-        boolean isWildcardElem = false;
-        loop:
-        for (i = 0, i_len = eventTypes.getLength(); i < i_len; i++) {
-          eventType = eventTypes.item(i);
-          switch (itemType = eventType.itemType) {
-            case EventType.ITEM_SE:
-              if (localName.equals(eventType.name)) {
-                eventTypeUri = eventType.uri;
-                if (!uri.equals(eventTypeUri))
-                  continue;
-                break loop;
-              }
-              break;
-            case EventType.ITEM_SCHEMA_WC_ANY:
-              isWildcardElem = true;
-              break loop;
-            case EventType.ITEM_SCHEMA_WC_NS:
-              isWildcardElem = true;
-              eventTypeUri = eventType.uri;
-              if (!uri.equals(eventTypeUri))
-                continue;
-              break loop;
-            case EventType.ITEM_SE_WC:
-              isWildcardElem = true;
-              break loop;
-            default:
-              break;
-          }
-        }
-        final int epos = i;
-        if (epos < i_len) {
+        if ((eventType = eventTypes.getStartElement(uri, localName)) != null) {
           m_scriber.writeEventType(eventType);
           m_scriber.writeQName(qname.setValue(uri, localName, elementPrefix), eventType);
           locusItem.elementURI = qname.uriId;
           locusItem.elementLocalName = qname.localNameId;
-          if (isWildcardElem)
-            m_scriber.startWildcardElement(epos, qname.uriId, qname.localNameId);
+          if (eventType.itemType != EventType.ITEM_SE)
+            m_scriber.startWildcardElement(eventType.getIndex(), qname.uriId, qname.localNameId);
           else
             m_scriber.startElement(eventType);
           final byte grammarType = m_scriber.currentState.targetGrammar.grammarType;
@@ -1210,6 +1280,104 @@ public final class Transmogrifier {
       }
     }
     
+    public final void writeInt(int value) throws SAXException {
+      writeLong(value);
+    }
+
+    public final void writeLong(long value) throws SAXException {
+      final ValueScriber valueScriber;
+      if ((valueScriber = getContentValueScriber()) != null &&
+          valueScriber.processLong(value, m_scriber.currentState.contentDatatype, m_schema, m_scribble, m_scriber)) {
+        scribeContentValue(valueScriber);
+      }
+      else
+        appendCharacters(Long.toString(value));
+    }
+
+    public final void writeDouble(double value) throws SAXException {
+      final ValueScriber valueScriber;
+      if ((valueScriber = getContentValueScriber()) != null &&
+          valueScriber.processDouble(value, m_scriber.currentState.contentDatatype, m_schema, m_scribble, m_scriber)) {
+        scribeContentValue(valueScriber);
+      }
+      else if (Double.isInfinite(value))
+        appendCharacters(value > 0 ? "INF" : "-INF");
+      else
+        appendCharacters(Double.toString(value));
+    }
+
+    public final void writeDecimal(BigDecimal value) throws SAXException {
+      final ValueScriber valueScriber;
+      if ((valueScriber = getContentValueScriber()) != null &&
+          valueScriber.processDecimal(value, m_scriber.currentState.contentDatatype, m_schema, m_scribble, m_scriber)) {
+        scribeContentValue(valueScriber);
+      }
+      else
+        appendCharacters(value.toPlainString());
+    }
+
+    public final void writeDateTime(XSDateTime value) throws SAXException {
+      final ValueScriber valueScriber;
+      if ((valueScriber = getContentValueScriber()) != null &&
+          valueScriber.processDateTime(value, m_scriber.currentState.contentDatatype, m_schema, m_scribble, m_scriber)) {
+        scribeContentValue(valueScriber);
+      }
+      else
+        appendCharacters(value.toString());
+    }
+
+    public final void writeBinary(ByteBuffer value) throws SAXException {
+      final ValueScriber valueScriber;
+      if ((valueScriber = getContentValueScriber()) != null) {
+        final int tp = m_scriber.currentState.contentDatatype;
+        if (valueScriber.processBinary(value, tp, m_schema, m_scribble, m_scriber)) {
+          scribeContentValue(valueScriber);
+          return;
+        }
+        if (m_schema.ancestryIds[m_schema.getSerialOfType(tp)] == EXISchemaConst.HEXBINARY_TYPE) {
+          final StringBuffer stringBuffer = new StringBuffer();
+          HexBin.encode(toOctets(value), value.remaining(), stringBuffer);
+          appendCharacters(stringBuffer.toString());
+          return;
+        }
+      }
+      final int n_octets = value.remaining();
+      final char[] encodingResult = new char[Base64.calculateTextMaxLength(n_octets)];
+      appendCharacters(encodingResult, 0, Base64.encode(toOctets(value), 0, n_octets, encodingResult, 0));
+    }
+
+    /**
+     * Returns the value scriber of the current element's content when its
+     * value can be written next as a typed value, otherwise null.
+     */
+    private ValueScriber getContentValueScriber() {
+      // Pending characters are part of the value.
+      if (m_charPos != 0 || m_scriber.getNextEventTypes().getSchemaCharacters() == null)
+        return null;
+      m_scribble.booleanValue1 = m_useUTCTime;
+      m_scribble.booleanValue2 = m_observeC14N;
+      return m_scriber.getValueScriber(m_scriber.currentState.contentDatatype);
+    }
+
+    /**
+     * Writes the value that the value scriber has processed as the 
+     * current element's content.
+     */
+    private void scribeContentValue(ValueScriber valueScriber) throws SAXException {
+      final EventType eventType = m_scriber.getNextEventTypes().getSchemaCharacters();
+      final int tp = m_scriber.currentState.contentDatatype;
+      try {
+        m_scriber.writeEventType(eventType);
+        m_scriber.characters(eventType);
+        final XMLLocusItemEx locusItem = m_locusStack[m_locusLastDepth];
+        valueScriber.scribe((String)null, m_scribble, locusItem.elementLocalName,  
+            locusItem.elementURI, tp, m_scriber);
+      }
+      catch (IOException ioe) {
+        throw new SAXException(ioe);
+      }
+    }
+    
     /**
      * Process characters. 
      * @param isContent true when the characters need to be treated as a content.
@@ -1226,19 +1394,29 @@ public final class Transmogrifier {
           tp = m_scriber.currentState.contentDatatype;
           assert tp != EXISchema.NIL_NODE;
           ValueScriber valueScriber = m_scriber.getValueScriber(tp);
-          // REVISIT: avoid converting to string.
-          String stringValue = new String(m_charBuf, 0, m_charPos);
-          if (m_observeC14N) {
-            // normalize the value if it is typed as string.
-            if (m_schema.ancestryIds[m_schema.getSerialOfType(tp)] == EXISchemaConst.STRING_TYPE) {
-              final int whiteSpace = m_schema.getWhitespaceFacetValueOfStringSimpleType(tp);
-              if (whiteSpace != EXISchema.WHITESPACE_PRESERVE)
-                stringValue = ValueScriber.normalize(stringValue, whiteSpace);
-              }
-          }
           m_scribble.booleanValue1 = m_useUTCTime;
           m_scribble.booleanValue2 = m_observeC14N;
-          if (valueScriber.process(stringValue, tp, m_schema, m_scribble, m_scriber)) {
+          final String stringValue;
+          final boolean processed;
+          if (valueScriber.processesChars()) {
+            // Parse the value out of the character buffer without making a String.
+            stringValue = null;
+            processed = valueScriber.process(m_charBuf, 0, m_charPos, tp, m_schema, m_scribble, m_scriber);
+          }
+          else {
+            String value = new String(m_charBuf, 0, m_charPos);
+            if (m_observeC14N) {
+              // normalize the value if it is typed as string.
+              if (m_schema.ancestryIds[m_schema.getSerialOfType(tp)] == EXISchemaConst.STRING_TYPE) {
+                final int whiteSpace = m_schema.getWhitespaceFacetValueOfStringSimpleType(tp);
+                if (whiteSpace != EXISchema.WHITESPACE_PRESERVE)
+                  value = ValueScriber.normalize(value, whiteSpace);
+              }
+            }
+            stringValue = value;
+            processed = valueScriber.process(stringValue, tp, m_schema, m_scribble, m_scriber);
+          }
+          if (processed) {
             m_scriber.writeEventType(eventType);
             m_scriber.characters(eventType);
             final XMLLocusItemEx locusItem = m_locusStack[m_locusLastDepth];
@@ -1374,6 +1552,8 @@ public final class Transmogrifier {
         }
         m_scriber.writeEventType(eventType);
         m_scriber.finish();
+        if (m_metrics != null)
+          m_metrics.documentEncoded(System.nanoTime() - m_startTime);
       }
       catch (IOException ioe) {
         throw new SAXException(ioe);
@@ -1516,6 +1696,25 @@ public final class Transmogrifier {
       m_charPos += len;
     }
 
+    private void appendCharacters(final String value) {
+      final int len = value.length();
+      while (m_charPos + len > m_charBuf.length) {
+        final char[] charBuf = new char[2 * m_charBuf.length];
+        System.arraycopy(m_charBuf, 0, charBuf, 0, m_charBuf.length);
+        m_charBuf = charBuf;
+      }
+      value.getChars(0, len, m_charBuf, m_charPos);
+      m_charPos += len;
+    }
+
+    private byte[] toOctets(ByteBuffer byteBuffer) {
+      final byte[] octets = new byte[byteBuffer.remaining()];
+      final int position = byteBuffer.position();
+      byteBuffer.get(octets);
+      byteBuffer.position(position);
+      return octets;
+    }
+
     private void setStringTable(StringTable stringTable) {
       m_scriber.setStringTable(stringTable);
     }
@@ -1,14 +1,14 @@
 package org.openexi.schema;
 
-public final class Characters {
+public class Characters {
 
   public boolean isVolatile;
 
   public char[] characters;
   public int startIndex;
-  public final int length;
-  public final int ucsCount;
-  private final int m_hashCode;
+  public int length;
+  public int ucsCount;
+  private int m_hashCode;
 
   public static final Characters CHARACTERS_EMPTY;
   static {
@@ -16,6 +16,17 @@ public final class Characters {
   }
   
   public Characters(char[] characters, int startIndex, int length, boolean isVolatile) {
+    set(characters, startIndex, length, isVolatile);
+  }
+
+  /**
+   * Let this instance represent another sequence of characters. Only the 
+   * value window that the decoder reuses in flyweight mode calls this, and 
+   * the window is never put in a string table.
+   * Not for public use.
+   * @y.exclude
+   */
+  protected final void set(char[] characters, int startIndex, int length, boolean isVolatile) {
   	this.isVolatile = isVolatile;
     this.characters = characters;
     this.startIndex = startIndex;
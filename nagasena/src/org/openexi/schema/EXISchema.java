@@ -2,11 +2,18 @@ package org.openexi.schema;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.StreamCorruptedException;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -1749,6 +1756,85 @@ public final class EXISchema {
   // Serialization/Deserialization
   ///////////////////////////////////////////////////////////////////////////
 
+ /**
+  * Reads an EXI Schema from a file written by {@link #writeOut(DataOutputStream)}. 
+  * The file is read into a buffer in one go, out of which the arrays of 
+  * the schema are copied in bulk.
+  * @param file file containing a serialized EXISchema
+  * @return {@link org.openexi.schema.EXISchema}
+  * @throws IOException, ClassNotFoundException
+  */
+  public static EXISchema readIn(File file) throws IOException, ClassNotFoundException {
+    return readIn(file, null);
+  }
+
+ /**
+  * Reads an EXI Schema from a file written by {@link #writeOut(DataOutputStream)}, 
+  * and notifies the listener of the time spent.
+  * @param file file containing a serialized EXISchema
+  * @param listener SchemaLoadListener to be notified, or null
+  * @return {@link org.openexi.schema.EXISchema}
+  * @throws IOException, ClassNotFoundException
+  */
+  public static EXISchema readIn(File file, SchemaLoadListener listener) throws IOException, ClassNotFoundException {
+    final long startTime = listener != null ? System.nanoTime() : 0;
+    final EXISchema schema;
+    final FileInputStream fileInputStream = new FileInputStream(file);
+    try {
+      final FileChannel channel = fileInputStream.getChannel();
+      final ByteBuffer buffer = ByteBuffer.allocate((int)channel.size());
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) == -1)
+          throw new EOFException();
+      }
+      buffer.flip();
+      schema = readInBuffer(buffer);
+    }
+    finally {
+      fileInputStream.close();
+    }
+    if (listener != null)
+      listener.schemaLoaded(System.nanoTime() - startTime);
+    return schema;
+  }
+
+ /**
+  * Reads an EXI Schema from a ByteBuffer that contains what 
+  * {@link #writeOut(DataOutputStream)} wrote. The arrays of the schema are 
+  * copied out of the buffer in bulk, and the buffer is not referenced once 
+  * this method returns. The buffer's position is advanced past the 
+  * serialized EXISchema.
+  * @param buffer ByteBuffer containing a serialized EXISchema
+  * @return {@link org.openexi.schema.EXISchema}
+  * @throws IOException, ClassNotFoundException
+  */
+  public static EXISchema readIn(ByteBuffer buffer) throws IOException, ClassNotFoundException {
+    return readIn(buffer, null);
+  }
+
+ /**
+  * Reads an EXI Schema from a ByteBuffer, and notifies the listener of 
+  * the time spent. 
+  * @param buffer ByteBuffer containing a serialized EXISchema
+  * @param listener SchemaLoadListener to be notified, or null
+  * @return {@link org.openexi.schema.EXISchema}
+  * @throws IOException, ClassNotFoundException
+  */
+  public static EXISchema readIn(ByteBuffer buffer, SchemaLoadListener listener) throws IOException, ClassNotFoundException {
+    final long startTime = listener != null ? System.nanoTime() : 0;
+    final EXISchema schema = readInBuffer(buffer);
+    if (listener != null)
+      listener.schemaLoaded(System.nanoTime() - startTime);
+    return schema;
+  }
+
+  private static EXISchema readInBuffer(ByteBuffer buffer) throws IOException, ClassNotFoundException {
+    final ByteBufferDataInputStream in = new ByteBufferDataInputStream(buffer);
+    final EXISchema schema = readInStream(in);
+    buffer.position(in.buffer.position());
+    return schema;
+  }
+
  /**
   * Reads an EXI Schema from a DataInputStream.
   * @param in DataInputStream containing a serialized EXISchema
@@ -1756,6 +1842,26 @@ public final class EXISchema {
   * @throws IOException, ClassNotFoundException
   */
   public static EXISchema readIn(DataInputStream in) throws IOException, ClassNotFoundException {
+    return readIn(in, null);
+  }
+
+ /**
+  * Reads an EXI Schema from a DataInputStream, and notifies the listener 
+  * of the time spent.
+  * @param in DataInputStream containing a serialized EXISchema
+  * @param listener SchemaLoadListener to be notified, or null
+  * @return {@link org.openexi.schema.EXISchema}
+  * @throws IOException, ClassNotFoundException
+  */
+  public static EXISchema readIn(DataInputStream in, SchemaLoadListener listener) throws IOException, ClassNotFoundException {
+    final long startTime = listener != null ? System.nanoTime() : 0;
+    final EXISchema schema = readInStream(in);
+    if (listener != null)
+      listener.schemaLoaded(System.nanoTime() - startTime);
+    return schema;
+  }
+
+  private static EXISchema readInStream(DataInputStream in) throws IOException, ClassNotFoundException {
     int i, len;
 
     for (i = 0; i < COOKIE.length; i++) {
@@ -1764,20 +1870,11 @@ public final class EXISchema {
       }
     }
 
-    len = in.readInt();
-    int[] nodes = new int[len];
-    for (i = 0; i < len; i++)
-      nodes[i] = in.readInt();
+    int[] nodes = readInts(in, in.readInt());
 
-    len = in.readInt();
-    int[] attrs = new int[len];
-    for (i = 0; i < len; i++)
-      attrs[i] = in.readInt();
+    int[] attrs = readInts(in, in.readInt());
 
-    len = in.readInt();
-    int[] types = new int[len];
-    for (i = 0; i < len; i++)
-      types[i] = in.readInt();
+    int[] types = readInts(in, in.readInt());
 
     len = in.readInt();
     String[] uris = new String[len + 4];
@@ -1807,22 +1904,15 @@ public final class EXISchema {
 
     len = in.readInt();
     int[][] localNames = new int[len][];
-    for (i = 0; i < len; i++) {
-      localNames[i] = new int[in.readInt()];
-      for (int j = 0; j < localNames[i].length; j++) {
-        localNames[i][j] = in.readInt();
-      }
-    }
+    for (i = 0; i < len; i++)
+      localNames[i] = readInts(in, in.readInt());
     
     len = in.readInt();
     String[] strings = new String[len];
     for (i = 0; i < len; i++)
       strings[i] = readString(in);
 
-    len = in.readInt();
-    int[] ints = new int[len];
-    for (i = 0; i < len; i++)
-      ints[i] = in.readInt();
+    int[] ints = readInts(in, in.readInt());
 
     len = in.readInt();
     long[] mantissas = new long[len];
@@ -1847,10 +1937,7 @@ public final class EXISchema {
     for (i = 0; i < len; i++)
       integers[i] = new BigInteger(readString(in));
     
-    len = in.readInt();
-    long[] longs = new long[len];
-    for (i = 0; i < len; i++)
-      longs[i] = in.readLong(); 
+    long[] longs = readLongs(in, in.readInt());
 
     len = in.readInt();
     XSDateTime[] datetimes = new XSDateTime[len];
@@ -1878,23 +1965,14 @@ public final class EXISchema {
     for (i = 0; i < len; i++)
       variantTypes[i] = (byte)in.read(); 
 
-    len = in.readInt();
-    int[] variants = new int[len];
-    for (i = 0; i < len; i++)
-      variants[i] = in.readInt();
+    int[] variants = readInts(in, in.readInt());
 
     int n_stypes = in.readInt();
     int grammarCount = in.readInt();
 
-    len = in.readInt();
-    int[] grammars = new int[len];
-    for (i = 0; i < len; i++)
-      grammars[i] = in.readInt();
+    int[] grammars = readInts(in, in.readInt());
 
-    len = in.readInt();
-    int[] productions = new int[len];
-    for (i = 0; i < len; i++)
-      productions[i] = in.readInt();
+    int[] productions = readInts(in, in.readInt());
 
     len = in.readInt();
     byte[] eventTypes = new byte[len];
@@ -1904,9 +1982,7 @@ public final class EXISchema {
       if ((n_bytes = in.read(eventTypes, n, eventTypes.length - n)) < 0)
         break;
     }
-    int[] eventData = new int[len];
-    for (i = 0; i < len; i++)
-      eventData[i] = in.readInt();
+    int[] eventData = readInts(in, len);
     
     final EXISchema schema = new EXISchema();
     schema.m_elems = nodes;
@@ -2070,6 +2146,74 @@ public final class EXISchema {
       out.writeInt(m_eventData[i]);
   }
   
+  private static int[] readInts(DataInputStream in, int len) throws IOException {
+    final int[] ints = new int[len];
+    if (in instanceof ByteBufferDataInputStream) {
+      final ByteBuffer buffer = ((ByteBufferDataInputStream)in).buffer;
+      if (buffer.remaining() < 4 * len)
+        throw new EOFException();
+      buffer.asIntBuffer().get(ints);
+      buffer.position(buffer.position() + 4 * len);
+    }
+    else {
+      for (int i = 0; i < len; i++)
+        ints[i] = in.readInt();
+    }
+    return ints;
+  }
+
+  private static long[] readLongs(DataInputStream in, int len) throws IOException {
+    final long[] longs = new long[len];
+    if (in instanceof ByteBufferDataInputStream) {
+      final ByteBuffer buffer = ((ByteBufferDataInputStream)in).buffer;
+      if (buffer.remaining() < 8 * len)
+        throw new EOFException();
+      buffer.asLongBuffer().get(longs);
+      buffer.position(buffer.position() + 8 * len);
+    }
+    else {
+      for (int i = 0; i < len; i++)
+        longs[i] = in.readLong();
+    }
+    return longs;
+  }
+
+  /**
+   * DataInputStream that reads from a big-endian view of a ByteBuffer, 
+   * which lets readInts and readLongs copy arrays out of the buffer in bulk.
+   */
+  private static final class ByteBufferDataInputStream extends DataInputStream {
+    final ByteBuffer buffer;
+    ByteBufferDataInputStream(ByteBuffer buffer) {
+      this(new ByteBufferInputStream(buffer.duplicate().order(ByteOrder.BIG_ENDIAN)));
+    }
+    private ByteBufferDataInputStream(ByteBufferInputStream in) {
+      super(in);
+      buffer = in.buffer;
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+    final ByteBuffer buffer;
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0)
+        return 0;
+      if (!buffer.hasRemaining())
+        return -1;
+      final int n_bytes = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n_bytes);
+      return n_bytes;
+    }
+  }
+
   static void writeString(String s, DataOutputStream out) throws IOException {
     final int len = s.length();
     out.writeShort(len);
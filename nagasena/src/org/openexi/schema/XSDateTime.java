@@ -79,6 +79,14 @@ public final class XSDateTime {
     this.timeZone = timeZone;
   }
   
+  /**
+   * Returns one of the eight calendar-related datatype identifers defined
+   * in EXISchemaConst.
+   */
+  public byte getPrimTypeId() {
+    return primTypeId;
+  }
+  
   @Override
   public boolean equals(Object obj) {
     if (obj instanceof XSDateTime) {
@@ -108,6 +116,22 @@ public final class XSDateTime {
     return false;
   }
 
+  @Override
+  public int hashCode() {
+    int h = primTypeId;
+    h = 31 * h + year;
+    h = 31 * h + month;
+    h = 31 * h + day;
+    h = 31 * h + hour;
+    h = 31 * h + minute;
+    h = 31 * h + second;
+    h = 31 * h + timeZone;
+    // null and zero fractional seconds are equal.
+    if (reverseFractionalSecond != null && reverseFractionalSecond.signum() != 0)
+      h = 31 * h + reverseFractionalSecond.hashCode();
+    return h;
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   // Normalization (See Appendix E in XML Schema 1.0 datatype spec)
   ///////////////////////////////////////////////////////////////////////////
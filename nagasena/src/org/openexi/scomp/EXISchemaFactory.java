@@ -1686,7 +1686,7 @@ public class EXISchemaFactory extends EXISchemaStruct {
           break;
         case XSConstants.FLOAT_DT:
         case XSConstants.DOUBLE_DT:
-          isSuccess = FloatValueScriber.instance.doProcess(stringValue, m_scribble, new StringBuilder());
+          isSuccess = FloatValueScriber.instance.doProcess(stringValue, m_scribble);
           assert isSuccess;
           FloatValueScriber.canonicalizeValue(m_scribble);
           variant = addVariantFloatValue(FloatValueScriber.getMantissa(m_scribble), FloatValueScriber.getExponent(m_scribble));
@@ -16,6 +16,7 @@ import org.openexi.proc.common.EXIOptionsException;
 import org.openexi.proc.common.EventDescription;
 import org.openexi.proc.common.EventType;
 import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.common.MetricsListener;
 import org.openexi.proc.common.SchemaId;
 import org.openexi.proc.common.XmlUriConst;
 import org.openexi.proc.grammars.GrammarCache;
@@ -55,6 +56,8 @@ public final class EXISchemaReader extends EXISchemaStruct {
   // Production content composite (event type & subsequent grammar) to production address 
   private final HashMap<Long,Integer> m_productionMap;
   
+  private MetricsListener m_metrics;
+  
   private static final String ENCODED_FIXTURE_GRAMMARS           = "FixtureGrammars.exi";
   private static final String ENCODED_FIXTURE_TYPES              = "FixtureTypes.exi";
   private static final String ENCODED_FIXTURE_NAMES_NONAMESPACE  = "FixtureNamesNoNamespace.exi";
@@ -107,6 +110,7 @@ public final class EXISchemaReader extends EXISchemaStruct {
     m_typePositions = new ArrayList<Integer>();
     m_gramPositions = new ArrayList<Integer>();
     m_productionMap = new HashMap<Long,Integer>();
+    m_metrics = null;
   }
   
   @Override
@@ -125,6 +129,14 @@ public final class EXISchemaReader extends EXISchemaStruct {
     m_productionMap.clear();
   }
 
+  /**
+   * Set a listener that is notified of the schemas read, or null.
+   * @param metrics MetricsListener to be notified, or null
+   */
+  public void setMetricsListener(MetricsListener metrics) {
+    m_metrics = metrics;
+  }
+
   /**
    * Parses EXI-encoded EXI Grammar into an EXISchema.
    * @param inputStream EXI-encoded EXI Grammar
@@ -133,6 +145,7 @@ public final class EXISchemaReader extends EXISchemaStruct {
    * @throws EXIOptionsException
    */
   public EXISchema parse(InputStream inputStream) throws IOException, EXIOptionsException {
+    final long startTime = m_metrics != null ? System.nanoTime() : 0;
     try {
       reset();
       EXIDecoder decoder = new EXIDecoder();
@@ -158,7 +171,10 @@ public final class EXISchemaReader extends EXISchemaStruct {
       final EventType eventType = expectStartElement("EXIGrammar");
       if (schemaName != null && eventType.itemType != EventType.ITEM_SE)
         throw new RuntimeException();
-      return processEXIGrammar();
+      final EXISchema schema = processEXIGrammar();
+      if (m_metrics != null)
+        m_metrics.schemaLoaded(System.nanoTime() - startTime);
+      return schema;
     }
     finally {
       inputStream.close();
@@ -649,7 +665,7 @@ public final class EXISchemaReader extends EXISchemaStruct {
       }
       else if ("Float".equals(typeTagName)) {
         stringValue = readStringContent();
-        if (!FloatValueScriber.instance.doProcess(stringValue, m_scribble, new StringBuilder())) {
+        if (!FloatValueScriber.instance.doProcess(stringValue, m_scribble)) {
           throw new RuntimeException();
         }
         FloatValueScriber.canonicalizeValue(m_scribble);
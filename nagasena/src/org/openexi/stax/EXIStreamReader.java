@@ -0,0 +1,731 @@
+package org.openexi.stax;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.SAXException;
+
+import org.openexi.proc.EXISchemaResolver;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.EXIOptionsException;
+import org.openexi.proc.common.EventDescription;
+import org.openexi.proc.events.EXIEventDTD;
+import org.openexi.proc.events.EXIEventNS;
+import org.openexi.proc.io.Scanner;
+import org.openexi.sax.ReaderSupport;
+import org.openexi.schema.Characters;
+
+/**
+ * EXIStreamReader implements the StAX XMLStreamReader to provide a
+ * pull-based interface for decoding an EXI stream. Each call to next()
+ * decodes only as many events as are needed to report the next XML event,
+ * therefore applications that need only the first part of a document can
+ * stop reading at any point without decoding the rest of the stream.
+ * <pre>
+ *   EXIStreamReader reader = new EXIStreamReader();
+ *   reader.setGrammarCache(grammarCache);
+ *   reader.setInputStream(inputStream);
+ *   while (reader.hasNext()) {
+ *     if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+ *       ...
+ *     }
+ *   }
+ * </pre>
+ */
+public final class EXIStreamReader extends ReaderSupport implements XMLStreamReader {
+
+  private static final int ELEMENT_URI_OFFSET = 0;
+  private static final int ELEMENT_LOCALNAME_OFFSET = 1;
+  private static final int ELEMENT_PREFIX_OFFSET = 2;
+  private static final int ELEMENT_SZ = 3;
+
+  private Scanner m_scanner;
+
+  private int m_eventType;
+  /** Current event if it is one of CH, CM, PI, ER or DTD. */
+  private EventDescription m_exiEvent;
+  /** Event that has been read past the attributes of the current element. */
+  private EventDescription m_nextEvent;
+
+  private String[] m_elementData;
+  private int[] m_elementNamespaceDeclarations;
+  private int m_n_elements;
+  /** True when the element at the top of the stack has ended. */
+  private boolean m_elementEnded;
+
+  private final NamespaceContext m_namespaceContext;
+
+  public EXIStreamReader() {
+    super();
+    m_elementData = new String[32 * ELEMENT_SZ];
+    m_elementNamespaceDeclarations = new int[32];
+    m_namespaceContext = new NamespaceContextImpl();
+    m_scanner = null;
+    m_eventType = END_DOCUMENT;
+  }
+
+  @Override
+  protected void reset() {
+    super.reset();
+    m_attrLength = 0;
+    m_n_elements = 0;
+    m_elementEnded = false;
+    m_exiEvent = null;
+    m_nextEvent = null;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Methods to configure EXIDecoder
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Set the bit alignment style used to compile the EXI input stream.
+   * @param alignmentType {@link org.openexi.proc.common.AlignmentType}
+   * @throws EXIOptionsException
+   */
+  public final void setAlignmentType(AlignmentType alignmentType) throws EXIOptionsException {
+    m_decoder.setAlignmentType(alignmentType);
+  }
+
+  /**
+   * Set to true if the EXI input stream is an XML fragment (a non-compliant
+   * XML document with multiple root elements).
+   * @param isFragment true if the EXI input stream is an XML fragment.
+   */
+  public final void setFragment(boolean isFragment) {
+    m_decoder.setFragment(isFragment);
+  }
+
+  /**
+   * Set to true if the EXI input stream was compiled with the Preserve Lexical
+   * Values set to true. The original strings, rather than logical XML
+   * equivalents, are restored in the XML output stream.
+   * @param preserveLexicalValues set to true if the EXI input stream was compiled with
+   * Preserve Lexical Values set to true.
+   * @throws EXIOptionsException
+   */
+  public final void setPreserveLexicalValues(boolean preserveLexicalValues) throws EXIOptionsException {
+    m_decoder.setPreserveLexicalValues(preserveLexicalValues);
+  }
+
+  /**
+   * Set the EXISchemaResolver to retrieve the schema needed to decode the
+   * current EXI stream.
+   * @param schemaResolver {@link org.openexi.proc.EXISchemaResolver}
+   */
+  public final void setEXISchemaResolver(EXISchemaResolver schemaResolver) {
+    m_decoder.setEXISchemaResolver(schemaResolver);
+  }
+
+  /**
+   * Set a datatype representation map.
+   * @param dtrm a sequence of pairs of datatype qname and datatype representation qname
+   * @param n_bindings the number of qname pairs
+   */
+  public final void setDatatypeRepresentationMap(org.openexi.proc.common.QName[] dtrm, int n_bindings) throws EXIOptionsException {
+    m_decoder.setDatatypeRepresentationMap(dtrm, n_bindings);
+  }
+
+  /**
+   * Set the size, in number of values, of the information that will be
+   * processed as a chunk of the entire EXI stream. Block size is only used
+   * when the EXI stream is encoded with EXI-compression.
+   * @param blockSize number of values in each processing block. Default is 1,000,000.
+   * @throws EXIOptionsException
+   */
+  public final void setBlockSize(int blockSize) throws EXIOptionsException {
+    m_decoder.setBlockSize(blockSize);
+  }
+
+  /**
+   * Set the maximum length of a string that will be stored for reuse in the
+   * String Table.
+   * @param valueMaxLength maximum length of entries in the String Table.
+   */
+  public final void setValueMaxLength(int valueMaxLength) {
+    m_decoder.setValueMaxLength(valueMaxLength);
+  }
+
+  /**
+   * Set the maximum number of values in the String Table.
+   * @param valuePartitionCapacity maximum number of entries in the String Table
+   */
+  public final void setValuePartitionCapacity(int valuePartitionCapacity) {
+    m_decoder.setValuePartitionCapacity(valuePartitionCapacity);
+  }
+
+  /**
+   * Set the EXI stream to be read, and parse its header. The reader is
+   * then positioned at START_DOCUMENT. The input stream is not read any
+   * further than is needed by the calls to next().
+   * @param inputStream an encoded EXI stream
+   * @throws IOException
+   * @throws XMLStreamException
+   */
+  public void setInputStream(InputStream inputStream) throws IOException, XMLStreamException {
+    reset();
+    m_scanner = null;
+    try {
+      m_scanner = processHeader(inputStream);
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+    final EventDescription exiEvent;
+    if ((exiEvent = m_scanner.nextEvent()) == null || exiEvent.getEventKind() != EventDescription.EVENT_SD)
+      throw new XMLStreamException("EXI stream does not start with SD.");
+    m_eventType = START_DOCUMENT;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // XMLStreamReader APIs
+  ///////////////////////////////////////////////////////////////////////////
+
+  public Object getProperty(String name) throws IllegalArgumentException {
+    if (name == null)
+      throw new IllegalArgumentException();
+    return null;
+  }
+
+  public int next() throws XMLStreamException {
+    if (m_eventType == END_DOCUMENT)
+      throw new NoSuchElementException();
+    if (m_elementEnded) {
+      m_n_namespaceDeclarations = m_elementNamespaceDeclarations[--m_n_elements];
+      m_elementEnded = false;
+    }
+    m_exiEvent = null;
+    m_attrLength = 0;
+    try {
+      do {
+        EventDescription exiEvent;
+        if ((exiEvent = m_nextEvent) != null)
+          m_nextEvent = null;
+        else if ((exiEvent = m_scanner.nextEvent()) == null)
+          throw new XMLStreamException("EXI stream ended before ED.");
+        switch (exiEvent.getEventKind()) {
+          case EventDescription.EVENT_ED:
+            return m_eventType = END_DOCUMENT;
+          case EventDescription.EVENT_SE:
+            doElement(exiEvent);
+            return m_eventType = START_ELEMENT;
+          case EventDescription.EVENT_EE:
+            m_elementEnded = true;
+            return m_eventType = END_ELEMENT;
+          case EventDescription.EVENT_CH:
+            m_exiEvent = exiEvent;
+            return m_eventType = CHARACTERS;
+          case EventDescription.EVENT_CM:
+            m_exiEvent = exiEvent;
+            return m_eventType = COMMENT;
+          case EventDescription.EVENT_PI:
+            m_exiEvent = exiEvent;
+            return m_eventType = PROCESSING_INSTRUCTION;
+          case EventDescription.EVENT_ER:
+            m_exiEvent = exiEvent;
+            return m_eventType = ENTITY_REFERENCE;
+          case EventDescription.EVENT_DTD:
+            m_exiEvent = exiEvent;
+            return m_eventType = DTD;
+          default:
+            // NS, TP, NL and AT are consumed together with SE.
+            assert false;
+            break;
+        }
+      }
+      while (true);
+    }
+    catch (IOException ioe) {
+      throw new XMLStreamException(ioe.getMessage(), ioe);
+    }
+  }
+
+  public void require(int type, String namespaceURI, String localName) throws XMLStreamException {
+    if (type != m_eventType)
+      throw new XMLStreamException("Expected event type " + type + " but the current event type is " + m_eventType + ".");
+    if (namespaceURI != null && !namespaceURI.equals(getNamespaceURI()))
+      throw new XMLStreamException("Expected namespace URI '" + namespaceURI + "'.");
+    if (localName != null && !localName.equals(getLocalName()))
+      throw new XMLStreamException("Expected local name '" + localName + "'.");
+  }
+
+  public String getElementText() throws XMLStreamException {
+    if (m_eventType != START_ELEMENT)
+      throw new XMLStreamException("The current event is not START_ELEMENT.");
+    final StringBuilder text = new StringBuilder();
+    int eventType;
+    while ((eventType = next()) != END_ELEMENT) {
+      switch (eventType) {
+        case CHARACTERS:
+          final Characters characters = m_exiEvent.getCharacters();
+          text.append(characters.characters, characters.startIndex, characters.length);
+          break;
+        case PROCESSING_INSTRUCTION:
+        case COMMENT:
+        case ENTITY_REFERENCE:
+          break;
+        case START_ELEMENT:
+          throw new XMLStreamException("Element text content may not contain START_ELEMENT.");
+        default:
+          throw new XMLStreamException("Unexpected event type " + eventType + ".");
+      }
+    }
+    return text.toString();
+  }
+
+  public int nextTag() throws XMLStreamException {
+    int eventType;
+    while ((eventType = next()) == CHARACTERS && isWhiteSpace() ||
+        eventType == COMMENT || eventType == PROCESSING_INSTRUCTION);
+    if (eventType != START_ELEMENT && eventType != END_ELEMENT)
+      throw new XMLStreamException("Expected START_ELEMENT or END_ELEMENT but the event type is " + eventType + ".");
+    return eventType;
+  }
+
+  public boolean hasNext() {
+    return m_eventType != END_DOCUMENT;
+  }
+
+  /**
+   * Releases the EXI stream being read. The input stream is not closed,
+   * and the rest of the EXI stream is left undecoded.
+   */
+  public void close() {
+    m_scanner = null;
+    m_eventType = END_DOCUMENT;
+    reset();
+  }
+
+  public String getNamespaceURI(String prefix) {
+    if (prefix == null)
+      throw new IllegalArgumentException();
+    if (XMLConstants.XMLNS_ATTRIBUTE.equals(prefix))
+      return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+    for (int i = m_n_namespaceDeclarations - 1; i > -1; i--) {
+      if (prefix.equals(m_namespaceDeclarationsLocus[i << 1]))
+        return m_namespaceDeclarationsLocus[i << 1 | 1];
+    }
+    return null;
+  }
+
+  public boolean isStartElement() {
+    return m_eventType == START_ELEMENT;
+  }
+
+  public boolean isEndElement() {
+    return m_eventType == END_ELEMENT;
+  }
+
+  public boolean isCharacters() {
+    return m_eventType == CHARACTERS;
+  }
+
+  public boolean isWhiteSpace() {
+    if (m_eventType != CHARACTERS)
+      return false;
+    final Characters characters = m_exiEvent.getCharacters();
+    final int limit = characters.startIndex + characters.length;
+    for (int i = characters.startIndex; i < limit; i++) {
+      switch (characters.characters[i]) {
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  public String getAttributeValue(String namespaceURI, String localName) {
+    checkStartElement();
+    for (int i = 0; i < m_attrLength; i++) {
+      if ((namespaceURI == null || namespaceURI.equals(getURI(i))) && localName.equals(getLocalName(i)))
+        return getValue(i);
+    }
+    return null;
+  }
+
+  public int getAttributeCount() {
+    checkStartElement();
+    return m_attrLength;
+  }
+
+  public QName getAttributeName(int index) {
+    checkStartElement();
+    return new QName(getURI(index), getLocalName(index), getAttributePrefix(index));
+  }
+
+  public String getAttributeNamespace(int index) {
+    checkStartElement();
+    final String uri = getURI(index);
+    return uri.length() != 0 ? uri : null;
+  }
+
+  public String getAttributeLocalName(int index) {
+    checkStartElement();
+    return getLocalName(index);
+  }
+
+  public String getAttributePrefix(int index) {
+    checkStartElement();
+    final String qname = getQName(index);
+    final int pos;
+    return (pos = qname.indexOf(':')) != -1 ? qname.substring(0, pos) : "";
+  }
+
+  public String getAttributeType(int index) {
+    checkStartElement();
+    return "CDATA";
+  }
+
+  public String getAttributeValue(int index) {
+    checkStartElement();
+    return getValue(index);
+  }
+
+  public boolean isAttributeSpecified(int index) {
+    checkStartElement();
+    return true;
+  }
+
+  public int getNamespaceCount() {
+    if (m_eventType != START_ELEMENT && m_eventType != END_ELEMENT)
+      throw new IllegalStateException();
+    return m_n_namespaceDeclarations - m_elementNamespaceDeclarations[m_n_elements - 1];
+  }
+
+  public String getNamespacePrefix(int index) {
+    final String prefix = m_namespaceDeclarationsLocus[namespaceDeclarationIndex(index) << 1];
+    return prefix.length() != 0 ? prefix : null;
+  }
+
+  public String getNamespaceURI(int index) {
+    return m_namespaceDeclarationsLocus[namespaceDeclarationIndex(index) << 1 | 1];
+  }
+
+  public NamespaceContext getNamespaceContext() {
+    return m_namespaceContext;
+  }
+
+  public int getEventType() {
+    return m_eventType;
+  }
+
+  public String getText() {
+    switch (m_eventType) {
+      case CHARACTERS:
+      case COMMENT:
+        return m_exiEvent.getCharacters().makeString();
+      case ENTITY_REFERENCE:
+        return null;
+      case DTD:
+        return "";
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * Returns the array that holds the text of the current event, which
+   * is only valid until the next call to next(). The text starts at
+   * getTextStart() in the array.
+   */
+  public char[] getTextCharacters() {
+    return getCharacters().characters;
+  }
+
+  public int getTextCharacters(int sourceStart, char[] target, int targetStart, int length) throws XMLStreamException {
+    final Characters characters = getCharacters();
+    if (sourceStart < 0 || sourceStart > characters.length)
+      throw new IndexOutOfBoundsException();
+    final int n_chars = Math.min(length, characters.length - sourceStart);
+    System.arraycopy(characters.characters, characters.startIndex + sourceStart, target, targetStart, n_chars);
+    return n_chars;
+  }
+
+  public int getTextStart() {
+    return getCharacters().startIndex;
+  }
+
+  public int getTextLength() {
+    return getCharacters().length;
+  }
+
+  public String getEncoding() {
+    return null;
+  }
+
+  public boolean hasText() {
+    return m_eventType == CHARACTERS || m_eventType == COMMENT || m_eventType == ENTITY_REFERENCE || m_eventType == DTD;
+  }
+
+  public Location getLocation() {
+    return UNKNOWN_LOCATION;
+  }
+
+  public QName getName() {
+    if (m_eventType != START_ELEMENT && m_eventType != END_ELEMENT)
+      throw new IllegalStateException();
+    final int pos = (m_n_elements - 1) * ELEMENT_SZ;
+    return new QName(m_elementData[pos + ELEMENT_URI_OFFSET], m_elementData[pos + ELEMENT_LOCALNAME_OFFSET],
+        m_elementData[pos + ELEMENT_PREFIX_OFFSET]);
+  }
+
+  public String getLocalName() {
+    switch (m_eventType) {
+      case START_ELEMENT:
+      case END_ELEMENT:
+        return m_elementData[(m_n_elements - 1) * ELEMENT_SZ + ELEMENT_LOCALNAME_OFFSET];
+      case ENTITY_REFERENCE:
+        return m_exiEvent.getName();
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  public boolean hasName() {
+    return m_eventType == START_ELEMENT || m_eventType == END_ELEMENT;
+  }
+
+  public String getNamespaceURI() {
+    if (m_eventType != START_ELEMENT && m_eventType != END_ELEMENT)
+      return null;
+    final String uri = m_elementData[(m_n_elements - 1) * ELEMENT_SZ + ELEMENT_URI_OFFSET];
+    return uri.length() != 0 ? uri : null;
+  }
+
+  public String getPrefix() {
+    if (m_eventType != START_ELEMENT && m_eventType != END_ELEMENT)
+      return null;
+    return m_elementData[(m_n_elements - 1) * ELEMENT_SZ + ELEMENT_PREFIX_OFFSET];
+  }
+
+  public String getVersion() {
+    return null;
+  }
+
+  public boolean isStandalone() {
+    return false;
+  }
+
+  public boolean standaloneSet() {
+    return false;
+  }
+
+  public String getCharacterEncodingScheme() {
+    return null;
+  }
+
+  public String getPITarget() {
+    if (m_eventType != PROCESSING_INSTRUCTION)
+      throw new IllegalStateException();
+    return m_exiEvent.getName();
+  }
+
+  public String getPIData() {
+    if (m_eventType != PROCESSING_INSTRUCTION)
+      throw new IllegalStateException();
+    return m_exiEvent.getCharacters().makeString();
+  }
+
+  /**
+   * Returns the public identifier of the current DTD event, or null if
+   * the current event is not a DTD event.
+   */
+  public String getDTDPublicId() {
+    return m_eventType == DTD ? ((EXIEventDTD)m_exiEvent).getPublicId() : null;
+  }
+
+  /**
+   * Returns the system identifier of the current DTD event, or null if
+   * the current event is not a DTD event.
+   */
+  public String getDTDSystemId() {
+    return m_eventType == DTD ? ((EXIEventDTD)m_exiEvent).getSystemId() : null;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  //
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Reads the namespace declarations and attributes of the element,
+   * leaving the event that follows them in m_nextEvent.
+   */
+  private void doElement(EventDescription exiEvent) throws IOException, XMLStreamException {
+    final String elementURI = exiEvent.getURI();
+    final String elementLocalName = exiEvent.getName();
+    String prefix;
+
+    pushElement(elementURI, elementLocalName);
+    final Scanner scanner = m_scanner;
+    if (m_preserveNS) {
+      prefix = exiEvent.getPrefix();
+      while ((exiEvent = scanner.nextEvent()) != null && exiEvent.getEventKind() == EventDescription.EVENT_NS) {
+        final String nsPrefix = exiEvent.getPrefix();
+        pushNamespaceDeclaration(nsPrefix, exiEvent.getURI());
+        if (((EXIEventNS)exiEvent).getLocalElementNs())
+          prefix = nsPrefix;
+      }
+    }
+    else {
+      if (m_n_elements == 1) {
+        // The prefixes of the schema are declared on the root element.
+        for (int i = 2; i < m_n_prefixes; i++)
+          pushNamespaceDeclaration(m_prefixes[i], m_uris[i]);
+      }
+      final int uriId = exiEvent.getURIId();
+      if (uriId < m_n_prefixes)
+        prefix = m_prefixes[uriId];
+      else {
+        int i;
+        if (elementURI.length() != 0) {
+          for (i = m_n_namespaceDeclarations - 1; i > -1; i--)  {
+            if (elementURI.equals(m_namespaceDeclarationsLocus[i << 1 | 1]))
+              break;
+          }
+          if (i > -1)
+            prefix = m_namespaceDeclarationsLocus[i << 1];
+          else {
+            if (m_n_namespaceDeclarations < PREFIXES.length)
+              prefix = PREFIXES[m_n_namespaceDeclarations];
+            else {
+              stringBuilder.setLength(0);
+              prefix = stringBuilder.append('p').append(m_n_namespaceDeclarations).toString();
+            }
+            pushNamespaceDeclaration(prefix, elementURI);
+          }
+        }
+        else {
+          for (i = m_n_namespaceDeclarations - 1; i > -1; i--)  {
+            // look for a namespace declaration for prefix ""
+            if (m_namespaceDeclarationsLocus[i << 1].length() == 0) {
+              if (m_namespaceDeclarationsLocus[i << 1 | 1].length() != 0) // i.e. it was xmlns="..."
+                pushNamespaceDeclaration("", ""); // reclaim the prefix "" for the uri ""
+              break;
+            }
+          }
+          prefix = "";
+        }
+      }
+      exiEvent = scanner.nextEvent();
+    }
+    m_elementData[(m_n_elements - 1) * ELEMENT_SZ + ELEMENT_PREFIX_OFFSET] = prefix;
+    try {
+      if (exiEvent.getEventKind() == EventDescription.EVENT_TP) {
+        doXsiType(exiEvent);
+        exiEvent = scanner.nextEvent();
+      }
+      if (exiEvent.getEventKind() == EventDescription.EVENT_NL) {
+        doXsiNil(exiEvent);
+        exiEvent = scanner.nextEvent();
+      }
+      while (exiEvent.getEventKind() == EventDescription.EVENT_AT) {
+        doAttribute(exiEvent, scanner);
+        exiEvent = scanner.nextEvent();
+      }
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+    m_nextEvent = exiEvent;
+  }
+
+  private void pushElement(String uri, String localName) {
+    if (m_n_elements == m_elementNamespaceDeclarations.length) {
+      final int[] elementNamespaceDeclarations = new int[m_n_elements + 32];
+      System.arraycopy(m_elementNamespaceDeclarations, 0, elementNamespaceDeclarations, 0, m_n_elements);
+      m_elementNamespaceDeclarations = elementNamespaceDeclarations;
+      final String[] elementData = new String[(m_n_elements + 32) * ELEMENT_SZ];
+      System.arraycopy(m_elementData, 0, elementData, 0, m_n_elements * ELEMENT_SZ);
+      m_elementData = elementData;
+    }
+    final int pos = m_n_elements * ELEMENT_SZ;
+    m_elementData[pos + ELEMENT_URI_OFFSET] = uri;
+    m_elementData[pos + ELEMENT_LOCALNAME_OFFSET] = localName;
+    m_elementNamespaceDeclarations[m_n_elements++] = m_n_namespaceDeclarations;
+  }
+
+  private int namespaceDeclarationIndex(int index) {
+    if (index < 0 || index >= getNamespaceCount())
+      throw new IndexOutOfBoundsException();
+    return m_elementNamespaceDeclarations[m_n_elements - 1] + index;
+  }
+
+  private void checkStartElement() {
+    if (m_eventType != START_ELEMENT)
+      throw new IllegalStateException();
+  }
+
+  private Characters getCharacters() {
+    if (m_eventType != CHARACTERS && m_eventType != COMMENT)
+      throw new IllegalStateException();
+    return m_exiEvent.getCharacters();
+  }
+
+  private static XMLStreamException toXMLStreamException(SAXException se) {
+    final Exception e;
+    if ((e = se.getException()) != null)
+      return new XMLStreamException(e.getMessage(), e);
+    return new XMLStreamException(se.getMessage(), se);
+  }
+
+  private static final Location UNKNOWN_LOCATION = new Location() {
+    public int getLineNumber() {
+      return -1;
+    }
+    public int getColumnNumber() {
+      return -1;
+    }
+    public int getCharacterOffset() {
+      return -1;
+    }
+    public String getPublicId() {
+      return null;
+    }
+    public String getSystemId() {
+      return null;
+    }
+  };
+
+  private final class NamespaceContextImpl implements NamespaceContext {
+    public String getNamespaceURI(String prefix) {
+      final String uri = EXIStreamReader.this.getNamespaceURI(prefix);
+      return uri != null ? uri : XMLConstants.NULL_NS_URI;
+    }
+    public String getPrefix(String namespaceURI) {
+      final Iterator<String> prefixes = getPrefixes(namespaceURI);
+      return prefixes.hasNext() ? prefixes.next() : null;
+    }
+    public Iterator<String> getPrefixes(String namespaceURI) {
+      if (namespaceURI == null)
+        throw new IllegalArgumentException();
+      final ArrayList<String> prefixes = new ArrayList<String>();
+      if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(namespaceURI))
+        prefixes.add(XMLConstants.XMLNS_ATTRIBUTE);
+      for (int i = m_n_namespaceDeclarations - 1; i > -1; i--) {
+        if (namespaceURI.equals(m_namespaceDeclarationsLocus[i << 1 | 1])) {
+          final String prefix = m_namespaceDeclarationsLocus[i << 1];
+          // Skip prefixes that have been bound to another URI in an inner scope.
+          if (!prefixes.contains(prefix) && namespaceURI.equals(EXIStreamReader.this.getNamespaceURI(prefix)))
+            prefixes.add(prefix);
+        }
+      }
+      return prefixes.iterator();
+    }
+  }
+
+}
@@ -0,0 +1,450 @@
+package org.openexi.stax;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.LocatorImpl;
+
+import org.openexi.sax.SAXTransmogrifier;
+import org.openexi.sax.Transmogrifier;
+
+/**
+ * EXIStreamWriter implements the StAX XMLStreamWriter to encode an EXI
+ * stream from events written by the application. The events are fed to
+ * the encoder of a {@link org.openexi.sax.Transmogrifier} directly, without
+ * an XML parser, therefore the Transmogrifier is configured in the same way
+ * as it is for encoding XML documents.
+ * <pre>
+ *   transmogrifier.setGrammarCache(grammarCache);
+ *   transmogrifier.setOutputStream(outputStream);
+ *   EXIStreamWriter writer = new EXIStreamWriter(transmogrifier);
+ *   writer.writeStartDocument();
+ *   writer.writeStartElement("urn:foo", "A");
+ *   ...
+ *   writer.writeEndDocument();
+ * </pre>
+ * Namespaces are not repaired. Namespace URIs that are used without a
+ * prefix have to be bound by either setPrefix or writeNamespace beforehand,
+ * and prefixes that are given explicitly have to be declared by
+ * writeNamespace. DTDs written by writeDTD are ignored, since EXI represents
+ * a DTD by its name and identifiers rather than by its text.
+ */
+public final class EXIStreamWriter implements XMLStreamWriter {
+
+  private final Transmogrifier m_transmogrifier;
+  private SAXTransmogrifier m_contentHandler;
+
+  private final AttributesImpl m_attributes;
+
+  /** Prefix, URI pairs of namespace bindings in scope. */
+  private String[] m_namespaceBindings;
+  /** Tells which of the bindings are to be declared rather than set by setPrefix. */
+  private boolean[] m_namespaceDeclared;
+  private int m_n_namespaceBindings;
+
+  /** URI, local name and qualified name triplets of open elements. */
+  private String[] m_elementData;
+  private int[] m_elementNamespaceBindings;
+  private int m_n_elements;
+
+  /** True while the start tag of the top element may take attributes and namespaces. */
+  private boolean m_inStartTag;
+  private boolean m_emptyElement;
+
+  private NamespaceContext m_rootNamespaceContext;
+  private final NamespaceContext m_namespaceContext;
+
+  /**
+   * Creates an EXIStreamWriter that encodes an EXI stream using the transmogrifier.
+   * The output stream and the options of the transmogrifier have to be set before
+   * writeStartDocument is called.
+   * @param transmogrifier {@link org.openexi.sax.Transmogrifier}
+   */
+  public EXIStreamWriter(Transmogrifier transmogrifier) {
+    m_transmogrifier = transmogrifier;
+    m_contentHandler = null;
+    m_attributes = new AttributesImpl();
+    m_namespaceBindings = new String[32];
+    m_namespaceDeclared = new boolean[16];
+    m_elementData = new String[3 * 32];
+    m_elementNamespaceBindings = new int[32];
+    m_namespaceContext = new NamespaceContextImpl();
+    m_rootNamespaceContext = null;
+    reset();
+  }
+
+  private void reset() {
+    m_attributes.clear();
+    m_n_namespaceBindings = 0;
+    m_n_elements = 0;
+    m_inStartTag = false;
+    m_emptyElement = false;
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // XMLStreamWriter APIs
+  ///////////////////////////////////////////////////////////////////////////
+
+  public void writeStartDocument() throws XMLStreamException {
+    reset();
+    m_contentHandler = m_transmogrifier.getSAXTransmogrifier();
+    m_contentHandler.setDocumentLocator(new LocatorImpl());
+    try {
+      m_contentHandler.startDocument();
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+  }
+
+  public void writeStartDocument(String version) throws XMLStreamException {
+    writeStartDocument();
+  }
+
+  public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+    writeStartDocument();
+  }
+
+  public void writeEndDocument() throws XMLStreamException {
+    while (m_n_elements != 0)
+      writeEndElement();
+    checkDocument();
+    try {
+      m_contentHandler.endDocument();
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+    m_contentHandler = null;
+  }
+
+  public void writeStartElement(String localName) throws XMLStreamException {
+    writeStartElement("", localName, getDefaultNamespaceURI(), false);
+  }
+
+  public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+    writeStartElement(getPrefix(namespaceURI, true), localName, namespaceURI, false);
+  }
+
+  public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+    writeStartElement(prefix, localName, namespaceURI, false);
+  }
+
+  public void writeEmptyElement(String localName) throws XMLStreamException {
+    writeStartElement("", localName, getDefaultNamespaceURI(), true);
+  }
+
+  public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+    writeStartElement(getPrefix(namespaceURI, true), localName, namespaceURI, true);
+  }
+
+  public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+    writeStartElement(prefix, localName, namespaceURI, true);
+  }
+
+  public void writeEndElement() throws XMLStreamException {
+    if (m_inStartTag)
+      closeStartTag();
+    if (m_n_elements == 0)
+      throw new XMLStreamException("There is no element to end.");
+    endElement();
+  }
+
+  public void writeAttribute(String localName, String value) throws XMLStreamException {
+    writeAttribute("", "", localName, value);
+  }
+
+  public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+    writeAttribute(namespaceURI.length() != 0 ? getPrefix(namespaceURI, true) : "", namespaceURI, localName, value);
+  }
+
+  public void writeAttribute(String prefix, String namespaceURI, String localName, String value) throws XMLStreamException {
+    if (!m_inStartTag)
+      throw new XMLStreamException("Attributes can only be written in a start tag.");
+    final String qualifiedName = prefix == null || prefix.length() == 0 ? localName : prefix + ":" + localName;
+    m_attributes.addAttribute(namespaceURI != null ? namespaceURI : "", localName, qualifiedName, "CDATA", value);
+  }
+
+  public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+    if (prefix == null || prefix.length() == 0 || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+      writeDefaultNamespace(namespaceURI);
+      return;
+    }
+    if (!m_inStartTag)
+      throw new XMLStreamException("Namespaces can only be written in a start tag.");
+    bind(prefix, namespaceURI, true);
+  }
+
+  public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+    if (!m_inStartTag)
+      throw new XMLStreamException("Namespaces can only be written in a start tag.");
+    bind("", namespaceURI, true);
+  }
+
+  public void writeComment(String data) throws XMLStreamException {
+    checkDocument();
+    if (m_inStartTag)
+      closeStartTag();
+    try {
+      m_contentHandler.comment(data.toCharArray(), 0, data.length());
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+  }
+
+  public void writeProcessingInstruction(String target) throws XMLStreamException {
+    writeProcessingInstruction(target, "");
+  }
+
+  public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+    checkDocument();
+    if (m_inStartTag)
+      closeStartTag();
+    try {
+      m_contentHandler.processingInstruction(target, data);
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+  }
+
+  public void writeCData(String data) throws XMLStreamException {
+    writeCharacters(data);
+  }
+
+  /**
+   * The DTD is ignored.
+   */
+  public void writeDTD(String dtd) throws XMLStreamException {
+    checkDocument();
+  }
+
+  public void writeEntityRef(String name) throws XMLStreamException {
+    checkDocument();
+    if (m_inStartTag)
+      closeStartTag();
+    try {
+      m_contentHandler.skippedEntity(name);
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+  }
+
+  public void writeCharacters(String text) throws XMLStreamException {
+    writeCharacters(text.toCharArray(), 0, text.length());
+  }
+
+  public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+    checkDocument();
+    if (m_inStartTag)
+      closeStartTag();
+    try {
+      m_contentHandler.characters(text, start, len);
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+  }
+
+  public String getPrefix(String uri) throws XMLStreamException {
+    return m_namespaceContext.getPrefix(uri);
+  }
+
+  public void setPrefix(String prefix, String uri) throws XMLStreamException {
+    bind(prefix, uri, false);
+  }
+
+  public void setDefaultNamespace(String uri) throws XMLStreamException {
+    bind("", uri, false);
+  }
+
+  public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+    if (m_contentHandler != null)
+      throw new XMLStreamException("The namespace context can only be set before the document is started.");
+    m_rootNamespaceContext = context;
+  }
+
+  public NamespaceContext getNamespaceContext() {
+    return m_namespaceContext;
+  }
+
+  public Object getProperty(String name) throws IllegalArgumentException {
+    throw new IllegalArgumentException("Property '" + name + "' is not supported.");
+  }
+
+  /**
+   * Nothing is flushed, since the encoder writes out the bytes it has
+   * buffered when the document ends.
+   */
+  public void flush() throws XMLStreamException {
+  }
+
+  /**
+   * Releases the writer. The output stream of the transmogrifier is not closed.
+   */
+  public void close() throws XMLStreamException {
+    m_contentHandler = null;
+    reset();
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Private convenience functions
+  ///////////////////////////////////////////////////////////////////////////
+
+  private void writeStartElement(String prefix, String localName, String namespaceURI, boolean isEmpty) throws XMLStreamException {
+    checkDocument();
+    if (m_inStartTag)
+      closeStartTag();
+    if (m_n_elements == m_elementNamespaceBindings.length) {
+      final int[] elementNamespaceBindings = new int[m_n_elements + 32];
+      System.arraycopy(m_elementNamespaceBindings, 0, elementNamespaceBindings, 0, m_n_elements);
+      m_elementNamespaceBindings = elementNamespaceBindings;
+      final String[] elementData = new String[3 * (m_n_elements + 32)];
+      System.arraycopy(m_elementData, 0, elementData, 0, 3 * m_n_elements);
+      m_elementData = elementData;
+    }
+    final int pos = 3 * m_n_elements;
+    m_elementData[pos] = namespaceURI != null ? namespaceURI : "";
+    m_elementData[pos + 1] = localName;
+    m_elementData[pos + 2] = prefix == null || prefix.length() == 0 ? localName : prefix + ":" + localName;
+    m_elementNamespaceBindings[m_n_elements++] = m_n_namespaceBindings;
+    m_inStartTag = true;
+    m_emptyElement = isEmpty;
+  }
+
+  private void closeStartTag() throws XMLStreamException {
+    m_inStartTag = false;
+    final int pos = 3 * (m_n_elements - 1);
+    try {
+      for (int i = m_elementNamespaceBindings[m_n_elements - 1]; i < m_n_namespaceBindings; i++) {
+        if (m_namespaceDeclared[i])
+          m_contentHandler.startPrefixMapping(m_namespaceBindings[i << 1], m_namespaceBindings[i << 1 | 1]);
+      }
+      m_contentHandler.startElement(m_elementData[pos], m_elementData[pos + 1], m_elementData[pos + 2], m_attributes);
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+    m_attributes.clear();
+    if (m_emptyElement) {
+      m_emptyElement = false;
+      endElement();
+    }
+  }
+
+  private void endElement() throws XMLStreamException {
+    final int pos = 3 * --m_n_elements;
+    final int n_namespaceBindings = m_elementNamespaceBindings[m_n_elements];
+    try {
+      m_contentHandler.endElement(m_elementData[pos], m_elementData[pos + 1], m_elementData[pos + 2]);
+      for (int i = m_n_namespaceBindings - 1; i >= n_namespaceBindings; i--) {
+        if (m_namespaceDeclared[i])
+          m_contentHandler.endPrefixMapping(m_namespaceBindings[i << 1]);
+      }
+    }
+    catch (SAXException se) {
+      throw toXMLStreamException(se);
+    }
+    m_n_namespaceBindings = n_namespaceBindings;
+  }
+
+  private void bind(String prefix, String uri, boolean declare) {
+    if (m_n_namespaceBindings == m_namespaceDeclared.length) {
+      final String[] namespaceBindings = new String[2 * (m_n_namespaceBindings + 16)];
+      System.arraycopy(m_namespaceBindings, 0, namespaceBindings, 0, 2 * m_n_namespaceBindings);
+      m_namespaceBindings = namespaceBindings;
+      final boolean[] namespaceDeclared = new boolean[m_n_namespaceBindings + 16];
+      System.arraycopy(m_namespaceDeclared, 0, namespaceDeclared, 0, m_n_namespaceBindings);
+      m_namespaceDeclared = namespaceDeclared;
+    }
+    m_namespaceBindings[m_n_namespaceBindings << 1] = prefix != null ? prefix : "";
+    m_namespaceBindings[m_n_namespaceBindings << 1 | 1] = uri != null ? uri : "";
+    m_namespaceDeclared[m_n_namespaceBindings++] = declare;
+  }
+
+  private String getNamespaceURI(String prefix) {
+    for (int i = m_n_namespaceBindings - 1; i > -1; i--) {
+      if (prefix.equals(m_namespaceBindings[i << 1]))
+        return m_namespaceBindings[i << 1 | 1];
+    }
+    if (XMLConstants.XML_NS_PREFIX.equals(prefix))
+      return XMLConstants.XML_NS_URI;
+    else if (XMLConstants.XMLNS_ATTRIBUTE.equals(prefix))
+      return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+    else if (m_rootNamespaceContext != null)
+      return m_rootNamespaceContext.getNamespaceURI(prefix);
+    return null;
+  }
+
+  private String getDefaultNamespaceURI() {
+    final String uri = getNamespaceURI("");
+    return uri != null ? uri : "";
+  }
+
+  private String getPrefix(String namespaceURI, boolean required) throws XMLStreamException {
+    if (namespaceURI.length() == 0)
+      return "";
+    final String prefix = m_namespaceContext.getPrefix(namespaceURI);
+    if (prefix == null && required)
+      throw new XMLStreamException("Namespace URI '" + namespaceURI + "' is not bound to a prefix.");
+    return prefix;
+  }
+
+  private void checkDocument() throws XMLStreamException {
+    if (m_contentHandler == null)
+      throw new XMLStreamException("The document has not been started.");
+  }
+
+  private static XMLStreamException toXMLStreamException(SAXException se) {
+    final Exception e;
+    if ((e = se.getException()) != null)
+      return new XMLStreamException(e.getMessage(), e);
+    return new XMLStreamException(se.getMessage(), se);
+  }
+
+  private final class NamespaceContextImpl implements NamespaceContext {
+    public String getNamespaceURI(String prefix) {
+      if (prefix == null)
+        throw new IllegalArgumentException();
+      final String uri = EXIStreamWriter.this.getNamespaceURI(prefix);
+      return uri != null ? uri : XMLConstants.NULL_NS_URI;
+    }
+    public String getPrefix(String namespaceURI) {
+      final Iterator<String> prefixes = getPrefixes(namespaceURI);
+      return prefixes.hasNext() ? prefixes.next() : null;
+    }
+    public Iterator<String> getPrefixes(String namespaceURI) {
+      if (namespaceURI == null)
+        throw new IllegalArgumentException();
+      final ArrayList<String> prefixes = new ArrayList<String>();
+      for (int i = m_n_namespaceBindings - 1; i > -1; i--) {
+        if (namespaceURI.equals(m_namespaceBindings[i << 1 | 1])) {
+          final String prefix = m_namespaceBindings[i << 1];
+          // Skip prefixes that have been bound to another URI in an inner scope.
+          if (!prefixes.contains(prefix) && namespaceURI.equals(EXIStreamWriter.this.getNamespaceURI(prefix)))
+            prefixes.add(prefix);
+        }
+      }
+      if (XMLConstants.XML_NS_URI.equals(namespaceURI))
+        prefixes.add(XMLConstants.XML_NS_PREFIX);
+      else if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(namespaceURI))
+        prefixes.add(XMLConstants.XMLNS_ATTRIBUTE);
+      else if (prefixes.size() == 0 && m_rootNamespaceContext != null) {
+        final String prefix;
+        if ((prefix = m_rootNamespaceContext.getPrefix(namespaceURI)) != null)
+          prefixes.add(prefix);
+      }
+      return prefixes.iterator();
+    }
+  }
+
+}
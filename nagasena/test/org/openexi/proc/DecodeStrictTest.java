@@ -1,6 +1,10 @@
 package org.openexi.proc;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 
 import org.openexi.proc.common.AlignmentType;
@@ -495,6 +499,186 @@ public class DecodeStrictTest extends TestBase {
     Assert.assertEquals(10, n_events);
   }
   
+  /**
+   * Decode streams from heap and direct ByteBuffers and from a channel,
+   * which must produce the same events as decoding from an InputStream.
+   */
+  public void testByteBufferInput_01() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/optionsSchema.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+
+    EXISchema fixmlCorpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/FixML-4.4/schema/fixml-main-4-4.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache fixmlGrammarCache = new GrammarCache(fixmlCorpus, GrammarOptions.STRICT_OPTIONS);
+
+    String[] exiFiles = { 
+        "/encoding/headerOptions-01.bitPacked",
+        "/encoding/headerOptions-01.byteAligned", 
+        "/encoding/headerOptions-01.preCompress", 
+        "/encoding/headerOptions-01.compress", 
+        "/FixML-4.4/AllocationInstructionAck.exi_vi_openexi.bitPacked"
+    };
+
+    for (int i = 0; i < exiFiles.length; i++) {
+      URL url = resolveSystemIdAsURL(exiFiles[i]);
+      final boolean isFixML = i == Alignments.length;
+      final byte[] bts = DecoderTestUtil.readBytes(url);
+
+      EXIDecoder decoder = new EXIDecoder();
+      decoder.setGrammarCache(isFixML ? fixmlGrammarCache : grammarCache);
+
+      decoder.setInputStream(new ByteArrayInputStream(bts));
+      final ArrayList<String> expected = DecoderTestUtil.decode(decoder);
+      if (!isFixML)
+        Assert.assertEquals(6, expected.size());
+
+      // A heap buffer whose content starts at a non-zero position.
+      final ByteBuffer heapBuffer = ByteBuffer.allocate(bts.length + 3);
+      heapBuffer.position(3);
+      heapBuffer.put(bts);
+      heapBuffer.position(3);
+      decoder.setInput(heapBuffer);
+      Assert.assertEquals(expected, DecoderTestUtil.decode(decoder));
+      Assert.assertEquals(3, heapBuffer.position());
+
+      final ByteBuffer directBuffer = ByteBuffer.allocateDirect(bts.length);
+      directBuffer.put(bts);
+      directBuffer.flip();
+      decoder.setInput(directBuffer);
+      Assert.assertEquals(expected, DecoderTestUtil.decode(decoder));
+      
+      decoder.setInput(Channels.newChannel(new ByteArrayInputStream(bts)));
+      Assert.assertEquals(expected, DecoderTestUtil.decode(decoder));
+    }
+  }
+
+  /**
+   * Decode streams fed in chunks to EXIPushDecoder, which must produce the 
+   * same events as decoding from an InputStream.
+   */
+  public void testPushDecoder_01() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/optionsSchema.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+
+    EXISchema fixmlCorpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/FixML-4.4/schema/fixml-main-4-4.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache fixmlGrammarCache = new GrammarCache(fixmlCorpus, GrammarOptions.STRICT_OPTIONS);
+
+    String[] exiFiles = { 
+        "/encoding/headerOptions-01.bitPacked",
+        "/encoding/headerOptions-01.byteAligned", 
+        "/encoding/headerOptions-01.preCompress", 
+        "/encoding/headerOptions-01.compress", 
+        "/FixML-4.4/AllocationInstructionAck.exi_vi_openexi.bitPacked"
+    };
+
+    for (int i = 0; i < exiFiles.length; i++) {
+      final byte[] bts = DecoderTestUtil.readBytes(resolveSystemIdAsURL(exiFiles[i]));
+      
+      EXIDecoder decoder = new EXIDecoder();
+      decoder.setGrammarCache(i == Alignments.length ? fixmlGrammarCache : grammarCache);
+
+      decoder.setInputStream(new ByteArrayInputStream(bts));
+      final ArrayList<String> expected = DecoderTestUtil.decode(decoder);
+
+      final EXIPushDecoder pushDecoder = new EXIPushDecoder(decoder);
+      for (int chunkSize : new int[] { 1, 7, bts.length }) {
+        pushDecoder.reset();
+        final ArrayList<String> events = new ArrayList<String>();
+        int pos = 0;
+        do {
+          final int len = Math.min(chunkSize, bts.length - pos);
+          pushDecoder.feed(ByteBuffer.wrap(bts, pos, len));
+          if ((pos += len) == bts.length)
+            pushDecoder.endOfInput();
+          EventDescription exiEvent;
+          while ((exiEvent = pushDecoder.nextEvent()) != null)
+            events.add(DecoderTestUtil.toString(exiEvent));
+        }
+        while (pos < bts.length);
+        Assert.assertTrue(pushDecoder.isFinished());
+        Assert.assertEquals(expected, events);
+      }
+
+      // A stream that ends prematurely.
+      pushDecoder.reset();
+      pushDecoder.feed(bts, 0, bts.length / 2);
+      pushDecoder.endOfInput();
+      try {
+        while (pushDecoder.nextEvent() != null);
+        Assert.fail();
+      }
+      catch (EOFException eofe) {
+      }
+    }
+  }
+
+  /**
+   * Bit-packed and byte-aligned scanners support marks when reading from a
+   * ByteBuffer, channelling scanners never do.
+   */
+  public void testSupportsMark_01() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/optionsSchema.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+
+    String[] exiFiles = { 
+        "/encoding/headerOptions-01.bitPacked",
+        "/encoding/headerOptions-01.byteAligned", 
+        "/encoding/headerOptions-01.preCompress", 
+        "/encoding/headerOptions-01.compress" 
+    };
+
+    for (int i = 0; i < Alignments.length; i++) {
+      final byte[] bts = DecoderTestUtil.readBytes(resolveSystemIdAsURL(exiFiles[i]));
+      final boolean channelling = Alignments[i] == AlignmentType.preCompress || 
+        Alignments[i] == AlignmentType.compress;
+
+      EXIDecoder decoder = new EXIDecoder();
+      decoder.setGrammarCache(grammarCache);
+
+      decoder.setInputStream(new ByteArrayInputStream(bts));
+      Scanner scanner = decoder.processHeader();
+      Assert.assertEquals(Alignments[i], scanner.getAlignmentType());
+      Assert.assertFalse(scanner.supportsMark());
+
+      decoder.setInput(ByteBuffer.wrap(bts));
+      scanner = decoder.processHeader();
+      Assert.assertEquals(!channelling, scanner.supportsMark());
+      if (channelling) {
+        try {
+          scanner.mark();
+          Assert.fail();
+        }
+        catch (UnsupportedOperationException uoe) {
+        }
+      }
+      else {
+        scanner.mark();
+        final EventDescription exiEvent = scanner.nextEvent();
+        scanner.rollback();
+        Assert.assertEquals(DecoderTestUtil.toString(exiEvent), DecoderTestUtil.toString(scanner.nextEvent()));
+      }
+    }
+  }
+
   /**
    * Decode FixML EXI documents.
    */
@@ -0,0 +1,82 @@
+package org.openexi.proc.grammars;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.openexi.proc.common.EventCode;
+import org.openexi.proc.common.EventType;
+import org.openexi.proc.common.IGrammar;
+
+public class ArrayEventTypeListTest extends TestCase {
+
+  public ArrayEventTypeListTest(String name) {
+    super(name);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * getStartElement finds SE(qname) event types through the table, and
+   * resorts to element wildcards in the order of the list.
+   */
+  public void testGetStartElement_01() throws Exception {
+    final ArrayEventTypeList eventTypeList = new ArrayEventTypeList();
+    final String[] names = { "A", "B", "C", "D", "E", "F", "G", "H", "I", "J" };
+    final EventType[] eventTypes = new EventType[names.length + 5];
+    int i;
+    for (i = 0; i < names.length; i++) {
+      eventTypes[i] = new EventType("urn:foo", names[i], 4, i, EventCode.EVENT_CODE_DEPTH_ONE,
+          eventTypeList, EventType.ITEM_SE, (IGrammar)null);
+    }
+    final EventType wildcardNS = new EventType("urn:goo", (String)null, 5, -1, EventCode.EVENT_CODE_DEPTH_ONE,
+        eventTypeList, EventType.ITEM_SCHEMA_WC_NS, (IGrammar)null);
+    eventTypes[i++] = wildcardNS;
+    // SE(qname) that follows a wildcard is looked up in the order of the list.
+    final EventType elementK = new EventType("urn:goo", "K", 5, 0, EventCode.EVENT_CODE_DEPTH_ONE,
+        eventTypeList, EventType.ITEM_SE, (IGrammar)null);
+    eventTypes[i++] = elementK;
+    final EventType elementL = new EventType("urn:hoo", "L", 6, 0, EventCode.EVENT_CODE_DEPTH_ONE,
+        eventTypeList, EventType.ITEM_SE, (IGrammar)null);
+    eventTypes[i++] = elementL;
+    final EventType endElement = EventTypeFactory.creatEndElement(EventCode.EVENT_CODE_DEPTH_ONE, eventTypeList);
+    eventTypes[i++] = endElement;
+    final EventType wildcardAny = new EventType(EventCode.EVENT_CODE_DEPTH_ONE,
+        eventTypeList, EventType.ITEM_SCHEMA_WC_ANY, (IGrammar)null);
+    eventTypes[i++] = wildcardAny;
+    eventTypeList.setItems(eventTypes);
+
+    for (i = 0; i < names.length; i++) {
+      Assert.assertSame(eventTypes[i], eventTypeList.getStartElement("urn:foo", names[i]));
+      Assert.assertEquals(i, eventTypeList.getStartElement("urn:foo", names[i]).getIndex());
+    }
+    Assert.assertSame(wildcardNS, eventTypeList.getStartElement("urn:goo", "K"));
+    Assert.assertSame(wildcardNS, eventTypeList.getStartElement("urn:goo", "A"));
+    Assert.assertSame(elementL, eventTypeList.getStartElement("urn:hoo", "L"));
+    Assert.assertSame(wildcardAny, eventTypeList.getStartElement("urn:hoo", "A"));
+    Assert.assertSame(wildcardAny, eventTypeList.getStartElement("", "A"));
+    Assert.assertSame(wildcardAny, eventTypeList.getStartElement("urn:foo", "K"));
+
+    Assert.assertSame(endElement, eventTypeList.getEE());
+    Assert.assertNull(eventTypeList.getED());
+  }
+
+  /**
+   * getStartElement returns null when neither SE(qname) nor wildcards match.
+   */
+  public void testGetStartElement_02() throws Exception {
+    final ArrayEventTypeList eventTypeList = new ArrayEventTypeList();
+    final EventType elementA = new EventType("urn:foo", "A", 4, 0, EventCode.EVENT_CODE_DEPTH_ONE,
+        eventTypeList, EventType.ITEM_SE, (IGrammar)null);
+    final EventType endDocument = EventTypeFactory.createEndDocument(eventTypeList);
+    eventTypeList.setItems(new EventType[] { elementA, endDocument });
+
+    Assert.assertSame(elementA, eventTypeList.getStartElement("urn:foo", "A"));
+    Assert.assertNull(eventTypeList.getStartElement("", "A"));
+    Assert.assertNull(eventTypeList.getStartElement("urn:foo", "B"));
+    Assert.assertNull(eventTypeList.getEE());
+    Assert.assertSame(endDocument, eventTypeList.getED());
+  }
+
+}
@@ -0,0 +1,96 @@
+package org.openexi.proc.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class BodyBitInputStreamTest extends TestCase {
+
+  public BodyBitInputStreamTest(String name) {
+    super(name);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Bits of various widths read back the same as they were written, where
+   * the underlying input stream hands out only a few bytes at a time.
+   */
+  public void testGetBits() throws Exception {
+    final Random random = new Random(20161018);
+    final int[] widths = new int[20000];
+    final int[] values = new int[widths.length];
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final BitOutputStream bitOutputStream = new BitOutputStream(baos);
+    for (int i = 0; i < widths.length; i++) {
+      final int n = random.nextInt(33);
+      final int x = n == 32 ? random.nextInt() : random.nextInt() & ((1 << n) - 1);
+      bitOutputStream.putBits(n, x);
+      widths[i] = n;
+      values[i] = x;
+    }
+    bitOutputStream.flush();
+
+    final BodyBitInputStream bitInputStream = new BodyBitInputStream();
+    bitInputStream.setInputStream(new ByteArrayInputStream(baos.toByteArray()) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, random.nextInt(20) + 1));
+      }
+    });
+    for (int i = 0; i < widths.length; i++) {
+      final int x;
+      switch (widths[i]) {
+        case 1:
+          x = random.nextBoolean() ? bitInputStream.getOneBit() : (bitInputStream.getBit() ? 1 : 0);
+          break;
+        case 2:
+          x = bitInputStream.getTwoBits();
+          break;
+        case 3:
+          x = bitInputStream.getThreeBits();
+          break;
+        case 4:
+          x = bitInputStream.getFourBits();
+          break;
+        case 5:
+          x = bitInputStream.getFiveBits();
+          break;
+        case 8:
+          x = bitInputStream.getEightBits();
+          break;
+        default:
+          x = bitInputStream.getBits(widths[i]);
+          break;
+      }
+      Assert.assertEquals(values[i], x);
+    }
+  }
+
+  /**
+   * EOFException is thrown only when bits are requested past the end.
+   */
+  public void testEOF() throws Exception {
+    final BodyBitInputStream bitInputStream = new BodyBitInputStream();
+    bitInputStream.setInputStream(new ByteArrayInputStream(new byte[] { (byte)0xA5, 0x0F }));
+    Assert.assertEquals(0xA, bitInputStream.getFourBits());
+    Assert.assertEquals(0x50F, bitInputStream.getBits(12));
+    try {
+      bitInputStream.getOneBit();
+    }
+    catch (EOFException eofe) {
+      return;
+    }
+    catch (IOException ioe) {
+    }
+    Assert.fail();
+  }
+
+}
@@ -0,0 +1,95 @@
+package org.openexi.proc.io;
+
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.EXISchemaConst;
+import org.openexi.schema.EmptySchema;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class NumericValueScriberTest extends TestCase {
+
+  public NumericValueScriberTest(String name) {
+    super(name);
+  }
+
+  private static final String[] FLOAT_VALUES = {
+    "  -1E4 ", " \t 1267.43233E12 \r\n ", "12.78e-2", "1200.00e+2", "12", "-0", 
+    "INF", "-INF", "NaN", "-9223372036854775808", "9223372036854775807", 
+    "1.5E", "abc", "", "   "
+  };
+
+  private static final String[] DECIMAL_VALUES = {
+    " 0 ", "-1.00", "+12.34500", "\t0.0001\n", "123456789012345678901234567890.5", 
+    ".5", "5.", "1.2.3", "abc", "", "   "
+  };
+
+  private static final String[] INTEGER_VALUES = {
+    " 0 ", "-0", "+17", "\t2147483647\n", "2147483648", "-9223372036854775808", 
+    "9223372036854775807", "123456789012345678901234567890", "-123456789012345678901234567890",
+    "1.0", "12a", "abc", "", "   "
+  };
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Parsing a float out of a range of a char array gives the same scribble 
+   * as parsing the same value given as a String.
+   */
+  public void testFloatChars() throws Exception {
+    Assert.assertTrue(FloatValueScriber.instance.processesChars());
+    doTest(FloatValueScriber.instance, EXISchemaConst.FLOAT_TYPE, FLOAT_VALUES);
+  }
+
+  /**
+   * Parsing a decimal out of a range of a char array gives the same scribble 
+   * as parsing the same value given as a String.
+   */
+  public void testDecimalChars() throws Exception {
+    Assert.assertTrue(DecimalValueScriber.instance.processesChars());
+    doTest(DecimalValueScriber.instance, EXISchemaConst.DECIMAL_TYPE, DECIMAL_VALUES);
+  }
+
+  /**
+   * Parsing an integer out of a range of a char array gives the same scribble 
+   * as parsing the same value given as a String, for each integer representation.
+   */
+  public void testIntegerChars() throws Exception {
+    Assert.assertTrue(IntegerValueScriber.instance.processesChars());
+    doTest(IntegerValueScriber.instance, EXISchemaConst.INTEGER_TYPE, INTEGER_VALUES);
+    doTest(IntegerValueScriber.instance, EXISchemaConst.NON_NEGATIVE_INTEGER_TYPE, INTEGER_VALUES);
+    doTest(IntegerValueScriber.instance, EXISchemaConst.UNSIGNED_BYTE_TYPE, INTEGER_VALUES);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private static void doTest(ValueScriber valueScriber, byte serial, String[] values) {
+    final EXISchema schema = EmptySchema.getEXISchema();
+    final int tp = schema.getBuiltinTypeOfSchema(serial);
+    final Scriber scriber = new BitPackedScriber(false);
+    for (int i = 0; i < values.length; i++) {
+      final String value = values[i];
+      final Scribble stringScribble = new Scribble();
+      final boolean stringResult = valueScriber.process(value, tp, schema, stringScribble, scriber);
+      // Surround the value with digits so that a parse running off the range shows.
+      final char[] ch = ("98" + value + "76").toCharArray();
+      final Scribble charsScribble = new Scribble();
+      final boolean charsResult = valueScriber.process(ch, 2, value.length(), tp, schema, charsScribble, scriber);
+      Assert.assertEquals(value, stringResult, charsResult);
+      if (stringResult) {
+        Assert.assertEquals(value, stringScribble.intValue1, charsScribble.intValue1);
+        Assert.assertEquals(value, stringScribble.intValue2, charsScribble.intValue2);
+        Assert.assertEquals(value, stringScribble.longValue, charsScribble.longValue);
+        Assert.assertEquals(value, stringScribble.booleanValue1, charsScribble.booleanValue1);
+        Assert.assertEquals(value, stringScribble.booleanValue2, charsScribble.booleanValue2);
+        Assert.assertEquals(value, stringScribble.stringValue1, charsScribble.stringValue1);
+        Assert.assertEquals(value, stringScribble.stringValue2, charsScribble.stringValue2);
+      }
+    }
+  }
+
+}
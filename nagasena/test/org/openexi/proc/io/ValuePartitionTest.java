@@ -489,4 +489,46 @@ public class ValuePartitionTest extends TestCase {
     Assert.assertNull(globalPartition.getEntry(characterSequence_a));
   }
 
+  /**
+   * Values keep being found after the partition has grown, wrapped and 
+   * been reset, including values of which hash codes collide.
+   */
+  public void testValuePartitionCapacity_03() throws Exception {
+    
+    StringTable stringTable;
+    StringTable.GlobalValuePartition globalPartition;
+    
+    stringTable = Scriber.createStringTable(new GrammarCache((EXISchema)null)); 
+    stringTable.setValuePartitionCapacity(1000);
+    
+    globalPartition = stringTable.globalValuePartition;
+
+    final int fooId = stringTable.addURI("urn:foo", (StringTable.LocalNamePartition)null, (StringTable.PrefixPartition)null);
+    final int foo_A = stringTable.getLocalNamePartition(fooId).addName("A", (IGrammar)null);
+    
+    // "Aa" and "BB" have the same hash code.
+    Assert.assertEquals(createCharacters("Aa").hashCode(), createCharacters("BB").hashCode());
+
+    for (int n = 0; n < 2; n++) {
+      for (int i = 0; i < 5000; i++) {
+        final String value = (i % 2 == 0 ? "Aa" : "BB") + (i / 2);
+        Assert.assertNull(globalPartition.getEntry(createCharacters(value)));
+        globalPartition.addValue(createCharacters(value), foo_A, fooId);
+        final StringTable.GlobalEntry entry = globalPartition.getEntry(createCharacters(value));
+        Assert.assertEquals(i % 1000, entry.number);
+        Assert.assertEquals(value, entry.value.makeString());
+      }
+      for (int i = 0; i < 5000; i++) {
+        final String value = (i % 2 == 0 ? "Aa" : "BB") + (i / 2);
+        final StringTable.GlobalEntry entry = globalPartition.getEntry(createCharacters(value));
+        if (i < 4000)
+          Assert.assertNull(entry);
+        else
+          Assert.assertEquals(i % 1000, entry.number);
+      }
+      globalPartition.reset();
+      Assert.assertNull(globalPartition.getEntry(createCharacters("BB2499")));
+    }
+  }
+
 }
@@ -0,0 +1,125 @@
+package org.openexi.proc.io.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+public class EXIInflaterInputStreamPipelinedTest extends TestCase {
+
+  public EXIInflaterInputStreamPipelinedTest(String name) {
+    super(name);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Closing the stream before its end drops the segments inflated ahead. 
+   * A task that was scheduled before then does not inflate any more.
+   */
+  public void testCloseEarly() throws Exception {
+    final byte[] bts = deflate(5, 1000);
+
+    CountingInputStream inputStream = new CountingInputStream(bts);
+    ManualExecutor executor = new ManualExecutor();
+    EXIInflaterInputStreamPipelined stream = new EXIInflaterInputStreamPipelined(inputStream, 64, executor, 2, null);
+    executor.runAll();
+    Assert.assertEquals(0, stream.read());
+    // Taking the first segment scheduled the task again.
+    Assert.assertEquals(1, executor.tasks.size());
+    final int n_bytesRead = inputStream.n_bytesRead;
+    stream.close();
+    Assert.assertTrue(inputStream.closed);
+    executor.runAll();
+    Assert.assertEquals(n_bytesRead, inputStream.n_bytesRead);
+    try {
+      stream.read();
+      Assert.fail();
+    }
+    catch (IOException ioe) {
+    }
+
+    // Closed while no task is running.
+    inputStream = new CountingInputStream(bts);
+    executor = new ManualExecutor();
+    stream = new EXIInflaterInputStreamPipelined(inputStream, 64, executor, 2, null);
+    executor.runAll();
+    stream.close();
+    Assert.assertEquals(0, executor.tasks.size());
+    try {
+      stream.resetInflator();
+      Assert.fail();
+    }
+    catch (IOException ioe) {
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Returns n_streams compressed streams one after another, of which the 
+   * i-th inflates into n_bytes bytes of value i.
+   */
+  private static byte[] deflate(int n_streams, int n_bytes) {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final byte[] buf = new byte[1024];
+    for (int i = 0; i < n_streams; i++) {
+      final byte[] bytes = new byte[n_bytes];
+      Arrays.fill(bytes, (byte)i);
+      final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+      deflater.setInput(bytes);
+      deflater.finish();
+      while (!deflater.finished()) {
+        baos.write(buf, 0, deflater.deflate(buf));
+      }
+      deflater.end();
+    }
+    return baos.toByteArray();
+  }
+
+  private static final class CountingInputStream extends ByteArrayInputStream {
+    int n_bytesRead;
+    boolean closed;
+    CountingInputStream(byte[] bts) {
+      super(bts);
+      n_bytesRead = 0;
+      closed = false;
+    }
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+      final int n = super.read(b, off, len);
+      if (n > 0)
+        n_bytesRead += n;
+      return n;
+    }
+    @Override
+    public void close() throws IOException {
+      closed = true;
+    }
+  }
+
+  /**
+   * Runs tasks on the calling thread when asked to.
+   */
+  private static final class ManualExecutor implements Executor {
+    final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+    public void execute(Runnable task) {
+      tasks.add(task);
+    }
+    void runAll() {
+      while (tasks.size() != 0)
+        tasks.remove(0).run();
+    }
+  }
+
+}
@@ -4,6 +4,14 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.StringReader;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.Deflater;
 
 import org.xml.sax.InputSource;
@@ -22,6 +30,7 @@ import org.openexi.proc.io.Scanner;
 import org.openexi.proc.io.compression.ChannellingScanner;
 import org.openexi.proc.io.compression.EXIEventValueReference;
 import org.openexi.proc.util.ExiUriConst;
+import org.openexi.schema.Characters;
 import org.openexi.schema.EXISchema;
 import org.openexi.schema.TestBase;
 import org.openexi.scomp.EXISchemaFactoryErrorMonitor;
@@ -1247,4 +1256,152 @@ public class CompressionTest extends TestBase {
     Assert.assertEquals(6, n_events);
   }
   
+  /**
+   * Blocks compressed in parallel with an executor result in the same
+   * bytes as those compressed on the calling thread.
+   */
+  public void testParallelDeflate_01() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/JTLM/schemas/TLMComposite.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+
+    int[] blockSizes = {
+        1, 100, 101, 1000000
+     };
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int i = 0; i < blockSizes.length; i++) {
+        byte[] expected = encodeJTLM(grammarCache, blockSizes[i], Deflater.DEFAULT_COMPRESSION, null);
+        byte[] bts = encodeJTLM(grammarCache, blockSizes[i], Deflater.DEFAULT_COMPRESSION, executor);
+        Assert.assertTrue(Arrays.equals(expected, bts));
+        ArrayList<String> expectedEvents = decodeJTLM(grammarCache, blockSizes[i], expected, null);
+        Assert.assertEquals(10610, expectedEvents.size());
+        // Other compression levels result in different bytes but the same events.
+        bts = encodeJTLM(grammarCache, blockSizes[i], Deflater.BEST_SPEED, executor);
+        Assert.assertEquals(expectedEvents, decodeJTLM(grammarCache, blockSizes[i], bts, null));
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Blocks decoded with an executor that inflates the compressed streams
+   * ahead result in the same events as those decoded on the calling thread.
+   */
+  public void testParallelInflate_01() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/JTLM/schemas/TLMComposite.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+
+    int[] blockSizes = {
+        1, 100, 101, 1000000
+     };
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      for (int i = 0; i < blockSizes.length; i++) {
+        byte[] bts = encodeJTLM(grammarCache, blockSizes[i], Deflater.DEFAULT_COMPRESSION, null);
+        ArrayList<String> expectedEvents = decodeJTLM(grammarCache, blockSizes[i], bts, null);
+        Assert.assertEquals(10610, expectedEvents.size());
+        Assert.assertEquals(expectedEvents, decodeJTLM(grammarCache, blockSizes[i], bts, executor));
+        
+        // A truncated stream results in an error, not in a hang.
+        byte[] truncated = new byte[bts.length / 2];
+        System.arraycopy(bts, 0, truncated, 0, truncated.length);
+        try {
+          decodeJTLM(grammarCache, blockSizes[i], truncated, executor);
+        }
+        catch (Exception e) {
+          continue;
+        }
+        Assert.fail();
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Many streams decoded concurrently with threaded inflaters result in
+   * the same events as a stream decoded without one.
+   */
+  public void testThreadedInflater_01() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/JTLM/schemas/TLMComposite.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    final GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.DEFAULT_OPTIONS);
+
+    final byte[] bts = encodeJTLM(grammarCache, 101, Deflater.DEFAULT_COMPRESSION, null);
+    final ArrayList<String> expectedEvents = decodeJTLM(grammarCache, 101, bts, null);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      ArrayList<Future<ArrayList<String>>> futures = new ArrayList<Future<ArrayList<String>>>();
+      for (int i = 0; i < 32; i++) {
+        futures.add(executor.submit(new Callable<ArrayList<String>>() {
+          public ArrayList<String> call() throws Exception {
+            return decodeJTLM(new EXIDecoder(31, true), grammarCache, 101, bts);
+          }
+        }));
+      }
+      for (Future<ArrayList<String>> future : futures)
+        Assert.assertEquals(expectedEvents, future.get(60, TimeUnit.SECONDS));
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  private byte[] encodeJTLM(GrammarCache grammarCache, int blockSize, int level, Executor executor) throws Exception {
+    Transmogrifier encoder = new Transmogrifier();
+    encoder.setAlignmentType(AlignmentType.compress);
+    encoder.setGrammarCache(grammarCache);
+    encoder.setBlockSize(blockSize);
+    encoder.setDeflateLevel(level);
+    encoder.setDeflateExecutor(executor);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    encoder.setOutputStream(baos);
+    URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+    InputSource inputSource = new InputSource(url.toString());
+    inputSource.setByteStream(url.openStream());
+    encoder.encode(inputSource);
+    return baos.toByteArray();
+  }
+
+  private ArrayList<String> decodeJTLM(GrammarCache grammarCache, int blockSize, byte[] bts, Executor executor) throws Exception {
+    EXIDecoder decoder = new EXIDecoder();
+    decoder.setInflateExecutor(executor);
+    return decodeJTLM(decoder, grammarCache, blockSize, bts);
+  }
+
+  private static ArrayList<String> decodeJTLM(EXIDecoder decoder, GrammarCache grammarCache, int blockSize, byte[] bts) throws Exception {
+    decoder.setAlignmentType(AlignmentType.compress);
+    decoder.setBlockSize(blockSize);
+    decoder.setGrammarCache(grammarCache);
+    decoder.setInputStream(new ByteArrayInputStream(bts));
+    Scanner scanner = decoder.processHeader();
+    ArrayList<String> events = new ArrayList<String>();
+    EventDescription exiEvent;
+    while ((exiEvent = scanner.nextEvent()) != null) {
+      if (exiEvent.getEventKind() == EventDescription.EVENT_CH && exiEvent.getCharacters().length == 0)
+        continue;
+      final Characters characters = exiEvent.getCharacters();
+      events.add(exiEvent.getEventKind() + " " + exiEvent.getName() + 
+          (characters != null ? " " + characters.makeString() : ""));
+    }
+    return events;
+  }
+
 }
@@ -151,7 +151,14 @@ public class DateTimeValueEncodingTest extends TestCase {
        "2009-04-01T12:34:56.0001234",
        "2013-06-03T24:00:00-06:00",
        "1999-12-31T24:00:00Z",
+       "2009-04-01T12:34:56.123456789",
+       "2009-04-01T12:34:56.123456789012345678",
+       "2009-04-01T12:34:56.1234567899",
+       "2009-04-01T12:34:56.1234567890123456789",
+       "2009-04-01T12:34:56.98765432109876543210987",
+       "2009-04-01T12:34:56.0000000000000000000",
        "----------",
+       "2009-04-01T123:34:56", // hour has three digits
        "1997-07-16Z", // not a valid xsd:dateTime value
        "xyz", // an absurd value
     };
@@ -167,7 +174,14 @@ public class DateTimeValueEncodingTest extends TestCase {
         "2009-04-01T12:34:56.0001234",
         "2013-06-03T24:00:00-06:00",
         "1999-12-31T24:00:00Z",
+        "2009-04-01T12:34:56.123456789",
+        "2009-04-01T12:34:56.123456789012345678",
+        "2009-04-01T12:34:56.1234567899",
+        "2009-04-01T12:34:56.1234567890123456789",
+        "2009-04-01T12:34:56.98765432109876543210987",
+        "2009-04-01T12:34:56.0000000000000000000",
         "----------",
+        "2009-04-01T123:34:56",
         "1997-07-16Z",
         "xyz",
     };
@@ -183,7 +197,14 @@ public class DateTimeValueEncodingTest extends TestCase {
         "2009-04-01T12:34:56.0001234",
         "2013-06-04T00:00:00-06:00",
         "2000-01-01T00:00:00Z",
+        "2009-04-01T12:34:56.123456789",
+        "2009-04-01T12:34:56.123456789012345678",
+        "2009-04-01T12:34:56.1234567899",
+        "2009-04-01T12:34:56.1234567890123456789",
+        "2009-04-01T12:34:56.98765432109876543210987",
+        "2009-04-01T12:34:56",
         "----------",
+        "2009-04-01T123:34:56",
         "1997-07-16Z",
         "xyz",
     };
@@ -199,7 +220,14 @@ public class DateTimeValueEncodingTest extends TestCase {
       "2009-04-01T12:34:56.0001234",
       "2013-06-04T06:00:00Z",
       "2000-01-01T00:00:00Z",
+      "2009-04-01T12:34:56.123456789",
+      "2009-04-01T12:34:56.123456789012345678",
+      "2009-04-01T12:34:56.1234567899",
+      "2009-04-01T12:34:56.1234567890123456789",
+      "2009-04-01T12:34:56.98765432109876543210987",
+      "2009-04-01T12:34:56",
       "----------",
+      "2009-04-01T123:34:56",
       "1997-07-16Z",
       "xyz",
     };
@@ -480,6 +508,7 @@ public class DateTimeValueEncodingTest extends TestCase {
     final String[] originalValues = {
         " \t\r 13:20:00+09:00\n", 
         "13:20:30.455-09:45", 
+        "13:20:30.1234567890123456789Z",
         "13:20:00", 
         "13:20:00Z",
         "24:00:00",
@@ -491,6 +520,7 @@ public class DateTimeValueEncodingTest extends TestCase {
     final String[] parsedOriginalValues = {
         " \t\n 13:20:00+09:00\n", 
         "13:20:30.455-09:45", 
+        "13:20:30.1234567890123456789Z",
         "13:20:00", 
         "13:20:00Z",
         "24:00:00",
@@ -502,6 +532,7 @@ public class DateTimeValueEncodingTest extends TestCase {
     final String[] resultValues = {
         "13:20:00+09:00", 
         "13:20:30.455-09:45", 
+        "13:20:30.1234567890123456789Z",
         "13:20:00", 
         "13:20:00Z",
         "24:00:00",
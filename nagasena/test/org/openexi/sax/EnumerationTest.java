@@ -3,6 +3,7 @@ package org.openexi.sax;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.StringReader;
+import java.util.Map;
 
 import junit.framework.Assert;
 
@@ -3147,4 +3148,39 @@ public class EnumerationTest extends TestBase {
     }
   }
 
+  /**
+   * The enumeration index of a type is built once and shared by the
+   * encoders that use the same GrammarCache.
+   */
+  public void testEnumerationIndexCached() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/enumeration.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.STRICT_OPTIONS);
+    
+    final int tp = corpus.getTypeOfSchema("urn:foo", "integerDerived");
+    Assert.assertTrue(tp != EXISchema.NIL_NODE);
+    Assert.assertNull(grammarCache.getEnumerationIndex(tp));
+
+    final String xmlString = "<foo:IntegerDerived xmlns:foo='urn:foo'>987654321098765432</foo:IntegerDerived>\n";
+
+    Map<Object,Integer> enumerationIndex = null;
+    for (AlignmentType alignment : Alignments) {
+      Transmogrifier encoder = new Transmogrifier();
+      encoder.setAlignmentType(alignment);
+      encoder.setGrammarCache(grammarCache);
+      encoder.setOutputStream(new ByteArrayOutputStream());
+      encoder.encode(new InputSource(new StringReader(xmlString)));
+      if (enumerationIndex == null) {
+        enumerationIndex = grammarCache.getEnumerationIndex(tp);
+        Assert.assertNotNull(enumerationIndex);
+        Assert.assertEquals(6, enumerationIndex.size());
+      }
+      else
+        Assert.assertSame(enumerationIndex, grammarCache.getEnumerationIndex(tp));
+    }
+  }
+
 }
@@ -0,0 +1,313 @@
+package org.openexi.sax;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.Assert;
+
+import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.common.AlignmentType;
+import org.openexi.proc.common.EventType;
+import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.common.MetricsListener;
+import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.Scanner;
+import org.openexi.schema.EXISchema;
+import org.openexi.schema.TestBase;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class MetricsListenerTest extends TestBase {
+
+  public MetricsListenerTest(String name) {
+    super(name);
+  }
+
+  private static final AlignmentType[] Alignments = new AlignmentType[] {
+    AlignmentType.bitPacked,
+    AlignmentType.byteAligned,
+    AlignmentType.preCompress,
+    AlignmentType.compress
+  };
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Test cases
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Encoder and decoder notify the same events, learned productions and
+   * uses of the String Table.
+   */
+  public void testEncodeDecode_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null, GrammarOptions.DEFAULT_OPTIONS);
+
+    for (AlignmentType alignment : Alignments) {
+      final CountingListener encoderMetrics = new CountingListener();
+      final byte[] bts = encode(grammarCache, alignment, 100, 8, null, encoderMetrics);
+
+      final CountingListener decoderMetrics = new CountingListener();
+      decode(grammarCache, alignment, 100, 8, bts, null, decoderMetrics);
+
+      Assert.assertTrue(encoderMetrics.n_events > 0);
+      Assert.assertEquals(encoderMetrics.n_events, decoderMetrics.n_events);
+      Assert.assertEquals(encoderMetrics.n_endElements, decoderMetrics.n_endElements);
+      Assert.assertTrue(encoderMetrics.n_productionsLearned > 0);
+      Assert.assertEquals(encoderMetrics.n_productionsLearned, decoderMetrics.n_productionsLearned);
+      Assert.assertTrue(encoderMetrics.n_localValueHits + encoderMetrics.n_globalValueHits > 0);
+      Assert.assertEquals(encoderMetrics.n_localValueHits, decoderMetrics.n_localValueHits);
+      Assert.assertEquals(encoderMetrics.n_globalValueHits, decoderMetrics.n_globalValueHits);
+      Assert.assertTrue(encoderMetrics.n_valueMisses > 0);
+      Assert.assertEquals(encoderMetrics.n_valueMisses, decoderMetrics.n_valueMisses);
+      Assert.assertEquals(encoderMetrics.n_missedChars, decoderMetrics.n_missedChars);
+      Assert.assertTrue(encoderMetrics.n_valuesEvicted > 0);
+      Assert.assertEquals(encoderMetrics.n_valuesEvicted, decoderMetrics.n_valuesEvicted);
+
+      if (alignment == AlignmentType.preCompress || alignment == AlignmentType.compress) {
+        Assert.assertTrue(encoderMetrics.n_blocks > 1);
+        Assert.assertEquals(encoderMetrics.n_values, decoderMetrics.n_values);
+        Assert.assertEquals(encoderMetrics.n_values,
+            encoderMetrics.n_localValueHits + encoderMetrics.n_globalValueHits + encoderMetrics.n_valueMisses);
+      }
+      else {
+        Assert.assertEquals(0, encoderMetrics.n_blocks);
+        Assert.assertEquals(0, decoderMetrics.n_blocks);
+      }
+      if (alignment == AlignmentType.compress) {
+        Assert.assertTrue(encoderMetrics.n_deflated > 0);
+        Assert.assertTrue(encoderMetrics.n_bytesIn > 0);
+        Assert.assertEquals(encoderMetrics.n_blocks, encoderMetrics.n_blocksDeflated);
+        Assert.assertEquals(encoderMetrics.n_bytesIn, encoderMetrics.n_blockBytesIn);
+        Assert.assertEquals(decoderMetrics.n_blocks, decoderMetrics.n_blocksInflated);
+        Assert.assertEquals(encoderMetrics.n_blockBytesIn, decoderMetrics.n_blockBytesOut);
+        Assert.assertEquals(encoderMetrics.n_blockBytesOut, decoderMetrics.n_blockBytesIn);
+      }
+      else {
+        Assert.assertEquals(0, encoderMetrics.n_deflated);
+        Assert.assertEquals(0, encoderMetrics.n_blocksDeflated);
+        Assert.assertEquals(0, decoderMetrics.n_blocksInflated);
+      }
+      Assert.assertEquals(0, decoderMetrics.n_deflated);
+      Assert.assertEquals(0, decoderMetrics.n_blocksDeflated);
+      Assert.assertEquals(0, encoderMetrics.n_blocksInflated);
+    }
+  }
+
+  /**
+   * Blocks deflated by an executor are notified with the same number of
+   * bytes to be compressed as those deflated on the calling thread.
+   */
+  public void testDeflateExecutor_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null, GrammarOptions.DEFAULT_OPTIONS);
+
+    final CountingListener serialMetrics = new CountingListener();
+    encode(grammarCache, AlignmentType.compress, 100, Integer.MAX_VALUE, null, serialMetrics);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final CountingListener parallelMetrics = new CountingListener();
+      encode(grammarCache, AlignmentType.compress, 100, Integer.MAX_VALUE, executor, parallelMetrics);
+      Assert.assertEquals(serialMetrics.n_events, parallelMetrics.n_events);
+      Assert.assertEquals(serialMetrics.n_blocks, parallelMetrics.n_blocks);
+      Assert.assertTrue(parallelMetrics.n_deflated > 0);
+      Assert.assertEquals(serialMetrics.n_bytesIn, parallelMetrics.n_bytesIn);
+      Assert.assertEquals(serialMetrics.n_blocks, parallelMetrics.n_blocksDeflated);
+      Assert.assertEquals(serialMetrics.n_blockBytesIn, parallelMetrics.n_blockBytesIn);
+      Assert.assertEquals(0, parallelMetrics.n_valuesEvicted);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Blocks inflated ahead of time by an executor are notified with the 
+   * same number of bytes as those inflated on the calling thread.
+   */
+  public void testInflateExecutor_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null, GrammarOptions.DEFAULT_OPTIONS);
+
+    final byte[] bts = encode(grammarCache, AlignmentType.compress, 100, Integer.MAX_VALUE, null, null);
+
+    final CountingListener serialMetrics = new CountingListener();
+    decode(grammarCache, AlignmentType.compress, 100, Integer.MAX_VALUE, bts, null, serialMetrics);
+    Assert.assertTrue(serialMetrics.n_blocks > 1);
+    Assert.assertEquals(serialMetrics.n_blocks, serialMetrics.n_blocksInflated);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final CountingListener parallelMetrics = new CountingListener();
+      decode(grammarCache, AlignmentType.compress, 100, Integer.MAX_VALUE, bts, executor, parallelMetrics);
+      Assert.assertEquals(serialMetrics.n_events, parallelMetrics.n_events);
+      Assert.assertEquals(serialMetrics.n_blocks, parallelMetrics.n_blocksInflated);
+      Assert.assertEquals(serialMetrics.n_blockBytesIn, parallelMetrics.n_blockBytesIn);
+      Assert.assertEquals(serialMetrics.n_blockBytesOut, parallelMetrics.n_blockBytesOut);
+      Assert.assertEquals(0, parallelMetrics.n_inflated);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Header processing, inflation and whole documents are notified with
+   * their durations.
+   */
+  public void testPhases_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache((EXISchema)null, GrammarOptions.DEFAULT_OPTIONS);
+
+    final CountingListener encoderMetrics = new CountingListener();
+    final byte[] bts = encode(grammarCache, AlignmentType.compress, 100, Integer.MAX_VALUE, null, encoderMetrics);
+    Assert.assertEquals(1, encoderMetrics.n_documentsEncoded);
+    Assert.assertTrue(encoderMetrics.nanos > 0);
+
+    final CountingListener decoderMetrics = new CountingListener();
+    final EXIReader reader = new EXIReader();
+    reader.setAlignmentType(AlignmentType.compress);
+    reader.setBlockSize(100);
+    reader.setGrammarCache(grammarCache);
+    reader.setContentHandler(new DefaultHandler());
+    reader.setMetricsListener(decoderMetrics);
+    reader.parse(new InputSource(new ByteArrayInputStream(bts)));
+
+    Assert.assertEquals(1, decoderMetrics.n_headersProcessed);
+    Assert.assertEquals(1, decoderMetrics.n_documentsDecoded);
+    Assert.assertEquals(encoderMetrics.n_events, decoderMetrics.n_events);
+    Assert.assertEquals(encoderMetrics.n_deflated, decoderMetrics.n_inflated);
+    Assert.assertEquals(encoderMetrics.n_bytesIn, decoderMetrics.n_bytesOut);
+    Assert.assertTrue(decoderMetrics.nanos > 0);
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  private byte[] encode(GrammarCache grammarCache, AlignmentType alignment, int blockSize,
+      int valuePartitionCapacity, ExecutorService executor, MetricsListener metrics) throws Exception {
+    final Transmogrifier encoder = new Transmogrifier();
+    encoder.setAlignmentType(alignment);
+    encoder.setBlockSize(blockSize);
+    encoder.setValuePartitionCapacity(valuePartitionCapacity);
+    encoder.setGrammarCache(grammarCache);
+    encoder.setDeflateExecutor(executor);
+    encoder.setMetricsListener(metrics);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    encoder.setOutputStream(baos);
+
+    final URL url = resolveSystemIdAsURL("/JTLM/publish100.xml");
+    final InputSource inputSource = new InputSource(url.toString());
+    inputSource.setByteStream(url.openStream());
+    encoder.encode(inputSource);
+    return baos.toByteArray();
+  }
+
+  private static void decode(GrammarCache grammarCache, AlignmentType alignment, int blockSize,
+      int valuePartitionCapacity, byte[] bts, ExecutorService executor, MetricsListener metrics) throws Exception {
+    final EXIDecoder decoder = new EXIDecoder();
+    decoder.setAlignmentType(alignment);
+    decoder.setBlockSize(blockSize);
+    decoder.setValuePartitionCapacity(valuePartitionCapacity);
+    decoder.setGrammarCache(grammarCache);
+    decoder.setInflateExecutor(executor);
+    decoder.setMetricsListener(metrics);
+    decoder.setInputStream(new ByteArrayInputStream(bts));
+    final Scanner scanner = decoder.processHeader();
+    while (scanner.nextEvent() != null);
+  }
+
+  private static final class CountingListener extends MetricsListener {
+    int n_events;
+    int n_endElements;
+    int n_productionsLearned;
+    int n_localValueHits;
+    int n_globalValueHits;
+    int n_valueMisses;
+    int n_missedChars;
+    int n_valuesEvicted;
+    int n_blocks;
+    int n_values;
+    int n_deflated;
+    long n_bytesIn;
+    int n_inflated;
+    long n_bytesOut;
+    int n_blocksDeflated;
+    int n_blocksInflated;
+    long n_blockBytesIn;
+    long n_blockBytesOut;
+    int n_headersProcessed;
+    int n_documentsEncoded;
+    int n_documentsDecoded;
+    long nanos;
+    @Override
+    public void event(byte grammarType, EventType eventType) {
+      ++n_events;
+      if (eventType.itemType == EventType.ITEM_EE)
+        ++n_endElements;
+    }
+    @Override
+    public void productionLearned(byte grammarType, EventType eventType) {
+      ++n_productionsLearned;
+    }
+    @Override
+    public void localValueHit(int uriId, int localNameId) {
+      ++n_localValueHits;
+    }
+    @Override
+    public void globalValueHit(int uriId, int localNameId) {
+      ++n_globalValueHits;
+    }
+    @Override
+    public void valueMiss(int uriId, int localNameId, int length) {
+      ++n_valueMisses;
+      n_missedChars += length;
+    }
+    @Override
+    public void valueEvicted() {
+      ++n_valuesEvicted;
+    }
+    @Override
+    public void block(int n_values, int n_smallChannels, int n_largeChannels) {
+      ++n_blocks;
+      this.n_values += n_values;
+    }
+    @Override
+    public void deflated(long n_bytesIn, long n_bytesOut, long nanos) {
+      ++n_deflated;
+      this.n_bytesIn += n_bytesIn;
+    }
+    @Override
+    public void inflated(long n_bytesIn, long n_bytesOut, long nanos) {
+      ++n_inflated;
+      this.n_bytesOut += n_bytesOut;
+    }
+    @Override
+    public void blockDeflated(long n_bytesIn, long n_bytesOut, long nanos) {
+      ++n_blocksDeflated;
+      n_blockBytesIn += n_bytesIn;
+      n_blockBytesOut += n_bytesOut;
+    }
+    @Override
+    public void blockInflated(long n_bytesIn, long n_bytesOut, long nanos) {
+      ++n_blocksInflated;
+      n_blockBytesIn += n_bytesIn;
+      n_blockBytesOut += n_bytesOut;
+    }
+    @Override
+    public void headerProcessed(long nanos) {
+      ++n_headersProcessed;
+    }
+    @Override
+    public void documentEncoded(long nanos) {
+      ++n_documentsEncoded;
+      this.nanos += nanos;
+    }
+    @Override
+    public void documentDecoded(long nanos) {
+      ++n_documentsDecoded;
+      this.nanos += nanos;
+    }
+  }
+
+}
@@ -3,7 +3,12 @@ package org.openexi.sax;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -24,6 +29,7 @@ import org.openexi.proc.common.EventCode;
 import org.openexi.proc.common.EventType;
 import org.openexi.proc.common.EventTypeList;
 import org.openexi.proc.common.GrammarOptions;
+import org.openexi.proc.common.XmlUriConst;
 import org.openexi.proc.events.EXIEventNS;
 import org.openexi.proc.grammars.GrammarCache;
 import org.openexi.proc.io.BinaryDataSink;
@@ -31,7 +37,10 @@ import org.openexi.proc.io.Scanner;
 import org.openexi.proc.io.ScriberRuntimeException;
 import org.openexi.schema.Base64;
 import org.openexi.schema.EXISchema;
+import org.openexi.schema.EXISchemaConst;
+import org.openexi.schema.EmptySchema;
 import org.openexi.schema.TestBase;
+import org.openexi.schema.XSDateTime;
 import org.openexi.scomp.EXISchemaFactoryErrorMonitor;
 import org.openexi.scomp.EXISchemaFactoryTestUtil;
 import org.openexi.scomp.EXISchemaFactoryTestUtilContext;
@@ -973,6 +982,108 @@ public class SAXTransmogrifierTest extends TestBase {
     }
   }
 
+  /**
+   * Large binary values are decoded in bounded chunks that are streamed
+   * into a channel. Chunks that are left unread are skipped.
+   */
+  public void testBinaryDataStreaming() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/base64Binary.xsd", getClass(), m_compilerErrors);
+    
+    Assert.assertEquals(0, m_compilerErrors.getTotalCount());
+
+    GrammarCache grammarCache = new GrammarCache(corpus, GrammarOptions.STRICT_OPTIONS);
+
+    final int n_octets = 1024 * 1024;
+    final byte[] octets = new byte[n_octets];
+    for (int i = 0; i < n_octets; i++) {
+      octets[i] = (byte)(i % 251);
+    }
+
+    final int chunkSize = 4096;
+
+    Transmogrifier encoder = new Transmogrifier();
+    encoder.setGrammarCache(grammarCache);
+
+    for (AlignmentType alignment : new AlignmentType[] { AlignmentType.bitPacked, AlignmentType.byteAligned }) {
+      encoder.setAlignmentType(alignment);
+
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      encoder.setOutputStream(baos);
+
+      SAXTransmogrifier saxTransmogrifier = encoder.getSAXTransmogrifier();
+      BinaryDataSink binaryDataSink;
+
+      saxTransmogrifier.setDocumentLocator(new LocatorImpl());
+      saxTransmogrifier.startDocument();
+      saxTransmogrifier.startPrefixMapping("foo", "urn:foo");
+      saxTransmogrifier.startElement("urn:foo", "A", "foo:A", new AttributesImpl());
+      for (int i = 0; i < 2; i++) {
+        saxTransmogrifier.startElement("urn:foo", "Base64Binary", "foo:Base64Binary", new AttributesImpl());
+        binaryDataSink = saxTransmogrifier.startBinaryData(n_octets);
+        saxTransmogrifier.binaryData(octets, 0, n_octets, binaryDataSink);
+        saxTransmogrifier.endBinaryData(binaryDataSink);
+        saxTransmogrifier.endElement("urn:foo", "Base64Binary", "foo:Base64Binary");
+      }
+      saxTransmogrifier.endElement("urn:foo", "A", "foo:A");
+      saxTransmogrifier.endPrefixMapping("foo");
+      saxTransmogrifier.endDocument();
+
+      EXIDecoder decoder = new EXIDecoder();
+      decoder.setGrammarCache(grammarCache);
+      decoder.setAlignmentType(alignment);
+      decoder.setEnableBinaryData(true);
+      decoder.setInitialBinaryDataBufferSize(64);
+      decoder.setBinaryChunkSize(chunkSize);
+      decoder.setInputStream(new ByteArrayInputStream(baos.toByteArray()));
+
+      final ByteArrayOutputStream octetStream = new ByteArrayOutputStream();
+      final int[] maxChunkLength = new int[1];
+      final WritableByteChannel channel = new WritableByteChannel() {
+        public int write(ByteBuffer src) {
+          final int n = src.remaining();
+          maxChunkLength[0] = Math.max(maxChunkLength[0], n);
+          while (src.hasRemaining())
+            octetStream.write(src.get());
+          return n;
+        }
+        public boolean isOpen() {
+          return true;
+        }
+        public void close() {
+        }
+      };
+
+      Scanner scanner = decoder.processHeader();
+      
+      EventDescription event;
+      int n_events = 0;
+      int n_blobs = 0;
+      while ((event = scanner.nextEvent()) != null) {
+        final byte eventKind = event.getEventKind();
+        if (EventDescription.EVENT_BLOB == eventKind) {
+          final BinaryDataSource binaryData = event.getBinaryDataSource();
+          Assert.assertEquals(chunkSize, binaryData.getLength());
+          Assert.assertEquals(n_octets - chunkSize, binaryData.getRemainingBytesCount());
+          if (n_blobs++ == 0) {
+            // The first value is streamed, the second is left unread.
+            Assert.assertEquals(n_octets, binaryData.writeTo(channel));
+            Assert.assertFalse(binaryData.hasNext());
+            Assert.assertTrue(binaryData.getByteArray().length < 2 * chunkSize);
+          }
+        }
+        else if (EventDescription.EVENT_CH == eventKind) {
+          Assert.fail();
+        }
+        ++n_events;
+      }
+      Assert.assertEquals(2, n_blobs);
+      Assert.assertEquals(10, n_events);
+      Assert.assertEquals(chunkSize, maxChunkLength[0]);
+      Assert.assertTrue(Arrays.equals(octets, octetStream.toByteArray()));
+    }
+  }
+
   /**
    * Call binaryData method successively in a row.
    */
@@ -1830,4 +1941,135 @@ public class SAXTransmogrifierTest extends TestBase {
     Assert.assertNull(scanner.nextEvent());
   }
   
+  /**
+   * Values written through TypedValueHandler result in the same EXI streams
+   * as their lexical representations written through characters().
+   */
+  public void testTypedValues_01() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache(EmptySchema.getEXISchema(), GrammarOptions.DEFAULT_OPTIONS);
+    final Object[][] values = {
+      { "int", "-2147483648", Integer.MIN_VALUE },
+      { "unsignedByte", "255", Long.valueOf(255) },
+      { "long", "-9223372036854775808", Long.MIN_VALUE },
+      { "integer", "1234567890123456789", Long.valueOf(1234567890123456789L) },
+      { "nonNegativeInteger", "9876543210", Long.valueOf(9876543210L) },
+      { "double", "12.5", Double.valueOf(12.5) },
+      { "double", "-0.001", Double.valueOf(-0.001) },
+      { "double", "1.0E-300", Double.valueOf(1.0E-300) },
+      { "float", "-INF", Double.valueOf(Double.NEGATIVE_INFINITY) },
+      { "double", "NaN", Double.valueOf(Double.NaN) },
+      { "decimal", "-1267.00675", new BigDecimal("-1267.00675") },
+      { "decimal", "1.50", new BigDecimal("1.50") },
+      { "decimal", "0", BigDecimal.ZERO },
+      { "decimal", "12345678901234567890.5", new BigDecimal("12345678901234567890.5") },
+      { "dateTime", "2003-04-25T11:41:30.45-05:30", new XSDateTime(2003, 4, 25, 11, 41, 30, 
+          BigInteger.valueOf(54), -330, EXISchemaConst.DATETIME_TYPE) },
+      { "date", "-0601-07-17Z", new XSDateTime(-601, 7, 17, XSDateTime.FIELD_UNDEFINED, 
+          XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, null, 0, EXISchemaConst.DATE_TYPE) },
+      { "time", "13:20:00", new XSDateTime(XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, 
+          XSDateTime.FIELD_UNDEFINED, 13, 20, 0, null, XSDateTime.FIELD_UNDEFINED, EXISchemaConst.TIME_TYPE) },
+      { "gMonthDay", "--09-16", new XSDateTime(XSDateTime.FIELD_UNDEFINED, 9, 16, XSDateTime.FIELD_UNDEFINED, 
+          XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, null, XSDateTime.FIELD_UNDEFINED, 
+          EXISchemaConst.G_MONTHDAY_TYPE) },
+      { "base64Binary", "QUJDREVGR0hJSg==", "ABCDEFGHIJ".getBytes("ISO-8859-1") },
+      { "hexBinary", "0F1E2D", new byte[] { 0x0F, 0x1E, 0x2D } },
+    };
+    for (AlignmentType alignment : Alignments) {
+      final byte[] expected = encodeValues(values, false, grammarCache, alignment);
+      final byte[] actual = encodeValues(values, true, grammarCache, alignment);
+      Assert.assertTrue(Arrays.equals(expected, actual));
+    }
+  }
+
+  /**
+   * Values that cannot be written as typed values are written as characters.
+   */
+  public void testTypedValues_02() throws Exception {
+    final GrammarCache grammarCache = new GrammarCache(EmptySchema.getEXISchema(), GrammarOptions.DEFAULT_OPTIONS);
+    final Object[][] values = {
+      // datatype is not of the kind of the value
+      { "string", "123", Long.valueOf(123) },
+      { "decimal", "1.0E10", Double.valueOf(1.0E10) },
+      { "string", "QUJD", "ABC".getBytes("ISO-8859-1") },
+      { "dateTime", "2003-04-25", new XSDateTime(2003, 4, 25, XSDateTime.FIELD_UNDEFINED, 
+          XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, null, XSDateTime.FIELD_UNDEFINED, 
+          EXISchemaConst.DATE_TYPE) },
+      // value is not valid for the datatype
+      { "unsignedByte", "300", Long.valueOf(300) },
+      { "date", "2003-02-29", new XSDateTime(2003, 2, 29, XSDateTime.FIELD_UNDEFINED, 
+          XSDateTime.FIELD_UNDEFINED, XSDateTime.FIELD_UNDEFINED, null, XSDateTime.FIELD_UNDEFINED, 
+          EXISchemaConst.DATE_TYPE) },
+      // no datatype
+      { null, "5", Integer.valueOf(5) },
+      // preceded by characters
+      { "int", "12", Long.valueOf(2) },
+    };
+    for (AlignmentType alignment : Alignments) {
+      final byte[] expected = encodeValues(values, false, grammarCache, alignment);
+      final byte[] actual = encodeValues(values, true, grammarCache, alignment);
+      Assert.assertTrue(Arrays.equals(expected, actual));
+    }
+  }
+
+  ///////////////////////////////////////////////////////////////////////////
+  // Utilities
+  ///////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Encodes a document that has an element of each value, which is given 
+   * as { xsi:type name, lexical value, typed value }. The lexical value is 
+   * written when typed is false, otherwise the typed value is written, 
+   * following the characters that precede it in the lexical value if any.
+   */
+  private static byte[] encodeValues(Object[][] values, boolean typed, GrammarCache grammarCache, 
+      AlignmentType alignment) throws Exception {
+    final Transmogrifier encoder = new Transmogrifier();
+    encoder.setAlignmentType(alignment);
+    encoder.setGrammarCache(grammarCache);
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    encoder.setOutputStream(baos);
+
+    final SAXTransmogrifier saxTransmogrifier = encoder.getSAXTransmogrifier();
+    saxTransmogrifier.setDocumentLocator(new LocatorImpl());
+    saxTransmogrifier.startDocument();
+    saxTransmogrifier.startPrefixMapping("xsd", XmlUriConst.W3C_2001_XMLSCHEMA_URI);
+    saxTransmogrifier.startPrefixMapping("xsi", XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI);
+    saxTransmogrifier.startElement("", "A", "A", new AttributesImpl());
+    for (int i = 0; i < values.length; i++) {
+      final AttributesImpl attributes = new AttributesImpl();
+      if (values[i][0] != null) {
+        attributes.addAttribute(XmlUriConst.W3C_2001_XMLSCHEMA_INSTANCE_URI, "type", "xsi:type", "CDATA", 
+            "xsd:" + values[i][0]);
+      }
+      saxTransmogrifier.startElement("", "B", "B", attributes);
+      final String lexicalValue = (String)values[i][1];
+      final Object value = values[i][2];
+      if (typed) {
+        final int n_chars = lexicalValue.length() - (value instanceof Long ? value.toString().length() : lexicalValue.length());
+        if (n_chars > 0)
+          saxTransmogrifier.characters(lexicalValue.toCharArray(), 0, n_chars);
+        if (value instanceof Integer)
+          saxTransmogrifier.writeInt(((Integer)value).intValue());
+        else if (value instanceof Long)
+          saxTransmogrifier.writeLong(((Long)value).longValue());
+        else if (value instanceof Double)
+          saxTransmogrifier.writeDouble(((Double)value).doubleValue());
+        else if (value instanceof BigDecimal)
+          saxTransmogrifier.writeDecimal((BigDecimal)value);
+        else if (value instanceof XSDateTime)
+          saxTransmogrifier.writeDateTime((XSDateTime)value);
+        else
+          saxTransmogrifier.writeBinary(ByteBuffer.wrap((byte[])value));
+      }
+      else
+        saxTransmogrifier.characters(lexicalValue.toCharArray(), 0, lexicalValue.length());
+      saxTransmogrifier.endElement("", "B", "B");
+    }
+    saxTransmogrifier.endElement("", "A", "A");
+    saxTransmogrifier.endPrefixMapping("xsi");
+    saxTransmogrifier.endPrefixMapping("xsd");
+    saxTransmogrifier.endDocument();
+    return baos.toByteArray();
+  }
+
 }
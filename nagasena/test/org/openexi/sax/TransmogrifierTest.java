@@ -2,7 +2,13 @@ package org.openexi.sax;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 
 import javax.xml.parsers.SAXParserFactory;
 
@@ -13,6 +19,7 @@ import org.openexi.proc.common.EventDescription;
 import org.openexi.proc.common.EventType;
 import org.openexi.proc.common.GrammarOptions;
 import org.openexi.proc.grammars.GrammarCache;
+import org.openexi.proc.io.ByteBufferOutputStream;
 import org.openexi.proc.io.Scanner;
 import org.openexi.schema.EXISchema;
 import org.openexi.schema.EmptySchema;
@@ -176,5 +183,117 @@ public class TransmogrifierTest extends TestCase {
       Assert.assertTrue(eoe.getMessage().contains("compression"));
     }
   }
+
+  /**
+   * Encode into heap and direct ByteBuffers and to channels, which must
+   * produce the same bytes as encoding to an OutputStream.
+   */
+  public void testByteBufferOutput_01() throws Exception {
+    final StringBuilder xmlString = new StringBuilder("<root>");
+    for (int i = 0; i < 2000; i++)
+      xmlString.append("<item id='").append(i).append("'>value ").append(i * 7).append("</item>");
+    xmlString.append("</root>");
+
+    GrammarCache grammarCache = new GrammarCache(EmptySchema.getEXISchema(), GrammarOptions.DEFAULT_OPTIONS);
+
+    for (AlignmentType alignment : Alignments) {
+      Transmogrifier encoder = new Transmogrifier();
+      encoder.setAlignmentType(alignment);
+      encoder.setGrammarCache(grammarCache);
+
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      encoder.setOutputStream(baos);
+      encoder.encode(new InputSource(new StringReader(xmlString.toString())));
+      final byte[] expected = baos.toByteArray();
+      Assert.assertNull(encoder.getOutputBuffer());
+
+      for (boolean direct : new boolean[] { false, true }) {
+        final ByteBuffer byteBuffer = direct ? ByteBuffer.allocateDirect(16) : ByteBuffer.allocate(16);
+        encoder.setOutput(byteBuffer, true);
+        encoder.encode(new InputSource(new StringReader(xmlString.toString())));
+        final ByteBuffer outputBuffer = encoder.getOutputBuffer();
+        Assert.assertNotSame(byteBuffer, outputBuffer);
+        Assert.assertEquals(direct, outputBuffer.isDirect());
+        outputBuffer.flip();
+        final byte[] bts = new byte[outputBuffer.remaining()];
+        outputBuffer.get(bts);
+        Assert.assertTrue(Arrays.equals(expected, bts));
+      }
+
+      encoder.setOutput(ByteBuffer.allocate(expected.length / 2), false);
+      try {
+        encoder.encode(new InputSource(new StringReader(xmlString.toString())));
+        Assert.fail();
+      }
+      catch (IOException ioe) {
+      }
+
+      baos = new ByteArrayOutputStream();
+      encoder.setOutput(Channels.newChannel(baos));
+      encoder.encode(new InputSource(new StringReader(xmlString.toString())));
+      Assert.assertNull(encoder.getOutputBuffer());
+      Assert.assertTrue(Arrays.equals(expected, baos.toByteArray()));
+
+      baos = new ByteArrayOutputStream();
+      encoder.setOutput(new GatheringChannel(baos));
+      encoder.encode(new InputSource(new StringReader(xmlString.toString())));
+      Assert.assertTrue(Arrays.equals(expected, baos.toByteArray()));
+    }
+  }
+
+  /**
+   * The direct buffer in which bytes are collected for a channel is
+   * allocated once and reused for the channels that follow.
+   */
+  public void testByteBufferOutput_02() throws Exception {
+    final ByteArrayOutputStream baos1 = new ByteArrayOutputStream();
+    final ByteBufferOutputStream outputStream = new ByteBufferOutputStream(Channels.newChannel(baos1));
+    final ByteBuffer channelBuffer = outputStream.getByteBuffer();
+    Assert.assertTrue(channelBuffer.isDirect());
+    outputStream.write(new byte[] { 1, 2, 3 }, 0, 3);
+    outputStream.flush();
+    Assert.assertTrue(Arrays.equals(new byte[] { 1, 2, 3 }, baos1.toByteArray()));
+
+    final ByteBuffer byteBuffer = ByteBuffer.allocate(4);
+    outputStream.setOutput(byteBuffer, false);
+    outputStream.write(4);
+    Assert.assertSame(byteBuffer, outputStream.getByteBuffer());
+    Assert.assertEquals(1, byteBuffer.position());
+
+    final ByteArrayOutputStream baos2 = new ByteArrayOutputStream();
+    outputStream.setOutput(new GatheringChannel(baos2));
+    Assert.assertSame(channelBuffer, outputStream.getByteBuffer());
+    outputStream.write(5);
+    outputStream.write(new byte[8192], 0, 8192);
+    outputStream.flush();
+    Assert.assertEquals(8193, baos2.size());
+    Assert.assertEquals(5, baos2.toByteArray()[0]);
+    Assert.assertEquals(3, baos1.size());
+  }
+
+  private static final class GatheringChannel implements GatheringByteChannel {
+    private final WritableByteChannel m_channel;
+    GatheringChannel(ByteArrayOutputStream baos) {
+      m_channel = Channels.newChannel(baos);
+    }
+    public int write(ByteBuffer src) throws IOException {
+      return m_channel.write(src);
+    }
+    public long write(ByteBuffer[] srcs) throws IOException {
+      return write(srcs, 0, srcs.length);
+    }
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+      long n = 0;
+      for (int i = offset; i < offset + length; i++)
+        n += m_channel.write(srcs[i]);
+      return n;
+    }
+    public boolean isOpen() {
+      return m_channel.isOpen();
+    }
+    public void close() throws IOException {
+      m_channel.close();
+    }
+  }
   
 }
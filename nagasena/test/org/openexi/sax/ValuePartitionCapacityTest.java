@@ -2,18 +2,21 @@ package org.openexi.sax;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
 import java.net.URL;
 import java.util.ArrayList;
 
 import junit.framework.Assert;
 
 import org.openexi.proc.EXIDecoder;
+import org.openexi.proc.EXIPushDecoder;
 import org.openexi.proc.HeaderOptionsOutputType;
 import org.openexi.proc.common.AlignmentType;
 import org.openexi.proc.common.EventDescription;
 import org.openexi.proc.common.GrammarOptions;
 import org.openexi.proc.grammars.GrammarCache;
 import org.openexi.proc.io.Scanner;
+import org.openexi.schema.EXISchema;
 import org.openexi.schema.EmptySchema;
 import org.openexi.schema.TestBase;
 import org.xml.sax.InputSource;
@@ -90,4 +93,68 @@ public class ValuePartitionCapacityTest extends TestBase {
     }
   }
 
+  /**
+   * EXIPushDecoder rolls back the string table and the grammars learned in
+   * built-in element grammars when an event is cut off, including global 
+   * value entries evicted by a bounded value partition.
+   */
+  public void testPushDecoder() throws Exception {
+    final StringBuilder xml = new StringBuilder("<p:root xmlns:p='urn:foo' xmlns:q='urn:goo'>");
+    for (int i = 0; i < 40; i++) {
+      xml.append("<item id='id" + (i % 7) + "' q:ref='r" + (i % 3) + "'>");
+      xml.append("<name>val" + (i % 5) + "</name>");
+      xml.append("<q:value>val" + (i % 11) + "</q:value>");
+      xml.append("<p:e" + (i % 4) + ">v" + i + "</p:e" + (i % 4) + ">");
+      xml.append("</item>");
+    }
+    xml.append("</p:root>");
+
+    GrammarCache grammarCache = new GrammarCache((EXISchema)null, GrammarOptions.addNS(GrammarOptions.DEFAULT_OPTIONS));
+
+    final AlignmentType[] alignments = { AlignmentType.bitPacked, AlignmentType.byteAligned };
+    for (AlignmentType alignment : alignments) {
+      Transmogrifier encoder = new Transmogrifier();
+      encoder.setAlignmentType(alignment);
+      encoder.setValuePartitionCapacity(3);
+      encoder.setOutputOptions(HeaderOptionsOutputType.lessSchemaId);
+      encoder.setGrammarCache(grammarCache);
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      encoder.setOutputStream(baos);
+      encoder.encode(new InputSource(new StringReader(xml.toString())));
+      final byte[] bts = baos.toByteArray();
+
+      EXIDecoder decoder = new EXIDecoder();
+      decoder.setGrammarCache(grammarCache);
+      decoder.setInputStream(new ByteArrayInputStream(bts));
+      final Scanner scanner = decoder.processHeader();
+      final ArrayList<String> expected = new ArrayList<String>();
+      EventDescription exiEvent;
+      while ((exiEvent = scanner.nextEvent()) != null)
+        expected.add(toString(exiEvent));
+
+      final EXIPushDecoder pushDecoder = new EXIPushDecoder(decoder);
+      for (int chunkSize : new int[] { 1, 3, 7, 64, bts.length }) {
+        pushDecoder.reset();
+        final ArrayList<String> events = new ArrayList<String>();
+        int pos = 0;
+        do {
+          final int len = Math.min(chunkSize, bts.length - pos);
+          pushDecoder.feed(bts, pos, len);
+          if ((pos += len) == bts.length)
+            pushDecoder.endOfInput();
+          while ((exiEvent = pushDecoder.nextEvent()) != null)
+            events.add(toString(exiEvent));
+        }
+        while (pos < bts.length);
+        Assert.assertTrue(pushDecoder.isFinished());
+        Assert.assertEquals(expected, events);
+      }
+    }
+  }
+
+  private static String toString(EventDescription exiEvent) {
+    return exiEvent.getEventKind() + " " + exiEvent.getURI() + " " + exiEvent.getName() + " " + 
+        exiEvent.getPrefix() + " " + (exiEvent.getCharacters() != null ? exiEvent.getCharacters().makeString() : "");
+  }
+
 }
@@ -1,10 +1,15 @@
 package org.openexi.scomp;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,10 +25,12 @@ import org.xml.sax.SAXException;
 
 import org.apache.xerces.xni.parser.XMLParseException;
 
+import org.openexi.schema.CommonSchema;
 import org.openexi.schema.EXISchema;
 import org.openexi.schema.EXISchemaConst;
 import org.openexi.schema.EXISchemaLayout;
 import org.openexi.schema.EXISchemaUtil;
+import org.openexi.schema.SchemaLoadListener;
 
 /**
  */
@@ -116,6 +123,59 @@ public class EXISchemaFactoryTest extends TestCase {
     Assert.assertEquals(4, EXISchemaUtil.countAttrsOfSchema(corpus));
   }
 
+  /**
+   * A schema read from a file and from a ByteBuffer is the same as 
+   * the one that was written out. A SchemaLoadListener is notified once 
+   * for each schema loaded.
+   */
+  public void testReadInBuffer() throws Exception {
+    EXISchema corpus = EXISchemaFactoryTestUtil.getEXISchema(
+        "/enumerationOK01.xsd", getClass(), m_compilerErrorHandler);
+    Assert.assertEquals(0, m_compilerErrorHandler.getTotalCount());
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    corpus.writeOut(new DataOutputStream(bytes));
+    final byte[] serialized = bytes.toByteArray();
+
+    final int[] n_loaded = new int[1];
+    final SchemaLoadListener listener = new SchemaLoadListener() {
+      public void schemaLoaded(long nanos) {
+        Assert.assertTrue(nanos >= 0);
+        ++n_loaded[0];
+      }
+    };
+
+    final File file = File.createTempFile("enumerationOK01", ".xsc");
+    try {
+      final FileOutputStream out = new FileOutputStream(file);
+      try {
+        out.write(serialized);
+      }
+      finally {
+        out.close();
+      }
+      bytes.reset();
+      EXISchema.readIn(file).writeOut(new DataOutputStream(bytes));
+      Assert.assertTrue(Arrays.equals(serialized, bytes.toByteArray()));
+
+      bytes.reset();
+      CommonSchema.loadCompiledSchema(file.toURI().toURL(), listener).writeOut(new DataOutputStream(bytes));
+      Assert.assertTrue(Arrays.equals(serialized, bytes.toByteArray()));
+      Assert.assertEquals(1, n_loaded[0]);
+    }
+    finally {
+      file.delete();
+    }
+
+    final ByteBuffer buffer = ByteBuffer.allocate(serialized.length + 1);
+    buffer.put(serialized).put((byte)0).flip();
+    bytes.reset();
+    EXISchema.readIn(buffer, listener).writeOut(new DataOutputStream(bytes));
+    Assert.assertTrue(Arrays.equals(serialized, bytes.toByteArray()));
+    Assert.assertEquals(serialized.length, buffer.position());
+    Assert.assertEquals(2, n_loaded[0]);
+  }
+
   /**
    * Test schema methods
    */